@@ -11,7 +11,9 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
+import org.corfudb.protocols.wireprotocol.CorfuMsgFraming;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
 import org.corfudb.protocols.wireprotocol.JSONPayloadMsg;
 import org.corfudb.protocols.wireprotocol.VersionInfo;
 import org.corfudb.util.Utils;
@@ -40,7 +42,8 @@ public class BaseServer extends AbstractServer {
      * @param ctx   The channel context
      * @param r     The server router.
      */
-    @ServerHandler(type = CorfuMsgType.PING, opTimer = metricsPrefix + "ping")
+    @ServerHandler(type = CorfuMsgType.PING, opTimer = metricsPrefix + "ping",
+            policy = ExecutionPolicy.INLINE)
     private static void ping(CorfuMsg msg, ChannelHandlerContext ctx,
                              IServerRouter r, boolean isMetricsEnabled) {
         r.sendResponse(ctx, msg, CorfuMsgType.PONG.msg());
@@ -59,6 +62,23 @@ public class BaseServer extends AbstractServer {
         r.sendResponse(ctx, msg, new JSONPayloadMsg<>(vi, CorfuMsgType.VERSION_RESPONSE));
     }
 
+    /** Respond to a compression request, by compressing the frames written to the client
+     * which are larger than the requested threshold.
+     *
+     * @param msg   The incoming message
+     * @param ctx   The channel context
+     * @param r     The server router.
+     */
+    @ServerHandler(type = CorfuMsgType.COMPRESSION_REQUEST,
+            opTimer = metricsPrefix + "compression-request", policy = ExecutionPolicy.INLINE)
+    private static void setCompression(CorfuPayloadMsg<Integer> msg, ChannelHandlerContext ctx,
+                                       IServerRouter r, boolean isMetricsEnabled) {
+        if (ctx != null) {
+            CorfuMsgFraming.setCompressionThreshold(ctx.channel(), msg.getPayload());
+        }
+        r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
+    }
+
     /** Reset the JVM. This mechanism leverages that corfu_server runs in a bash script
      * which monitors the exit code of Corfu. If the exit code is 100, then it restarts
      * the server.
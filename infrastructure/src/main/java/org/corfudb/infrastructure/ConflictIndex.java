@@ -0,0 +1,404 @@
+package org.corfudb.infrastructure;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.corfudb.runtime.view.Address;
+
+/**
+ * An index of the conflict keys updated by committed transactions, ordered by the
+ * global address (commit timestamp) of their latest update.
+ *
+ * <p>Lookups are served by a concurrent map from each conflict key to the address of its
+ * latest update. Updates are also appended to a queue of segments, where each segment holds
+ * a bounded number of updates issued over a contiguous range of addresses. Since tokens are
+ * issued in increasing order, the segments are ordered by address, and the oldest updates
+ * can be dropped segment by segment:
+ *
+ * <p>- On trim, every segment below the trim mark is detached in O(segments trimmed). The keys
+ * of the detached segments are purged from the lookup map afterwards, without blocking
+ * updates.
+ *
+ * <p>- When the index exceeds its maximum size, the oldest segment is evicted and the
+ * wildcard is raised to the last address of that segment. The keys of evicted segments are
+ * purged incrementally by subsequent updates.
+ *
+ * <p>A key is purged only if it was not updated again after the segment it belongs to, so
+ * purging never races with a newer update. A key which is still present in the lookup map but
+ * belongs to a dropped segment is harmless: its address is either below the trim mark or at
+ * or below the wildcard, so it cannot change the outcome of a conflict check.
+ *
+ * <p>Optionally, the keys of evicted segments are kept in per-window Bloom filters instead
+ * of being folded into the wildcard. Each evicted segment becomes a window, which records
+ * the last address of the segment and the set of keys it evicted. A key missing from the
+ * lookup map may have been updated after a given address only if it might be contained in
+ * one of the windows ending after that address. This bounds the memory used per evicted key
+ * to a few bits, while a transaction aborts for lack of information with the false positive
+ * probability of the filters instead of whenever its snapshot precedes the wildcard. The
+ * wildcard is only raised when the oldest window is dropped to bound the number of windows.
+ */
+@Slf4j
+public class ConflictIndex {
+
+    /**
+     * The number of segments the index is divided into.
+     */
+    private static final int NUM_SEGMENTS = 256;
+
+    /**
+     * The number of evicted keys purged from the lookup map on each update.
+     */
+    private static final int PURGE_RATE = 2;
+
+    /**
+     * A segment of updates over a contiguous range of addresses.
+     */
+    private static class Segment {
+        final List<String> keys = new ArrayList<>();
+        long lastAddress = Address.NON_ADDRESS;
+
+        /** The filter of the evicted keys of this segment, if windows are enabled. */
+        BloomFilter<String> evictedKeys;
+    }
+
+    /**
+     * The latest update address of every conflict key.
+     */
+    private final ConcurrentHashMap<String, Long> conflictKeys = new ConcurrentHashMap<>();
+
+    /**
+     * The segments of updates, ordered by address. Guarded by this.
+     */
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    /**
+     * The evicted segments whose keys are still to be purged. Guarded by this.
+     */
+    private final ArrayDeque<Segment> evicted = new ArrayDeque<>();
+
+    /**
+     * The windows of evicted keys, ordered by address. Guarded by this.
+     */
+    private final ArrayDeque<Segment> windows = new ArrayDeque<>();
+
+    /**
+     * The maximum number of windows of evicted keys, 0 if windows are disabled.
+     */
+    @Getter
+    private final int maxWindows;
+
+    /**
+     * The false positive probability of the filter of each window.
+     */
+    @Getter
+    private final double windowFpp;
+
+    private int evictedPurgeIndex = 0;
+
+    /**
+     * The maximum number of updates held by the index.
+     */
+    @Getter
+    private final long maxSize;
+
+    private final int segmentSize;
+
+    /**
+     * The number of updates held by the segments. Guarded by this.
+     */
+    private long numUpdates = 0;
+
+    /**
+     * A "wildcard" representing the maximal update address of all the conflict keys
+     * which were evicted from the index.
+     */
+    @Getter
+    private volatile long maxConflictWildcard = Address.NOT_FOUND;
+
+    /**
+     * Returns a new ConflictIndex, which folds evicted keys into the wildcard.
+     *
+     * @param maxSize the maximum number of updates held by the index
+     */
+    public ConflictIndex(long maxSize) {
+        this(maxSize, 0, 0);
+    }
+
+    /**
+     * Returns a new ConflictIndex, which keeps evicted keys in windows of Bloom filters.
+     *
+     * @param maxSize    the maximum number of updates held by the index
+     * @param maxWindows the maximum number of windows of evicted keys, 0 to disable windows
+     * @param windowFpp  the false positive probability of the filter of each window
+     */
+    public ConflictIndex(long maxSize, int maxWindows, double windowFpp) {
+        this.maxSize = maxSize;
+        this.segmentSize = (int) Math.max(1, maxSize / NUM_SEGMENTS);
+        this.maxWindows = maxWindows;
+        this.windowFpp = windowFpp;
+    }
+
+    /**
+     * Get the address of the latest update of a conflict key.
+     *
+     * @param conflictKey the conflict key
+     * @return the address of the latest update, or null if the key is not in the index
+     */
+    public Long get(String conflictKey) {
+        return conflictKeys.get(conflictKey);
+    }
+
+    /**
+     * Record an update of a conflict key. Updates are expected in non-decreasing address
+     * order, which is the order the sequencer issues tokens in.
+     *
+     * @param conflictKey the conflict key
+     * @param address     the address of the update
+     */
+    public synchronized void put(String conflictKey, long address) {
+        conflictKeys.put(conflictKey, address);
+
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.keys.size() >= segmentSize) {
+            tail = new Segment();
+            segments.addLast(tail);
+        }
+        tail.keys.add(conflictKey);
+        tail.lastAddress = Math.max(tail.lastAddress, address);
+        numUpdates++;
+
+        while (numUpdates > maxSize && segments.size() > 1) {
+            evict(segments.pollFirst());
+        }
+
+        purgeEvicted(PURGE_RATE);
+    }
+
+    /**
+     * Whether a conflict key missing from the lookup map might have been updated after an
+     * address, according to the windows of evicted keys. A key which is present in the
+     * lookup map is never looked up in the windows, since the map holds its latest update.
+     *
+     * @param conflictKey the conflict key
+     * @param address     the address
+     * @return true if the key might have been updated after the address
+     */
+    public synchronized boolean mightBeUpdatedAfter(String conflictKey, long address) {
+        Iterator<Segment> newestFirst = windows.descendingIterator();
+        while (newestFirst.hasNext()) {
+            Segment window = newestFirst.next();
+            if (window.lastAddress <= address) {
+                return false;
+            }
+            if (window.evictedKeys.mightContain(conflictKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the last address at or below which a key missing from the lookup map might have
+     * been updated. This is the wildcard, or the last address of the newest window of
+     * evicted keys if it is higher.
+     *
+     * @return the wildcard covering every evicted key
+     */
+    public synchronized long getEvictedWildcard() {
+        Segment newest = windows.peekLast();
+        return newest == null ? maxConflictWildcard
+                : Math.max(maxConflictWildcard, newest.lastAddress);
+    }
+
+    /**
+     * Get the number of windows of evicted keys.
+     *
+     * @return the number of windows
+     */
+    public synchronized int getNumWindows() {
+        return windows.size();
+    }
+
+    /**
+     * Record the updates of a set of conflict keys, in address order.
+     *
+     * @param updates a map of conflict keys to the address of their update
+     */
+    public synchronized void putAll(Map<String, Long> updates) {
+        updates.entrySet().stream()
+                .sorted(Comparator.comparingLong(Map.Entry::getValue))
+                .forEachOrdered(e -> put(e.getKey(), e.getValue()));
+    }
+
+    /**
+     * Drop all the updates below the trim mark.
+     *
+     * <p>Only detaching the trimmed segments is done while holding the index lock,
+     * the keys are purged from the lookup map afterwards.
+     *
+     * @param trimMark the trim mark
+     * @return the number of keys purged
+     */
+    public long trim(long trimMark) {
+        List<Segment> trimmed = new ArrayList<>();
+        Segment boundary;
+        synchronized (this) {
+            while (!segments.isEmpty() && segments.peekFirst().lastAddress < trimMark) {
+                Segment segment = segments.pollFirst();
+                numUpdates -= segment.keys.size();
+                trimmed.add(segment);
+            }
+            boundary = segments.peekFirst();
+            if (boundary != null) {
+                // The segment straddling the trim mark is purged below, but keeps its keys.
+                boundary = copyOf(boundary);
+            }
+            while (!windows.isEmpty() && windows.peekFirst().lastAddress < trimMark) {
+                windows.pollFirst();
+            }
+        }
+
+        long purged = 0;
+        for (Segment segment : trimmed) {
+            purged += purge(segment.keys, segment.lastAddress);
+        }
+        if (boundary != null) {
+            purged += purge(boundary.keys, trimMark - 1);
+        }
+        return purged;
+    }
+
+    /**
+     * Remove every conflict key and set a new wildcard.
+     *
+     * @param wildcard the new wildcard
+     */
+    public synchronized void reset(long wildcard) {
+        conflictKeys.clear();
+        segments.clear();
+        evicted.clear();
+        windows.clear();
+        evictedPurgeIndex = 0;
+        numUpdates = 0;
+        maxConflictWildcard = wildcard;
+    }
+
+    /**
+     * Iterate over the conflict keys in the index and the address of their latest update.
+     *
+     * @param action the action to apply to each key and address
+     */
+    public void forEach(BiConsumer<String, Long> action) {
+        conflictKeys.forEach(action);
+    }
+
+    /**
+     * Get the number of conflict keys in the index.
+     *
+     * @return the number of conflict keys
+     */
+    public int size() {
+        return conflictKeys.size();
+    }
+
+    /**
+     * Evict a segment. Called with the lock held.
+     *
+     * <p>Without windows, the wildcard is raised to the last address of the segment.
+     * With windows, the segment becomes the newest window, and its keys are added to the
+     * window filter as they are purged. If there are too many windows, the oldest window is
+     * dropped and the wildcard is raised to its last address instead.
+     */
+    private void evict(Segment segment) {
+        numUpdates -= segment.keys.size();
+        evicted.addLast(segment);
+
+        if (maxWindows > 0) {
+            segment.evictedKeys = BloomFilter.create(
+                    Funnels.stringFunnel(StandardCharsets.UTF_8), segment.keys.size(),
+                    windowFpp);
+            windows.addLast(segment);
+            if (windows.size() > maxWindows) {
+                segment = windows.pollFirst();
+            } else {
+                return;
+            }
+        }
+
+        maxConflictWildcard = Math.max(maxConflictWildcard, segment.lastAddress);
+        log.trace("evict: Evicted segment, maxConflictWildcard = {}", maxConflictWildcard);
+    }
+
+    private Segment copyOf(Segment segment) {
+        Segment copy = new Segment();
+        copy.keys.addAll(segment.keys);
+        copy.lastAddress = segment.lastAddress;
+        return copy;
+    }
+
+    /**
+     * Purge keys from the lookup map, unless they were updated after the given address.
+     *
+     * @return the number of keys purged
+     */
+    private long purge(List<String> keys, long upToAddress) {
+        long purged = 0;
+        for (String key : keys) {
+            if (purge(key, upToAddress)) {
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    private boolean purge(String key, long upToAddress) {
+        return purge(key, upToAddress, null);
+    }
+
+    /**
+     * Purge a key from the lookup map, unless it was updated after the given address.
+     * If a filter is provided, the key is added to it before it leaves the lookup map.
+     */
+    private boolean purge(String key, long upToAddress, BloomFilter<String> evictedKeys) {
+        boolean[] removed = new boolean[1];
+        conflictKeys.computeIfPresent(key, (k, address) -> {
+            if (address <= upToAddress) {
+                if (evictedKeys != null) {
+                    evictedKeys.put(k);
+                }
+                removed[0] = true;
+                return null;
+            }
+            return address;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Purge up to a number of keys of the evicted segments. Called with the lock held.
+     */
+    private void purgeEvicted(int maxKeys) {
+        for (int i = 0; i < maxKeys && !evicted.isEmpty(); i++) {
+            Segment segment = evicted.peekFirst();
+            purge(segment.keys.get(evictedPurgeIndex++), segment.lastAddress,
+                    segment.evictedKeys);
+            if (evictedPurgeIndex == segment.keys.size()) {
+                evicted.pollFirst();
+                evictedPurgeIndex = 0;
+            }
+        }
+    }
+}
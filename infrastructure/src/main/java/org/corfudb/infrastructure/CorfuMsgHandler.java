@@ -39,6 +39,9 @@ public class CorfuMsgHandler {
     /** The handler map. */
     private Map<CorfuMsgType, Handler> handlerMap;
 
+    /** The execution policy of each handler. */
+    private Map<CorfuMsgType, ExecutionPolicy> policyMap;
+
     /** Get the types this handler will handle.
      *
      * @return  A set containing the types this handler will handle.
@@ -47,9 +50,20 @@ public class CorfuMsgHandler {
         return handlerMap.keySet();
     }
 
+    /** Get the execution policy of the handler of a message type.
+     *
+     * @param messageType   The type of CorfuMsg.
+     * @return              The execution policy of the handler, {@link ExecutionPolicy#WORKER}
+     *                      if none was given.
+     */
+    public ExecutionPolicy getExecutionPolicy(CorfuMsgType messageType) {
+        return policyMap.getOrDefault(messageType, ExecutionPolicy.WORKER);
+    }
+
     /** Construct a new instance of CorfuMsgHandler. */
     public CorfuMsgHandler() {
         handlerMap = new ConcurrentHashMap<>();
+        policyMap = new ConcurrentHashMap<>();
     }
 
     /** Add a handler to this message handler.
@@ -158,6 +172,7 @@ public class CorfuMsgHandler {
                                         h.handle(msg, ctx, r, isMetricsEnabled);
                                     }
                             });
+                        policyMap.put(a.type(), a.policy());
                     } catch (Throwable e) {
                         log.error("Exception during incoming message handling", e);
                         throw new RuntimeException(e);
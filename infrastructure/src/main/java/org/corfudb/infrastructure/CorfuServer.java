@@ -16,10 +16,9 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslHandler;
-import io.netty.util.concurrent.DefaultEventExecutorGroup;
-import io.netty.util.concurrent.EventExecutorGroup;
 
 import java.io.File;
 import java.util.List;
@@ -37,6 +36,7 @@ import javax.net.ssl.SSLEngine;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import org.corfudb.protocols.wireprotocol.NettyCompressionCodec;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageDecoder;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageEncoder;
 import org.corfudb.security.sasl.plaintext.PlainTextSaslNettyServer;
@@ -79,7 +79,10 @@ public class CorfuServer {
                     + "\n"
                     + "Usage:\n"
                     + "\tcorfu_server (-l <path>|-m) [-ns] [-a <address>] [-t <token>] [-c "
-                    + "<ratio>] [-d <level>] [-p <seconds>] [-M <address>:<port>] [-e [-u "
+                    + "<ratio>] [-d <level>] [-p <seconds>] [-M <address>:<port>] "
+                    + "[--sequencer-snapshot-interval=<seconds>] "
+                    + "[--sequencer-sketch-windows=<num>] [--sequencer-sketch-fpp=<fpp>] "
+                    + "[--flush-consolidation=<num>] [--max-queued-requests=<num>] [-e [-u "
                     + "<keystore> -f <keystore_password_file>] [-r <truststore> -w "
                     + "<truststore_password_file>] [-b] [-g -o <username_file> -j <password_file>] "
                     + "[-k <seqcache>]"
@@ -116,6 +119,32 @@ public class CorfuServer {
                     + "                                                                          "
                     + " -k <seqcache>, --sequencer-cache-size=<seqcache>                         "
                     + "               The size of the sequencer's cache. [default: 250000].\n    "
+                    + " --sequencer-snapshot-interval=<seconds>                                  "
+                    + "              The rate the sequencer state is snapshotted and replicated\n"
+                    + "                                                                          "
+                    + "              to backup sequencers in seconds, 0 to disable [default: 0].\n"
+                    + "     --sequencer-sketch-windows=<num>                                     "
+                    + "              The number of windows of Bloom filters keeping the conflict\n"
+                    + "                                                                          "
+                    + "              keys evicted from the sequencer's cache, 0 to disable\n"
+                    + "                                                                          "
+                    + "              [default: 0].\n"
+                    + "     --sequencer-sketch-fpp=<fpp>                                         "
+                    + "              The false positive probability of each window of evicted\n"
+                    + "                                                                          "
+                    + "              conflict keys [default: 0.01].\n"
+                    + "     --flush-consolidation=<num>                                          "
+                    + "              The maximum number of responses written to a connection\n"
+                    + "                                                                          "
+                    + "              before they are flushed, 0 to flush every response\n"
+                    + "                                                                          "
+                    + "              [default: 256].\n"
+                    + "     --max-queued-requests=<num>                                          "
+                    + "              The maximum number of requests of each type waiting for a\n"
+                    + "                                                                          "
+                    + "              worker, beyond which requests are rejected as busy, 0 for\n"
+                    + "                                                                          "
+                    + "              no limit [default: 4096].\n"
                     + " -p <seconds>, --compact=<seconds>                                        "
                     + "              The rate the log unit should compact entries (find the,\n"
                     + "                                                                          "
@@ -330,10 +359,12 @@ public class CorfuServer {
 
         Boolean saslPlainTextAuth = (Boolean) opts.get("--enable-sasl-plain-text-auth");
 
+        // Responses written in the same event loop iteration are flushed together.
+        int flushConsolidation = Integer.parseInt((String) opts.get("--flush-consolidation"));
+
         // Create the event loops responsible for servicing inbound messages.
         EventLoopGroup bossGroup;
         EventLoopGroup workerGroup;
-        EventExecutorGroup ee;
 
         bossGroup = new NioEventLoopGroup(1, new ThreadFactory() {
             final AtomicInteger threadNum = new AtomicInteger(0);
@@ -358,19 +389,6 @@ public class CorfuServer {
                     }
                 });
 
-        ee = new DefaultEventExecutorGroup(Runtime.getRuntime().availableProcessors() * 2, new
-                ThreadFactory() {
-
-                    final AtomicInteger threadNum = new AtomicInteger(0);
-
-                    @Override
-                    public Thread newThread(Runnable r) {
-                        Thread t = new Thread(r);
-                        t.setName("event-" + threadNum.getAndIncrement());
-                        return t;
-                    }
-                });
-
 
         // Register shutdown handler
         Thread shutdownThread = new Thread(CorfuServer::cleanShutdown);
@@ -391,6 +409,10 @@ public class CorfuServer {
                         @Override
                         public void initChannel(io.netty.channel.socket.SocketChannel ch) throws
                                 Exception {
+                            if (flushConsolidation > 0) {
+                                ch.pipeline().addLast("flush", new FlushConsolidationHandler(
+                                        flushConsolidation, true));
+                            }
                             if (tlsEnabled) {
                                 SSLEngine engine = sslContext.newEngine(ch.alloc());
                                 engine.setEnabledCipherSuites(enabledTlsCipherSuites);
@@ -407,9 +429,13 @@ public class CorfuServer {
                                 ch.pipeline().addLast("sasl/plain-text", new
                                         PlainTextSaslNettyServer());
                             }
-                            ch.pipeline().addLast(ee, new NettyCorfuMessageDecoder());
-                            ch.pipeline().addLast(ee, new NettyCorfuMessageEncoder());
-                            ch.pipeline().addLast(ee, router);
+                            ch.pipeline().addLast(new NettyCompressionCodec(
+                                    ServerContext.getMetrics(), "corfu.server.compression."));
+                            // Messages are decoded and routed on the I/O thread, which
+                            // hands them to the pool given by the policy of their handler.
+                            ch.pipeline().addLast(new NettyCorfuMessageDecoder());
+                            ch.pipeline().addLast(new NettyCorfuMessageEncoder());
+                            ch.pipeline().addLast(router);
                         }
                     });
             ChannelFuture f = b.bind(port).sync();
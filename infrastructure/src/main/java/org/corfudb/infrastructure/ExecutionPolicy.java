@@ -0,0 +1,26 @@
+package org.corfudb.infrastructure;
+
+/**
+ * Where the {@link NettyServerRouter} runs the handler of a message type.
+ *
+ * <p>Set by {@link ServerHandler#policy()} for each handler.
+ */
+public enum ExecutionPolicy {
+    /**
+     * Run the handler on the I/O thread which read the message. Only for handlers which
+     * are cheap and never block, since every other channel of the event loop waits on them.
+     */
+    INLINE,
+
+    /**
+     * Run the handler on the shared worker pool, which is sized to the number of
+     * processors. For handlers which compute, but do not block.
+     */
+    WORKER,
+
+    /**
+     * Run the handler on the bounded pool reserved for handlers which block on disk or
+     * on other servers, so that they do not starve the worker pool.
+     */
+    BLOCKING
+}
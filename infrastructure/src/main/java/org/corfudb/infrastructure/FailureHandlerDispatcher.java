@@ -1,5 +1,6 @@
 package org.corfudb.infrastructure;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -7,6 +8,7 @@ import java.util.concurrent.ExecutionException;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.corfudb.protocols.wireprotocol.SequencerSnapshot;
 import org.corfudb.recovery.FastObjectLoader;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.clients.LogUnitClient;
@@ -169,6 +171,9 @@ public class FailureHandlerDispatcher {
      * If the primary sequencer has changed in the new layout,
      * the global tail of the log units are queried and used to set
      * the initial token of the new primary sequencer.
+     * If the new primary sequencer holds a snapshot replicated from the previous
+     * primary, the stream tails are recovered from the snapshot and only the part of
+     * the log written after the snapshot is scanned.
      *
      * @param runtime          Runtime to reconfigure new servers.
      * @param originalLayout   Current layout to get the latest state of servers.
@@ -208,10 +213,18 @@ public class FailureHandlerDispatcher {
                 fastObjectLoader.setRecoverSequencerMode(true);
                 fastObjectLoader.setLoadInCache(false);
 
-                // FastSMRLoader sets the logHead based on trim mark.
+                // Resume from the snapshot, if any. Otherwise the FastSMRLoader sets the
+                // logHead based on trim mark.
+                SequencerSnapshot snapshot = getSequencerSnapshot(newLayout,
+                        maxTokenRequested + 1);
+                if (!snapshot.isEmpty()) {
+                    fastObjectLoader.setLogHead(snapshot.getGlobalTail());
+                }
                 fastObjectLoader.setLogTail(maxTokenRequested);
                 fastObjectLoader.loadMaps();
-                Map<UUID, Long> streamTails = fastObjectLoader.getStreamTails();
+                Map<UUID, Long> streamTails = new HashMap<>(snapshot.getStreamTails());
+                fastObjectLoader.getStreamTails().forEach((streamId, tail) ->
+                        streamTails.merge(streamId, tail, Math::max));
                 verifyStreamTailsMap(streamTails);
 
                 // Configuring the new sequencer.
@@ -230,6 +243,28 @@ public class FailureHandlerDispatcher {
         }
     }
 
+    /**
+     * Fetches the snapshot replicated on the new primary sequencer.
+     * The snapshot is usable only if it does not cover addresses beyond the log tail.
+     *
+     * @param newLayout    New Layout with the new primary sequencer.
+     * @param initialToken First token the new primary sequencer will issue.
+     * @return The snapshot, which is empty if no usable snapshot is available.
+     */
+    private SequencerSnapshot getSequencerSnapshot(Layout newLayout, long initialToken) {
+        try {
+            SequencerSnapshot snapshot = newLayout.getSequencer(0).getSnapshot().get();
+            if (!snapshot.isEmpty() && snapshot.getGlobalTail() <= initialToken) {
+                log.info("Recovering sequencer from snapshot at {}", snapshot.getGlobalTail());
+                return snapshot;
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            log.warn("Failed to fetch sequencer snapshot, recovering from the log : {}",
+                    e.toString());
+        }
+        return SequencerSnapshot.empty();
+    }
+
     /**
      * Verifies whether there are any invalid streamTails.
      * @param streamTails Stream tails map obtained from the fastSMRLoader.
@@ -136,7 +136,8 @@ public class LayoutServer extends AbstractServer {
      * @param r                server router
      * @param isMetricsEnabled True if metrics are enabled, False otherwise
      */
-    @ServerHandler(type = CorfuMsgType.LAYOUT_REQUEST, opTimer = metricsPrefix + "request")
+    @ServerHandler(type = CorfuMsgType.LAYOUT_REQUEST, opTimer = metricsPrefix + "request",
+            policy = ExecutionPolicy.BLOCKING)
     public synchronized void handleMessageLayoutRequest(CorfuPayloadMsg<Long> msg,
                                                         ChannelHandlerContext ctx, IServerRouter r,
                                                         boolean isMetricsEnabled) {
@@ -165,7 +166,8 @@ public class LayoutServer extends AbstractServer {
      * @param ctx netty ChannelHandlerContext
      * @param r   server router
      */
-    @ServerHandler(type = CorfuMsgType.LAYOUT_BOOTSTRAP, opTimer = metricsPrefix + "bootstrap")
+    @ServerHandler(type = CorfuMsgType.LAYOUT_BOOTSTRAP, opTimer = metricsPrefix + "bootstrap",
+            policy = ExecutionPolicy.BLOCKING)
     public synchronized void handleMessageLayoutBootstrap(CorfuPayloadMsg<LayoutBootstrapRequest>
                                                                       msg, ChannelHandlerContext
             ctx, IServerRouter r,
@@ -191,7 +193,8 @@ public class LayoutServer extends AbstractServer {
      * @param ctx The channel context
      * @param r   The server router.
      */
-    @ServerHandler(type = CorfuMsgType.SET_EPOCH, opTimer = metricsPrefix + "set-epoch")
+    @ServerHandler(type = CorfuMsgType.SET_EPOCH, opTimer = metricsPrefix + "set-epoch",
+            policy = ExecutionPolicy.BLOCKING)
     public synchronized void handleMessageSetEpoch(CorfuPayloadMsg<Long> msg,
                                                    ChannelHandlerContext ctx, IServerRouter r,
                                                    boolean isMetricsEnabled) {
@@ -219,7 +222,8 @@ public class LayoutServer extends AbstractServer {
      */
     // TODO this can work under a separate lock for this step as it does not change the global
     // components
-    @ServerHandler(type = CorfuMsgType.LAYOUT_PREPARE, opTimer = metricsPrefix + "prepare")
+    @ServerHandler(type = CorfuMsgType.LAYOUT_PREPARE, opTimer = metricsPrefix + "prepare",
+            policy = ExecutionPolicy.BLOCKING)
     public synchronized void handleMessageLayoutPrepare(CorfuPayloadMsg<LayoutPrepareRequest>
                                                                     msg, ChannelHandlerContext
             ctx, IServerRouter r,
@@ -263,7 +267,8 @@ public class LayoutServer extends AbstractServer {
      * @param ctx netty ChannelHandlerContext
      * @param r   server router
      */
-    @ServerHandler(type = CorfuMsgType.LAYOUT_PROPOSE, opTimer = metricsPrefix + "propose")
+    @ServerHandler(type = CorfuMsgType.LAYOUT_PROPOSE, opTimer = metricsPrefix + "propose",
+            policy = ExecutionPolicy.BLOCKING)
     public synchronized void handleMessageLayoutPropose(CorfuPayloadMsg<LayoutProposeRequest>
                                                                     msg, ChannelHandlerContext
             ctx, IServerRouter r,
@@ -329,7 +334,8 @@ public class LayoutServer extends AbstractServer {
     // TODO How do we handle holes in history if let in layout commit message. Maybe we have a
     // hole filling process
     // TODO how do reject the older epoch commits, should it be an explicit NACK.
-    @ServerHandler(type = CorfuMsgType.LAYOUT_COMMITTED, opTimer = metricsPrefix + "committed")
+    @ServerHandler(type = CorfuMsgType.LAYOUT_COMMITTED, opTimer = metricsPrefix + "committed",
+            policy = ExecutionPolicy.BLOCKING)
     public synchronized void handleMessageLayoutCommit(CorfuPayloadMsg<LayoutCommittedRequest>
                                                                    msg, ChannelHandlerContext
             ctx, IServerRouter r,
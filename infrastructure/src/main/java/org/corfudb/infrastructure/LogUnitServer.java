@@ -144,7 +144,8 @@ public class LogUnitServer extends AbstractServer {
     /**
      * Service an incoming request for maximum global address the log unit server has written.
      */
-    @ServerHandler(type = CorfuMsgType.TAIL_REQUEST, opTimer = metricsPrefix + "tailReq")
+    @ServerHandler(type = CorfuMsgType.TAIL_REQUEST, opTimer = metricsPrefix + "tailReq",
+            policy = ExecutionPolicy.INLINE)
     public void handleTailRequest(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r,
                                   boolean isMetricsEnabled) {
         r.sendResponse(ctx, msg, CorfuMsgType.TAIL_RESPONSE.payloadMsg(streamLog.getGlobalTail()));
@@ -153,7 +154,8 @@ public class LogUnitServer extends AbstractServer {
     /**
      * Service an incoming request to retrieve the starting address of this logging unit.
      */
-    @ServerHandler(type = CorfuMsgType.TRIM_MARK_REQUEST, opTimer = metricsPrefix + "headReq")
+    @ServerHandler(type = CorfuMsgType.TRIM_MARK_REQUEST, opTimer = metricsPrefix + "headReq",
+            policy = ExecutionPolicy.INLINE)
     public void handleHeadRequest(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r, boolean isMetricsEnabled) {
         r.sendResponse(ctx, msg, CorfuMsgType.TRIM_MARK_RESPONSE.payloadMsg(streamLog.getTrimMark()));
     }
@@ -161,7 +163,8 @@ public class LogUnitServer extends AbstractServer {
     /**
      * Service an incoming write request.
      */
-    @ServerHandler(type = CorfuMsgType.WRITE, opTimer = metricsPrefix + "write")
+    @ServerHandler(type = CorfuMsgType.WRITE, opTimer = metricsPrefix + "write",
+            policy = ExecutionPolicy.BLOCKING)
     public void write(CorfuPayloadMsg<WriteRequest> msg, ChannelHandlerContext ctx, IServerRouter r,
                       boolean isMetricsEnabled) {
         log.debug("log write: global: {}, streams: {}, backpointers: {}", msg
@@ -181,7 +184,8 @@ public class LogUnitServer extends AbstractServer {
         }
     }
 
-    @ServerHandler(type = CorfuMsgType.READ_REQUEST, opTimer = metricsPrefix + "read")
+    @ServerHandler(type = CorfuMsgType.READ_REQUEST, opTimer = metricsPrefix + "read",
+            policy = ExecutionPolicy.BLOCKING)
     private void read(CorfuPayloadMsg<ReadRequest> msg, ChannelHandlerContext ctx, IServerRouter r,
                       boolean isMetricsEnabled) {
         log.trace("read: {}", msg.getPayload().getRange());
@@ -202,7 +206,8 @@ public class LogUnitServer extends AbstractServer {
         }
     }
 
-    @ServerHandler(type = CorfuMsgType.MULTIPLE_READ_REQUEST, opTimer = metricsPrefix + "multiRead")
+    @ServerHandler(type = CorfuMsgType.MULTIPLE_READ_REQUEST, opTimer = metricsPrefix + "multiRead",
+            policy = ExecutionPolicy.BLOCKING)
     private void multiRead(CorfuPayloadMsg<MultipleReadRequest> msg, ChannelHandlerContext ctx, IServerRouter r,
                            boolean isMetricsEnabled) {
         log.trace("multiRead: {}", msg.getPayload().getAddresses());
@@ -223,7 +228,8 @@ public class LogUnitServer extends AbstractServer {
         }
     }
 
-    @ServerHandler(type = CorfuMsgType.FILL_HOLE, opTimer = metricsPrefix + "fill-hole")
+    @ServerHandler(type = CorfuMsgType.FILL_HOLE, opTimer = metricsPrefix + "fill-hole",
+            policy = ExecutionPolicy.BLOCKING)
     private void fillHole(CorfuPayloadMsg<TrimRequest> msg, ChannelHandlerContext ctx,
                           IServerRouter r,
                           boolean isMetricsEnabled) {
@@ -242,7 +248,8 @@ public class LogUnitServer extends AbstractServer {
         }
     }
 
-    @ServerHandler(type = CorfuMsgType.TRIM, opTimer = metricsPrefix + "fill-hole")
+    @ServerHandler(type = CorfuMsgType.TRIM, opTimer = metricsPrefix + "fill-hole",
+            policy = ExecutionPolicy.BLOCKING)
     private void trim(CorfuPayloadMsg<TrimRequest> msg, ChannelHandlerContext ctx, IServerRouter r,
                       boolean isMetricsEnabled) {
         batchWriter.trim(msg.getPayload().getAddress());
@@ -250,7 +257,7 @@ public class LogUnitServer extends AbstractServer {
         r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
     }
 
-    @ServerHandler(type = CorfuMsgType.PREFIX_TRIM)
+    @ServerHandler(type = CorfuMsgType.PREFIX_TRIM, policy = ExecutionPolicy.BLOCKING)
     private void prefixTrim(CorfuPayloadMsg<TrimRequest> msg, ChannelHandlerContext ctx,
                             IServerRouter r,
                             boolean isMetricsEnabled) {
@@ -262,7 +269,8 @@ public class LogUnitServer extends AbstractServer {
         }
     }
 
-    @ServerHandler(type = CorfuMsgType.COMPACT_REQUEST, opTimer = metricsPrefix + "compact")
+    @ServerHandler(type = CorfuMsgType.COMPACT_REQUEST, opTimer = metricsPrefix + "compact",
+            policy = ExecutionPolicy.BLOCKING)
     private void compact(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r, boolean
             isMetricsEnabled) {
         try {
@@ -275,7 +283,8 @@ public class LogUnitServer extends AbstractServer {
         }
     }
 
-    @ServerHandler(type = CorfuMsgType.FLUSH_CACHE, opTimer = metricsPrefix + "flush-cache")
+    @ServerHandler(type = CorfuMsgType.FLUSH_CACHE, opTimer = metricsPrefix + "flush-cache",
+            policy = ExecutionPolicy.BLOCKING)
     private void flushCache(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r, boolean
             isMetricsEnabled) {
         try {
@@ -23,6 +23,7 @@ import org.corfudb.protocols.wireprotocol.CorfuMsg;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
 import org.corfudb.protocols.wireprotocol.FailureDetectorMsg;
+import org.corfudb.protocols.wireprotocol.SequencerSnapshot;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.clients.ManagementClient;
 import org.corfudb.runtime.clients.SequencerClient;
@@ -94,6 +95,16 @@ public class ManagementServer extends AbstractServer {
      * Future for periodic failure detection task.
      */
     private Future failureDetectorFuture = null;
+    /**
+     * To schedule the replication of the primary sequencer snapshot, apart from failure
+     * detection so that a slow primary cannot delay it. Null if replication is disabled.
+     */
+    private ScheduledExecutorService sequencerSnapshotService = null;
+    /**
+     * Interval in replicating the primary sequencer snapshot, which also bounds how long a
+     * single fetch may take. In seconds.
+     */
+    private long sequencerSnapshotInterval = 0;
     private boolean recovered = false;
 
     @Getter
@@ -160,6 +171,28 @@ public class ManagementServer extends AbstractServer {
         } catch (RejectedExecutionException err) {
             log.error("Error scheduling failure detection task, {}", err);
         }
+
+        // Initiating periodic task to replicate the primary sequencer snapshot.
+        if (opts.get("--sequencer-snapshot-interval") != null) {
+            sequencerSnapshotInterval = Long.parseLong(
+                    (String) opts.get("--sequencer-snapshot-interval"));
+        }
+        if (sequencerSnapshotInterval > 0) {
+            sequencerSnapshotService = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat("SequencerSnapshot-" + getLocalEndpoint())
+                            .build());
+            try {
+                sequencerSnapshotService.scheduleAtFixedRate(
+                        this::sequencerSnapshotReplicationTask,
+                        sequencerSnapshotInterval,
+                        sequencerSnapshotInterval,
+                        TimeUnit.SECONDS);
+            } catch (RejectedExecutionException err) {
+                log.error("Error scheduling sequencer snapshot replication task, {}", err);
+            }
+        }
     }
 
     private void bootstrapPrimarySequencerServer() {
@@ -257,7 +290,7 @@ public class ManagementServer extends AbstractServer {
      * @param r   server router
      */
     @ServerHandler(type = CorfuMsgType.MANAGEMENT_BOOTSTRAP_REQUEST, opTimer = metricsPrefix
-            + "bootstrap-request")
+            + "bootstrap-request", policy = ExecutionPolicy.BLOCKING)
     public synchronized void handleManagementBootstrap(CorfuPayloadMsg<Layout> msg,
                                                        ChannelHandlerContext ctx, IServerRouter r,
                                                        boolean isMetricsEnabled) {
@@ -281,7 +314,7 @@ public class ManagementServer extends AbstractServer {
      * @param r   server router
      */
     @ServerHandler(type = CorfuMsgType.MANAGEMENT_START_FAILURE_HANDLER, opTimer = metricsPrefix
-            + "start-failure-handler")
+            + "start-failure-handler", policy = ExecutionPolicy.BLOCKING)
     public synchronized void initiateFailureHandler(CorfuMsg msg, ChannelHandlerContext ctx,
                                                     IServerRouter r,
                                                     boolean isMetricsEnabled) {
@@ -313,7 +346,7 @@ public class ManagementServer extends AbstractServer {
      * @param r   server router
      */
     @ServerHandler(type = CorfuMsgType.MANAGEMENT_FAILURE_DETECTED, opTimer = metricsPrefix
-            + "failure-detected")
+            + "failure-detected", policy = ExecutionPolicy.BLOCKING)
     public synchronized void handleFailureDetectedMsg(CorfuPayloadMsg<FailureDetectorMsg> msg,
                                                       ChannelHandlerContext ctx, IServerRouter r,
                                                       boolean isMetricsEnabled) {
@@ -348,7 +381,7 @@ public class ManagementServer extends AbstractServer {
      * @param r   server router
      */
     @ServerHandler(type = CorfuMsgType.HEARTBEAT_REQUEST, opTimer = metricsPrefix
-            + "heartbeat-request")
+            + "heartbeat-request", policy = ExecutionPolicy.INLINE)
     public void handleHearbeatRequest(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r,
                                       boolean isMetricsEnabled) {
         // Currently builds a default instance of the model.
@@ -525,6 +558,37 @@ public class ManagementServer extends AbstractServer {
         }
     }
 
+    /**
+     * Replicates the snapshot of the primary sequencer to the local data store,
+     * if this node is a backup sequencer in the latest layout.
+     * The replicated snapshot is used to bootstrap this node's sequencer on failover.
+     */
+    private void sequencerSnapshotReplicationTask() {
+        final Layout layout = latestLayout;
+        if (layout == null) {
+            return;
+        }
+        final String localEndpoint = getLocalEndpoint();
+        final String primarySequencer = layout.getSequencers().get(0);
+        if (primarySequencer.equals(localEndpoint)
+                || !layout.getSequencers().contains(localEndpoint)) {
+            return;
+        }
+
+        try {
+            SequencerSnapshot snapshot = getCorfuRuntime().getRouter(primarySequencer)
+                    .getClient(SequencerClient.class).getSnapshot()
+                    .get(sequencerSnapshotInterval, TimeUnit.SECONDS);
+            if (serverContext.installSequencerSnapshot(snapshot)) {
+                log.debug("sequencerSnapshotReplicationTask: Replicated snapshot at {} from {}",
+                        snapshot.getGlobalTail(), primarySequencer);
+            }
+        } catch (Exception e) {
+            log.warn("sequencerSnapshotReplicationTask: Failed to fetch snapshot from {} : {}",
+                    primarySequencer, e.toString());
+        }
+    }
+
     /**
      * Management Server shutdown:
      * Shuts down the fault detector service.
@@ -533,6 +597,9 @@ public class ManagementServer extends AbstractServer {
         super.shutdown();
         // Shutting the fault detector.
         failureDetectorService.shutdownNow();
+        if (sequencerSnapshotService != null) {
+            sequencerSnapshotService.shutdownNow();
+        }
 
         // Shut down the Corfu Runtime.
         if (corfuRuntime != null) {
@@ -1,14 +1,20 @@
 package org.corfudb.infrastructure;
 
+import com.codahale.metrics.Counter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnull;
@@ -18,8 +24,10 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
+import org.corfudb.protocols.wireprotocol.CorfuMsgFraming;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
+import org.corfudb.util.MetricsUtils;
 
 
 /**
@@ -35,6 +43,11 @@ public class NettyServerRouter extends ChannelInboundHandlerAdapter
     public static final String PREFIX_EPOCH = "SERVER_EPOCH";
     public static final String KEY_EPOCH = "CURRENT";
 
+    /**
+     * The maximum number of queued requests of each type, if none is given.
+     */
+    public static final int DEFAULT_MAX_QUEUED_REQUESTS = 4096;
+
     public static class ServerThreadFactory
             implements ForkJoinPool.ForkJoinWorkerThreadFactory {
 
@@ -78,11 +91,45 @@ public class NettyServerRouter extends ChannelInboundHandlerAdapter
                 e);
     }
 
+    /**
+     * The pool of the handlers with the {@link ExecutionPolicy#WORKER} policy.
+     */
     protected final ExecutorService handlerWorkers =
             new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
                     new ServerThreadFactory(),
                     NettyServerRouter::handleUncaughtException, true);
 
+    /**
+     * The pool of the handlers with the {@link ExecutionPolicy#BLOCKING} policy.
+     */
+    protected final ExecutorService blockingWorkers =
+            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2,
+                    new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat(ServerThreadFactory.THREAD_PREFIX + "blocking-%d")
+                            .setUncaughtExceptionHandler(
+                                    NettyServerRouter::handleUncaughtException)
+                            .build());
+
+    /**
+     * The number of requests of each type which are waiting for a worker, or running on one.
+     */
+    private final Map<CorfuMsgType, AtomicInteger> queuedRequests =
+            new EnumMap<>(CorfuMsgType.class);
+
+    /**
+     * The maximum number of queued requests of each type, beyond which requests are
+     * rejected with SERVER_BUSY, or 0 for no limit.
+     */
+    @Getter
+    private final int maxQueuedRequests;
+
+    /**
+     * The number of requests rejected with SERVER_BUSY.
+     */
+    private final Counter counterBusy =
+            ServerContext.getMetrics().counter("corfu.server.router.busy");
+
     /**
      * This map stores the mapping from message type to netty server handler.
      */
@@ -99,9 +146,15 @@ public class NettyServerRouter extends ChannelInboundHandlerAdapter
 
     /**
      * Returns a new NettyServerRouter.
-     * @param opts map of options (FIXME: unused)
+     * @param opts map of options, of which only --max-queued-requests is used
      */
     public NettyServerRouter(Map<String, Object> opts) {
+        final Object maxQueued = opts.get("--max-queued-requests");
+        maxQueuedRequests = maxQueued == null ? DEFAULT_MAX_QUEUED_REQUESTS
+                : Integer.parseInt((String) maxQueued);
+        for (CorfuMsgType type : CorfuMsgType.values()) {
+            queuedRequests.put(type, new AtomicInteger());
+        }
         handlerMap = new ConcurrentHashMap<>();
         baseServer = new BaseServer();
         addServer(baseServer);
@@ -176,10 +229,12 @@ public class NettyServerRouter extends ChannelInboundHandlerAdapter
      */
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        // The incoming message should have been transformed to a CorfuMsg earlier in the
+        // pipeline.
+        final CorfuMsg m = (CorfuMsg) msg;
+        // A message handed to a worker is released by the worker.
+        boolean queued = false;
         try {
-            // The incoming message should have been transformed to a CorfuMsg earlier in the
-            // pipeline.
-            CorfuMsg m = ((CorfuMsg) msg);
             // We get the handler for this message from the map
             AbstractServer handler = handlerMap.get(m.getMsgType());
             if (handler == null) {
@@ -192,21 +247,85 @@ public class NettyServerRouter extends ChannelInboundHandlerAdapter
                         log.trace("Message routed to {}: {}", handler.getClass().getSimpleName(),
                                 msg);
                     }
-                    handlerWorkers.submit(() -> {
+                    final ExecutionPolicy policy =
+                            handler.getHandler().getExecutionPolicy(m.getMsgType());
+                    if (policy == ExecutionPolicy.INLINE) {
+                        handleMessage(handler, m, ctx);
+                    } else if (admit(m, ctx)) {
+                        final ExecutorService workers = policy == ExecutionPolicy.BLOCKING
+                                ? blockingWorkers : handlerWorkers;
                         try {
-                            handler.handleMessage(m, ctx, this);
-                        } catch (Throwable t) {
-                            log.error("channelRead: Handling {} failed due to {}:{}",
-                                    m != null ? m.getMsgType() : "UNKNOWN",
-                                    t.getClass().getSimpleName(),
-                                    t.getMessage(),
-                                    t);
+                            workers.submit(() -> {
+                                try {
+                                    handleMessage(handler, m, ctx);
+                                } finally {
+                                    queuedRequests.get(m.getMsgType()).decrementAndGet();
+                                    m.releaseSlices();
+                                }
+                            });
+                            queued = true;
+                        } catch (RejectedExecutionException e) {
+                            // The workers are shut down, so the request is not queued.
+                            queuedRequests.get(m.getMsgType()).decrementAndGet();
+                            log.warn("channelRead: Dropping {}, workers rejected it",
+                                    m.getMsgType());
                         }
-                    });
+                    }
                 }
             }
         } catch (Exception e) {
             log.error("Exception during read!", e);
+        } finally {
+            if (!queued) {
+                m.releaseSlices();
+            }
+        }
+    }
+
+    /**
+     * Queue a request for a worker, unless too many requests of its type are already queued,
+     * in which case it is rejected with SERVER_BUSY. Rejecting the request right away lets
+     * the client back off, rather than time out and retry once the request reaches the
+     * head of an ever longer queue.
+     *
+     * <p>Only clients which use compact headers know SERVER_BUSY, so requests from older
+     * clients are always queued.
+     *
+     * @param m   The request.
+     * @param ctx Channel handler context.
+     * @return True if the request was queued, false if it was rejected.
+     */
+    private boolean admit(CorfuMsg m, ChannelHandlerContext ctx) {
+        final AtomicInteger queued = queuedRequests.get(m.getMsgType());
+        if (queued.incrementAndGet() > maxQueuedRequests && maxQueuedRequests > 0
+                && CorfuMsgFraming.getPeerVersion(ctx.channel()) >= CorfuMsgFraming.V2) {
+            queued.decrementAndGet();
+            MetricsUtils.incConditionalCounter(MetricsUtils.isMetricsCollectionEnabled(),
+                    counterBusy, 1);
+            log.debug("admit: Rejecting {}, {} requests of its type are queued",
+                    m.getMsgType(), maxQueuedRequests);
+            sendResponse(ctx, m, CorfuMsgType.SERVER_BUSY.msg());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Pass a message to the server which handles it.
+     *
+     * @param handler The server which handles the message.
+     * @param m       The message.
+     * @param ctx     Channel handler context.
+     */
+    private void handleMessage(AbstractServer handler, CorfuMsg m, ChannelHandlerContext ctx) {
+        try {
+            handler.handleMessage(m, ctx, this);
+        } catch (Throwable t) {
+            log.error("channelRead: Handling {} failed due to {}:{}",
+                    m != null ? m.getMsgType() : "UNKNOWN",
+                    t.getClass().getSimpleName(),
+                    t.getMessage(),
+                    t);
         }
     }
 
@@ -1,21 +1,26 @@
 package org.corfudb.infrastructure;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import io.netty.channel.ChannelHandlerContext;
 
 import java.lang.invoke.MethodHandles;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -23,9 +28,11 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import org.corfudb.protocols.wireprotocol.ContentionStats;
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
+import org.corfudb.protocols.wireprotocol.SequencerSnapshot;
 import org.corfudb.protocols.wireprotocol.SequencerTailsRecoveryMsg;
 import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.protocols.wireprotocol.TokenRequest;
@@ -34,6 +41,7 @@ import org.corfudb.protocols.wireprotocol.TokenType;
 import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
 import org.corfudb.runtime.view.Address;
 import org.corfudb.util.MetricsUtils;
+import org.corfudb.util.SpaceSavingSketch;
 import org.corfudb.util.Utils;
 
 import static org.corfudb.protocols.wireprotocol.TokenType.TX_ABORT_SEQ_OVERFLOW;
@@ -74,6 +82,12 @@ import static org.corfudb.protocols.wireprotocol.TokenType.TX_ABORT_SEQ_OVERFLOW
  * commits, the sequencer updates the tails of all the streams and the cache
  * of conflict parameters.
  *
+ * <p>If configured with a snapshot interval, the sequencer periodically persists a
+ * {@link SequencerSnapshot} of its state to the node's {@link DataStore}. Backup sequencers
+ * replicate this snapshot through their management server, so a failover sequencer can be
+ * bootstrapped from the snapshot plus a scan of the log written after it, and keeps the
+ * conflict-resolution information instead of aborting every transaction preceding the reset.
+ *
  * <p>Created by mwei on 12/8/15.
  */
 @Slf4j
@@ -97,7 +111,7 @@ public class SequencerServer extends AbstractServer {
     private final AtomicLong globalLogTail = new AtomicLong(Address
             .getMinAddress());
 
-    private long trimMark = Address.NON_ADDRESS;
+    private volatile long trimMark = Address.NON_ADDRESS;
 
     /**
      * - {@link SequencerServer::streamTailToGlobalTailMap}:
@@ -110,17 +124,36 @@ public class SequencerServer extends AbstractServer {
     /**
      * TX conflict-resolution information:
      *
-     * {@link SequencerServer::conflictToGlobalTailCache}:
-     * a cache of recent conflict keys and their latest global-log
-     * position.
-     *
-     * {@link SequencerServer::maxConflictWildcard} :
-     * a "wildcard" representing the maximal update timestamp of
-     * all the confict keys which were evicted from the cache
+     * {@link SequencerServer::conflictIndex}:
+     * an index of recent conflict keys and their latest global-log
+     * position, ordered by position. It also maintains a "wildcard"
+     * representing the maximal update timestamp of all the conflict
+     * keys which were evicted from the index.
+     * The index is replaced as a whole when the sequencer is reset, so that it can be
+     * rebuilt without holding the sequencer lock.
+     */
+    private volatile ConflictIndex conflictIndex;
+
+    /**
+     * {@link SequencerServer::recoveredStreamTails}:
+     * the tails of the streams which were updated after the snapshot this sequencer was
+     * bootstrapped from. The conflict keys updated on these streams are not known, so a
+     * transaction reading a conflict key of such a stream must abort if its snapshot
+     * precedes the stream tail.
      */
-    private long maxConflictWildcard = Address.NOT_FOUND;
+    private final Map<UUID, Long> recoveredStreamTails = new ConcurrentHashMap<>();
 
-    private final Cache<String, Long> conflictToGlobalTailCache;
+    /**
+     * A scheduler, which is used to periodically persist the sequencer snapshot.
+     */
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat("Sequencer-Snapshot-%d")
+                            .build());
+
+    private ScheduledFuture<?> snapshotter;
 
     /**
      * Handler for this server.
@@ -132,6 +165,45 @@ public class SequencerServer extends AbstractServer {
     private static final String metricsPrefix = "corfu.server.sequencer.";
     private static Counter counterTokenSum;
     private static Counter counterToken0;
+    private static Meter meterAbortConflict;
+    private static Meter meterAbortNewSeq;
+    private static Meter meterAbortOverflow;
+    private static Meter meterAbortOverflowSketch;
+    private static Meter meterAbortTrim;
+
+    /**
+     * The number of items tracked by each contention sketch.
+     */
+    private static final int CONTENTION_SKETCH_CAPACITY = 256;
+
+    /**
+     * The number of items of each contention sketch exposed through the metrics registry.
+     */
+    private static final int CONTENTION_METRICS_TOP_K = 10;
+
+    /**
+     * The streams with the most tokens issued.
+     */
+    private final SpaceSavingSketch<UUID> hotStreams =
+            new SpaceSavingSketch<>(CONTENTION_SKETCH_CAPACITY);
+
+    /**
+     * The streams with the most conflict aborts.
+     */
+    private final SpaceSavingSketch<UUID> abortedStreams =
+            new SpaceSavingSketch<>(CONTENTION_SKETCH_CAPACITY);
+
+    /**
+     * The conflict keys with the most conflict aborts.
+     */
+    private final SpaceSavingSketch<String> hotConflictKeys =
+            new SpaceSavingSketch<>(CONTENTION_SKETCH_CAPACITY);
+
+    /**
+     * The clients with the most tokens issued.
+     */
+    private final SpaceSavingSketch<UUID> clientTokens =
+            new SpaceSavingSketch<>(CONTENTION_SKETCH_CAPACITY);
 
     @Getter
     @Setter
@@ -140,7 +212,9 @@ public class SequencerServer extends AbstractServer {
     @Override
     public boolean isServerReadyToHandleMsg(CorfuMsg msg) {
         if ((readyStateEpoch != serverContext.getServerEpoch())
-                && (!msg.getMsgType().equals(CorfuMsgType.BOOTSTRAP_SEQUENCER))) {
+                && (!msg.getMsgType().equals(CorfuMsgType.BOOTSTRAP_SEQUENCER))
+                && (!msg.getMsgType().equals(CorfuMsgType.SEQUENCER_SNAPSHOT_REQ))
+                && (!msg.getMsgType().equals(CorfuMsgType.SEQUENCER_CONTENTION_REQ))) {
             log.warn("Rejecting msg at sequencer : sequencerStateEpoch:{}, serverEpoch:{}, "
                     + "msg:{}", readyStateEpoch, serverContext.getServerEpoch(), msg);
             return false;
@@ -166,6 +240,11 @@ public class SequencerServer extends AbstractServer {
         MetricRegistry metrics = serverContext.getMetrics();
         counterTokenSum = metrics.counter(metricsPrefix + "token-sum");
         counterToken0 = metrics.counter(metricsPrefix + "token-query");
+        meterAbortConflict = metrics.meter(metricsPrefix + "tx-abort-conflict");
+        meterAbortNewSeq = metrics.meter(metricsPrefix + "tx-abort-newseq");
+        meterAbortOverflow = metrics.meter(metricsPrefix + "tx-abort-overflow");
+        meterAbortOverflowSketch = metrics.meter(metricsPrefix + "tx-abort-overflow-sketch");
+        meterAbortTrim = metrics.meter(metricsPrefix + "tx-abort-trim");
 
         long cacheSize = 250_000;
         if (opts.get("--sequencer-cache-size") != null) {
@@ -173,18 +252,27 @@ public class SequencerServer extends AbstractServer {
 
         }
 
-        conflictToGlobalTailCache = Caffeine.newBuilder()
-                .maximumSize(cacheSize)
-                .removalListener((String k, Long v, RemovalCause cause) -> {
-                    if (!RemovalCause.REPLACED.equals(cause)) {
-                        log.trace("Updating maxConflictWildcard. Old value = '{}', new value='{}'"
-                                        + " conflictParam = '{}'. Removal cause = '{}'",
-                                maxConflictWildcard, v, k, cause);
-                        maxConflictWildcard = Math.max(v, maxConflictWildcard);
-                    }
-                })
-                .recordStats()
-                .build();
+        int sketchWindows = 0;
+        if (opts.get("--sequencer-sketch-windows") != null) {
+            sketchWindows = Integer.parseInt((String) opts.get("--sequencer-sketch-windows"));
+        }
+        double sketchFpp = 0.01;
+        if (opts.get("--sequencer-sketch-fpp") != null) {
+            sketchFpp = Double.parseDouble((String) opts.get("--sequencer-sketch-fpp"));
+        }
+
+        conflictIndex = new ConflictIndex(cacheSize, sketchWindows, sketchFpp);
+        addConflictIndexGauges(metrics);
+        addContentionGauges(metrics);
+
+        if (opts.get("--sequencer-snapshot-interval") != null) {
+            long snapshotInterval = Long.parseLong(
+                    (String) opts.get("--sequencer-snapshot-interval"));
+            if (snapshotInterval > 0) {
+                snapshotter = scheduler.scheduleAtFixedRate(this::persistSnapshot,
+                        snapshotInterval, snapshotInterval, TimeUnit.SECONDS);
+            }
+        }
     }
 
     /**
@@ -209,11 +297,14 @@ public class SequencerServer extends AbstractServer {
      *                    timestamp than the snapshot, abort
      * @param conflictKey is a return parameter that signals to the consumer which key was
      *                    responsible for unsuccessful allocation af a token.
+     * @param conflictStream is a return parameter that signals to the consumer which stream
+     *                    was responsible for a conflict abort.
      * @return Returns the type of token reponse based on whether the txn commits, or the abort
      *     cause.
      */
     public TokenType txnCanCommit(TxResolutionInfo txInfo, /** Input. */
-                                  AtomicReference<byte[]> conflictKey /** Output. */) {
+                                  AtomicReference<byte[]> conflictKey, /** Output. */
+                                  AtomicReference<UUID> conflictStream /** Output. */) {
         log.trace("Commit-req[{}]", txInfo);
         final long txSnapshotTimestamp = txInfo.getSnapshotTimestamp();
 
@@ -240,23 +331,46 @@ public class SequencerServer extends AbstractServer {
 
                     String conflictKeyHash = getConflictHashCode(entry.getKey(),
                             conflictParam);
-                    Long v = conflictToGlobalTailCache.getIfPresent(conflictKeyHash);
+                    Long v = conflictIndex.get(conflictKeyHash);
 
                     log.trace("Commit-ck[{}] conflict-key[{}](ts={})", txInfo, conflictParam, v);
 
                     if (v != null && v > txSnapshotTimestamp) {
                         log.debug("ABORT[{}] conflict-key[{}](ts={})", txInfo, conflictParam, v);
+                        conflictStream.set(entry.getKey());
                         conflictKey.set(conflictParam);
                         response.set(TokenType.TX_ABORT_CONFLICT);
                         break;
                     }
 
+                    final long maxConflictWildcard = conflictIndex.getMaxConflictWildcard();
                     if (txSnapshotTimestamp < maxConflictWildcard) {
                         log.debug("ABORT[{}] snapshot-ts[{}] WILDCARD ts=[{}]",
                                 txInfo, txSnapshotTimestamp, maxConflictWildcard);
                         response.set(TX_ABORT_SEQ_OVERFLOW);
                         break;
                     }
+
+                    // if the key was evicted, it might have been updated after the snapshot
+                    if (v == null && conflictIndex.mightBeUpdatedAfter(conflictKeyHash,
+                            txSnapshotTimestamp)) {
+                        log.debug("ABORT[{}] snapshot-ts[{}] evicted conflict-key[{}]",
+                                txInfo, txSnapshotTimestamp, conflictParam);
+                        MetricsUtils.markConditionalMeter(
+                                MetricsUtils.isMetricsCollectionEnabled(),
+                                meterAbortOverflowSketch, 1);
+                        response.set(TX_ABORT_SEQ_OVERFLOW);
+                        break;
+                    }
+
+                    Long recoveredTail = recoveredStreamTails.get(entry.getKey());
+                    if (recoveredTail != null && recoveredTail > txSnapshotTimestamp) {
+                        log.debug("ABORT[{}] snapshot-ts[{}] recovered-stream[{}](ts={})",
+                                txInfo, txSnapshotTimestamp,
+                                Utils.toReadableId(entry.getKey()), recoveredTail);
+                        response.set(TokenType.TX_ABORT_NEWSEQ);
+                        break;
+                    }
                 }
             } else { // otherwise, check for conflict based on streams updates
                 UUID streamId = entry.getKey();
@@ -267,6 +381,7 @@ public class SequencerServer extends AbstractServer {
                     if (v > txSnapshotTimestamp) {
                         log.debug("ABORT[{}] conflict-stream[{}](ts={})",
                                 txInfo, Utils.toReadableId(streamId), v);
+                        conflictStream.set(streamId);
                         response.set(TokenType.TX_ABORT_CONFLICT);
                     }
                     return v;
@@ -316,46 +431,87 @@ public class SequencerServer extends AbstractServer {
                 TokenType.NORMAL, TokenResponse.NO_CONFLICT_KEY, token, Collections.emptyMap())));
     }
 
+    /**
+     * Service an incoming request to trim the conflict-resolution information.
+     *
+     * <p>Only advancing the trim mark is done while holding the sequencer lock.
+     * Transactions with a snapshot below the trim mark abort, so the conflict keys below it
+     * are dropped afterwards without stalling token requests.
+     */
     @ServerHandler(type = CorfuMsgType.SEQUENCER_TRIM_REQ, opTimer = metricsPrefix + "trimCache")
-    public synchronized void trimCache(CorfuPayloadMsg<Long> msg,
-                                       ChannelHandlerContext ctx, IServerRouter r,
-                                       boolean isMetricsEnabled) {
+    public void trimCache(CorfuPayloadMsg<Long> msg,
+                          ChannelHandlerContext ctx, IServerRouter r,
+                          boolean isMetricsEnabled) {
         log.info("trimCache: Starting cache eviction");
-        if (trimMark < msg.getPayload()) {
+        final long newTrimMark;
+        synchronized (this) {
             // Advance the trim mark, if the new trim request has a higher trim mark.
-            trimMark = msg.getPayload();
-        }
-
-        long entries = 0;
-        for (Map.Entry<String, Long> entry : conflictToGlobalTailCache.asMap().entrySet()) {
-            if (entry.getValue() < trimMark) {
-                conflictToGlobalTailCache.invalidate(entry.getKey());
-                entries++;
+            if (trimMark < msg.getPayload()) {
+                trimMark = msg.getPayload();
             }
+            newTrimMark = trimMark;
         }
+
+        long entries = conflictIndex.trim(newTrimMark);
+        recoveredStreamTails.values().removeIf(tail -> tail < newTrimMark);
         log.info("trimCache: Evicted {} entries", entries);
         r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
     }
 
     /**
      * Service an incoming request to reset the sequencer.
+     *
+     * <p>The conflict-resolution information is rebuilt from the persisted snapshot before
+     * taking the sequencer lock, and swapped in while holding it, so token requests are not
+     * stalled while the snapshot is read.
      */
     @ServerHandler(type = CorfuMsgType.BOOTSTRAP_SEQUENCER, opTimer = metricsPrefix + "reset")
-    public synchronized void resetServer(CorfuPayloadMsg<SequencerTailsRecoveryMsg> msg,
-                                         ChannelHandlerContext ctx, IServerRouter r,
-                                         boolean isMetricsEnabled) {
+    public void resetServer(CorfuPayloadMsg<SequencerTailsRecoveryMsg> msg,
+                            ChannelHandlerContext ctx, IServerRouter r,
+                            boolean isMetricsEnabled) {
         long initialToken = msg.getPayload().getGlobalTail();
         final Map<UUID, Long> streamTails = msg.getPayload().getStreamTails();
         final long readyEpoch = msg.getPayload().getReadyStateEpoch();
 
-        // Stale bootstrap request should be discarded.
-        if (readyStateEpoch > readyEpoch) {
-            log.info("Sequencer already bootstrapped at epoch {}. "
-                    + "Discarding bootstrap request with epoch {}", readyStateEpoch, readyEpoch);
-            r.sendResponse(ctx, msg, CorfuMsgType.NACK.msg());
-            return;
+        final SequencerSnapshot snapshot = serverContext.getSequencerSnapshot();
+        final boolean snapshotUsable = !snapshot.isEmpty()
+                && snapshot.getGlobalTail() <= initialToken;
+        final ConflictIndex restoredIndex = restoreConflictIndex(snapshotUsable ? snapshot
+                : null, initialToken);
+
+        synchronized (this) {
+            // Stale bootstrap request should be discarded.
+            if (readyStateEpoch > readyEpoch) {
+                log.info("Sequencer already bootstrapped at epoch {}. "
+                                + "Discarding bootstrap request with epoch {}",
+                        readyStateEpoch, readyEpoch);
+                r.sendResponse(ctx, msg, CorfuMsgType.NACK.msg());
+                return;
+            }
+            resetState(initialToken, streamTails, snapshotUsable ? snapshot : null,
+                    restoredIndex);
+
+            // Mark the sequencer as ready after the tails have been populated.
+            readyStateEpoch = readyEpoch;
         }
 
+        log.info("Sequencer reset with token = {}, streamTailToGlobalTailMap = {},"
+                        + " readyStateEpoch = {}",
+                initialToken, streamTailToGlobalTailMap, readyEpoch);
+        r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
+    }
+
+    /**
+     * Reset the tails and the conflict-resolution information of the sequencer.
+     * Called with the sequencer lock held.
+     *
+     * @param initialToken  the first token this sequencer issues after the reset
+     * @param streamTails   the tails of the streams at the reset token
+     * @param snapshot      the snapshot the conflict index was restored from, or null
+     * @param restoredIndex the conflict index to use after the reset
+     */
+    private void resetState(long initialToken, Map<UUID, Long> streamTails,
+                            SequencerSnapshot snapshot, ConflictIndex restoredIndex) {
         //
         // if the sequencer is reset, then we can't know when was
         // the latest update to any stream or conflict parameter.
@@ -371,30 +527,171 @@ public class SequencerServer extends AbstractServer {
         //
         if (initialToken > globalLogTail.get()) {
             globalLogTail.set(initialToken);
-            maxConflictWildcard = initialToken - 1;
-            conflictToGlobalTailCache.invalidateAll();
+            conflictIndex = restoredIndex;
+            recoveredStreamTails.clear();
 
             // Clear the existing map as it could have been populated by an earlier reset.
             streamTailToGlobalTailMap.clear();
             streamTailToGlobalTailMap.putAll(streamTails);
+
+            // The conflict keys updated after the snapshot are unknown, but each of them is
+            // bounded by the tail of its stream.
+            if (snapshot != null) {
+                streamTailToGlobalTailMap.forEach((streamId, tail) -> {
+                    if (tail >= snapshot.getGlobalTail()) {
+                        recoveredStreamTails.put(streamId, tail);
+                    }
+                });
+            }
         }
+    }
 
-        // Mark the sequencer as ready after the tails have been populated.
-        readyStateEpoch = readyEpoch;
+    /**
+     * Build the conflict-resolution information of the sequencer after a reset.
+     *
+     * <p>The snapshot is usable only if it does not cover addresses beyond the reset token.
+     * Conflict keys updated before the snapshot are restored with their timestamps, and the
+     * wildcard falls back to the wildcard of the snapshot. The conflict keys updated after the
+     * snapshot are unknown, but each of them is bounded by the tail of its stream, so the
+     * streams written after the snapshot are tracked in
+     * {@link SequencerServer::recoveredStreamTails} instead of raising the wildcard.
+     * Without a usable snapshot, the wildcard is set to the reset token.
+     *
+     * @param snapshot     the latest snapshot persisted on this node, or null if it is not
+     *                     usable
+     * @param initialToken the first token this sequencer issues after the reset
+     * @return a new conflict index
+     */
+    private ConflictIndex restoreConflictIndex(SequencerSnapshot snapshot, long initialToken) {
+        final ConflictIndex current = conflictIndex;
+        final ConflictIndex restored = new ConflictIndex(current.getMaxSize(),
+                current.getMaxWindows(), current.getWindowFpp());
+        if (snapshot == null) {
+            restored.reset(initialToken - 1);
+            log.info("restoreConflictIndex: No usable snapshot, wildcard set to {}",
+                    restored.getMaxConflictWildcard());
+            return restored;
+        }
 
-        log.info("Sequencer reset with token = {}, streamTailToGlobalTailMap = {},"
-                        + " readyStateEpoch = {}",
-                initialToken, streamTailToGlobalTailMap, readyStateEpoch);
-        r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
+        restored.reset(snapshot.getMaxConflictWildcard());
+        restored.putAll(snapshot.getConflictKeys());
+        log.info("restoreConflictIndex: Restored {} conflict keys from snapshot at {}, "
+                        + "wildcard = {}", snapshot.getConflictKeys().size(),
+                snapshot.getGlobalTail(), restored.getMaxConflictWildcard());
+        return restored;
+    }
+
+    /**
+     * Take a snapshot of the sequencer state.
+     *
+     * <p>Only the global tail and the stream tails are copied while holding the sequencer
+     * lock, so that every allocation below the global tail is reflected in the stream tails.
+     * The conflict keys are copied without blocking token requests: keys updated after the
+     * global tail was read are either captured or covered by the stream tails on recovery,
+     * and the wildcard is read last so that it accounts for any key evicted meanwhile.
+     * Conflict keys with a timestamp at or below the wildcard are left out, since they never
+     * change the outcome of a commit decision.
+     *
+     * @return a snapshot of the sequencer state
+     */
+    @VisibleForTesting
+    SequencerSnapshot takeSnapshot() {
+        final long epoch;
+        final long globalTail;
+        final Map<UUID, Long> streamTails;
+        final ConflictIndex index;
+        synchronized (this) {
+            epoch = readyStateEpoch;
+            globalTail = globalLogTail.get();
+            streamTails = ImmutableMap.copyOf(streamTailToGlobalTailMap);
+            index = conflictIndex;
+        }
+
+        // The windows of evicted keys are not part of the snapshot, they are covered by the
+        // wildcard instead.
+        final long wildcardLowerBound = index.getEvictedWildcard();
+        ImmutableMap.Builder<String, Long> conflictKeys = ImmutableMap.builder();
+        index.forEach((key, ts) -> {
+            if (ts > wildcardLowerBound) {
+                conflictKeys.put(key, ts);
+            }
+        });
+        return new SequencerSnapshot(epoch, globalTail, wildcardLowerBound,
+                streamTails, conflictKeys.build());
+    }
+
+    /**
+     * Persist a snapshot of the sequencer state to the data store,
+     * if this sequencer is bootstrapped in the current epoch.
+     */
+    @VisibleForTesting
+    void persistSnapshot() {
+        if (readyStateEpoch != serverContext.getServerEpoch()) {
+            log.trace("persistSnapshot: Sequencer not ready at epoch {}, skipping",
+                    serverContext.getServerEpoch());
+            return;
+        }
+        try {
+            SequencerSnapshot snapshot = takeSnapshot();
+            if (serverContext.installSequencerSnapshot(snapshot)) {
+                log.debug("persistSnapshot: Persisted snapshot at {}, {} streams, {} conflict "
+                                + "keys", snapshot.getGlobalTail(),
+                        snapshot.getStreamTails().size(), snapshot.getConflictKeys().size());
+            }
+        } catch (Exception e) {
+            log.error("persistSnapshot: Failed to persist the sequencer snapshot", e);
+        }
+    }
+
+    /**
+     * Service an incoming request for the latest sequencer snapshot persisted on this node.
+     * This is served even if the sequencer is not ready, so a failover sequencer can be
+     * queried for its replicated snapshot before it is bootstrapped.
+     */
+    @ServerHandler(type = CorfuMsgType.SEQUENCER_SNAPSHOT_REQ,
+            opTimer = metricsPrefix + "snapshot-req")
+    public void handleSnapshotRequest(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r,
+                                      boolean isMetricsEnabled) {
+        r.sendResponse(ctx, msg, CorfuMsgType.SEQUENCER_SNAPSHOT_RES
+                .payloadMsg(serverContext.getSequencerSnapshot()));
+    }
+
+    /**
+     * Service an incoming request for the contention statistics of this sequencer.
+     * The payload is the number of hot streams, conflict keys and clients to return.
+     */
+    @ServerHandler(type = CorfuMsgType.SEQUENCER_CONTENTION_REQ,
+            opTimer = metricsPrefix + "contention-req")
+    public void handleContentionRequest(CorfuPayloadMsg<Integer> msg, ChannelHandlerContext ctx,
+                                        IServerRouter r, boolean isMetricsEnabled) {
+        r.sendResponse(ctx, msg, CorfuMsgType.SEQUENCER_CONTENTION_RES
+                .payloadMsg(getContentionStats(msg.getPayload())));
+    }
+
+    /**
+     * Get the contention statistics of this sequencer.
+     *
+     * @param topK the number of hot streams, conflict keys and clients to return
+     * @return the contention statistics
+     */
+    public ContentionStats getContentionStats(int topK) {
+        Map<String, Long> abortsByCause = new LinkedHashMap<>();
+        abortsByCause.put(TokenType.TX_ABORT_CONFLICT.name(), meterAbortConflict.getCount());
+        abortsByCause.put(TokenType.TX_ABORT_NEWSEQ.name(), meterAbortNewSeq.getCount());
+        abortsByCause.put(TokenType.TX_ABORT_SEQ_OVERFLOW.name(), meterAbortOverflow.getCount());
+        abortsByCause.put(TokenType.TX_ABORT_SEQ_TRIM.name(), meterAbortTrim.getCount());
+        return new ContentionStats(hotStreams.top(topK), abortedStreams.top(topK),
+                hotConflictKeys.top(topK), abortsByCause, clientTokens.top(topK));
     }
 
     /**
      * Service an incoming token request.
      */
-    @ServerHandler(type = CorfuMsgType.TOKEN_REQ, opTimer = metricsPrefix + "token-req")
-    public synchronized void tokenRequest(CorfuPayloadMsg<TokenRequest> msg,
-                                          ChannelHandlerContext ctx, IServerRouter r,
-                                          boolean isMetricsEnabled) {
+    @ServerHandler(type = CorfuMsgType.TOKEN_REQ, opTimer = metricsPrefix + "token-req",
+            policy = ExecutionPolicy.INLINE)
+    public void tokenRequest(CorfuPayloadMsg<TokenRequest> msg,
+                             ChannelHandlerContext ctx, IServerRouter r,
+                             boolean isMetricsEnabled) {
         TokenRequest req = msg.getPayload();
 
         // metrics collection
@@ -405,23 +702,47 @@ public class SequencerServer extends AbstractServer {
                     .getNumTokens());
         }
 
-        // dispatch request handler according to request type
-        switch (req.getReqType()) {
-            case TokenRequest.TK_QUERY:
-                handleTokenQuery(msg, ctx, r);
-                return;
-
-            case TokenRequest.TK_RAW:
-                handleRawToken(msg, ctx, r);
-                return;
+        // The key and stream which caused a transaction to abort, if any.
+        AtomicReference<byte[]> conflictKey = new AtomicReference(TokenResponse.NO_CONFLICT_KEY);
+        AtomicReference<UUID> conflictStream = new AtomicReference<>();
+        TokenType tokenType = TokenType.NORMAL;
 
-            case TokenRequest.TK_TX:
-                handleTxToken(msg, ctx, r);
-                return;
+        // dispatch request handler according to request type
+        synchronized (this) {
+            switch (req.getReqType()) {
+                case TokenRequest.TK_QUERY:
+                    handleTokenQuery(msg, ctx, r);
+                    return;
+
+                case TokenRequest.TK_RAW:
+                    handleRawToken(msg, ctx, r);
+                    break;
+
+                case TokenRequest.TK_TX:
+                    tokenType = handleTxToken(msg, ctx, r, isMetricsEnabled,
+                            conflictKey, conflictStream);
+                    break;
+
+                default:
+                    handleAllocation(msg, ctx, r);
+                    break;
+            }
+        }
 
-            default:
-                handleAllocation(msg, ctx, r);
-                return;
+        // The contention sketches are updated once the sequencer lock is released.
+        if (tokenType == TokenType.NORMAL) {
+            if (msg.getClientID() != null) {
+                clientTokens.add(msg.getClientID(), req.getNumTokens());
+            }
+            for (UUID id : req.getStreams()) {
+                hotStreams.add(id, req.getNumTokens());
+            }
+        } else if (conflictStream.get() != null) {
+            abortedStreams.add(conflictStream.get(), 1);
+            if (conflictKey.get() != TokenResponse.NO_CONFLICT_KEY) {
+                hotConflictKeys.add(getConflictHashCode(conflictStream.get(),
+                        conflictKey.get()), 1);
+            }
         }
     }
 
@@ -453,36 +774,41 @@ public class SequencerServer extends AbstractServer {
      * - if the transaction may commit,
      * then a normal allocation of log position(s) is pursued.
      *
-     * @param msg corfu message containing transaction token
-     * @param ctx netty ChannelHandlerContext
-     * @param r   server router
+     * @param msg              corfu message containing transaction token
+     * @param ctx              netty ChannelHandlerContext
+     * @param r                server router
+     * @param isMetricsEnabled whether to record the abort cause of the transaction
+     * @param conflictKey      returns the key responsible for an aborted transaction
+     * @param conflictStream   returns the stream responsible for a conflict abort
+     * @return the type of the token issued, or the abort cause
      */
-    private void handleTxToken(CorfuPayloadMsg<TokenRequest> msg,
-                               ChannelHandlerContext ctx, IServerRouter r) {
+    private TokenType handleTxToken(CorfuPayloadMsg<TokenRequest> msg,
+                                    ChannelHandlerContext ctx, IServerRouter r,
+                                    boolean isMetricsEnabled,
+                                    AtomicReference<byte[]> conflictKey,
+                                    AtomicReference<UUID> conflictStream) {
         final long serverEpoch = r.getServerEpoch();
         final TokenRequest req = msg.getPayload();
 
-        // Since Java does not allow an easy way for a function to return multiple values, this
-        // variable is passed to the consumer that will use it to indicate to us if/what key was
-        // responsible for an aborted transaction.
-        AtomicReference<byte[]> conflictKey = new AtomicReference(TokenResponse.NO_CONFLICT_KEY);
-
         // in the TK_TX request type, the sequencer is utilized for transaction conflict-resolution.
         // Token allocation is conditioned on commit.
         // First, we check if the transaction can commit.
-        TokenType tokenType = txnCanCommit(req.getTxnResolution(), conflictKey);
+        TokenType tokenType = txnCanCommit(req.getTxnResolution(), conflictKey, conflictStream);
         if (tokenType != TokenType.NORMAL) {
+            markAbortCause(isMetricsEnabled, tokenType);
+
             // If the txn aborts, then DO NOT hand out a token.
             Token token = new Token(Address.ABORTED, serverEpoch);
             r.sendResponse(ctx, msg, CorfuMsgType.TOKEN_RES.payloadMsg(new TokenResponse(tokenType,
                     conflictKey.get(), token, Collections.emptyMap())));
-            return;
+            return tokenType;
         }
 
         // if we get here, this means the transaction can commit.
         // handleAllocation() does the actual allocation of log position(s)
         // and returns the reponse
         handleAllocation(msg, ctx, r);
+        return tokenType;
     }
 
     /**
@@ -534,7 +860,7 @@ public class SequencerServer extends AbstractServer {
                                     // insert an entry with the new timestamp
                                     // using the hash code based on the param
                                     // and the stream id.
-                                    conflictToGlobalTailCache.put(
+                                    conflictIndex.put(
                                             getConflictHashCode(txEntry
                                                     .getKey(), conflictParam),
                                             newTail - 1)));
@@ -550,8 +876,70 @@ public class SequencerServer extends AbstractServer {
                 backPointerMap.build())));
     }
 
+    /**
+     * Record the abort cause of a transaction.
+     */
+    private void markAbortCause(boolean isMetricsEnabled, TokenType tokenType) {
+        switch (tokenType) {
+            case TX_ABORT_CONFLICT:
+                MetricsUtils.markConditionalMeter(isMetricsEnabled, meterAbortConflict, 1);
+                break;
+            case TX_ABORT_NEWSEQ:
+                MetricsUtils.markConditionalMeter(isMetricsEnabled, meterAbortNewSeq, 1);
+                break;
+            case TX_ABORT_SEQ_OVERFLOW:
+                MetricsUtils.markConditionalMeter(isMetricsEnabled, meterAbortOverflow, 1);
+                break;
+            case TX_ABORT_SEQ_TRIM:
+                MetricsUtils.markConditionalMeter(isMetricsEnabled, meterAbortTrim, 1);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void addConflictIndexGauges(MetricRegistry metrics) {
+        try {
+            metrics.register(metricsPrefix + "conflict-keys",
+                    (Gauge<Integer>) () -> conflictIndex.size());
+            metrics.register(metricsPrefix + "conflict-windows",
+                    (Gauge<Integer>) () -> conflictIndex.getNumWindows());
+            metrics.register(metricsPrefix + "conflict-wildcard",
+                    (Gauge<Long>) () -> conflictIndex.getMaxConflictWildcard());
+        } catch (IllegalArgumentException e) {
+            // Re-registering metrics during test runs, not a problem
+        }
+    }
+
+    private void addContentionGauges(MetricRegistry metrics) {
+        try {
+            metrics.register(metricsPrefix + "hot-streams", (Gauge<Map<UUID, Long>>)
+                    () -> hotStreams.top(CONTENTION_METRICS_TOP_K));
+            metrics.register(metricsPrefix + "aborted-streams", (Gauge<Map<UUID, Long>>)
+                    () -> abortedStreams.top(CONTENTION_METRICS_TOP_K));
+            metrics.register(metricsPrefix + "hot-conflict-keys", (Gauge<Map<String, Long>>)
+                    () -> hotConflictKeys.top(CONTENTION_METRICS_TOP_K));
+            metrics.register(metricsPrefix + "client-tokens", (Gauge<Map<UUID, Long>>)
+                    () -> clientTokens.top(CONTENTION_METRICS_TOP_K));
+        } catch (IllegalArgumentException e) {
+            // Re-registering metrics during test runs, not a problem
+        }
+    }
+
     @VisibleForTesting
-    public Cache<String, Long> getConflictToGlobalTailCache() {
-        return conflictToGlobalTailCache;
+    public ConflictIndex getConflictIndex() {
+        return conflictIndex;
+    }
+
+    /**
+     * Shutdown the server.
+     */
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        if (snapshotter != null) {
+            snapshotter.cancel(true);
+        }
+        scheduler.shutdownNow();
     }
 }
@@ -8,6 +8,7 @@ import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
 
+import org.corfudb.protocols.wireprotocol.SequencerSnapshot;
 import org.corfudb.util.MetricsUtils;
 
 import static org.corfudb.util.MetricsUtils.addJvmMetrics;
@@ -34,6 +35,8 @@ public class ServerContext {
     private static final String KEY_TAIL_SEGMENT = "CURRENT";
     private static final String PREFIX_STARTING_ADDRESS = "STARTING_ADDRESS";
     private static final String KEY_STARTING_ADDRESS = "CURRENT";
+    private static final String PREFIX_SEQUENCER_SNAPSHOT = "SEQUENCER_SNAPSHOT";
+    private static final String KEY_SEQUENCER_SNAPSHOT = "CURRENT";
 
     /**
      * various duration constants.
@@ -62,6 +65,13 @@ public class ServerContext {
     @Getter
     public static final MetricRegistry metrics = new MetricRegistry();
 
+    /**
+     * The global tail of the sequencer snapshot held by this node, kept in memory so that
+     * a newer snapshot can be checked without reading back the persisted one.
+     * Null until the persisted snapshot is first consulted.
+     */
+    private Long sequencerSnapshotTail = null;
+
     /**
      * Returns a new ServerContext.
      * @param serverConfig map of configuration strings to objects
@@ -126,4 +136,36 @@ public class ServerContext {
     public void setStartingAddress(long startingAddress) {
         dataStore.put(Long.class, PREFIX_STARTING_ADDRESS, KEY_STARTING_ADDRESS, startingAddress);
     }
+
+    /**
+     * Returns the latest sequencer snapshot held by this node.
+     * @return the sequencer snapshot, which is empty if none was persisted
+     */
+    public SequencerSnapshot getSequencerSnapshot() {
+        SequencerSnapshot snapshot = dataStore.get(SequencerSnapshot.class,
+                PREFIX_SEQUENCER_SNAPSHOT, KEY_SEQUENCER_SNAPSHOT);
+        return snapshot == null ? SequencerSnapshot.empty() : snapshot;
+    }
+
+    /**
+     * Persists a sequencer snapshot, only if it covers more of the log than the snapshot
+     * currently held by this node. Snapshots taken by a stale or lagging sequencer are ignored.
+     * @param snapshot the snapshot to persist
+     * @return true if the snapshot was persisted
+     */
+    public synchronized boolean installSequencerSnapshot(SequencerSnapshot snapshot) {
+        if (snapshot.isEmpty()) {
+            return false;
+        }
+        if (sequencerSnapshotTail == null) {
+            sequencerSnapshotTail = getSequencerSnapshot().getGlobalTail();
+        }
+        if (sequencerSnapshotTail >= snapshot.getGlobalTail()) {
+            return false;
+        }
+        dataStore.put(SequencerSnapshot.class, PREFIX_SEQUENCER_SNAPSHOT,
+                KEY_SEQUENCER_SNAPSHOT, snapshot);
+        sequencerSnapshotTail = snapshot.getGlobalTail();
+        return true;
+    }
 }
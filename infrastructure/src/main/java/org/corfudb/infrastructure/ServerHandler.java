@@ -26,4 +26,10 @@ public @interface ServerHandler {
      * @return the timer name
      */
     String opTimer() default ""; //
+
+    /**
+     * Returns where the router runs this handler.
+     * @return the execution policy of the handler
+     */
+    ExecutionPolicy policy() default ExecutionPolicy.WORKER;
 }
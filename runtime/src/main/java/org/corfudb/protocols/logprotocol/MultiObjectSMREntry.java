@@ -1,14 +1,16 @@
 package org.corfudb.protocols.logprotocol;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
-import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.wireprotocol.ILogData;
@@ -20,17 +22,23 @@ import org.corfudb.util.serializer.Serializers;
 /**
  * A log entry sturcture which contains a collection of multiSMRentries,
  * each one contains a list of updates for one object.
+ *
+ * <p>A deserialized entry only records where the updates of each object are, and
+ * deserializes them when they are first requested, so that a reader of one object does
+ * not pay for the updates to every other object in the transaction.
  */
 @Deprecated // TODO: Add replacement method that conforms to style
 @SuppressWarnings("checkstyle:abbreviation") // Due to deprecation
-@ToString
+@ToString(exclude = "serializedEntryMap")
 @Slf4j
 public class MultiObjectSMREntry extends LogEntry implements ISMRConsumable {
 
     // map from stream-ID to a list of updates encapsulated as MultiSMREntry
-    @Getter
     public Map<UUID, MultiSMREntry> entryMap = Collections.synchronizedMap(new HashMap<>());
 
+    // map from stream-ID to the serialized MultiSMREntry of the updates not yet deserialized
+    private final Map<UUID, byte[]> serializedEntryMap = new HashMap<>();
+
     public MultiObjectSMREntry() {
         this.type = LogEntryType.MULTIOBJSMR;
     }
@@ -46,7 +54,8 @@ public class MultiObjectSMREntry extends LogEntry implements ISMRConsumable {
      * @return the MultiSMREntry corresponding to streamId
      */
     protected MultiSMREntry getStreamEntry(UUID streamID) {
-        return getEntryMap().computeIfAbsent(streamID, u -> {
+        deserializeStreamEntry(streamID);
+        return entryMap.computeIfAbsent(streamID, u -> {
                     return new MultiSMREntry();
                 }
         );
@@ -86,35 +95,74 @@ public class MultiObjectSMREntry extends LogEntry implements ISMRConsumable {
         super.deserializeBuffer(b, rt);
 
         int numUpdates = b.readInt();
-        entryMap = new HashMap<>();
+        entryMap = Collections.synchronizedMap(new HashMap<>());
         for (int i = 0; i < numUpdates; i++) {
-            entryMap.put(
-                    new UUID(b.readLong(), b.readLong()),
-                    ((MultiSMREntry) Serializers.CORFU.deserialize(b, rt)));
+            UUID streamID = new UUID(b.readLong(), b.readLong());
+            int start = b.readerIndex();
+            MultiSMREntry.skip(b);
+            serializedEntryMap.put(streamID,
+                    ByteBufUtil.getBytes(b, start, b.readerIndex() - start));
         }
     }
 
+    /**
+     * Deserialize the updates to one object, if they were not deserialized yet.
+     *
+     * @param streamID StreamID
+     */
+    private synchronized void deserializeStreamEntry(UUID streamID) {
+        byte[] serialized = serializedEntryMap.remove(streamID);
+        if (serialized != null) {
+            MultiSMREntry multiSmrEntry = (MultiSMREntry) Serializers.CORFU
+                    .deserialize(Unpooled.wrappedBuffer(serialized), runtime);
+            if (getEntry() != null) {
+                multiSmrEntry.setEntry(getEntry());
+            }
+            entryMap.put(streamID, multiSmrEntry);
+        }
+    }
+
+    /**
+     * Get the updates to every object, deserializing those which were not
+     * deserialized yet.
+     *
+     * @return a map from stream-ID to the updates to that object
+     */
+    public synchronized Map<UUID, MultiSMREntry> getEntryMap() {
+        new ArrayList<>(serializedEntryMap.keySet()).forEach(this::deserializeStreamEntry);
+        return entryMap;
+    }
+
     @Override
-    public void serialize(ByteBuf b) {
+    public synchronized void serialize(ByteBuf b) {
         super.serialize(b);
-        b.writeInt(entryMap.size());
+        b.writeInt(entryMap.size() + serializedEntryMap.size());
         entryMap.entrySet().stream()
                 .forEach(x -> {
                     b.writeLong(x.getKey().getMostSignificantBits());
                     b.writeLong(x.getKey().getLeastSignificantBits());
                     Serializers.CORFU.serialize(x.getValue(), b);
                 });
+        // Updates which were never deserialized are copied as they are.
+        serializedEntryMap.entrySet().stream()
+                .forEach(x -> {
+                    b.writeLong(x.getKey().getMostSignificantBits());
+                    b.writeLong(x.getKey().getLeastSignificantBits());
+                    b.writeBytes(x.getValue());
+                });
     }
 
     /**
      * Get the list of SMR updates for a particular object.
+     * Only the updates to that object are deserialized.
      * @param id StreamID
      * @return an empty list if object has no updates; a list of updates if exists
      */
     @Override
     public List<SMREntry> getSMRUpdates(UUID id) {
+        deserializeStreamEntry(id);
         MultiSMREntry entry = entryMap.get(id);
-        return entryMap.get(id) == null ? Collections.emptyList() :
+        return entry == null ? Collections.emptyList() :
                 entry.getUpdates();
     }
 
@@ -122,9 +170,9 @@ public class MultiObjectSMREntry extends LogEntry implements ISMRConsumable {
      * {@inheritDoc}
      */
     @Override
-    public void setEntry(ILogData entry) {
+    public synchronized void setEntry(ILogData entry) {
         super.setEntry(entry);
-        this.getEntryMap().values().forEach(x -> {
+        this.entryMap.values().forEach(x -> {
             x.setEntry(entry);
         });
     }
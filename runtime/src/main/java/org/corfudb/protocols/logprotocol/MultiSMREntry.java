@@ -65,6 +65,21 @@ public class MultiSMREntry extends LogEntry implements ISMRConsumable {
         }
     }
 
+    /**
+     * Move the reader index of a buffer past a MultiSMREntry serialized by
+     * Serializers.CORFU, without deserializing it.
+     *
+     * @param b The buffer to read from.
+     */
+    static void skip(ByteBuf b) {
+        // The payload magic and the entry type.
+        b.skipBytes(2);
+        int numUpdates = b.readInt();
+        for (int i = 0; i < numUpdates; i++) {
+            SMREntry.skip(b);
+        }
+    }
+
     @Override
     public void serialize(ByteBuf b) {
         super.serialize(b);
@@ -1,6 +1,8 @@
 package org.corfudb.protocols.logprotocol;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -16,11 +18,16 @@ import org.corfudb.util.serializer.ISerializer;
 import org.corfudb.util.serializer.Serializers;
 
 /**
- * Created by mwei on 1/8/16.
+ * An update to an SMR object, which calls one of its mutator methods.
+ *
+ * <p>A deserialized entry keeps its arguments serialized until they are first requested,
+ * so that readers which skip the entry never pay for deserializing them.
+ *
+ * <p>Created by mwei on 1/8/16.
  */
 @Deprecated // TODO: Add replacement method that conforms to style
 @SuppressWarnings("checkstyle:abbreviation") // Due to deprecation
-@ToString(callSuper = true)
+@ToString(callSuper = true, exclude = "serializedArguments")
 @NoArgsConstructor
 public class SMREntry extends LogEntry implements ISMRConsumable {
 
@@ -37,8 +44,12 @@ public class SMREntry extends LogEntry implements ISMRConsumable {
      */
     @Deprecated // TODO: Add replacement method that conforms to style
     @SuppressWarnings("checkstyle:MemberName") // Due to deprecation
-    @Getter
-    private Object[] SMRArguments;
+    private volatile Object[] SMRArguments;
+
+    /**
+     * The serialized arguments, until they are deserialized.
+     */
+    private byte[][] serializedArguments;
 
     /**
      * The serializer used to serialize the SMR arguments.
@@ -108,14 +119,56 @@ public class SMREntry extends LogEntry implements ISMRConsumable {
         SMRMethod = new String(methodBytes);
         serializerType = Serializers.getSerializer(b.readByte());
         byte numArguments = b.readByte();
-        Object[] arguments = new Object[numArguments];
+        byte[][] arguments = new byte[numArguments][];
         for (byte arg = 0; arg < numArguments; arg++) {
             int len = b.readInt();
-            ByteBuf objBuf = b.slice(b.readerIndex(), len);
-            arguments[arg] = serializerType.deserialize(objBuf, rt);
+            arguments[arg] = ByteBufUtil.getBytes(b, b.readerIndex(), len);
             b.skipBytes(len);
         }
-        SMRArguments = arguments;
+        serializedArguments = arguments;
+    }
+
+    /**
+     * Move the reader index of a buffer past an SMREntry serialized by
+     * Serializers.CORFU, without deserializing it.
+     *
+     * @param b The buffer to read from.
+     */
+    static void skip(ByteBuf b) {
+        // The payload magic and the entry type.
+        b.skipBytes(2);
+        b.skipBytes(b.readShort());
+        // The serializer type.
+        b.skipBytes(1);
+        byte numArguments = b.readByte();
+        for (byte arg = 0; arg < numArguments; arg++) {
+            b.skipBytes(b.readInt());
+        }
+    }
+
+    /**
+     * Get the arguments to the SMR method, deserializing them on first access.
+     *
+     * @return The arguments to the SMR method, which could be 0.
+     */
+    @Deprecated // TODO: Add replacement method that conforms to style
+    public Object[] getSMRArguments() {
+        Object[] arguments = SMRArguments;
+        if (arguments == null) {
+            synchronized (this) {
+                arguments = SMRArguments;
+                if (arguments == null) {
+                    arguments = new Object[serializedArguments.length];
+                    for (int arg = 0; arg < arguments.length; arg++) {
+                        ByteBuf objBuf = Unpooled.wrappedBuffer(serializedArguments[arg]);
+                        arguments[arg] = serializerType.deserialize(objBuf, runtime);
+                    }
+                    SMRArguments = arguments;
+                    serializedArguments = null;
+                }
+            }
+        }
+        return arguments;
     }
 
     @Override
@@ -124,6 +177,18 @@ public class SMREntry extends LogEntry implements ISMRConsumable {
         b.writeShort(SMRMethod.length());
         b.writeBytes(SMRMethod.getBytes());
         b.writeByte(serializerType.getType());
+        synchronized (this) {
+            if (SMRArguments == null) {
+                // Arguments which were never deserialized are copied as they are.
+                b.writeByte(serializedArguments.length);
+                Arrays.stream(serializedArguments)
+                        .forEach(x -> {
+                            b.writeInt(x.length);
+                            b.writeBytes(x);
+                        });
+                return;
+            }
+        }
         b.writeByte(SMRArguments.length);
         Arrays.stream(SMRArguments)
                 .forEach(x -> {
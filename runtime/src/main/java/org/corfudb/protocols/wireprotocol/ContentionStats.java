@@ -0,0 +1,54 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Map;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The contention statistics of a sequencer, used to find the streams, conflict keys and
+ * clients responsible for transaction aborts.
+ *
+ * <p>Counts are accumulated since the sequencer server started. The hot streams, conflict
+ * keys and clients are estimated by space-saving sketches, so each count may overestimate
+ * the true count by a bounded amount.
+ */
+@Data
+@AllArgsConstructor
+public class ContentionStats implements ICorfuPayload<ContentionStats> {
+
+    /** The streams with the most tokens issued, and their token count. */
+    private Map<UUID, Long> hotStreams;
+
+    /** The streams with the most conflict aborts, and their abort count. */
+    private Map<UUID, Long> abortedStreams;
+
+    /** The conflict keys with the most conflict aborts, and their abort count. */
+    private Map<String, Long> hotConflictKeys;
+
+    /** The number of aborted transactions for each abort cause. */
+    private Map<String, Long> abortsByCause;
+
+    /** The clients with the most tokens issued, and their token count. */
+    private Map<UUID, Long> clientTokens;
+
+    public ContentionStats(ByteBuf buf) {
+        hotStreams = ICorfuPayload.mapFromBuffer(buf, UUID.class, Long.class);
+        abortedStreams = ICorfuPayload.mapFromBuffer(buf, UUID.class, Long.class);
+        hotConflictKeys = ICorfuPayload.mapFromBuffer(buf, String.class, Long.class);
+        abortsByCause = ICorfuPayload.mapFromBuffer(buf, String.class, Long.class);
+        clientTokens = ICorfuPayload.mapFromBuffer(buf, UUID.class, Long.class);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, hotStreams);
+        ICorfuPayload.serialize(buf, abortedStreams);
+        ICorfuPayload.serialize(buf, hotConflictKeys);
+        ICorfuPayload.serialize(buf, abortsByCause);
+        ICorfuPayload.serialize(buf, clientTokens);
+    }
+}
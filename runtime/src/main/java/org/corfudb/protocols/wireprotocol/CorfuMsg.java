@@ -24,6 +24,12 @@ public class CorfuMsg {
      * Marker field value, should equal 0xC0FC0FC0.
      */
     static final int markerField = 0xC0FC0FC0;
+
+    /**
+     * The size of the header of a message:
+     * marker(4) | client ID(16) | request ID(8) | epoch(8) | type(1).
+     */
+    static final int HEADER_SIZE = Integer.BYTES + Long.BYTES * 4 + Byte.BYTES;
     static Map<Byte, CorfuMsgType> typeMap =
             Arrays.<CorfuMsgType>stream(CorfuMsgType.values())
                     .collect(Collectors.toMap(CorfuMsgType::asByte, Function.identity()));
@@ -83,7 +89,32 @@ public class CorfuMsg {
         UUID clientId = new UUID(buffer.readLong(), buffer.readLong());
         long requestId = buffer.readLong();
         long epoch = buffer.readLong();
+        return construct(buffer, typeMap.get(buffer.readByte()), clientId, requestId, epoch);
+    }
+
+    /**
+     * Take the given bytebuffer, which starts with a compact header, and deserialize it
+     * into a message.
+     *
+     * @param buffer   The buffer to deserialize.
+     * @param clientId The client ID of the connection the message was received on.
+     * @return The corresponding message.
+     * @see CorfuMsgFraming
+     */
+    public static CorfuMsg deserializeCompact(ByteBuf buffer, UUID clientId) {
+        byte marker = buffer.readByte();
+        if (marker != CorfuMsgFraming.COMPACT_MARKER) {
+            throw new RuntimeException("Attempt to deserialize a message which is not a compact "
+                    + "CorfuMsg, Marker = " + marker);
+        }
         CorfuMsgType message = typeMap.get(buffer.readByte());
+        long requestId = CorfuMsgFraming.readVarLong(buffer);
+        long epoch = CorfuMsgFraming.readZigZagVarLong(buffer);
+        return construct(buffer, message, clientId, requestId, epoch);
+    }
+
+    private static CorfuMsg construct(ByteBuf buffer, CorfuMsgType message, UUID clientId,
+                                      long requestId, long epoch) {
         CorfuMsg msg = message.getConstructor().construct();
 
         msg.clientID = clientId;
@@ -112,6 +143,42 @@ public class CorfuMsg {
         buffer.writeLong(requestID);
         buffer.writeLong(epoch);
         buffer.writeByte(msgType.asByte());
+        serializePayload(buffer);
+    }
+
+    /**
+     * Serialize the message into the given bytebuffer, with a compact header which
+     * leaves out the client ID.
+     *
+     * @param buffer The buffer to serialize to.
+     * @see CorfuMsgFraming
+     */
+    public void serializeCompact(ByteBuf buffer) {
+        buffer.writeByte(CorfuMsgFraming.COMPACT_MARKER);
+        buffer.writeByte(msgType.asByte());
+        CorfuMsgFraming.writeVarLong(buffer, requestID);
+        CorfuMsgFraming.writeZigZagVarLong(buffer, epoch);
+        serializePayload(buffer);
+    }
+
+    /**
+     * Serialize the rest of the message into the buffer, after the header. Classes that
+     * extend CorfuMsg should serialize their fields in this method.
+     *
+     * @param buffer The buffer to serialize to.
+     */
+    protected void serializePayload(ByteBuf buffer) {
+        // we don't do anything here since in the base message, no fields remain.
+    }
+
+    /**
+     * Get an estimate of the serialized size of the message, used to allocate
+     * a buffer of the right size up front when the message is encoded.
+     *
+     * @return An estimate of the serialized size of the message, in bytes.
+     */
+    public int getSizeHint() {
+        return HEADER_SIZE;
     }
 
     /**
@@ -131,6 +198,14 @@ public class CorfuMsg {
         this.requestID = msg.requestID;
     }
 
+    /**
+     * Release the slices the payload retains of the buffer the message was decoded from.
+     * The server router calls it once the message is handled or dropped.
+     */
+    public void releaseSlices() {
+        // The base message has no payload.
+    }
+
     /**
      * Release the underlying buffer, if present.
      */
@@ -0,0 +1,196 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+import java.util.UUID;
+
+/**
+ * The framings of a CorfuMsg header, and the framing state of a channel.
+ *
+ * <p>A full (v1) header carries the marker, the client ID, the request ID and the epoch of
+ * every message, 37 bytes in all:
+ * <pre>
+ *     marker(4) | client ID(16) | request ID(8) | epoch(8) | type(1)
+ * </pre>
+ *
+ * <p>A compact (v2) header leaves out the client ID, which is fixed for the lifetime of a
+ * connection, and encodes the request ID and epoch as variable length integers:
+ * <pre>
+ *     marker(1) | type(1) | request ID(varint) | epoch(zigzag varint)
+ * </pre>
+ * The first byte of a frame tells the two framings apart, so a decoder always accepts both.
+ *
+ * <p>An encoder only writes compact headers once it knows the peer can decode them.
+ * The client learns it from the framing version in the {@link VersionInfo} of the server,
+ * which it requests when it connects; the server learns it from the first compact header
+ * it receives. Until then, and with peers which predate compact headers, every header is
+ * a full one. The client ID of a connection is taken from the full headers the client
+ * sends.
+ *
+ * <p>Peers which decode v3 frames also accept frames compressed by a
+ * {@link NettyCompressionCodec}. A client which wants compression sends a
+ * COMPRESSION_REQUEST with its threshold to a server which advertises v3. Both ends then
+ * compress the frames they write which are larger than the threshold.
+ */
+public final class CorfuMsgFraming {
+
+    /** Full headers only. */
+    public static final int V1 = 1;
+
+    /** Compact headers. */
+    public static final int V2 = 2;
+
+    /** Compact headers and compressed frames. */
+    public static final int V3 = 3;
+
+    /** The latest framing version, which this version of Corfu decodes. */
+    public static final int LATEST = V3;
+
+    /** The marker of a compact header. The marker of a full header starts with 0xC0. */
+    static final byte COMPACT_MARKER = (byte) 0xC2;
+
+    /** The marker of a compressed frame. */
+    static final byte COMPRESSED_MARKER = (byte) 0xC5;
+
+    private static final int VARINT_BITS = 7;
+
+    private static final int VARINT_MASK = 0x7F;
+
+    private static final int VARINT_MORE = 0x80;
+
+    /** The latest framing version the peer of a channel decodes. */
+    private static final AttributeKey<Integer> PEER_VERSION =
+            AttributeKey.valueOf(CorfuMsgFraming.class, "peerVersion");
+
+    /** The client ID of the connection of a channel. */
+    private static final AttributeKey<UUID> CLIENT_ID =
+            AttributeKey.valueOf(CorfuMsgFraming.class, "clientId");
+
+    /** The size above which the frames written on a channel are compressed. */
+    private static final AttributeKey<Integer> COMPRESSION_THRESHOLD =
+            AttributeKey.valueOf(CorfuMsgFraming.class, "compressionThreshold");
+
+    private CorfuMsgFraming() {
+        // Prevent initialization.
+    }
+
+    /**
+     * Get the latest framing version the peer of a channel is known to decode.
+     *
+     * @param channel The channel.
+     * @return The framing version, {@link #V1} if the peer did not advertise one.
+     */
+    public static int getPeerVersion(Channel channel) {
+        final Integer version = channel.attr(PEER_VERSION).get();
+        return version == null ? V1 : version;
+    }
+
+    /**
+     * Set the latest framing version the peer of a channel decodes.
+     *
+     * @param channel The channel.
+     * @param version The framing version, capped to {@link #LATEST}.
+     */
+    public static void setPeerVersion(Channel channel, int version) {
+        channel.attr(PEER_VERSION).set(Math.min(version, LATEST));
+    }
+
+    /**
+     * Get the client ID of the connection of a channel.
+     *
+     * @param channel The channel.
+     * @return The client ID, or null if no full header was sent or received yet.
+     */
+    static UUID getClientId(Channel channel) {
+        return channel.attr(CLIENT_ID).get();
+    }
+
+    /**
+     * Set the client ID of the connection of a channel.
+     *
+     * @param channel  The channel.
+     * @param clientId The client ID of a full header sent or received on the channel.
+     */
+    static void setClientId(Channel channel, UUID clientId) {
+        channel.attr(CLIENT_ID).set(clientId);
+    }
+
+    /**
+     * Get the size above which the frames written on a channel are compressed.
+     *
+     * @param channel The channel.
+     * @return The compression threshold in bytes, or 0 if frames are not compressed.
+     */
+    public static int getCompressionThreshold(Channel channel) {
+        final Integer threshold = channel.attr(COMPRESSION_THRESHOLD).get();
+        return threshold == null ? 0 : threshold;
+    }
+
+    /**
+     * Set the size above which the frames written on a channel are compressed. The peer
+     * must decode v3 frames.
+     *
+     * @param channel   The channel.
+     * @param threshold The compression threshold in bytes, or 0 to stop compressing frames.
+     */
+    public static void setCompressionThreshold(Channel channel, int threshold) {
+        channel.attr(COMPRESSION_THRESHOLD).set(threshold);
+    }
+
+    /**
+     * Write an unsigned variable length integer: 7 bits per byte, least significant
+     * group first, with the high bit set on every byte but the last.
+     *
+     * @param buffer The buffer to write to.
+     * @param value  The value, treated as unsigned.
+     */
+    static void writeVarLong(ByteBuf buffer, long value) {
+        while ((value & ~VARINT_MASK) != 0) {
+            buffer.writeByte((int) (value & VARINT_MASK) | VARINT_MORE);
+            value >>>= VARINT_BITS;
+        }
+        buffer.writeByte((int) value);
+    }
+
+    /**
+     * Read an unsigned variable length integer.
+     *
+     * @param buffer The buffer to read from.
+     * @return The value.
+     */
+    static long readVarLong(ByteBuf buffer) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += VARINT_BITS) {
+            final byte b = buffer.readByte();
+            value |= (long) (b & VARINT_MASK) << shift;
+            if ((b & VARINT_MORE) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed variable length integer");
+    }
+
+    /**
+     * Write a signed variable length integer, zigzag encoded so that values close to
+     * zero, such as an epoch of -1, take a single byte.
+     *
+     * @param buffer The buffer to write to.
+     * @param value  The value.
+     */
+    static void writeZigZagVarLong(ByteBuf buffer, long value) {
+        writeVarLong(buffer, (value << 1) ^ (value >> (Long.SIZE - 1)));
+    }
+
+    /**
+     * Read a zigzag encoded signed variable length integer.
+     *
+     * @param buffer The buffer to read from.
+     * @return The value.
+     */
+    static long readZigZagVarLong(ByteBuf buffer) {
+        final long value = readVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -31,6 +31,8 @@ public enum CorfuMsgType {
     VERSION_REQUEST(7, TypeToken.of(CorfuMsg.class), true),
     VERSION_RESPONSE(8, new TypeToken<JSONPayloadMsg<VersionInfo>>() {}, true),
     NOT_READY(9, TypeToken.of(CorfuMsg.class), true),
+    COMPRESSION_REQUEST(90, new TypeToken<CorfuPayloadMsg<Integer>>() {}, true),
+    SERVER_BUSY(91, TypeToken.of(CorfuMsg.class), true),
 
     // Layout Messages
     LAYOUT_REQUEST(10, new TypeToken<CorfuPayloadMsg<Long>>(){}, true),
@@ -49,6 +51,10 @@ public enum CorfuMsgType {
     TOKEN_RES(21, new TypeToken<CorfuPayloadMsg<TokenResponse>>(){}),
     BOOTSTRAP_SEQUENCER(22, new TypeToken<CorfuPayloadMsg<SequencerTailsRecoveryMsg>>(){}),
     SEQUENCER_TRIM_REQ(23, new TypeToken<CorfuPayloadMsg<Long>>() {}),
+    SEQUENCER_SNAPSHOT_REQ(24, TypeToken.of(CorfuMsg.class), true),
+    SEQUENCER_SNAPSHOT_RES(25, new TypeToken<CorfuPayloadMsg<SequencerSnapshot>>() {}, true),
+    SEQUENCER_CONTENTION_REQ(26, new TypeToken<CorfuPayloadMsg<Integer>>() {}, true),
+    SEQUENCER_CONTENTION_RES(27, new TypeToken<CorfuPayloadMsg<ContentionStats>>() {}, true),
 
     // Logging Unit Messages
     WRITE(30, new TypeToken<CorfuPayloadMsg<WriteRequest>>() {}),
@@ -36,16 +36,33 @@ public class CorfuPayloadMsg<T> extends CorfuMsg {
     }
 
     /**
-     * Serialize the message into the given bytebuffer.
+     * Serialize the rest of the message into the given bytebuffer.
      *
      * @param buffer The buffer to serialize to.
      */
     @Override
-    public void serialize(ByteBuf buffer) {
-        super.serialize(buffer);
+    protected void serializePayload(ByteBuf buffer) {
         ICorfuPayload.serialize(buffer, payload);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getSizeHint() {
+        return super.getSizeHint() + ICorfuPayload.sizeHint(payload);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void releaseSlices() {
+        if (payload instanceof ICorfuPayload) {
+            ((ICorfuPayload<?>) payload).releaseSlices();
+        }
+    }
+
     /**
      * Parse the rest of the message from the buffer. Classes that extend CorfuMsg
      * should parse their fields in this method.
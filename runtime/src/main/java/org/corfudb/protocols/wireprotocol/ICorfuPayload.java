@@ -16,6 +16,7 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.EnumMap;
 import java.util.List;
@@ -48,10 +49,11 @@ public interface ICorfuPayload<T> {
                 .put(Double.class, ByteBuf::readDouble)
                 .put(Float.class, ByteBuf::readFloat)
                 .put(String.class, x -> {
+                    // Decode in place, rather than copying into an intermediate array.
                     int numBytes = x.readInt();
-                    byte[] bytes = new byte[numBytes];
-                    x.readBytes(bytes);
-                    return new String(bytes);
+                    String str = x.toString(x.readerIndex(), numBytes, Charset.defaultCharset());
+                    x.skipBytes(numBytes);
+                    return str;
                 })
                 .put(Layout.class, x -> {
                     int length = x.readInt();
@@ -366,5 +368,86 @@ public interface ICorfuPayload<T> {
         }
     }
 
+    /**
+     * Estimate the serialized size of a payload, to size the buffer it is serialized into.
+     *
+     * <p>Fixed size types and enums are estimated exactly, variable size types by their length.
+     * Other payloads are estimated by {@link ICorfuPayload#getSizeHint()} if they are an
+     * ICorfuPayload, or by {@link ICorfuPayload#DEFAULT_SIZE_HINT}.
+     *
+     * @param payload       The payload to estimate the size of.
+     * @return An estimate of the serialized size of the payload, in bytes.
+     */
+    static int sizeHint(Object payload) {
+        if (payload instanceof Enum) {
+            // Enums are serialized as their byte value.
+            return Byte.BYTES;
+        } else if (payload instanceof ICorfuPayload) {
+            return ((ICorfuPayload<?>) payload).getSizeHint();
+        } else if (payload instanceof Byte || payload instanceof Boolean) {
+            return Byte.BYTES;
+        } else if (payload instanceof Short) {
+            return Short.BYTES;
+        } else if (payload instanceof Integer || payload instanceof Float) {
+            return Integer.BYTES;
+        } else if (payload instanceof Long || payload instanceof Double) {
+            return Long.BYTES;
+        } else if (payload instanceof UUID) {
+            return Long.BYTES * 2;
+        } else if (payload instanceof byte[]) {
+            return Integer.BYTES + ((byte[]) payload).length;
+        } else if (payload instanceof String) {
+            return Integer.BYTES + ((String) payload).length();
+        } else if (payload instanceof ByteBuf) {
+            return Integer.BYTES + ((ByteBuf) payload).readableBytes();
+        } else if (payload instanceof EnumMap) {
+            return Byte.BYTES + mapSizeHint((Map<?, ?>) payload);
+        } else if (payload instanceof Map) {
+            return Integer.BYTES + mapSizeHint((Map<?, ?>) payload);
+        } else if (payload instanceof Set || payload instanceof List) {
+            int size = Integer.BYTES;
+            for (Object x : (Iterable<?>) payload) {
+                size += sizeHint(x);
+            }
+            return size;
+        }
+        return DEFAULT_SIZE_HINT;
+    }
+
+    /**
+     * Estimate the serialized size of the entries of a map.
+     *
+     * @param map           The map to estimate the size of.
+     * @return An estimate of the serialized size of the entries, in bytes.
+     */
+    static int mapSizeHint(Map<?, ?> map) {
+        int size = 0;
+        for (Map.Entry<?, ?> x : map.entrySet()) {
+            size += sizeHint(x.getKey()) + sizeHint(x.getValue());
+        }
+        return size;
+    }
+
+    /** The size estimate of a payload which does not provide one. */
+    int DEFAULT_SIZE_HINT = 32;
+
+    /**
+     * Get an estimate of the serialized size of this payload. The estimate does not need
+     * to be exact: the buffer the payload is serialized into grows if it is too small.
+     *
+     * @return An estimate of the serialized size of this payload, in bytes.
+     */
+    default int getSizeHint() {
+        return DEFAULT_SIZE_HINT;
+    }
+
+    /**
+     * Release the slices this payload retains of the buffer it was decoded from.
+     * Payloads which copy what they decode retain nothing.
+     */
+    default void releaseSlices() {
+        // Nothing is retained by default.
+    }
+
     void doSerialize(ByteBuf buf);
 }
@@ -35,13 +35,12 @@ public class LayoutMsg extends CorfuMsg {
     }
 
     /**
-     * Serialize the message into the given bytebuffer.
+     * Serialize the rest of the message into the given bytebuffer.
      *
      * @param buffer The buffer to serialize to.
      */
     @Override
-    public void serialize(ByteBuf buffer) {
-        super.serialize(buffer);
+    protected void serializePayload(ByteBuf buffer) {
         byte[] b = parser.toJson(layout).getBytes();
         buffer.writeInt(b.length);
         buffer.writeBytes(b);
@@ -28,10 +28,15 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
     @Getter
     final DataType type;
 
-    @Getter
     byte[] data;
 
-    private ByteBuf serializedCache = null;
+    /**
+     * The serialized payload, as a retained slice of the buffer it was decoded from,
+     * until it is copied out into data.
+     */
+    private volatile ByteBuf dataSlice = null;
+
+    ByteBuf serializedCache = null;
 
     private int lastKnownSize = NOT_KNOWN;
 
@@ -41,6 +46,7 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
      * Return the payload.
      */
     public Object getPayload(CorfuRuntime runtime) {
+        releaseSlices();
         Object value = payload.get();
         if (value == null) {
             synchronized (this.payload) {
@@ -83,17 +89,49 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
     @Override
     public synchronized void acquireBuffer() {
         if (serializedCache == null) {
-            serializedCache = Unpooled.buffer();
+            serializedCache = Unpooled.buffer(getSizeHint());
             doSerializeInternal(serializedCache);
-            lastKnownSize = serializedCache.array().length;
+            lastKnownSize = serializedCache.readableBytes();
         } else {
             serializedCache.retain();
         }
     }
 
+    /**
+     * Get the serialized payload, copying it out of the buffer it was decoded from
+     * if it is still retained.
+     *
+     * @return The serialized payload, or null if there is none.
+     */
+    public byte[] getData() {
+        releaseSlices();
+        return data;
+    }
+
+    /**
+     * Copy the serialized payload out of the buffer it was decoded from, if it is still
+     * retained, and release the buffer.
+     */
+    @Override
+    public void releaseSlices() {
+        if (dataSlice != null) {
+            synchronized (this) {
+                final ByteBuf slice = dataSlice;
+                if (slice != null) {
+                    data = byteArrayFromBuf(slice);
+                    dataSlice = null;
+                    slice.release();
+                }
+            }
+        }
+    }
+
     @Override
     public int getSizeEstimate() {
-        if (data != null) {
+        final ByteBuf slice = dataSlice;
+        if (slice != null) {
+            return slice.readableBytes();
+        } else if (data != null) {
             return data.length;
         } else if (lastKnownSize != NOT_KNOWN) {
             return lastKnownSize;
@@ -103,6 +141,28 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
         return 1;
     }
 
+    @Override
+    public int getSizeHint() {
+        final ByteBuf cache = serializedCache;
+        if (cache != null) {
+            return cache.writerIndex();
+        } else if (lastKnownSize != NOT_KNOWN) {
+            return lastKnownSize;
+        }
+        int size = ICorfuPayload.sizeHint(type);
+        final ByteBuf slice = dataSlice;
+        if (slice != null) {
+            size += ICorfuPayload.sizeHint(slice);
+        } else if (type == DataType.DATA) {
+            size += data == null ? ICorfuPayload.DEFAULT_SIZE_HINT
+                    : ICorfuPayload.sizeHint(data);
+        }
+        if (type.isMetadataAware()) {
+            size += ICorfuPayload.sizeHint(metadataMap);
+        }
+        return size;
+    }
+
     @Getter
     final EnumMap<LogUnitMetadataType, Object> metadataMap;
 
@@ -110,8 +170,26 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
      * Return the payload.
      */
     public LogData(ByteBuf buf) {
+        this(buf, false);
+    }
+
+    /**
+     * Deserialize log data from a buffer.
+     *
+     * <p>If the payload is sliced, it is not copied out of the buffer, but retained as a
+     * slice of it until {@link #releaseSlices()}. Only data which does not outlive the
+     * handling of the message it was decoded from, such as a write request, is sliced.
+     *
+     * @param buf    The buffer to deserialize from.
+     * @param sliced True, if the payload is retained as a slice of the buffer.
+     */
+    LogData(ByteBuf buf, boolean sliced) {
         type = ICorfuPayload.fromBuffer(buf, DataType.class);
-        if (type == DataType.DATA) {
+        if (type == DataType.DATA && sliced) {
+            final int length = buf.readInt();
+            dataSlice = buf.readRetainedSlice(length);
+            data = null;
+        } else if (type == DataType.DATA) {
             data = ICorfuPayload.fromBuffer(buf, byte[].class);
         } else {
             data = null;
@@ -182,9 +260,11 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
 
     @Override
     public void doSerialize(ByteBuf buf) {
-        if (serializedCache != null) {
-            serializedCache.resetReaderIndex();
-            buf.writeBytes(serializedCache);
+        final ByteBuf cache = serializedCache;
+        if (cache != null) {
+            // Copy by index, so that concurrent writers of the same cache do not race
+            // on its reader index.
+            buf.writeBytes(cache, 0, cache.writerIndex());
         } else {
             doSerializeInternal(buf);
         }
@@ -192,7 +272,11 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
 
     void doSerializeInternal(ByteBuf buf) {
         ICorfuPayload.serialize(buf, type);
-        if (type == DataType.DATA) {
+        final ByteBuf slice = dataSlice;
+        if (slice != null) {
+            buf.writeInt(slice.readableBytes());
+            buf.writeBytes(slice, slice.readerIndex(), slice.readableBytes());
+        } else if (type == DataType.DATA) {
             if (data == null) {
                 int lengthIndex = buf.writerIndex();
                 buf.writeInt(0);
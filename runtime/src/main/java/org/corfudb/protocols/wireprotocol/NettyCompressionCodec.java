@@ -0,0 +1,115 @@
+package org.corfudb.protocols.wireprotocol;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageCodec;
+import io.netty.handler.codec.compression.Snappy;
+
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.corfudb.util.MetricsUtils;
+
+/**
+ * A pipeline stage which compresses the frames written on a channel, and decompresses the
+ * frames read from it. It sits between the length field codecs and the CorfuMsg codecs.
+ *
+ * <p>Frames are compressed with Snappy, a pure-Java codec which trades compression ratio
+ * for speed. A compressed frame starts with {@link CorfuMsgFraming#COMPRESSED_MARKER},
+ * followed by the Snappy block, so compressed and uncompressed frames are told apart by
+ * their first byte and can be mixed freely on a channel. Frames are only compressed once
+ * a compression threshold is set on the channel (see {@link CorfuMsgFraming}), if they are
+ * at least that large, and if compression makes them smaller.
+ *
+ * <p>The compression ratio, as the percentage of the original size, and the time taken to
+ * compress and decompress frames are recorded under the given metrics prefix.
+ */
+@Slf4j
+public class NettyCompressionCodec extends MessageToMessageCodec<ByteBuf, ByteBuf> {
+
+    private static final int PERCENT = 100;
+
+    private final Snappy snappy = new Snappy();
+
+    private final Timer timerCompress;
+
+    private final Timer timerDecompress;
+
+    private final Histogram histogramRatio;
+
+    /**
+     * Returns a new NettyCompressionCodec.
+     *
+     * @param metrics       The registry to record metrics in.
+     * @param metricsPrefix The prefix of the names of the metrics.
+     */
+    public NettyCompressionCodec(MetricRegistry metrics, String metricsPrefix) {
+        timerCompress = metrics.timer(metricsPrefix + "compress");
+        timerDecompress = metrics.timer(metricsPrefix + "decompress");
+        histogramRatio = metrics.histogram(metricsPrefix + "compression-ratio");
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out)
+            throws Exception {
+        final int threshold = CorfuMsgFraming.getCompressionThreshold(ctx.channel());
+        final int length = frame.readableBytes();
+        if (threshold <= 0 || length < threshold) {
+            out.add(frame.retain());
+            return;
+        }
+
+        final boolean isEnabled = MetricsUtils.isMetricsCollectionEnabled();
+        ByteBuf compressed = ctx.alloc().buffer(length);
+        try (Timer.Context context = MetricsUtils.getConditionalContext(isEnabled,
+                timerCompress)) {
+            compressed.writeByte(CorfuMsgFraming.COMPRESSED_MARKER);
+            snappy.encode(frame.duplicate(), compressed, length);
+        } catch (Exception e) {
+            compressed.release();
+            throw e;
+        } finally {
+            snappy.reset();
+        }
+
+        if (isEnabled) {
+            histogramRatio.update((long) compressed.readableBytes() * PERCENT / length);
+        }
+        if (compressed.readableBytes() >= length) {
+            // Incompressible, send the frame as is.
+            compressed.release();
+            out.add(frame.retain());
+        } else {
+            out.add(compressed);
+        }
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out)
+            throws Exception {
+        if (frame.getByte(frame.readerIndex()) != CorfuMsgFraming.COMPRESSED_MARKER) {
+            out.add(frame.retain());
+            return;
+        }
+
+        final boolean isEnabled = MetricsUtils.isMetricsCollectionEnabled();
+        // The buffer grows to the uncompressed size, which Snappy reads first.
+        ByteBuf decompressed = ctx.alloc().buffer();
+        try (Timer.Context context = MetricsUtils.getConditionalContext(isEnabled,
+                timerDecompress)) {
+            frame.skipBytes(1);
+            snappy.decode(frame, decompressed);
+        } catch (Exception e) {
+            decompressed.release();
+            throw e;
+        } finally {
+            snappy.reset();
+        }
+        out.add(decompressed);
+    }
+}
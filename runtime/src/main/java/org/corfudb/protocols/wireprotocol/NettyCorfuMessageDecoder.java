@@ -2,10 +2,12 @@ package org.corfudb.protocols.wireprotocol;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 
 import java.util.List;
+import java.util.UUID;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -19,7 +21,25 @@ public class NettyCorfuMessageDecoder extends ByteToMessageDecoder {
     @Override
     protected void decode(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf,
                           List<Object> list) throws Exception {
-        list.add(CorfuMsg.deserialize(byteBuf));
+        final Channel channel = channelHandlerContext.channel();
+        if (byteBuf.getByte(byteBuf.readerIndex()) == CorfuMsgFraming.COMPACT_MARKER) {
+            final UUID clientId = CorfuMsgFraming.getClientId(channel);
+            if (clientId == null) {
+                throw new IllegalStateException("Received a compact header before the client "
+                        + "ID of the connection was known");
+            }
+            // The peer writes compact headers, so it also decodes them.
+            if (CorfuMsgFraming.getPeerVersion(channel) < CorfuMsgFraming.V2) {
+                CorfuMsgFraming.setPeerVersion(channel, CorfuMsgFraming.V2);
+            }
+            list.add(CorfuMsg.deserializeCompact(byteBuf, clientId));
+        } else {
+            CorfuMsg msg = CorfuMsg.deserialize(byteBuf);
+            if (CorfuMsgFraming.getClientId(channel) == null) {
+                CorfuMsgFraming.setClientId(channel, msg.getClientID());
+            }
+            list.add(msg);
+        }
     }
 
     @Override
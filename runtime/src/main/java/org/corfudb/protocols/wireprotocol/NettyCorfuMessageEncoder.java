@@ -1,9 +1,12 @@
 package org.corfudb.protocols.wireprotocol;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 
+import java.util.UUID;
+
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -12,12 +15,36 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class NettyCorfuMessageEncoder extends MessageToByteEncoder<CorfuMsg> {
 
+    /**
+     * Allocate the buffer a message is encoded into from the channel allocator, which
+     * is pooled, with the estimated size of the message, so that the buffer does not
+     * need to be grown (and copied) while the message is serialized.
+     */
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, CorfuMsg corfuMsg,
+                                     boolean preferDirect) throws Exception {
+        final int sizeHint = corfuMsg.getSizeHint();
+        return preferDirect ? ctx.alloc().ioBuffer(sizeHint) : ctx.alloc().heapBuffer(sizeHint);
+    }
+
     @Override
     protected void encode(ChannelHandlerContext channelHandlerContext,
                           CorfuMsg corfuMsg,
                           ByteBuf byteBuf) throws Exception {
         try {
-            corfuMsg.serialize(byteBuf);
+            // Write a compact header if the peer decodes them, and knows the client ID.
+            final Channel channel = channelHandlerContext.channel();
+            final UUID clientId = corfuMsg.getClientID();
+            if (clientId != null
+                    && CorfuMsgFraming.getPeerVersion(channel) >= CorfuMsgFraming.V2
+                    && clientId.equals(CorfuMsgFraming.getClientId(channel))) {
+                corfuMsg.serializeCompact(byteBuf);
+            } else {
+                if (clientId != null) {
+                    CorfuMsgFraming.setClientId(channel, clientId);
+                }
+                corfuMsg.serialize(byteBuf);
+            }
         } catch (Exception e) {
             log.error("Error during serialization!", e);
         }
@@ -31,6 +31,11 @@ public class ReadResponse implements ICorfuPayload<ReadResponse> {
         addresses.put(address, data);
     }
 
+    @Override
+    public int getSizeHint() {
+        return ICorfuPayload.sizeHint(addresses);
+    }
+
     @Override
     public void doSerialize(ByteBuf buf) {
         ICorfuPayload.serialize(buf, addresses);
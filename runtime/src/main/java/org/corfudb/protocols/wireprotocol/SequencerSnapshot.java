@@ -0,0 +1,76 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import org.corfudb.runtime.view.Address;
+
+/**
+ * A point-in-time snapshot of the sequencer state.
+ *
+ * <p>The snapshot captures everything a failover sequencer needs in order to resume
+ * without scanning the whole log: the global tail, the stream tails and the recent
+ * conflict-key timestamps. A failover sequencer bootstrapped from a snapshot only needs the
+ * stream tails of the addresses issued after {@link SequencerSnapshot#globalTail}.
+ */
+@Data
+@AllArgsConstructor
+public class SequencerSnapshot implements ICorfuPayload<SequencerSnapshot> {
+
+    /** The ready-state epoch of the sequencer which took this snapshot. */
+    private Long epoch;
+
+    /** The first address not covered by this snapshot (the next token to be issued). */
+    private Long globalTail;
+
+    /** The wildcard of all conflict keys which are not part of this snapshot. */
+    private Long maxConflictWildcard;
+
+    /** The last issued address of every stream, as of {@link SequencerSnapshot#globalTail}. */
+    private Map<UUID, Long> streamTails;
+
+    /** The latest update timestamp of every conflict key newer than the wildcard. */
+    private Map<String, Long> conflictKeys;
+
+    /**
+     * Returns an empty snapshot, used to signal that no snapshot is available.
+     *
+     * @return an empty snapshot
+     */
+    public static SequencerSnapshot empty() {
+        return new SequencerSnapshot(Address.NON_ADDRESS, Address.NON_ADDRESS,
+                Address.NON_ADDRESS, Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    /**
+     * Whether this snapshot carries any sequencer state.
+     *
+     * @return true if this snapshot is empty
+     */
+    public boolean isEmpty() {
+        return Address.nonAddress(globalTail);
+    }
+
+    public SequencerSnapshot(ByteBuf buf) {
+        epoch = ICorfuPayload.fromBuffer(buf, Long.class);
+        globalTail = ICorfuPayload.fromBuffer(buf, Long.class);
+        maxConflictWildcard = ICorfuPayload.fromBuffer(buf, Long.class);
+        streamTails = ICorfuPayload.mapFromBuffer(buf, UUID.class, Long.class);
+        conflictKeys = ICorfuPayload.mapFromBuffer(buf, String.class, Long.class);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, epoch);
+        ICorfuPayload.serialize(buf, globalTail);
+        ICorfuPayload.serialize(buf, maxConflictWildcard);
+        ICorfuPayload.serialize(buf, streamTails);
+        ICorfuPayload.serialize(buf, conflictKeys);
+    }
+}
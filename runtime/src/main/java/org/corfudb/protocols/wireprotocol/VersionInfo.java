@@ -26,6 +26,12 @@ public class VersionInfo {
     @Getter
     String version;
 
+    /**
+     * The latest framing version the server decodes, 0 if it predates compact headers.
+     */
+    @Getter
+    int framingVersion = CorfuMsgFraming.LATEST;
+
     public VersionInfo(Map<String,Object> optionsMap) {
         this.optionsMap = optionsMap;
         this.version = CorfuRuntime.getVersionString();
@@ -26,7 +26,8 @@ public class WriteRequest implements ICorfuPayload<WriteRequest>, IMetadata {
     @SuppressWarnings("unchecked")
     public WriteRequest(ByteBuf buf) {
         writeMode = ICorfuPayload.fromBuffer(buf, WriteMode.class);
-        data = ICorfuPayload.fromBuffer(buf, LogData.class);
+        // The data is only needed until it is written, so it is not copied out of the buffer.
+        data = new LogData(buf, true);
     }
 
     public WriteRequest(WriteMode writeMode, Map<UUID, Long> streamAddresses, ByteBuf buf) {
@@ -44,6 +45,18 @@ public class WriteRequest implements ICorfuPayload<WriteRequest>, IMetadata {
         this.data = data;
     }
 
+    @Override
+    public int getSizeHint() {
+        return ICorfuPayload.sizeHint(writeMode) + ICorfuPayload.sizeHint(data);
+    }
+
+    @Override
+    public void releaseSlices() {
+        if (data instanceof LogData) {
+            ((LogData) data).releaseSlices();
+        }
+    }
+
     @Override
     public void doSerialize(ByteBuf buf) {
         ICorfuPayload.serialize(buf, writeMode);
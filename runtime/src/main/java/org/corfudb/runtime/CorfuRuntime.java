@@ -2,6 +2,7 @@ package org.corfudb.runtime;
 
 import com.codahale.metrics.MetricRegistry;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -29,6 +30,7 @@ import org.corfudb.runtime.clients.LayoutClient;
 import org.corfudb.runtime.clients.LogUnitClient;
 import org.corfudb.runtime.clients.ManagementClient;
 import org.corfudb.runtime.clients.NettyClientRouter;
+import org.corfudb.runtime.clients.NettyEventLoops;
 import org.corfudb.runtime.clients.SequencerClient;
 import org.corfudb.runtime.view.AddressSpaceView;
 import org.corfudb.runtime.view.Layout;
@@ -36,6 +38,9 @@ import org.corfudb.runtime.view.LayoutView;
 import org.corfudb.runtime.view.ObjectsView;
 import org.corfudb.runtime.view.SequencerView;
 import org.corfudb.runtime.view.StreamsView;
+import org.corfudb.runtime.view.replication.AdaptiveHoleFillPolicy;
+import org.corfudb.runtime.view.replication.ReplicaSelector;
+import org.corfudb.util.CFUtils;
 import org.corfudb.util.GitRepositoryState;
 import org.corfudb.util.MetricsUtils;
 import org.corfudb.util.Version;
@@ -62,8 +67,17 @@ public class CorfuRuntime {
 
         /** Number of times to attempt to read before hole filling. */
         int holeFillRetry = 10;
+
+        /** The percentile of recent write latency to wait, twice over, for an
+         * unwritten address before hole filling, or 0 to wait a fixed time.
+         * The latency is that of this runtime's own writes only, so the wait
+         * may be too short for holes left by slower clients. */
+        double holeFillWaitPercentile = 0;
     }
 
+    /** The amount of time to wait between reads of an unwritten address, in milliseconds. */
+    public static final int HOLE_FILL_WAIT_MS = 100;
+
     @Getter
     private final CorfuRuntimeParameters parameters = new CorfuRuntimeParameters();
     /**
@@ -93,6 +107,17 @@ public class CorfuRuntime {
      */
     @Getter(lazy = true)
     private final ObjectsView objectsView = new ObjectsView(this);
+    /**
+     * The replicas to read committed addresses from.
+     */
+    @Getter
+    private final ReplicaSelector replicaSelector = new ReplicaSelector(this);
+    /**
+     * The hole fill policy which adapts to the latency of writes.
+     */
+    @Getter
+    private final AdaptiveHoleFillPolicy adaptiveHoleFillPolicy =
+            new AdaptiveHoleFillPolicy(this, HOLE_FILL_WAIT_MS);
     /**
      * A list of known layout servers.
      */
@@ -103,6 +128,11 @@ public class CorfuRuntime {
      * A map of routers, representing nodes.
      */
     public Map<String, IClientRouter> nodeRouters;
+    /**
+     * The routers which are being connected, by address.
+     */
+    private final Map<String, CompletableFuture<IClientRouter>> connectingRouters =
+            new ConcurrentHashMap<>();
     /**
      * A completable future containing a layout, when completed.
      */
@@ -117,12 +147,30 @@ public class CorfuRuntime {
     @Getter
     public boolean cacheDisabled = false;
     /**
-     * The maximum size of the cache, in bytes.
+     * The maximum number of entries in the cache, unless it is bounded in bytes.
      */
     @Getter
     @Setter
     public long numCacheEntries = 5000;
 
+    /**
+     * The maximum size of the cache, in bytes of serialized entries, or 0 to bound the
+     * cache by its number of entries instead. Applies once the caches of the address
+     * space view are reset.
+     */
+    @Getter
+    @Setter
+    public long maxCacheBytes = 0;
+
+    /**
+     * The maximum size of the tier of the cache outside the heap, which holds serialized
+     * entries evicted from the cache, in bytes, or 0 to disable it. Applies once the
+     * caches of the address space view are reset.
+     */
+    @Getter
+    @Setter
+    public long offHeapCacheBytes = 0;
+
     /**
      * The number of times to retry on a retriable TrimException within during a transaction
      */
@@ -137,6 +185,22 @@ public class CorfuRuntime {
     @Setter
     public int writeRetry = 3;
 
+    /**
+     * The number of tokens to lease from the sequencer at once for
+     * non-transactional appends, 1 to disable leasing.
+     */
+    @Getter
+    @Setter
+    public int tokenLeaseSize = 1;
+
+    /**
+     * How long a lease may go without handing out a token before its unused tokens are
+     * hole filled, or zero to keep idle leases.
+     */
+    @Getter
+    @Setter
+    public Duration tokenLeaseIdleTimeout = Duration.ofSeconds(1);
+
     /**
      * Sets expireAfterAccess and expireAfterWrite in seconds.
      */
@@ -157,6 +221,60 @@ public class CorfuRuntime {
     @Setter
     public boolean holeFillingDisabled = false;
 
+    /**
+     * The number of threads of the event loops shared by the routers of this runtime,
+     * 0 for twice the number of processors.
+     */
+    @Getter
+    @Setter
+    public int numEventLoopThreads = 0;
+
+    /**
+     * Whether the routers of this runtime use the native transport, when it is available.
+     */
+    @Getter
+    @Setter
+    public boolean nativeTransportEnabled = true;
+
+    /**
+     * The maximum number of messages a router writes to a connection before flushing them,
+     * 0 to flush every message. Messages written in the same event loop iteration are
+     * always flushed together.
+     */
+    @Getter
+    @Setter
+    public int flushConsolidationLimit = 256;
+
+    /**
+     * The size in bytes above which the messages exchanged with servers which support
+     * compression are compressed, 0 to disable compression.
+     */
+    @Getter
+    @Setter
+    public int compressionThreshold = 0;
+
+    /**
+     * The maximum number of requests awaiting a response from each server, beyond which
+     * new requests back off until responses arrive, 0 for no limit.
+     */
+    @Getter
+    @Setter
+    public int maxInFlightRequests = 0;
+
+    /**
+     * The number of connections to each server. With more than one, token, layout and
+     * management requests get a connection of their own, and log reads and writes are
+     * spread over the others.
+     */
+    @Getter
+    @Setter
+    public int connectionsPerServer = 1;
+
+    /**
+     * The event loops shared by the routers of this runtime, created by the first router.
+     */
+    private NettyEventLoops eventLoops;
+
     /**
      * Notifies that the runtime is no longer used
      * and async retries to fetch the layout can be stopped.
@@ -194,6 +312,30 @@ public class CorfuRuntime {
     @Getter
     public int bulkReadSize = BULK_READ_SIZE;
 
+    /**
+     * The percentile of recent read latency after which a read of a committed address
+     * is also sent to another replica, or 0 to never hedge reads.
+     */
+    @Setter
+    @Getter
+    public double hedgedReadPercentile = 0;
+
+    /**
+     * Whether chain replication writes, once the chain head has written, are sent to the
+     * rest of the chain at once rather than one unit after the other.
+     */
+    @Setter
+    @Getter
+    public boolean pipelinedChainWrites = false;
+
+    /**
+     * The most addresses a stream reads and deserializes ahead of its pointer while it is
+     * read one entry at a time, or 0 to read each entry only when it is reached.
+     */
+    @Setter
+    @Getter
+    public int streamPrefetchWindow = 0;
+
 
     /**
      * How much time the Fast Loader has to get the maps up to date.
@@ -234,6 +376,13 @@ public class CorfuRuntime {
      */
     public static BiFunction<CorfuRuntime, String, IClientRouter> overrideGetRouterFunction = null;
 
+    /**
+     * The default function to get routers, which connects a netty router to the address.
+     * The router is returned even if it could not connect, and keeps reconnecting.
+     */
+    private final Function<String, IClientRouter> nettyRouterFunction =
+            (address) -> CFUtils.getUninterruptibly(connectRouter(address));
+
     /**
      * A function to handle getting routers. Used by test framework to inject
      * a test router. Can also be used to provide alternative logic for obtaining
@@ -242,33 +391,97 @@ public class CorfuRuntime {
     @Getter
     @Setter
     public Function<String, IClientRouter> getRouterFunction = overrideGetRouterFunction != null
-            ? (address) -> overrideGetRouterFunction.apply(this, address) : (address) -> {
+            ? (address) -> overrideGetRouterFunction.apply(this, address) : nettyRouterFunction;
 
-                // Return an existing router if we already have one.
-                if (nodeRouters.containsKey(address)) {
-                    return nodeRouters.get(address);
-                }
-                // Parse the string in host:port format.
-                String host = address.split(":")[0];
-                Integer port = Integer.parseInt(address.split(":")[1]);
-                // Generate a new router, start it and add it to the table.
-                NettyClientRouter router = new NettyClientRouter(host, port,
-                        tlsEnabled, keyStore, ksPasswordFile, trustStore, tsPasswordFile,
-                        saslPlainTextEnabled, usernameFile, passwordFile);
-                log.debug("Connecting to new router {}:{}", host, port);
-                try {
-                    router.addClient(new LayoutClient())
-                            .addClient(new SequencerClient())
-                            .addClient(new LogUnitClient().setMetricRegistry(metrics != null
-                                            ? metrics : CorfuRuntime.getDefaultMetrics()))
-                            .addClient(new ManagementClient())
-                            .start();
-                    nodeRouters.put(address, router);
-                } catch (Exception e) {
-                    log.warn("Error connecting to router", e);
-                }
-                return router;
-            };
+    /**
+     * Get a netty router to an address, connecting a new one if there is none yet,
+     * without waiting for it to connect.
+     *
+     * @param address The address of the router, in host:port format.
+     * @return A future which completes with the router once it is connected, or once it
+     *     failed to, in which case the router keeps reconnecting in the background.
+     */
+    private CompletableFuture<IClientRouter> connectRouter(String address) {
+        // Return an existing router if we already have one.
+        final IClientRouter existing = nodeRouters.get(address);
+        if (existing != null) {
+            return CompletableFuture.completedFuture(existing);
+        }
+        // Only one router is connected to an address at a time.
+        final CompletableFuture<IClientRouter> connected = new CompletableFuture<>();
+        final CompletableFuture<IClientRouter> connecting =
+                connectingRouters.putIfAbsent(address, connected);
+        if (connecting != null) {
+            return connecting;
+        }
+        final IClientRouter added = nodeRouters.get(address);
+        if (added != null) {
+            // The router was connected in the meantime.
+            connectingRouters.remove(address, connected);
+            connected.complete(added);
+            return connected;
+        }
+        // Parse the string in host:port format.
+        String host = address.split(":")[0];
+        Integer port = Integer.parseInt(address.split(":")[1]);
+        // Generate a new router, start it and add it to the table.
+        NettyClientRouter router = new NettyClientRouter(host, port,
+                NettyClientRouter.Parameters.builder()
+                        .tlsEnabled(tlsEnabled)
+                        .keyStore(keyStore)
+                        .ksPasswordFile(ksPasswordFile)
+                        .trustStore(trustStore)
+                        .tsPasswordFile(tsPasswordFile)
+                        .saslPlainTextEnabled(saslPlainTextEnabled)
+                        .usernameFile(usernameFile)
+                        .passwordFile(passwordFile)
+                        .eventLoops(getEventLoops())
+                        .flushConsolidationLimit(flushConsolidationLimit)
+                        .compressionThreshold(compressionThreshold)
+                        .numChannels(connectionsPerServer)
+                        .connect(false)
+                        .build());
+        router.setMaxInFlightRequests(maxInFlightRequests);
+        log.debug("Connecting to new router {}:{}", host, port);
+        router.addClient(new LayoutClient())
+                .addClient(new SequencerClient())
+                .addClient(new LogUnitClient().setMetricRegistry(metrics != null
+                        ? metrics : CorfuRuntime.getDefaultMetrics()))
+                .addClient(new ManagementClient());
+        router.startAsync(-1).whenComplete((v, e) -> {
+            if (e != null) {
+                log.warn("Error connecting to router, reconnecting in the background", e);
+            }
+            nodeRouters.put(address, router);
+            connectingRouters.remove(address, connected);
+            connected.complete(router);
+        });
+        return connected;
+    }
+
+    /**
+     * Get a router to an address without blocking the caller while it connects, if the
+     * default router function is in use.
+     *
+     * @param address The address of the router, in host:port format.
+     * @return A future which completes with the router.
+     */
+    private CompletableFuture<IClientRouter> getRouterAsync(String address) {
+        return getRouterFunction == nettyRouterFunction ? connectRouter(address)
+                : CompletableFuture.supplyAsync(() -> getRouter(address));
+    }
+
+    /**
+     * Get the event loops shared by the routers of this runtime, creating them if needed.
+     *
+     * @return The shared event loops.
+     */
+    public synchronized NettyEventLoops getEventLoops() {
+        if (eventLoops == null) {
+            eventLoops = new NettyEventLoops(numEventLoopThreads, nativeTransportEnabled);
+        }
+        return eventLoops;
+    }
 
     /**
      * Constructor for CorfuRuntime.
@@ -329,6 +542,15 @@ public class CorfuRuntime {
      */
     public void shutdown() {
 
+        // Hole fill the unused tokens of any lease, so readers don't wait on them.
+        if (tokenLeaseSize > 1) {
+            try {
+                getSequencerView().releaseLeases().join();
+            } catch (Exception e) {
+                log.warn("Runtime shutting down. Exception in releasing token leases: {}", e);
+            }
+        }
+
         // Stopping async task from fetching layout.
         isShutdown = true;
         if (layout != null) {
@@ -339,6 +561,12 @@ public class CorfuRuntime {
             }
         }
         stop(true);
+
+        synchronized (this) {
+            if (eventLoops != null) {
+                eventLoops.shutdown();
+            }
+        }
     }
 
     /**
@@ -483,11 +711,17 @@ public class CorfuRuntime {
                 List<String> layoutServersCopy =  layoutServers.stream().collect(
                         Collectors.toList());
                 Collections.shuffle(layoutServersCopy);
+                // Connect to all the layout servers in parallel, rather than one at a time.
+                Map<String, CompletableFuture<IClientRouter>> routers = layoutServersCopy
+                        .stream()
+                        .collect(Collectors.toMap(Function.identity(),
+                                this::getRouterAsync,
+                                (a, b) -> a));
                 // Iterate through the layout servers, attempting to connect to one
                 for (String s : layoutServersCopy) {
                     log.debug("Trying connection to layout server {}", s);
                     try {
-                        IClientRouter router = getRouter(s);
+                        IClientRouter router = routers.get(s).join();
                         // Try to get a layout.
                         CompletableFuture<Layout> layoutFuture = router
                                 .getClient(LayoutClient.class).getLayout();
@@ -6,8 +6,10 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
@@ -19,30 +21,42 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.ssl.SslContext;
+import io.netty.util.AttributeKey;
+import io.netty.util.Timeout;
 import io.netty.util.concurrent.DefaultEventExecutorGroup;
 import io.netty.util.concurrent.EventExecutorGroup;
 
-import java.time.Duration;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
+import org.corfudb.protocols.wireprotocol.CorfuMsgFraming;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.corfudb.protocols.wireprotocol.NettyCompressionCodec;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageDecoder;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageEncoder;
+import org.corfudb.protocols.wireprotocol.VersionInfo;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.NetworkException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
@@ -50,12 +64,19 @@ import org.corfudb.security.sasl.SaslUtils;
 import org.corfudb.security.sasl.plaintext.PlainTextSaslNettyClient;
 import org.corfudb.security.tls.TlsUtils;
 import org.corfudb.util.CFUtils;
+import org.corfudb.util.ConcurrentLongObjectMap;
 import org.corfudb.util.MetricsUtils;
 
 
 /**
  * A client router which multiplexes operations over the Netty transport.
  *
+ * <p>By default, all the traffic to the endpoint shares a single channel. A router created
+ * with more than one channel keeps the first channel for the control traffic, such as
+ * token and layout requests, and spreads the reads and writes of log data round robin
+ * over the other channels, so that small requests are not queued behind large responses
+ * on the same TCP stream and event loop.
+ *
  * <p>Created by mwei on 12/8/15.
  */
 @Slf4j
@@ -124,6 +145,38 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
     @Getter
     @Setter
     public long timeoutRetry;
+    /**
+     * The maximum number of requests awaiting a response, beyond which new requests back
+     * off until a response arrives, or 0 for no limit.
+     */
+    @Getter
+    @Setter
+    public volatile int maxInFlightRequests;
+    /**
+     * The number of requests awaiting a response.
+     */
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    /**
+     * The shortest and longest backoff of a request, in milliseconds.
+     */
+    private static final long BACKOFF_MIN_MS = 10;
+    private static final long BACKOFF_MAX_MS = 1000;
+    private static final int BACKOFF_MAX_SHIFT = 7;
+    /**
+     * The message types which are sent on the data channels, if there are any.
+     */
+    private static final Set<CorfuMsgType> DATA_TYPES = EnumSet.of(
+            CorfuMsgType.WRITE,
+            CorfuMsgType.READ_REQUEST,
+            CorfuMsgType.MULTIPLE_READ_REQUEST,
+            CorfuMsgType.TRIM,
+            CorfuMsgType.FILL_HOLE,
+            CorfuMsgType.PREFIX_TRIM);
+    /**
+     * The index of a data channel, starting from 1. Unset on the control channel.
+     */
+    private static final AttributeKey<Integer> DATA_CHANNEL_INDEX =
+            AttributeKey.valueOf(NettyClientRouter.class, "dataChannelIndex");
     /**
      * The current request ID.
      */
@@ -140,17 +193,25 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
      */
     public List<IClient> clientList;
     /**
-     * The outstanding requests on this router.
+     * The outstanding requests on this router, by request id.
      */
-    public Map<Long, CompletableFuture> outstandingRequests;
+    public ConcurrentLongObjectMap<CompletableFuture> outstandingRequests;
     /**
      * The currently registered channel context.
      */
     public ChannelHandlerContext context;
     /**
-     * The currently registered channel.
+     * The currently registered channel, which carries the control traffic.
      */
     public Channel channel = null;
+    /**
+     * The channels which carry the log data traffic, empty if it shares the control channel.
+     */
+    final Channel[] dataChannels;
+    /**
+     * The counter used to pick the next data channel.
+     */
+    private final AtomicInteger nextDataChannel = new AtomicInteger();
     /**
      * The worker group for this router.
      */
@@ -159,6 +220,32 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
      * The event executor group for this router.
      */
     public EventExecutorGroup ee;
+    /**
+     * The groups shared with the other routers of the runtime, or null
+     * if this router owns its groups.
+     */
+    private final NettyEventLoops eventLoops;
+    /**
+     * The timer which expires the outstanding requests of this router.
+     */
+    private final io.netty.util.Timer timer;
+    /**
+     * The maximum number of messages written before they are flushed,
+     * or 0 to flush every message.
+     */
+    private final int flushConsolidationLimit;
+    /**
+     * The size in bytes above which messages are compressed, or 0 if they are not.
+     */
+    private final int compressionThreshold;
+    /**
+     * The registry of the metrics of this router.
+     */
+    private final MetricRegistry metrics;
+    /**
+     * The prefix of the metrics of this router.
+     */
+    private final String metricsPrefix;
     /**
      * Whether or not this router is shutdown.
      */
@@ -189,6 +276,66 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
 
     private String saslPlainTextPasswordFile;
 
+    /**
+     * The options of a router, beyond the host and port it routes requests for.
+     */
+    @Builder
+    @Getter
+    public static class Parameters {
+
+        /** TLS enable flag. */
+        @Builder.Default
+        private final boolean tlsEnabled = false;
+
+        /** Key store to be used. */
+        private final String keyStore;
+
+        /** Key store password file path. */
+        private final String ksPasswordFile;
+
+        /** Trust store to be used. */
+        private final String trustStore;
+
+        /** Trust store password file path. */
+        private final String tsPasswordFile;
+
+        /** Sasl plain text enable flag. */
+        @Builder.Default
+        private final boolean saslPlainTextEnabled = false;
+
+        /** Username file path. */
+        private final String usernameFile;
+
+        /** Password file path. */
+        private final String passwordFile;
+
+        /** Metric registry to be used, or null for the default. */
+        private final MetricRegistry metricRegistry;
+
+        /** Shared event loops, or null to create event loops for this router. */
+        private final NettyEventLoops eventLoops;
+
+        /** The maximum number of messages written before they are flushed,
+         * or 0 to flush every message. */
+        @Builder.Default
+        private final int flushConsolidationLimit = 0;
+
+        /** The size in bytes above which the messages exchanged with the server
+         * are compressed, or 0 to disable compression. */
+        @Builder.Default
+        private final int compressionThreshold = 0;
+
+        /** The number of channels to the server: one for the control traffic,
+         * and the others for the log data traffic. */
+        @Builder.Default
+        private final int numChannels = 1;
+
+        /** True to connect before the router is returned, false to connect on
+         * {@link #start()} or {@link #startAsync(long)}. */
+        @Builder.Default
+        private final boolean connect = true;
+    }
+
     /**
      * Creates a new NettyClientRouter connected to the specified endpoint.
      *
@@ -205,39 +352,26 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
      * @param port Port to connect to.
      */
     public NettyClientRouter(String host, Integer port) {
-        this(host, port, false, null, null, null,
-                null, false, null, null);
-    }
-
-    public NettyClientRouter(String host, Integer port, Boolean tls,
-                             String keyStore, String ksPasswordFile, String trustStore,
-                             String tsPasswordFile, Boolean saslPlainText, String usernameFile,
-                             String passwordFile) {
-        this(host, port, tls, keyStore, ksPasswordFile, trustStore, tsPasswordFile,
-                saslPlainText, usernameFile, passwordFile, null);
+        this(host, port, Parameters.builder().build());
     }
 
     /**
-     * Creates a new NettyClientRouter connected to the specified host and port with the
-     * specified tls and sasl options.
+     * Creates a new NettyClientRouter to the specified host and port with the specified
+     * options, which is connected either right away or once it is started.
      *
-     * @param host           Host to connect to.
-     * @param port           Port to conect to.
-     * @param tls            TLS enable flag.
-     * @param keyStore       Key store to be used.
-     * @param ksPasswordFile Key store password file path.
-     * @param trustStore     Trust store to be used.
-     * @param tsPasswordFile Trust store password file path.
-     * @param saslPlainText  Sasl to be used.
-     * @param usernameFile   username file path
-     * @param passwordFile   password file path
-     */
-    public NettyClientRouter(String host, Integer port, Boolean tls,
-                             String keyStore, String ksPasswordFile, String trustStore,
-                             String tsPasswordFile, Boolean saslPlainText, String usernameFile,
-                             String passwordFile, MetricRegistry metricRegistry) {
+     * @param host       Host to connect to.
+     * @param port       Port to connect to.
+     * @param parameters The options of the router.
+     */
+    public NettyClientRouter(String host, Integer port, Parameters parameters) {
+        final NettyEventLoops eventLoops = parameters.getEventLoops();
         this.host = host;
         this.port = port;
+        this.eventLoops = eventLoops;
+        this.timer = eventLoops != null ? eventLoops.getTimer() : DefaultTimer.TIMER;
+        this.flushConsolidationLimit = parameters.getFlushConsolidationLimit();
+        this.compressionThreshold = parameters.getCompressionThreshold();
+        this.dataChannels = new Channel[Math.max(parameters.getNumChannels(), 1) - 1];
 
         clientID = UUID.randomUUID();
         connected = false;
@@ -248,15 +382,14 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
         handlerMap = new ConcurrentHashMap<>();
         clientList = new ArrayList<>();
         requestID = new AtomicLong();
-        outstandingRequests = new ConcurrentHashMap<>();
+        outstandingRequests = new ConcurrentLongObjectMap<>(
+                Runtime.getRuntime().availableProcessors());
         shutdown = true;
 
-        MetricRegistry metrics = CorfuRuntime.getDefaultMetrics();
-
-        if (metricRegistry != null) {
-            metrics = metricRegistry;
-        }
+        metrics = parameters.getMetricRegistry() != null ? parameters.getMetricRegistry()
+                : CorfuRuntime.getDefaultMetrics();
         String pfx = CorfuRuntime.getMpCR() + host + ":" + port.toString() + ".";
+        metricsPrefix = pfx;
         synchronized (metrics) {
             if (!metrics.getNames().contains(pfx + "connected")) {
                 gaugeConnected = metrics.register(pfx + "connected", () -> connected ? 1 : 0);
@@ -269,36 +402,38 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
         counterSendTimeout = metrics.counter(pfx + "send-timeout");
         counterAsyncOpSent = metrics.counter(pfx + "async-op-sent");
 
-        if (tls) {
+        if (parameters.isTlsEnabled()) {
             sslContext =
                     TlsUtils.enableTls(TlsUtils.SslContextType.CLIENT_CONTEXT,
-                            keyStore, e -> {
+                            parameters.getKeyStore(), e -> {
                                 throw new RuntimeException("Could not read the key store "
                                         + "password file: " + e.getClass().getSimpleName(), e);
                             },
-                            ksPasswordFile, e -> {
+                            parameters.getKsPasswordFile(), e -> {
                                 throw new RuntimeException("Could not load keys from the key "
                                         + "store: " + e.getClass().getSimpleName(), e);
                             },
-                            trustStore, e -> {
+                            parameters.getTrustStore(), e -> {
                                 throw new RuntimeException("Could not read the trust store "
                                         + "password file: " + e.getClass().getSimpleName(), e);
                             },
-                            tsPasswordFile, e -> {
+                            parameters.getTsPasswordFile(), e -> {
                                 throw new RuntimeException("Could not load keys from the trust "
                                         + "store: " + e.getClass().getSimpleName(), e);
                             });
             this.tlsEnabled = true;
         }
 
-        if (saslPlainText) {
-            saslPlainTextUsernameFile = usernameFile;
-            saslPlainTextPasswordFile = passwordFile;
+        if (parameters.isSaslPlainTextEnabled()) {
+            saslPlainTextUsernameFile = parameters.getUsernameFile();
+            saslPlainTextPasswordFile = parameters.getPasswordFile();
             saslPlainTextEnabled = true;
         }
 
         addClient(new BaseClient());
-        start();
+        if (parameters.isConnect()) {
+            start();
+        }
     }
 
     /**
@@ -343,53 +478,58 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
     }
 
     /**
-     * Initiates the connection and starts the netty client router.
+     * Initiates the connection and starts the netty client router, waiting until it is
+     * connected.
      *
      * @param c Server startup code.
      */
     public void start(long c) {
+        CFUtils.getUninterruptibly(startAsync(c), NetworkException.class);
+    }
+
+    /**
+     * Initiates the connection and starts the netty client router, without waiting until it
+     * is connected.
+     *
+     * <p>If the router shares the event loops of its runtime, the channels which failed
+     * to connect keep being connected again in the background until the router is
+     * stopped, so a router kept after a failed start is usable once its endpoint is up.
+     *
+     * @param c Server startup code.
+     * @return A future which completes once every channel of the router is connected, or
+     *     completes exceptionally with a {@link NetworkException} if one failed to connect.
+     */
+    public CompletableFuture<Void> startAsync(long c) {
         shutdown = false;
         if (workerGroup == null
                 || workerGroup.isShutdown()
+                || channel == null
                 || !channel.isOpen()) {
-            workerGroup = new NioEventLoopGroup(Runtime.getRuntime()
-                    .availableProcessors() * 2, new ThreadFactory() {
-                        final AtomicInteger threadNum = new AtomicInteger(0);
-
-                        @Override
-                        public Thread newThread(Runnable r) {
-                            Thread t = new Thread(r);
-                            t.setName("worker-" + threadNum.getAndIncrement());
-                            t.setDaemon(true);
-                            return t;
-                        }
-                    });
-
-            ee = new DefaultEventExecutorGroup(Runtime.getRuntime()
-                    .availableProcessors() * 2, new ThreadFactory() {
-
-                        final AtomicInteger threadNum = new AtomicInteger(0);
-
-                        @Override
-                        public Thread newThread(Runnable r) {
-                            Thread t = new Thread(r);
-                            t.setName(this.getClass().getName() + "event-"
-                                    + threadNum.getAndIncrement());
-                            t.setDaemon(true);
-                            return t;
-                        }
-                    });
+            if (eventLoops != null) {
+                workerGroup = eventLoops.getWorkerGroup();
+                ee = eventLoops.getExecutorGroup();
+            } else {
+                createEventLoops();
+            }
 
             Bootstrap b = new Bootstrap();
             b.group(workerGroup);
-            b.channel(NioSocketChannel.class);
+            b.channel(eventLoops != null ? eventLoops.getTransport().getChannelClass()
+                    : NioSocketChannel.class);
             b.option(ChannelOption.SO_KEEPALIVE, true);
             b.option(ChannelOption.SO_REUSEADDR, true);
             b.option(ChannelOption.TCP_NODELAY, true);
+            b.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+            b.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) timeoutConnect);
             NettyClientRouter router = this;
             b.handler(new ChannelInitializer<SocketChannel>() {
                 @Override
                 public void initChannel(SocketChannel ch) throws Exception {
+                    // Messages written in the same event loop iteration are flushed together.
+                    if (flushConsolidationLimit > 0) {
+                        ch.pipeline().addLast("flush", new FlushConsolidationHandler(
+                                flushConsolidationLimit, true));
+                    }
                     if (tlsEnabled) {
                         ch.pipeline().addLast("ssl", sslContext.newHandler(ch.alloc()));
                     }
@@ -403,65 +543,225 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
                                         saslPlainTextPasswordFile);
                         ch.pipeline().addLast("sasl/plain-text", saslNettyClient);
                     }
+                    ch.pipeline().addLast(ee, new NettyCompressionCodec(metrics,
+                            metricsPrefix + "compression."));
                     ch.pipeline().addLast(ee, new NettyCorfuMessageDecoder());
                     ch.pipeline().addLast(ee, new NettyCorfuMessageEncoder());
                     ch.pipeline().addLast(ee, router);
                 }
             });
 
-            try {
-                connectChannel(b, c);
-            } catch (Exception e) {
+            return connectChannels(b, c).whenComplete((v, e) -> {
+                if (e == null) {
+                    return;
+                }
+                if (eventLoops == null) {
+                    // shutdown EventLoopGroup, without waiting since this may run on it.
+                    workerGroup.shutdownGracefully();
+                } else {
+                    for (int i = 0; i <= dataChannels.length; i++) {
+                        reconnect(b, c, i, 0);
+                    }
+                }
+            }).exceptionally(e -> {
+                final Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                throw new CompletionException(new NetworkException(
+                        cause.getClass().getSimpleName() + " connecting to endpoint failed",
+                        host + ":" + port, cause));
+            });
+        }
+        return CompletableFuture.completedFuture(null);
+    }
 
-                try {
-                    // shutdown EventLoopGroup
-                    workerGroup.shutdownGracefully().sync();
-                } catch (InterruptedException ie) {
-                    log.warn("workerGroup shutdown interrupted : {}", ie);
+    /**
+     * Create the event loops owned by this router.
+     */
+    private void createEventLoops() {
+        workerGroup = new NioEventLoopGroup(Runtime.getRuntime()
+                .availableProcessors() * 2, new ThreadFactory() {
+                    final AtomicInteger threadNum = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r);
+                        t.setName("worker-" + threadNum.getAndIncrement());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+
+        ee = new DefaultEventExecutorGroup(Runtime.getRuntime()
+                .availableProcessors() * 2, new ThreadFactory() {
+
+                    final AtomicInteger threadNum = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r);
+                        t.setName(this.getClass().getName() + "event-"
+                                + threadNum.getAndIncrement());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+    }
+
+    /**
+     * Connect the channels of this router to the endpoint in parallel.
+     *
+     * @param b The bootstrap of the channels.
+     * @param c Server startup code.
+     * @return A future which completes once the channels are all connected, or completes
+     *     exceptionally with the cause of the first one which failed to connect.
+     */
+    private CompletableFuture<Void> connectChannels(Bootstrap b, long c) {
+        final ChannelFuture[] futures = new ChannelFuture[dataChannels.length + 1];
+        final CompletableFuture<Void> connectedFuture = new CompletableFuture<>();
+        final boolean isEnabled = MetricsUtils.isMetricsCollectionEnabled();
+        final Timer.Context context = MetricsUtils.getConditionalContext(isEnabled,
+                timerConnect);
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = connect(b, i);
+        }
+        // Connecting times out after timeoutConnect.
+        final AtomicInteger remaining = new AtomicInteger(futures.length);
+        final ChannelFutureListener onConnect = f -> {
+            if (remaining.decrementAndGet() > 0) {
+                return;
+            }
+            MetricsUtils.stopConditionalContext(context);
+            for (ChannelFuture cf : futures) {
+                if (!cf.isSuccess()) {
+//                    MetricsUtils.incConditionalCounter(isEnabled, counterConnectFailed, 1);
+                    for (ChannelFuture other : futures) {
+                        other.channel().close();
+                    }
+                    connectedFuture.completeExceptionally(cf.cause());
+                    return;
                 }
-                throw new NetworkException(e.getClass().getSimpleName()
-                        + " connecting to endpoint failed", host + ":" + port, e);
             }
+            for (int i = 0; i < futures.length; i++) {
+                channelConnected(b, c, i, futures[i].channel());
+            }
+            connectedFuture.complete(null);
+        };
+        for (ChannelFuture cf : futures) {
+            cf.addListener(onConnect);
         }
+        return connectedFuture;
     }
 
-    synchronized void connectChannel(Bootstrap b, long c) {
-        boolean isEnabled = MetricsUtils.isMetricsCollectionEnabled();
-        try (Timer.Context context = MetricsUtils.getConditionalContext(isEnabled, timerConnect)) {
-            ChannelFuture cf = b.connect(host, port);
-            cf.syncUninterruptibly();
-            if (!cf.awaitUninterruptibly(timeoutConnect)) {
-                cf.channel().close();   // close port
-//                MetricsUtils.incConditionalCounter(isEnabled, counterConnectFailed, 1);
-                throw new NetworkException(c + " Timeout connecting to endpoint",
-                        host + ":" + port);
-            }
-            channel = cf.channel();
+    /**
+     * Start connecting a channel to the endpoint.
+     *
+     * @param b     The bootstrap of the channels.
+     * @param index 0 for the control channel, or the index of a data channel.
+     * @return A future which completes once the channel is connected, or failed to.
+     */
+    private ChannelFuture connect(Bootstrap b, int index) {
+        return index == 0 ? b.connect(host, port)
+                : b.clone().attr(DATA_CHANNEL_INDEX, index).connect(host, port);
+    }
+
+    /**
+     * Start using a connected channel, which reconnects whenever it is closed until this
+     * router is shut down.
+     *
+     * @param b     The bootstrap of the channels.
+     * @param c     Server startup code.
+     * @param index 0 for the control channel, or the index of a data channel.
+     * @param ch    The connected channel.
+     */
+    private synchronized void channelConnected(Bootstrap b, long c, int index, Channel ch) {
+        final Channel current = index == 0 ? channel : dataChannels[index - 1];
+        if (shutdown || (current != null && current != ch && current.isOpen())) {
+            // The router was shut down, or the channel was connected again in the meantime.
+            ch.close();
+            return;
+        }
+        if (index == 0) {
+            channel = ch;
+        } else {
+            dataChannels[index - 1] = ch;
         }
-        channel.closeFuture().addListener((r) -> {
-            connected = false;
-            outstandingRequests.forEach((reqId, reqCompletableFuture) -> {
+        ch.closeFuture().addListener((r) -> {
+            if (index == 0) {
+                connected = false;
+            }
+            // Only the requests sent on this channel fail, the other channels are still up.
+            final List<CompletableFuture> disconnected = outstandingRequests
+                    .removeIf(cf -> ((PendingRequest<?>) cf).sentOn == ch);
+            inFlightRequests.addAndGet(-disconnected.size());
+            disconnected.forEach(reqCompletableFuture -> {
 //                MetricsUtils.incConditionalCounter(isEnabled, counterSendDisconnected, 1);
                 reqCompletableFuture.completeExceptionally(new NetworkException("Disconnected",
                         host + ":" + port));
-                outstandingRequests.remove(reqId);
             });
             if (!shutdown) {
                 log.trace("Disconnected, reconnecting...");
-                while (!shutdown) {
-                    try {
-                        connectChannel(b, c);
-                        return;
-                    } catch (Exception ex) {
-//                        MetricsUtils.incConditionalCounter(isEnabled,
-//                                counterConnectFailed, 1);
-                        log.warn("Exception while reconnecting, retry in {} ms", timeoutRetry);
-                        Thread.sleep(timeoutRetry);
-                    }
-                }
+                reconnect(b, c, index, 0);
+            }
+        });
+        if (index == 0) {
+            connected = true;
+        }
+        negotiateFraming(ch);
+    }
+
+    /**
+     * Connect a channel again, without waiting for it to be connected. Failed attempts are
+     * retried after an exponential backoff, up to timeoutRetry, on the timer of the router,
+     * so that neither the event loop nor the caller are blocked.
+     *
+     * @param b       The bootstrap of the channels.
+     * @param c       Server startup code.
+     * @param index   0 for the control channel, or the index of a data channel.
+     * @param attempt The number of attempts which failed so far.
+     */
+    private void reconnect(Bootstrap b, long c, int index, int attempt) {
+        if (shutdown || workerGroup.isShuttingDown()) {
+            return;
+        }
+        connect(b, index).addListener((ChannelFutureListener) cf -> {
+            if (cf.isSuccess()) {
+                channelConnected(b, c, index, cf.channel());
+            } else {
+//                MetricsUtils.incConditionalCounter(isEnabled, counterConnectFailed, 1);
+                final long delay = backoffDelay(attempt, timeoutRetry);
+                log.warn("Exception while reconnecting, retry in {} ms", delay);
+                timer.newTimeout(t -> reconnect(b, c, index, attempt + 1), delay,
+                        TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    /**
+     * Request the version of the server, and switch the channel to compact headers if the
+     * server decodes them. If compression is enabled and the server supports it, ask the
+     * server to compress large messages, and compress them in turn. Messages are sent with
+     * full headers and uncompressed in the meantime, so the requests are not waited for.
+     *
+     * @param ch The channel to negotiate the framing of.
+     */
+    private void negotiateFraming(Channel ch) {
+        CompletableFuture<VersionInfo> cf =
+                sendRequest(null, ch, new CorfuMsg(CorfuMsgType.VERSION_REQUEST));
+        cf.thenAccept(versionInfo -> {
+            if (versionInfo.getFramingVersion() >= CorfuMsgFraming.V2) {
+                log.trace("negotiateFraming: Using compact headers to {}:{}", host, port);
+                CorfuMsgFraming.setPeerVersion(ch, versionInfo.getFramingVersion());
+            }
+            if (compressionThreshold > 0
+                    && versionInfo.getFramingVersion() >= CorfuMsgFraming.V3) {
+                sendRequest(null, ch, CorfuMsgType.COMPRESSION_REQUEST
+                        .payloadMsg(compressionThreshold))
+                        .thenRun(() -> {
+                            log.trace("negotiateFraming: Compressing messages over {} bytes "
+                                    + "to {}:{}", compressionThreshold, host, port);
+                            CorfuMsgFraming.setCompressionThreshold(ch, compressionThreshold);
+                        });
             }
         });
-        connected = true;
     }
 
     /**
@@ -480,23 +780,39 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
         connected = false;
 
         if (shutdown) {
+            for (Channel ch : dataChannels) {
+                if (ch != null) {
+                    ch.close().awaitUninterruptibly(1000);
+                }
+            }
             try {
-                ChannelFuture cf = channel.close();
-                cf.syncUninterruptibly();
-                cf.awaitUninterruptibly(1000);
+                if (channel != null) {
+                    ChannelFuture cf = channel.close();
+                    cf.syncUninterruptibly();
+                    cf.awaitUninterruptibly(1000);
+                }
             } catch (Exception e) {
                 log.error("Error in closing channel");
             }
-            try {
-                ee.shutdownGracefully().sync();
-                workerGroup.shutdownGracefully().sync();
-            } catch (InterruptedException e) {
-                log.error("Interrupted exception in shutting event pool : {}", e);
+            if (eventLoops == null) {
+                try {
+                    ee.shutdownGracefully().sync();
+                    workerGroup.shutdownGracefully().sync();
+                } catch (InterruptedException e) {
+                    log.error("Interrupted exception in shutting event pool : {}", e);
+                }
             }
         } else {
-            ChannelFuture cf = channel.disconnect();
-            cf.syncUninterruptibly();
-            boolean b1 = cf.awaitUninterruptibly(1000);
+            for (Channel ch : dataChannels) {
+                if (ch != null) {
+                    ch.disconnect().awaitUninterruptibly(1000);
+                }
+            }
+            if (channel != null) {
+                ChannelFuture cf = channel.disconnect();
+                cf.syncUninterruptibly();
+                boolean b1 = cf.awaitUninterruptibly(1000);
+            }
         }
     }
 
@@ -511,49 +827,184 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
      */
     public <T> CompletableFuture<T> sendMessageAndGetCompletable(ChannelHandlerContext ctx,
                                                                  CorfuMsg message) {
+        return sendRequest(ctx, null, message);
+    }
+
+    /**
+     * Send a request and get a completable future to be fulfilled by the reply.
+     *
+     * @param ctx     The channel handler context to send the message under, or null.
+     * @param ch      The channel to send the message on, or null to pick one by the type
+     *                of the message. Ignored if a context is given.
+     * @param message The message to send.
+     * @param <T>     The type of completable to return.
+     * @return A completable future which will be fulfilled by the reply,
+     *     or a timeout in the case there is no response.
+     */
+    private <T> CompletableFuture<T> sendRequest(ChannelHandlerContext ctx, Channel ch,
+                                                 CorfuMsg message) {
         boolean isEnabled = MetricsUtils.isMetricsCollectionEnabled();
-        if (!connected) {
+        // A request for a given channel, such as a data channel, only needs that channel.
+        if (ch == null ? !connected : !ch.isActive()) {
             log.trace("Disconnected endpoint " + host + ":" + port);
             MetricsUtils.incConditionalCounter(isEnabled, counterSendDisconnected, 1);
             throw new NetworkException("Disconnected endpoint", host + ":" + port);
         } else {
             final Timer.Context context = MetricsUtils
                     .getConditionalContext(isEnabled, timerSyncOp);
-            // Get the next request ID.
-            final long thisRequest = requestID.getAndIncrement();
-            // Set the message fields.
-            message.setClientID(clientID);
-            message.setRequestID(thisRequest);
-            message.setEpoch(epoch);
-
-            // Generate a future and put it in the completion table.
-            final CompletableFuture<T> cf = new CompletableFuture<>();
-            outstandingRequests.put(thisRequest, cf);
-            // Write the message out to the channel.
-            if (ctx == null) {
-                channel.writeAndFlush(message);
-            } else {
-                ctx.writeAndFlush(message);
-            }
-            log.trace("Sent message: {}", message);
-            final CompletableFuture<T> cfElapsed = cf.thenApply(x -> {
-                MetricsUtils.stopConditionalContext(context);
-                return x;
-            });
-            // Generate a timeout future, which will complete exceptionally
-            // if the main future is not completed.
-            final CompletableFuture<T> cfTimeout =
-                    CFUtils.within(cfElapsed, Duration.ofMillis(timeoutResponse));
-            cfTimeout.exceptionally(e -> {
-//                MetricsUtils.incConditionalCounter(isEnabled, counterSendTimeout, 1);
-                outstandingRequests.remove(thisRequest);
-                log.debug("Remove request {} due to timeout!", thisRequest);
-                return null;
+            final PendingRequest<T> request = new PendingRequest<>(ctx, ch, message);
+            dispatch(request);
+            // Complete the request exceptionally if it is not completed in time, including
+            // the time it spent backing off.
+            final Timeout timeout = timer.newTimeout(t -> {
+                removeOutstanding(request.requestId);
+                if (request.completeExceptionally(new TimeoutException("Timeout after "
+                        + timeoutResponse + " ms"))) {
+//                    MetricsUtils.incConditionalCounter(isEnabled, counterSendTimeout, 1);
+                    log.debug("Remove request {} due to timeout!", request.requestId);
+                }
+            }, timeoutResponse, TimeUnit.MILLISECONDS);
+            return request.whenComplete((x, e) -> {
+                timeout.cancel();
+                if (e == null) {
+                    MetricsUtils.stopConditionalContext(context);
+                }
             });
-            return cfTimeout;
         }
     }
 
+    /**
+     * A request awaiting a response, with the message to send again if the server is busy.
+     */
+    private static final class PendingRequest<T> extends CompletableFuture<T> {
+        final ChannelHandlerContext ctx;
+        final Channel channel;
+        final CorfuMsg message;
+        volatile long requestId = -1L;
+        /** The channel the request was last sent on. */
+        volatile Channel sentOn;
+        int backoffs;
+
+        PendingRequest(ChannelHandlerContext ctx, Channel channel, CorfuMsg message) {
+            this.ctx = ctx;
+            this.channel = channel;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Send a request under a new request ID, unless the maximum number of requests are
+     * already in flight, in which case the request backs off.
+     *
+     * @param request The request to send.
+     */
+    private void dispatch(PendingRequest<?> request) {
+        if (request.isDone()) {
+            return;
+        }
+        if (request.channel == null ? !connected : !request.channel.isActive()) {
+            request.completeExceptionally(new NetworkException("Disconnected endpoint",
+                    host + ":" + port));
+            return;
+        }
+        final int limit = maxInFlightRequests;
+        if (inFlightRequests.incrementAndGet() > limit && limit > 0) {
+            inFlightRequests.decrementAndGet();
+            backOff(request);
+            return;
+        }
+
+        // Get the next request ID.
+        final long thisRequest = requestID.getAndIncrement();
+        // Set the message fields.
+        final CorfuMsg message = request.message;
+        message.setClientID(clientID);
+        message.setRequestID(thisRequest);
+        message.setEpoch(epoch);
+
+        // Put the request in the completion table, with the channel it is sent on, so it
+        // fails if that channel is closed.
+        request.requestId = thisRequest;
+        request.sentOn = request.ctx != null ? request.ctx.channel()
+                : request.channel != null ? request.channel
+                : selectChannel(message.getMsgType());
+        outstandingRequests.put(thisRequest, request);
+        if (request.isDone()) {
+            // The request timed out in the meantime.
+            removeOutstanding(thisRequest);
+            return;
+        }
+        // Write the message out to the channel.
+        if (request.ctx != null) {
+            request.ctx.writeAndFlush(message);
+        } else {
+            request.sentOn.writeAndFlush(message);
+        }
+        log.trace("Sent message: {}", message);
+    }
+
+    /**
+     * Pick the channel to send a message on: the next data channel round robin for log
+     * data traffic, and the control channel for the rest, or if the data channel is down.
+     *
+     * @param type The type of the message.
+     * @return The channel to send the message on.
+     */
+    Channel selectChannel(CorfuMsgType type) {
+        if (dataChannels.length == 0 || !DATA_TYPES.contains(type)) {
+            return channel;
+        }
+        final Channel ch = dataChannels[Math.floorMod(nextDataChannel.getAndIncrement(),
+                dataChannels.length)];
+        return ch != null && ch.isActive() ? ch : channel;
+    }
+
+    /**
+     * Send a request again after an exponential backoff.
+     *
+     * @param request The request to send again.
+     */
+    private void backOff(PendingRequest<?> request) {
+        final long delay = backoffDelay(request.backoffs++, BACKOFF_MAX_MS);
+        log.trace("backOff: Sending {} again in {} ms", request.message.getMsgType(), delay);
+        timer.newTimeout(t -> dispatch(request), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the delay before a retry, which doubles with every attempt up to a maximum, with
+     * jitter so that the operations which failed together are not retried together.
+     *
+     * @param attempt  The number of attempts which failed so far.
+     * @param maxDelay The maximum delay, in milliseconds.
+     * @return The delay, in milliseconds.
+     */
+    private static long backoffDelay(int attempt, long maxDelay) {
+        final long delay = Math.min(maxDelay,
+                BACKOFF_MIN_MS << Math.min(attempt, BACKOFF_MAX_SHIFT));
+        return ThreadLocalRandom.current().nextLong(delay / 2, delay + 1);
+    }
+
+    /**
+     * Remove a request from the completion table.
+     *
+     * @param requestId The ID of the request.
+     * @return The request, or null if it was not outstanding.
+     */
+    private CompletableFuture removeOutstanding(long requestId) {
+        final CompletableFuture cf = outstandingRequests.remove(requestId);
+        if (cf != null) {
+            inFlightRequests.decrementAndGet();
+        }
+        return cf;
+    }
+
+    /**
+     * The timer of the routers which do not share event loops, created on first use.
+     */
+    private static class DefaultTimer {
+        static final io.netty.util.Timer TIMER = NettyEventLoops.createTimer();
+    }
+
     /**
      * Send a one way message, without adding a completable future.
      *
@@ -609,9 +1060,8 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
     @SuppressWarnings("checkstyle:abbreviation") // Due to deprecation
     public <T> void completeRequest(long requestID, T completion) {
         CompletableFuture<T> cf;
-        if ((cf = (CompletableFuture<T>) outstandingRequests.get(requestID)) != null) {
+        if ((cf = (CompletableFuture<T>) removeOutstanding(requestID)) != null) {
             cf.complete(completion);
-            outstandingRequests.remove(requestID);
         } else {
             log.warn("Attempted to complete request {}, but request not outstanding!", requestID);
         }
@@ -625,9 +1075,8 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
      */
     public void completeExceptionally(long requestID, Throwable cause) {
         CompletableFuture cf;
-        if ((cf = outstandingRequests.get(requestID)) != null) {
+        if ((cf = removeOutstanding(requestID)) != null) {
             cf.completeExceptionally(cause);
-            outstandingRequests.remove(requestID);
         } else {
             log.warn("Attempted to exceptionally complete request {}, but request not outstanding!",
                     requestID);
@@ -666,6 +1115,10 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, CorfuMsg m) throws Exception {
         try {
+            if (m.getMsgType() == CorfuMsgType.SERVER_BUSY) {
+                handleServerBusy(m, ctx);
+                return;
+            }
             // We get the handler for this message from the map
             IClient handler = handlerMap.get(m.getMsgType());
             if (handler == null) {
@@ -686,6 +1139,21 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
         }
     }
 
+    /**
+     * Send a request rejected by a busy server again, after backing off.
+     *
+     * @param m   The SERVER_BUSY response.
+     * @param ctx The context of the channel handler.
+     */
+    private void handleServerBusy(CorfuMsg m, ChannelHandlerContext ctx) {
+        if (validateEpochAndClientID(m, ctx)) {
+            final CompletableFuture cf = removeOutstanding(m.getRequestID());
+            if (cf != null) {
+                backOff((PendingRequest<?>) cf);
+            }
+        }
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         log.error("Exception during channel handling.", cause);
@@ -694,14 +1162,18 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<CorfuMsg>
 
     @Override
     public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
-        context = ctx;
+        if (!ctx.channel().hasAttr(DATA_CHANNEL_INDEX)) {
+            context = ctx;
+        }
         log.debug("Registered new channel {}", ctx);
     }
 
     @Override
     public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
         super.channelUnregistered(ctx);
-        context = null;
+        if (!ctx.channel().hasAttr(DATA_CHANNEL_INDEX)) {
+            context = null;
+        }
         log.debug("Unregistered channel {}", ctx);
     }
 }
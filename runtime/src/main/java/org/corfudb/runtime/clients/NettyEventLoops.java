@@ -0,0 +1,98 @@
+package org.corfudb.runtime.clients;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.corfudb.util.NettyTransport;
+
+/**
+ * The event loop group and event executor group shared by the routers of a runtime.
+ *
+ * <p>Each router used to create its own groups, sized at twice the number of processors,
+ * so a runtime talking to many endpoints ran hundreds of threads. Routers created with
+ * shared groups only register their channel with them, and never shut them down.
+ */
+@Slf4j
+public class NettyEventLoops {
+
+    /** The duration of a tick of the request timer, in milliseconds. */
+    static final long TIMER_TICK_MS = 10;
+
+    /** The transport of the event loop group. */
+    @Getter
+    private final NettyTransport transport;
+
+    /** The group which performs the channel I/O. */
+    @Getter
+    private final EventLoopGroup workerGroup;
+
+    /** The group which runs the channel handlers. */
+    @Getter
+    private final EventExecutorGroup executorGroup;
+
+    /** The timer which expires the requests of the routers. */
+    @Getter
+    private final Timer timer;
+
+    /**
+     * Create new shared groups.
+     *
+     * @param numThreads   The number of threads of each group, 0 for twice the number
+     *                     of processors.
+     * @param preferNative Whether to use the native transport, if it is available.
+     */
+    public NettyEventLoops(int numThreads, boolean preferNative) {
+        final int threads = numThreads > 0 ? numThreads
+                : Runtime.getRuntime().availableProcessors() * 2;
+        transport = NettyTransport.select(preferNative);
+        workerGroup = transport.createEventLoopGroup(threads, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("worker-%d")
+                .build());
+        executorGroup = new DefaultEventExecutorGroup(threads, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("event-%d")
+                .build());
+        timer = createTimer();
+        log.debug("Created {} event loops with {} threads", transport, threads);
+    }
+
+    /**
+     * Create a timer to expire requests.
+     *
+     * <p>Requests are expired by a hashed wheel timer rather than a scheduled executor:
+     * scheduling and cancelling a timeout is O(1) and does not take a lock, at the cost of
+     * expiring requests up to one tick late.
+     *
+     * @return A new timer, with a single daemon thread.
+     */
+    static Timer createTimer() {
+        return new HashedWheelTimer(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("timeout-%d")
+                .build(), TIMER_TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Shut down the shared groups. The routers using them must be stopped first.
+     */
+    public void shutdown() {
+        timer.stop();
+        try {
+            executorGroup.shutdownGracefully().sync();
+            workerGroup.shutdownGracefully().sync();
+        } catch (InterruptedException e) {
+            log.error("Interrupted exception in shutting event pool : {}", e);
+        }
+    }
+}
@@ -11,9 +11,11 @@ import java.util.concurrent.CompletableFuture;
 import lombok.Getter;
 import lombok.Setter;
 
+import org.corfudb.protocols.wireprotocol.ContentionStats;
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
+import org.corfudb.protocols.wireprotocol.SequencerSnapshot;
 import org.corfudb.protocols.wireprotocol.SequencerTailsRecoveryMsg;
 import org.corfudb.protocols.wireprotocol.TokenRequest;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
@@ -47,6 +49,18 @@ public class SequencerClient implements IClient {
         return msg.getPayload();
     }
 
+    @ClientHandler(type = CorfuMsgType.SEQUENCER_SNAPSHOT_RES)
+    private static Object handleSnapshotResponse(CorfuPayloadMsg<SequencerSnapshot> msg,
+                                                 ChannelHandlerContext ctx, IClientRouter r) {
+        return msg.getPayload();
+    }
+
+    @ClientHandler(type = CorfuMsgType.SEQUENCER_CONTENTION_RES)
+    private static Object handleContentionResponse(CorfuPayloadMsg<ContentionStats> msg,
+                                                   ChannelHandlerContext ctx, IClientRouter r) {
+        return msg.getPayload();
+    }
+
     public CompletableFuture<TokenResponse> nextToken(Set<UUID> streamIDs, long numTokens) {
         return router.sendMessageAndGetCompletable(
                 CorfuMsgType.TOKEN_REQ.payloadMsg(new TokenRequest(numTokens, streamIDs)));
@@ -72,6 +86,26 @@ public class SequencerClient implements IClient {
                 .payloadMsg(address));
     }
 
+    /**
+     * Fetches the latest sequencer snapshot persisted on this sequencer node.
+     *
+     * @return A completable future with the snapshot, which is empty if none is available.
+     */
+    public CompletableFuture<SequencerSnapshot> getSnapshot() {
+        return router.sendMessageAndGetCompletable(CorfuMsgType.SEQUENCER_SNAPSHOT_REQ.msg());
+    }
+
+    /**
+     * Fetches the contention statistics of the sequencer.
+     *
+     * @param topK The number of hot streams, conflict keys and clients to fetch.
+     * @return A CompletableFuture which completes with the contention statistics.
+     */
+    public CompletableFuture<ContentionStats> getContentionStats(int topK) {
+        return router.sendMessageAndGetCompletable(
+                CorfuMsgType.SEQUENCER_CONTENTION_REQ.payloadMsg(topK));
+    }
+
     /**
      * Resets the sequencer with the specified initialToken
      *
@@ -1,7 +1,10 @@
 package org.corfudb.runtime.view;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import javax.annotation.Nonnull;
 
@@ -10,6 +13,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.ServerNotReadyException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
+import org.corfudb.util.CFUtils;
 
 /**
  * All views inherit from AbstractView.
@@ -21,6 +25,9 @@ import org.corfudb.runtime.exceptions.WrongEpochException;
  * or an incorrect epoch, it asks the runtime to invalidate that layout
  * by reporting it to a layout server, and retries the function.</p>
  *
+ * <p>The layoutHelperAsync function does the same for functions which return a
+ * future, without blocking the calling thread.</p>
+ *
  * <p>Created by mwei on 12/10/15.</p>
  */
 @Slf4j
@@ -113,6 +120,81 @@ public abstract class AbstractView {
         }
     }
 
+    /**
+     * Helper function for view to retrieve layouts, without blocking.
+     * Like layoutHelper, this retries the given function indefinitely,
+     * invalidating the view if there was a exception contacting the endpoint.
+     * Retries run on the common pool, so that they never block the thread
+     * which completed the previous attempt.
+     *
+     * @param function The function to execute, which returns a future.
+     * @param <T>      The return type of the function.
+     * @return A future which completes with the result of the function, or
+     *         exceptionally with any exception which is not retried.
+     */
+    public <T> CompletableFuture<T> layoutHelperAsync(Function<Layout,
+            CompletableFuture<T>> function) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        layoutHelperAsync(function, result);
+        return result;
+    }
+
+    private <T> void layoutHelperAsync(Function<Layout, CompletableFuture<T>> function,
+                                       CompletableFuture<T> result) {
+        runtime.layout.whenComplete((layout, le) -> {
+            if (le != null) {
+                log.warn("Error executing remote call, invalidating view and retrying in {}s",
+                        runtime.retryRate, le);
+                runtime.invalidateLayout();
+                retryAsync(function, result, true);
+                return;
+            }
+
+            CompletableFuture<T> attempt;
+            try {
+                attempt = function.apply(layout);
+            } catch (RuntimeException re) {
+                attempt = CFUtils.failedFuture(re);
+            }
+            attempt.whenComplete((value, ex) -> {
+                if (ex == null) {
+                    result.complete(value);
+                    return;
+                }
+                final Throwable cause = CFUtils.unwrap(ex);
+                if (cause instanceof TimeoutException
+                        || cause.getCause() instanceof TimeoutException) {
+                    log.warn("Timeout executing remote call, invalidating view and retrying in {}s",
+                            runtime.retryRate);
+                    runtime.invalidateLayout();
+                    retryAsync(function, result, true);
+                } else if (cause instanceof ServerNotReadyException) {
+                    log.warn("Server still not ready. Waiting for server to start "
+                            + "accepting requests.");
+                    retryAsync(function, result, true);
+                } else if (cause instanceof WrongEpochException) {
+                    log.warn("Got a wrong epoch exception, updating epoch to {} and "
+                            + "invalidate view", ((WrongEpochException) cause).getCorrectEpoch());
+                    runtime.invalidateLayout();
+                    retryAsync(function, result, false);
+                } else {
+                    result.completeExceptionally(cause);
+                }
+            });
+        });
+    }
+
+    private <T> void retryAsync(Function<Layout, CompletableFuture<T>> function,
+                                CompletableFuture<T> result, boolean delay) {
+        final Runnable retry = () -> CompletableFuture.runAsync(() ->
+                layoutHelperAsync(function, result));
+        if (delay) {
+            CFUtils.runAfter(Duration.ofSeconds(runtime.retryRate), retry);
+        } else {
+            retry.run();
+        }
+    }
+
     @FunctionalInterface
     public interface LayoutFunction<V, R, A extends Throwable,
             B extends Throwable, C extends Throwable, D extends Throwable> {
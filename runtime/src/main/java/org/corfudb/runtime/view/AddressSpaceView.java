@@ -5,13 +5,25 @@ import com.codahale.metrics.MetricRegistry;
 import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
-import com.google.common.collect.Iterables;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -28,6 +40,8 @@ import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.exceptions.StaleTokenException;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
+import org.corfudb.runtime.view.Layout.LayoutSegment;
+import org.corfudb.runtime.view.Layout.LayoutStripe;
 import org.corfudb.util.CFUtils;
 
 import java.util.Comparator;
@@ -43,24 +57,25 @@ import java.util.Comparator;
 public class AddressSpaceView extends AbstractView {
 
     /**
-     * A cache for read results.
+     * The threads which fetch the batches of a bulk read in parallel, since the reads
+     * block, and bulk reads are nested in other tasks such as the prefetch of streams.
      */
-    final LoadingCache<Long, ILogData> readCache = Caffeine.<Long, ILogData>newBuilder()
-            .maximumSize(runtime.getNumCacheEntries())
-            .expireAfterAccess(runtime.getCacheExpiryTime(), TimeUnit.SECONDS)
-            .expireAfterWrite(runtime.getCacheExpiryTime(), TimeUnit.SECONDS)
-            .recordStats()
-            .build(new CacheLoader<Long, ILogData>() {
-                @Override
-                public ILogData load(Long value) throws Exception {
-                    return cacheFetch(value);
-                }
+    private static final ExecutorService fetchers = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("cacheFetch-%d")
+                    .build());
 
-                @Override
-                public Map<Long, ILogData> loadAll(Iterable<? extends Long> keys) throws Exception {
-                    return cacheFetch((Iterable<Long>) keys);
-                }
-            });
+    /**
+     * The tier of the read cache outside the heap.
+     */
+    private final OffHeapCache offHeapCache = new OffHeapCache(runtime.getOffHeapCacheBytes());
+
+    /**
+     * A cache for read results.
+     */
+    volatile LoadingCache<Long, ILogData> readCache = buildReadCache();
 
     /**
      * Constructor for the Address Space View.
@@ -77,13 +92,74 @@ public class AddressSpaceView extends AbstractView {
         metrics.register(pfx + "hit-rate", (Gauge<Double>) () -> readCache.stats().hitRate());
         metrics.register(pfx + "hits", (Gauge<Long>) () -> readCache.stats().hitCount());
         metrics.register(pfx + "misses", (Gauge<Long>) () -> readCache.stats().missCount());
+        metrics.register(pfx + "cache-bytes", (Gauge<Long>) () -> readCache.policy().eviction()
+                .filter(e -> e.isWeighted())
+                .map(e -> e.weightedSize().orElse(0L)).orElse(0L));
+        offHeapCache.setMetrics(metrics, pfx + "off-heap.");
     }
 
     /**
-     * Reset all in-memory caches.
+     * Reset all in-memory caches, bounding them by the current options of the runtime.
      */
     public void resetCaches() {
         readCache.invalidateAll();
+        readCache = buildReadCache();
+        offHeapCache.invalidateAll();
+        offHeapCache.setMaxBytes(runtime.getOffHeapCacheBytes());
+    }
+
+    /**
+     * Build the read cache. It is bounded by the number of bytes of its entries if the
+     * runtime sets a maximum, or else by their number. If the runtime enables the tier
+     * outside the heap, entries evicted for size are moved to it, and it is looked up
+     * before the log units on a miss.
+     *
+     * @return The read cache.
+     */
+    private LoadingCache<Long, ILogData> buildReadCache() {
+        final Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterAccess(runtime.getCacheExpiryTime(), TimeUnit.SECONDS)
+                .expireAfterWrite(runtime.getCacheExpiryTime(), TimeUnit.SECONDS)
+                .recordStats();
+        if (runtime.getMaxCacheBytes() > 0) {
+            builder.maximumWeight(runtime.getMaxCacheBytes())
+                    .weigher((Long address, ILogData data) -> data.getType() == DataType.DATA
+                            ? Math.max(data.getSizeEstimate(), 1) : 1);
+        } else {
+            builder.maximumSize(runtime.getNumCacheEntries());
+        }
+        return builder.removalListener((Long address, ILogData data, RemovalCause cause) -> {
+            if (cause == RemovalCause.SIZE) {
+                offHeapCache.put(address, data);
+            }
+        }).build(new CacheLoader<Long, ILogData>() {
+            @Override
+            public ILogData load(Long value) throws Exception {
+                ILogData data = offHeapCache.isEnabled() ? offHeapCache.remove(value) : null;
+                return data != null ? data : cacheFetch(value);
+            }
+
+            @Override
+            public Map<Long, ILogData> loadAll(Iterable<? extends Long> keys) throws Exception {
+                if (!offHeapCache.isEnabled()) {
+                    return cacheFetch((Iterable<Long>) keys);
+                }
+                Map<Long, ILogData> result = new HashMap<>();
+                List<Long> missing = new ArrayList<>();
+                for (Long address : keys) {
+                    ILogData data = offHeapCache.remove(address);
+                    if (data != null) {
+                        result.put(address, data);
+                    } else {
+                        missing.add(address);
+                    }
+                }
+                if (!missing.isEmpty()) {
+                    result.putAll(cacheFetch(missing));
+                }
+                return result;
+            }
+        });
     }
 
     /** Write the given log data using a token, returning
@@ -100,9 +176,26 @@ public class AddressSpaceView extends AbstractView {
      * @throws WrongEpochException  If the token epoch is invalid.
      */
     public void write(IToken token, Object data) throws OverwriteException {
+        writeCountingAttempts(token, data);
+    }
+
+    /** Write the given log data using a token, like write, and count the
+     * attempts the layout helper made.
+     *
+     * @param token     The token to use for the write.
+     * @param data      The data to write.
+     * @return          The number of times the write was attempted.
+     * @throws OverwriteException   If the globalAddress given
+     *                              by the token has adopted
+     *                              another value.
+     * @throws WrongEpochException  If the token epoch is invalid.
+     */
+    int writeCountingAttempts(IToken token, Object data) throws OverwriteException {
         final ILogData ld = new LogData(DataType.DATA, data);
+        final AtomicInteger attempts = new AtomicInteger();
 
         layoutHelper(l -> {
+            attempts.incrementAndGet();
             // Check if the token issued is in the same
             // epoch as the layout we are about to write
             // to.
@@ -124,6 +217,68 @@ public class AddressSpaceView extends AbstractView {
         if (!runtime.isCacheDisabled()) {
             readCache.put(token.getTokenValue(), ld);
         }
+        return attempts.get();
+    }
+
+    /** Write the given log data using a token, without blocking.
+     *
+     * <p>This method functions exactly like a write, except that
+     * it returns a future instead of blocking.
+     *
+     * @param token     The token to use for the write.
+     * @param data      The data to write.
+     * @return          A future which completes when the write has been
+     *                  completed successfully, or exceptionally with an
+     *                  OverwriteException if another value has been
+     *                  adopted, or a StaleTokenException if the token
+     *                  epoch is invalid.
+     */
+    public CompletableFuture<Void> writeAsync(IToken token, Object data) {
+        return writeAsyncCountingAttempts(token, data).thenAccept(attempts -> { });
+    }
+
+    /** Write the given log data using a token, like writeAsync, and count
+     * the attempts the layout helper made.
+     *
+     * @param token     The token to use for the write.
+     * @param data      The data to write.
+     * @return          A future which completes with the number of times the
+     *                  write was attempted, or exceptionally like writeAsync.
+     */
+    CompletableFuture<Integer> writeAsyncCountingAttempts(IToken token, Object data) {
+        final ILogData ld = new LogData(DataType.DATA, data);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        return layoutHelperAsync(l -> {
+            attempts.incrementAndGet();
+            if (token.getEpoch() != l.getEpoch()) {
+                throw new StaleTokenException(l.getEpoch());
+            }
+            ld.useToken(token);
+            return l.getReplicationMode(token.getTokenValue())
+                    .getReplicationProtocol(runtime)
+                    .writeAsync(l, ld);
+        }).thenApply(v -> {
+            if (!runtime.isCacheDisabled()) {
+                readCache.put(token.getTokenValue(), ld);
+            }
+            return attempts.get();
+        });
+    }
+
+    /**
+     * Commit a hole filling entry at an address, unless another value
+     * was already committed there.
+     *
+     * @param address   The address to hole fill.
+     */
+    public void fillHole(final long address) {
+        layoutHelper(l -> {
+            l.getReplicationMode(address)
+                    .getReplicationProtocol(runtime)
+                    .holeFill(l, address);
+            return null;
+        });
     }
 
     /** Directly read from the log, returning any
@@ -161,6 +316,41 @@ public class AddressSpaceView extends AbstractView {
         return fetch(address);
     }
 
+    /**
+     * Read the given object from an address, without blocking.
+     *
+     * <p>This method functions exactly like a read, except that
+     * it returns a future instead of blocking.
+     *
+     * @param address An address to read from.
+     * @return A future which completes with the result, which is cached.
+     */
+    public CompletableFuture<ILogData> readAsync(long address) {
+        final ILogData cached = runtime.isCacheDisabled() ? null
+                : readCache.getIfPresent(address);
+        final CompletableFuture<ILogData> data = cached != null
+                ? CompletableFuture.completedFuture(cached)
+                : layoutHelperAsync(l -> l.getReplicationMode(address)
+                        .getReplicationProtocol(runtime)
+                        .readAsync(l, address))
+                .thenApply(result -> {
+                    if (result.getType() == DataType.EMPTY) {
+                        throw new RuntimeException("Unexpected empty return at "
+                                + address + " from fetch");
+                    }
+                    if (!runtime.isCacheDisabled()) {
+                        readCache.put(address, result);
+                    }
+                    return result;
+                });
+        return data.thenApply(result -> {
+            if (result.isTrimmed()) {
+                throw new TrimmedException();
+            }
+            return result;
+        });
+    }
+
     /**
      * Read the given object from a range of addresses.
      *
@@ -275,6 +465,7 @@ public class AddressSpaceView extends AbstractView {
     /** Force the client cache to be invalidated. */
     public void invalidateClientCache() {
         readCache.invalidateAll();
+        offHeapCache.invalidateAll();
     }
 
     /**
@@ -296,27 +487,139 @@ public class AddressSpaceView extends AbstractView {
     /**
      * Fetch a collection of addresses for insertion into the cache.
      *
+     * <p>The addresses are grouped by the segment and stripe they belong to, so that each
+     * bulk read goes to the log units which hold its addresses, with the replication
+     * protocol of its segment. The groups are split into batches of at most the bulk read
+     * size, which are read in parallel.
+     *
      * @param addresses collection of addresses to read from.
      * @return A result to be cached
      */
     public @Nonnull
     Map<Long, ILogData> cacheFetch(Iterable<Long> addresses) {
-        Map<Long, ILogData> allAddresses = new HashMap<>();
+        return fetchAll(batches(addresses), this::fetchBatch);
+    }
 
-        Iterable<List<Long>> batches = Iterables.partition(addresses, runtime.getBulkReadSize());
+    /**
+     * Fetch batches of addresses in parallel on the fetchers, and wait for all of them.
+     * A single batch is fetched on the calling thread.
+     *
+     * @param batches The batches of addresses to fetch.
+     * @param fetch   The function which fetches a batch.
+     * @return The results of every batch.
+     */
+    private @Nonnull Map<Long, ILogData> fetchAll(List<List<Long>> batches,
+                                                  Function<List<Long>, Map<Long, ILogData>> fetch) {
+        if (batches.size() == 1) {
+            return new HashMap<>(fetch.apply(batches.get(0)));
+        }
+        final List<CompletableFuture<Map<Long, ILogData>>> futures = batches.stream()
+                .map(batch -> CompletableFuture.supplyAsync(() -> fetch.apply(batch), fetchers))
+                .collect(Collectors.toList());
+        final Map<Long, ILogData> result = new HashMap<>();
+        for (CompletableFuture<Map<Long, ILogData>> future : futures) {
+            result.putAll(future.join());
+        }
+        return result;
+    }
 
-        for (List<Long> batch : batches) {
-            try {
-                //doesn't handle the case where some address have a different replication mode
-                allAddresses.putAll(layoutHelper(l -> l.getReplicationMode(batch.iterator().next())
-                        .getReplicationProtocol(runtime)
-                        .readAll(l, batch)));
-            } catch (Exception e) {
-                log.error("cacheFetch: Couldn't read addresses {}", batch, e);
+    /**
+     * Peek at a collection of addresses, without waiting for or hole filling
+     * the addresses which hold nothing yet.
+     *
+     * <p>The cached entries are served from the cache, and the other addresses are
+     * batched like those of a bulk read. The committed entries are cached, and the
+     * addresses with no entry committed are left out of the result, so they can be
+     * read later with the usual hole fill policy. Like a bulk read, it throws a
+     * TrimmedException if any address was trimmed.
+     *
+     * @param addresses The addresses to peek at.
+     * @return          A map of the addresses to the entries committed at them.
+     */
+    public @Nonnull
+    Map<Long, ILogData> peek(Iterable<Long> addresses) {
+        final Map<Long, ILogData> result = new HashMap<>();
+        final List<Long> missing = new ArrayList<>();
+        if (!runtime.isCacheDisabled()) {
+            result.putAll(readCache.getAllPresent(addresses));
+        }
+        for (long address : addresses) {
+            if (!result.containsKey(address)) {
+                missing.add(address);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            final Map<Long, ILogData> fetched = fetchAll(batches(missing), this::peekBatch);
+            if (!runtime.isCacheDisabled()) {
+                readCache.putAll(fetched);
             }
+            result.putAll(fetched);
         }
 
-        return allAddresses;
+        for (ILogData logData : result.values()) {
+            if (logData.isTrimmed()) {
+                throw new TrimmedException();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Split a collection of addresses into batches, grouped by the segment and
+     * stripe they belong to and of at most the bulk read size.
+     *
+     * @param addresses The addresses to split.
+     * @return          The batches of addresses.
+     */
+    private List<List<Long>> batches(Iterable<Long> addresses) {
+        final Layout layout = getCurrentLayout();
+        final Map<LayoutSegment, Map<LayoutStripe, List<Long>>> groups = new LinkedHashMap<>();
+        for (long address : addresses) {
+            groups.computeIfAbsent(layout.getSegment(address), s -> new LinkedHashMap<>())
+                    .computeIfAbsent(layout.getStripe(address), s -> new ArrayList<>())
+                    .add(address);
+        }
+
+        return groups.values().stream()
+                .flatMap(stripes -> stripes.values().stream())
+                .flatMap(stripe -> Lists.partition(stripe, runtime.getBulkReadSize()).stream())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Fetch a batch of addresses from a single stripe of a segment.
+     *
+     * @param batch The addresses to read from.
+     * @return The result, or an empty map if the addresses could not be read.
+     */
+    private @Nonnull Map<Long, ILogData> fetchBatch(List<Long> batch) {
+        try {
+            return layoutHelper(l -> l.getReplicationMode(batch.get(0))
+                    .getReplicationProtocol(runtime)
+                    .readAll(l, batch));
+        } catch (Exception e) {
+            log.error("cacheFetch: Couldn't read addresses {}", batch, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Peek at a batch of addresses from a single stripe of a segment.
+     *
+     * @param batch The addresses to peek at.
+     * @return The committed entries, or an empty map if the addresses could not be read.
+     */
+    private @Nonnull Map<Long, ILogData> peekBatch(List<Long> batch) {
+        try {
+            return layoutHelper(l -> l.getReplicationMode(batch.get(0))
+                    .getReplicationProtocol(runtime)
+                    .peekAll(l, new LinkedHashSet<>(batch)));
+        } catch (Exception e) {
+            log.error("peek: Couldn't read addresses {}", batch, e);
+            return Collections.emptyMap();
+        }
     }
 
     /**
@@ -427,10 +427,15 @@ public class Layout implements Cloneable {
             @Override
             public IReplicationProtocol getReplicationProtocol(CorfuRuntime r) {
                 if (r.isHoleFillingDisabled()) {
-                    return new ChainReplicationProtocol(new NeverHoleFillPolicy(100));
+                    return new ChainReplicationProtocol(new NeverHoleFillPolicy(100),
+                            r.getReplicaSelector(), r.isPipelinedChainWrites());
+                } else if (r.getParameters().getHoleFillWaitPercentile() > 0) {
+                    return new ChainReplicationProtocol(r.getAdaptiveHoleFillPolicy(),
+                            r.getReplicaSelector(), r.isPipelinedChainWrites());
                 } else {
                     return new ChainReplicationProtocol(new ReadWaitHoleFillPolicy(100,
-                            r.getParameters().getHoleFillRetry()));
+                            r.getParameters().getHoleFillRetry()), r.getReplicaSelector(),
+                            r.isPipelinedChainWrites());
                 }
             }
         },
@@ -454,6 +459,8 @@ public class Layout implements Cloneable {
             public IReplicationProtocol getReplicationProtocol(CorfuRuntime r) {
                 if (r.isHoleFillingDisabled()) {
                     return new QuorumReplicationProtocol(new NeverHoleFillPolicy(100));
+                } else if (r.getParameters().getHoleFillWaitPercentile() > 0) {
+                    return new QuorumReplicationProtocol(r.getAdaptiveHoleFillPolicy());
                 } else {
                     return new QuorumReplicationProtocol(new ReadWaitHoleFillPolicy(100,
                             r.getParameters().getHoleFillRetry()));
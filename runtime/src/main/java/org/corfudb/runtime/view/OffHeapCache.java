@@ -0,0 +1,142 @@
+package org.corfudb.runtime.view;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.IllegalReferenceCountException;
+
+import javax.annotation.Nullable;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.LogData;
+
+/**
+ * A cache of serialized log data held in direct buffers, outside of the heap.
+ *
+ * <p>The address space view demotes the entries its read cache evicts for size to this
+ * cache, and looks up its misses here before it reads from the log units. Entries are
+ * serialized when they are put, and deserialized on every hit, so a hit costs more than
+ * a hit in the read cache, but much less than a read from a log unit.
+ */
+@Slf4j
+class OffHeapCache {
+
+    private final Cache<Long, ByteBuf> cache;
+
+    private volatile long maxBytes;
+
+    /**
+     * Returns a new OffHeapCache.
+     *
+     * @param maxBytes The maximum number of bytes of serialized log data to hold, or 0 to
+     *                 hold none.
+     */
+    OffHeapCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        cache = Caffeine.<Long, ByteBuf>newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long address, ByteBuf buf) -> buf.readableBytes())
+                .removalListener((Long address, ByteBuf buf, RemovalCause cause) ->
+                        buf.release())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Check whether the cache holds anything.
+     *
+     * @return True, if the maximum size of the cache is above 0.
+     */
+    boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * Change the maximum size of the cache, evicting entries if it shrinks.
+     *
+     * @param maxBytes The maximum number of bytes of serialized log data to hold, or 0 to
+     *                 hold none.
+     */
+    void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        cache.policy().eviction().ifPresent(e -> e.setMaximum(maxBytes));
+        cache.cleanUp();
+    }
+
+    /**
+     * Serialize log data into the cache.
+     *
+     * @param address The address of the log data.
+     * @param data    The log data.
+     */
+    void put(long address, ILogData data) {
+        if (!isEnabled() || !(data instanceof LogData)) {
+            return;
+        }
+        final ByteBuf buf = Unpooled.directBuffer(((LogData) data).getSizeHint());
+        try {
+            ((LogData) data).doSerialize(buf);
+        } catch (RuntimeException re) {
+            log.warn("put[{}]: Couldn't serialize log data", address, re);
+            buf.release();
+            return;
+        }
+        cache.put(address, buf);
+    }
+
+    /**
+     * Get log data from the cache, removing it.
+     *
+     * @param address The address of the log data.
+     * @return The deserialized log data, or null if it is not in the cache.
+     */
+    @Nullable
+    ILogData remove(long address) {
+        final ByteBuf buf = cache.getIfPresent(address);
+        if (buf == null) {
+            return null;
+        }
+        try {
+            // The buffer may be released by an eviction at any time.
+            buf.retain();
+        } catch (IllegalReferenceCountException e) {
+            return null;
+        }
+        try {
+            return new LogData(buf.duplicate());
+        } finally {
+            buf.release();
+            cache.asMap().remove(address, buf);
+        }
+    }
+
+    /**
+     * Remove every entry from the cache.
+     */
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Register the gauges of the cache.
+     *
+     * @param metrics The registry to register the gauges in.
+     * @param pfx     The prefix of the names of the gauges.
+     */
+    void setMetrics(MetricRegistry metrics, String pfx) {
+        metrics.register(pfx + "cache-size", (Gauge<Long>) cache::estimatedSize);
+        metrics.register(pfx + "cache-bytes", (Gauge<Long>) () -> cache.policy().eviction()
+                .map(e -> e.weightedSize().orElse(0L)).orElse(0L));
+        metrics.register(pfx + "evictions", (Gauge<Long>) () -> cache.stats().evictionCount());
+        metrics.register(pfx + "hit-rate", (Gauge<Double>) () -> cache.stats().hitRate());
+        metrics.register(pfx + "hits", (Gauge<Long>) () -> cache.stats().hitCount());
+        metrics.register(pfx + "misses", (Gauge<Long>) () -> cache.stats().missCount());
+    }
+}
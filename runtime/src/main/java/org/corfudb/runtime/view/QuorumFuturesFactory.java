@@ -129,6 +129,7 @@ public class QuorumFuturesFactory {
             TreeMultimap<Integer, R> valuesSortedByCount = TreeMultimap.create(ic.reversed(),
                     comparator);
             TreeMultimap<R, Integer> indexesByValue = TreeMultimap.create(comparator, ic);
+            CompletableFuture<R> result = new CompletableFuture<>();
 
             long until = 0;
             boolean infinite = (timeout == Long.MAX_VALUE);
@@ -136,69 +137,11 @@ public class QuorumFuturesFactory {
                 until = System.nanoTime() + unit.toNanos(timeout);
             }
             while (infinite || System.nanoTime() < until) {
-                int numIncompleteFutures = 0;
-                CompletableFuture aggregatedFuture = null; // block until some future completes
-                for (int i = 0; i < futures.length; i++) {
-                    CompletableFuture<R> c = futures[i];
-                    if (!c.isDone()) {
-                        numIncompleteFutures++;
-                        if (aggregatedFuture == null) {
-                            aggregatedFuture = c;
-                        } else {
-                            aggregatedFuture = CompletableFuture.anyOf(aggregatedFuture, c);
-                        }
-                    } else {
-                        if (!c.isCancelled()) {
-                            if (c.isCompletedExceptionally()) {
-                                try {
-                                    futures[i].get(); // this will throw the ExecutionException
-                                } catch (ExecutionException e) {
-                                    Throwable t = e.getCause();
-                                    throwables.add(t);
-                                    if (failFastThrowables.contains(t.getClass())) {
-                                        done = canceled = true;
-                                        throw e;
-                                    }
-                                }
-                            } else {
-                                R value = c.get();
-                                Set<Integer> indexes = indexesByValue.get(value);
-                                if (!indexes.contains(i)) {
-                                    valuesSortedByCount.remove(indexes.size(), value);
-                                    indexes.add(i);
-                                    valuesSortedByCount.put(indexes.size(), value);
-                                }
-                                if (indexesByValue.keySet().size() > 1) {
-                                    conflict = true;
-                                }
-                            }
-                        }
-                    }
-                }
-
-                int greatestNumCompleteFutures = valuesSortedByCount.size() == 0 ? 0 :
-                        valuesSortedByCount.keySet().iterator().next();
-                if (greatestNumCompleteFutures >= quorum) { // normal exit, quorum
-                    done = true;
-                    return valuesSortedByCount.entries().iterator().next().getValue();
-                }
-                boolean noMoreHope = numIncompleteFutures + greatestNumCompleteFutures < quorum;
-                if (noMoreHope) {
-                    done = canceled = true;
-                    // Check if we have a quorum over any exception type
-                    Multiset<Throwable> exceptionCounter = HashMultiset.create();
-                    for (Throwable t: getThrowables()) {
-                        log.debug("QuorumGet: Exception {}", t.getClass().getSimpleName());
-                        exceptionCounter.add(t);
-                    }
-                    // Iterate over each exception type, and throw the first one with a quorum
-                    for (Throwable t : exceptionCounter.elementSet()) {
-                        if (exceptionCounter.count(t) >= quorum) {
-                            throw new ExecutionException(t);
-                        }
-                    }
-                    throw new ExecutionException(
-                            new QuorumUnreachableException(greatestNumCompleteFutures, quorum));
+                // block until some future completes
+                CompletableFuture aggregatedFuture = check(valuesSortedByCount, indexesByValue,
+                        result);
+                if (aggregatedFuture == null) {
+                    return result.get();
                 }
                 try {
                     if (infinite) {
@@ -214,6 +157,122 @@ public class QuorumFuturesFactory {
             throw new TimeoutException();
         }
 
+        /**
+         * Get a completable future which completes like this future, without blocking.
+         * The futures are checked again each time one of them completes.
+         *
+         * @return A completable future which completes with the quorum value, or
+         *         exceptionally with the exception get would throw the cause of.
+         */
+        public CompletableFuture<R> toCompletableFuture() {
+            Comparator<Integer> ic = Integer::compareTo;
+            TreeMultimap<Integer, R> valuesSortedByCount = TreeMultimap.create(ic.reversed(),
+                    comparator);
+            TreeMultimap<R, Integer> indexesByValue = TreeMultimap.create(comparator, ic);
+            CompletableFuture<R> result = new CompletableFuture<>();
+            for (CompletableFuture<R> future : futures) {
+                future.whenComplete((r, e) -> {
+                    synchronized (result) {
+                        if (!result.isDone()) {
+                            try {
+                                check(valuesSortedByCount, indexesByValue, result);
+                            } catch (InterruptedException | ExecutionException
+                                    | RuntimeException ex) {
+                                // Such as the comparator failing on the values.
+                                result.completeExceptionally(ex);
+                            }
+                        }
+                    }
+                });
+            }
+            return result;
+        }
+
+        /**
+         * Check the futures which completed once, and complete the result if a quorum
+         * was reached, or can no longer be reached.
+         *
+         * @param valuesSortedByCount The values completed, by the number of futures.
+         * @param indexesByValue      The futures which completed with each value.
+         * @param result              The future to complete.
+         * @return The future to wait on before checking again, or null if the result
+         *         was completed.
+         */
+        private CompletableFuture check(TreeMultimap<Integer, R> valuesSortedByCount,
+                                        TreeMultimap<R, Integer> indexesByValue,
+                                        CompletableFuture<R> result)
+                throws InterruptedException, ExecutionException {
+            int numIncompleteFutures = 0;
+            CompletableFuture aggregatedFuture = null;
+            for (int i = 0; i < futures.length; i++) {
+                CompletableFuture<R> c = futures[i];
+                if (!c.isDone()) {
+                    numIncompleteFutures++;
+                    if (aggregatedFuture == null) {
+                        aggregatedFuture = c;
+                    } else {
+                        aggregatedFuture = CompletableFuture.anyOf(aggregatedFuture, c);
+                    }
+                } else {
+                    if (!c.isCancelled()) {
+                        if (c.isCompletedExceptionally()) {
+                            try {
+                                futures[i].get(); // this will throw the ExecutionException
+                            } catch (ExecutionException e) {
+                                Throwable t = e.getCause();
+                                throwables.add(t);
+                                if (failFastThrowables.contains(t.getClass())) {
+                                    done = canceled = true;
+                                    result.completeExceptionally(t);
+                                    return null;
+                                }
+                            }
+                        } else {
+                            R value = c.get();
+                            Set<Integer> indexes = indexesByValue.get(value);
+                            if (!indexes.contains(i)) {
+                                valuesSortedByCount.remove(indexes.size(), value);
+                                indexes.add(i);
+                                valuesSortedByCount.put(indexes.size(), value);
+                            }
+                            if (indexesByValue.keySet().size() > 1) {
+                                conflict = true;
+                            }
+                        }
+                    }
+                }
+            }
+
+            int greatestNumCompleteFutures = valuesSortedByCount.size() == 0 ? 0 :
+                    valuesSortedByCount.keySet().iterator().next();
+            if (greatestNumCompleteFutures >= quorum) { // normal exit, quorum
+                done = true;
+                result.complete(valuesSortedByCount.entries().iterator().next().getValue());
+                return null;
+            }
+            boolean noMoreHope = numIncompleteFutures + greatestNumCompleteFutures < quorum;
+            if (noMoreHope) {
+                done = canceled = true;
+                // Check if we have a quorum over any exception type
+                Multiset<Throwable> exceptionCounter = HashMultiset.create();
+                for (Throwable t: getThrowables()) {
+                    log.debug("QuorumGet: Exception {}", t.getClass().getSimpleName());
+                    exceptionCounter.add(t);
+                }
+                // Iterate over each exception type, and throw the first one with a quorum
+                for (Throwable t : exceptionCounter.elementSet()) {
+                    if (exceptionCounter.count(t) >= quorum) {
+                        result.completeExceptionally(t);
+                        return null;
+                    }
+                }
+                result.completeExceptionally(
+                        new QuorumUnreachableException(greatestNumCompleteFutures, quorum));
+                return null;
+            }
+            return aggregatedFuture;
+        }
+
 
         @Override
         public R get() throws InterruptedException, ExecutionException {
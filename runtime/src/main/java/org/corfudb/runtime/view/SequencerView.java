@@ -1,20 +1,54 @@
 package org.corfudb.runtime.view;
 
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.time.Duration;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
 
 import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.util.CFUtils;
+import org.corfudb.util.Utils;
 
 
 /**
  * Created by mwei on 12/10/15.
  */
-
+@Slf4j
 public class SequencerView extends AbstractView {
 
+    /**
+     * The number of threads which hole fill the unused tokens of released leases.
+     */
+    private static final int HOLE_FILL_THREADS = 2;
+
+    /**
+     * The threads which hole fill the unused tokens of released leases, since the hole
+     * fills block.
+     */
+    private static final ExecutorService holeFillers = Executors.newFixedThreadPool(
+            HOLE_FILL_THREADS,
+            new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("releaseLease-%d")
+                    .build());
+
+    /**
+     * The token leases of this runtime, by stream set.
+     */
+    private final Map<Set<UUID>, TokenLease> leases = new ConcurrentHashMap<>();
+
     public SequencerView(CorfuRuntime runtime) {
         super(runtime);
     }
@@ -42,7 +76,175 @@ public class SequencerView extends AbstractView {
                 streamIDs, numTokens, conflictInfo)));
     }
 
+    /**
+     * Return the next token in the sequencer for a particular stream, without blocking.
+     *
+     * @param streamIDs The stream IDs to retrieve from.
+     * @param numTokens The number of tokens to reserve.
+     * @return A future which completes with the first token retrieved.
+     */
+    public CompletableFuture<TokenResponse> nextTokenAsync(Set<UUID> streamIDs, int numTokens) {
+        return layoutHelperAsync(l -> l.getSequencer(0).nextToken(streamIDs, numTokens));
+    }
+
+    /**
+     * Return the next token in the sequencer for a particular stream, checking the given
+     * conflict information, without blocking.
+     *
+     * @param streamIDs    The stream IDs to retrieve from.
+     * @param numTokens    The number of tokens to reserve.
+     * @param conflictInfo Conflict information for the sequencer to check.
+     * @return A future which completes with the first token retrieved.
+     */
+    public CompletableFuture<TokenResponse> nextTokenAsync(Set<UUID> streamIDs, int numTokens,
+                                                           TxResolutionInfo conflictInfo) {
+        return layoutHelperAsync(l -> l.getSequencer(0).nextToken(
+                streamIDs, numTokens, conflictInfo));
+    }
+
+    /**
+     * Return the next token for a set of streams, from a block of tokens leased from the
+     * sequencer.
+     *
+     * <p>A lease is a block of {@link CorfuRuntime#tokenLeaseSize} contiguous addresses issued
+     * to the stream set by a single token request. Since the sequencer records the last address
+     * of the block as the tail of each stream, the first token of the block uses the
+     * backpointers returned by the sequencer, and every other token points back to the
+     * previous address of the block. A lease is only valid in the epoch it was issued in:
+     * once the epoch changes, its unused tokens are hole filled and a new block is leased.
+     * A lease which hands out no token for {@link CorfuRuntime#tokenLeaseIdleTimeout} is
+     * released as well, so readers of the streams do not wait on its unused tokens.
+     *
+     * <p>Since readers of the streams can see the whole block as soon as it is leased, a
+     * reader may hole fill a leased token before it is used. Leasing is therefore intended
+     * for streams which are written in bulk, and read once the writes are done.
+     *
+     * <p>If leasing is disabled, this is equivalent to requesting a single token.
+     *
+     * @param streamIDs The stream IDs to retrieve from.
+     * @return The next token for the stream set.
+     */
+    public TokenResponse nextLeasedToken(Set<UUID> streamIDs) {
+        final int leaseSize = runtime.getTokenLeaseSize();
+        if (leaseSize <= 1) {
+            return nextToken(streamIDs, 1);
+        }
+
+        final Set<UUID> key = ImmutableSet.copyOf(streamIDs);
+        final long epoch = getCurrentLayout().getEpoch();
+        final TokenLease current = leases.get(key);
+        if (current != null && current.getEpoch() >= epoch) {
+            TokenResponse token = current.next();
+            if (token != null) {
+                return token;
+            }
+        }
+
+        // Only one thread leases a new block for a stream set, the others take their
+        // tokens from it. A lease issued in an older epoch is released.
+        final TokenResponse[] token = new TokenResponse[1];
+        final TokenLease[] stale = new TokenLease[1];
+        final TokenLease[] leased = new TokenLease[1];
+        leases.compute(key, (k, l) -> {
+            if (l != null && l.getEpoch() >= epoch) {
+                token[0] = l.next();
+                if (token[0] != null) {
+                    return l;
+                }
+            } else if (l != null) {
+                stale[0] = l;
+            }
+            leased[0] = new TokenLease(nextToken(k, leaseSize), leaseSize);
+            token[0] = leased[0].next();
+            return leased[0];
+        });
+        if (stale[0] != null) {
+            releaseLease(key, stale[0]);
+        }
+        if (leased[0] == null) {
+            return token[0];
+        }
+        final Duration idleTimeout = runtime.getTokenLeaseIdleTimeout();
+        if (!idleTimeout.isZero()) {
+            releaseWhenIdle(key, leased[0], idleTimeout);
+        }
+        return token[0];
+    }
+
+    /**
+     * Release a lease once it has handed out no token for the idle timeout.
+     *
+     * @param key         The stream set of the lease.
+     * @param lease       The lease.
+     * @param idleTimeout How long the lease may be idle.
+     */
+    private void releaseWhenIdle(Set<UUID> key, TokenLease lease, Duration idleTimeout) {
+        final long idleNanos = lease.getIdleNanos();
+        CFUtils.runAfter(idleTimeout.minusNanos(Math.min(idleNanos, idleTimeout.toNanos())),
+                () -> {
+                    if (leases.get(key) != lease) {
+                        // The lease was exhausted, released or replaced.
+                        return;
+                    }
+                    if (lease.getIdleNanos() >= idleTimeout.toNanos()) {
+                        releaseLease(key, lease);
+                    } else {
+                        releaseWhenIdle(key, lease, idleTimeout);
+                    }
+                });
+    }
+
+    /**
+     * Release the lease of a stream set, hole filling its unused tokens in the background.
+     * Called when a leased token could not be written.
+     *
+     * @param streamIDs The stream IDs of the lease.
+     * @return A future which completes once the unused tokens are hole filled.
+     */
+    public CompletableFuture<Void> releaseLease(Set<UUID> streamIDs) {
+        final Set<UUID> key = ImmutableSet.copyOf(streamIDs);
+        TokenLease lease = leases.get(key);
+        if (lease == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return releaseLease(key, lease);
+    }
+
+    /**
+     * Release every lease, hole filling their unused tokens in the background.
+     *
+     * @return A future which completes once the unused tokens are hole filled.
+     */
+    public CompletableFuture<Void> releaseLeases() {
+        return CompletableFuture.allOf(leases.entrySet().stream()
+                .map(e -> releaseLease(e.getKey(), e.getValue()))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private CompletableFuture<Void> releaseLease(Set<UUID> key, TokenLease lease) {
+        leases.remove(key, lease);
+        final long[] unused = lease.release();
+        if (unused.length == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        log.debug("releaseLease[{}]: Hole filling {} unused tokens from {}",
+                key.stream().map(Utils::toReadableId).collect(Collectors.toSet()),
+                unused.length, unused[0]);
+        // The unused tokens are hole filled as a single batch, off the caller's thread.
+        return CompletableFuture.runAsync(() -> {
+            for (long address : unused) {
+                runtime.getAddressSpaceView().fillHole(address);
+            }
+        }, holeFillers).whenComplete((v, e) -> {
+            if (e != null) {
+                log.warn("releaseLease[{}]: Failed to hole fill unused tokens from {}: {}",
+                        key.stream().map(Utils::toReadableId).collect(Collectors.toSet()),
+                        unused[0], e.toString());
+            }
+        });
+    }
+
     public void trimCache(long address) {
         getCurrentLayout().getSequencer(0).trimCache(address);
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package org.corfudb.runtime.view;
 import java.util.Collections;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
@@ -21,8 +22,10 @@ import org.corfudb.runtime.exceptions.AppendException;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.exceptions.StaleTokenException;
 import org.corfudb.runtime.exceptions.TransactionAbortedException;
+import org.corfudb.runtime.object.transactions.AbstractTransactionalContext;
 import org.corfudb.runtime.object.transactions.TransactionalContext;
 import org.corfudb.runtime.view.stream.IStreamView;
+import org.corfudb.util.CFUtils;
 import org.corfudb.util.Utils;
 
 /**
@@ -105,44 +108,26 @@ public class StreamsView extends AbstractView {
     public long append(@Nonnull Set<UUID> streamIDs, @Nonnull Object object,
                        @Nullable TxResolutionInfo conflictInfo) throws TransactionAbortedException {
 
-        // Go to the sequencer, grab an initial token.
+        // Go to the sequencer, grab an initial token. Tokens w/o conflict info
+        // may come from a block of leased tokens.
         TokenResponse tokenResponse = conflictInfo == null
-                ? runtime.getSequencerView().nextToken(streamIDs, 1) // Token w/o conflict info
+                ? runtime.getSequencerView().nextLeasedToken(streamIDs) // Token w/o conflict info
                 : runtime.getSequencerView().nextToken(streamIDs, 1,
                 conflictInfo); // Token w/ conflict info
+        final long tokenAcquired = System.nanoTime();
 
         for (int x = 0; x < runtime.getWriteRetry(); x++) {
 
             // Is our token a valid type?
-            if (tokenResponse.getRespType() == TokenType.TX_ABORT_CONFLICT) {
-                throw new TransactionAbortedException(
-                        conflictInfo,
-                        tokenResponse.getConflictKey(),
-                        AbortCause.CONFLICT,
-                        TransactionalContext.getCurrentContext());
-            } else if (tokenResponse.getRespType() == TokenType.TX_ABORT_NEWSEQ) {
-                throw new TransactionAbortedException(
-                        conflictInfo,
-                        tokenResponse.getConflictKey(),
-                        AbortCause.NEW_SEQUENCER,
-                        TransactionalContext.getCurrentContext());
-            } else if (tokenResponse.getRespType() == TokenType.TX_ABORT_SEQ_OVERFLOW) {
-                throw new TransactionAbortedException(
-                        conflictInfo,
-                        tokenResponse.getConflictKey(),
-                        AbortCause.SEQUENCER_OVERFLOW,
-                        TransactionalContext.getCurrentContext());
-            } else if (tokenResponse.getRespType() == TokenType.TX_ABORT_SEQ_TRIM) {
-                throw new TransactionAbortedException(
-                        conflictInfo,
-                        tokenResponse.getConflictKey(),
-                        AbortCause.SEQUENCER_TRIM,
-                        TransactionalContext.getCurrentContext());
-            }
+            checkToken(tokenResponse, conflictInfo, TransactionalContext.getCurrentContext());
 
             // Attempt to write to the log
             try {
-                runtime.getAddressSpaceView().write(tokenResponse, object);
+                int attempts = runtime.getAddressSpaceView()
+                        .writeCountingAttempts(tokenResponse, object);
+                if (x == 0 && attempts == 1) {
+                    recordWrite(tokenAcquired);
+                }
                 // If we're here, we succeeded, return the acquired token
                 return tokenResponse.getTokenValue();
             } catch (OverwriteException oe) {
@@ -155,8 +140,9 @@ public class StreamsView extends AbstractView {
 
                 TokenResponse temp;
                 if (conflictInfo == null) {
-                    // Token w/o conflict info
-                    temp = runtime.getSequencerView().nextToken(streamIDs, 1);
+                    // Token w/o conflict info, from a new lease
+                    runtime.getSequencerView().releaseLease(streamIDs);
+                    temp = runtime.getSequencerView().nextLeasedToken(streamIDs);
                 } else {
 
                     // On retry, check for conflicts only from the previous
@@ -179,6 +165,10 @@ public class StreamsView extends AbstractView {
                 log.warn("append[{}]: StaleToken , streams {}", tokenResponse.getTokenValue(),
                         streamIDs.stream().map(Utils::toReadableId).collect(Collectors.toSet()));
 
+                if (conflictInfo == null) {
+                    runtime.getSequencerView().releaseLease(streamIDs);
+                }
+
                 throw new TransactionAbortedException(
                         conflictInfo,
                         tokenResponse.getConflictKey(),
@@ -194,4 +184,147 @@ public class StreamsView extends AbstractView {
                 ILogData.getSerializedSize(object));
         throw new AppendException();
     }
+
+    /**
+     * Append to multiple streams simultaneously, without blocking.
+     *
+     * <p>This method functions exactly like append, except that it returns
+     * a future instead of blocking, and that tokens are always requested
+     * from the sequencer rather than taken from a lease.
+     *
+     * @param streamIDs    The streams to append to.
+     * @param object       The object to append to each stream.
+     * @param conflictInfo Conflict information for the sequencer to check.
+     * @return A future which completes with the address the entry was written to,
+     *         or exceptionally with a TransactionAbortedException if the transaction
+     *         was aborted by the sequencer.
+     */
+    public CompletableFuture<Long> appendAsync(@Nonnull Set<UUID> streamIDs,
+                                               @Nonnull Object object,
+                                               @Nullable TxResolutionInfo conflictInfo) {
+        // The transaction context is thread local, so capture it now.
+        final AbstractTransactionalContext context = TransactionalContext.getCurrentContext();
+        return nextTokenAsync(streamIDs, conflictInfo).thenCompose(tokenResponse ->
+                appendAsync(streamIDs, object, conflictInfo, context, tokenResponse,
+                        System.nanoTime(), 0));
+    }
+
+    private CompletableFuture<Long> appendAsync(Set<UUID> streamIDs, Object object,
+                                                TxResolutionInfo conflictInfo,
+                                                AbstractTransactionalContext context,
+                                                TokenResponse tokenResponse,
+                                                long tokenAcquired, int attempt) {
+        if (attempt >= runtime.getWriteRetry()) {
+            log.error("appendAsync[{}]: failed after {} retries , streams {}",
+                    tokenResponse.getTokenValue(), runtime.getWriteRetry(),
+                    streamIDs.stream().map(Utils::toReadableId).collect(Collectors.toSet()));
+            return CFUtils.failedFuture(new AppendException());
+        }
+        try {
+            checkToken(tokenResponse, conflictInfo, context);
+        } catch (TransactionAbortedException tae) {
+            return CFUtils.failedFuture(tae);
+        }
+
+        return runtime.getAddressSpaceView().writeAsyncCountingAttempts(tokenResponse, object)
+                .handle((attempts, e) -> {
+                    if (e != null) {
+                        return CFUtils.unwrap(e);
+                    }
+                    if (attempt == 0 && attempts == 1) {
+                        recordWrite(tokenAcquired);
+                    }
+                    return null;
+                })
+                .thenCompose(cause -> {
+                    if (cause == null) {
+                        return CompletableFuture.completedFuture(tokenResponse.getTokenValue());
+                    } else if (cause instanceof OverwriteException) {
+                        log.warn("appendAsync[{}]: Overwritten after {} retries, streams {}",
+                                tokenResponse.getTokenValue(), attempt,
+                                streamIDs.stream().map(Utils::toReadableId)
+                                        .collect(Collectors.toSet()));
+                        if (conflictInfo != null) {
+                            conflictInfo.setSnapshotTimestamp(
+                                    tokenResponse.getToken().getTokenValue());
+                        }
+                        return nextTokenAsync(streamIDs, conflictInfo).thenCompose(temp ->
+                                appendAsync(streamIDs, object, conflictInfo, context,
+                                        new TokenResponse(temp.getRespType(),
+                                                tokenResponse.getConflictKey(),
+                                                temp.getToken(), temp.getBackpointerMap()),
+                                        System.nanoTime(), attempt + 1));
+                    } else if (cause instanceof StaleTokenException) {
+                        log.warn("appendAsync[{}]: StaleToken , streams {}",
+                                tokenResponse.getTokenValue(),
+                                streamIDs.stream().map(Utils::toReadableId)
+                                        .collect(Collectors.toSet()));
+                        return CFUtils.failedFuture(new TransactionAbortedException(
+                                conflictInfo,
+                                tokenResponse.getConflictKey(),
+                                AbortCause.NEW_SEQUENCER,
+                                context));
+                    }
+                    return CFUtils.failedFuture(cause);
+                });
+    }
+
+    /**
+     * Record how long a write took since its token was acquired, for the
+     * hole fill policy to size its wait by. Only writes which succeeded on
+     * their first try are recorded, so that retries do not inflate the wait.
+     *
+     * @param tokenAcquired The time the token was acquired, from System.nanoTime().
+     */
+    private void recordWrite(long tokenAcquired) {
+        runtime.getAdaptiveHoleFillPolicy().recordWrite(System.nanoTime() - tokenAcquired);
+    }
+
+    private CompletableFuture<TokenResponse> nextTokenAsync(Set<UUID> streamIDs,
+                                                            @Nullable TxResolutionInfo
+                                                                    conflictInfo) {
+        return conflictInfo == null
+                ? runtime.getSequencerView().nextTokenAsync(streamIDs, 1)
+                : runtime.getSequencerView().nextTokenAsync(streamIDs, 1, conflictInfo);
+    }
+
+    /**
+     * Check that a token was issued, rather than the transaction it was
+     * requested for aborted.
+     *
+     * @param tokenResponse The token issued by the sequencer.
+     * @param conflictInfo  Conflict information the sequencer checked.
+     * @param context       The transaction context of the append.
+     * @throws TransactionAbortedException If the transaction was aborted by
+     *                                     the sequencer.
+     */
+    private void checkToken(TokenResponse tokenResponse, TxResolutionInfo conflictInfo,
+                            AbstractTransactionalContext context)
+            throws TransactionAbortedException {
+        if (tokenResponse.getRespType() == TokenType.TX_ABORT_CONFLICT) {
+            throw new TransactionAbortedException(
+                    conflictInfo,
+                    tokenResponse.getConflictKey(),
+                    AbortCause.CONFLICT,
+                    context);
+        } else if (tokenResponse.getRespType() == TokenType.TX_ABORT_NEWSEQ) {
+            throw new TransactionAbortedException(
+                    conflictInfo,
+                    tokenResponse.getConflictKey(),
+                    AbortCause.NEW_SEQUENCER,
+                    context);
+        } else if (tokenResponse.getRespType() == TokenType.TX_ABORT_SEQ_OVERFLOW) {
+            throw new TransactionAbortedException(
+                    conflictInfo,
+                    tokenResponse.getConflictKey(),
+                    AbortCause.SEQUENCER_OVERFLOW,
+                    context);
+        } else if (tokenResponse.getRespType() == TokenType.TX_ABORT_SEQ_TRIM) {
+            throw new TransactionAbortedException(
+                    conflictInfo,
+                    tokenResponse.getConflictKey(),
+                    AbortCause.SEQUENCER_TRIM,
+                    context);
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package org.corfudb.runtime.view;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import lombok.Getter;
+
+import org.corfudb.protocols.wireprotocol.TokenResponse;
+
+/**
+ * A block of contiguous tokens leased from the sequencer for a set of streams,
+ * which are handed out locally in address order.
+ */
+class TokenLease {
+
+    /** The response of the token request which leased the block. */
+    private final TokenResponse block;
+
+    /** The number of tokens in the block. */
+    private final int size;
+
+    /** The index of the next token to hand out, guarded by this. */
+    private int next = 0;
+
+    /** The time a token of the block was last handed out, from {@link System#nanoTime()}. */
+    private volatile long lastUsed = System.nanoTime();
+
+    /** The epoch the block was issued in. */
+    @Getter
+    private final long epoch;
+
+    TokenLease(TokenResponse block, int size) {
+        this.block = block;
+        this.size = size;
+        this.epoch = block.getEpoch();
+    }
+
+    /**
+     * Hand out the next token of the block.
+     *
+     * @return the next token, or null if the block is exhausted
+     */
+    synchronized TokenResponse next() {
+        if (next >= size) {
+            return null;
+        }
+        final long address = block.getTokenValue() + next;
+        final Map<UUID, Long> backpointers = next == 0 ? block.getBackpointerMap()
+                : block.getBackpointerMap().keySet().stream()
+                        .collect(Collectors.toMap(id -> id, id -> address - 1));
+        next++;
+        lastUsed = System.nanoTime();
+        return new TokenResponse(address, epoch, backpointers);
+    }
+
+    /**
+     * Get how long the block has been idle.
+     *
+     * @return the time since a token of the block was last handed out, in nanoseconds
+     */
+    long getIdleNanos() {
+        return System.nanoTime() - lastUsed;
+    }
+
+    /**
+     * Release the block, so no more tokens are handed out.
+     *
+     * @return the addresses of the tokens which were never handed out
+     */
+    synchronized long[] release() {
+        long[] unused = LongStream.range(block.getTokenValue() + next,
+                block.getTokenValue() + size).toArray();
+        next = size;
+        return unused;
+    }
+}
@@ -1,11 +1,13 @@
 package org.corfudb.runtime.view.replication;
 
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nonnull;
 
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.runtime.exceptions.HoleFillRequiredException;
 import org.corfudb.runtime.view.Layout;
+import org.corfudb.util.CFUtils;
 
 /**
  * Created by mwei on 4/6/17.
@@ -47,6 +49,36 @@ public abstract class AbstractReplicationProtocol implements IReplicationProtoco
         }
     }
 
+    /** {@inheritDoc}
+     *
+     *  <p>In the base implementation, we peek without blocking, and
+     *  the hole filling policy schedules the peeks which follow
+     *  rather than waiting for them. Only if hole filling is
+     *  required, the hole fill runs on the common pool.
+     *
+     **/
+    @Nonnull
+    @Override
+    public CompletableFuture<ILogData> readAsync(Layout layout, long globalAddress) {
+        return holeFillPolicy
+                .peekUntilHoleFillRequiredAsync(globalAddress, a -> peekAsync(layout, a))
+                .handle((data, e) -> {
+                    if (e == null) {
+                        return CompletableFuture.completedFuture(data);
+                    }
+                    final Throwable cause = CFUtils.unwrap(e);
+                    if (!(cause instanceof HoleFillRequiredException)) {
+                        return CFUtils.<ILogData>failedFuture(cause);
+                    }
+                    log.debug("HoleFill[{}] due to {}", globalAddress, cause.getMessage());
+                    return CompletableFuture.supplyAsync(() -> {
+                        holeFill(layout, globalAddress);
+                        return peek(layout, globalAddress);
+                    });
+                })
+                .thenCompose(read -> read);
+    }
+
     /**
      * Write a special hole filling entry using the
      * given address. When this call returns, either
@@ -57,5 +89,5 @@ public abstract class AbstractReplicationProtocol implements IReplicationProtoco
      *
      * @param globalAddress  The address to hole fill.
      */
-    protected abstract void holeFill(Layout layout, long globalAddress);
+    public abstract void holeFill(Layout layout, long globalAddress);
 }
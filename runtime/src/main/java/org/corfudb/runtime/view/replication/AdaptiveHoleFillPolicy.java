@@ -0,0 +1,208 @@
+package org.corfudb.runtime.view.replication;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.exceptions.HoleFillRequiredException;
+import org.corfudb.util.CFUtils;
+import org.corfudb.util.MetricsUtils;
+
+/** A hole filling policy which waits for an unwritten address about as long
+ * as recent writes have taken to complete, before requiring a hole fill.
+ *
+ * <p>The runtime records how long each of its appends takes, from the time
+ * it acquires a token to the time the write completes, for the appends which
+ * succeed on their first try. The policy waits twice the hole fill wait
+ * percentile of those latencies, set in the runtime parameters, but at least
+ * {@link #MIN_WAIT_NANOS}, polling the address at intervals which double from
+ * {@link #MIN_POLL_NANOS}. The wait never exceeds what a
+ * {@link ReadWaitHoleFillPolicy} would wait, which is also used until enough
+ * writes are measured.
+ *
+ * <p>Only the appends of this runtime are measured, yet the holes it waits
+ * for are mostly left by other clients. A client whose writes are slower
+ * than this runtime's, for instance one further from the log units or under
+ * heavier load, may have its address hole filled while its write is still in
+ * flight, and must then retry the append with a new token. The percentile
+ * should be chosen with the slowest writers of the log in mind.
+ *
+ * <p>The time spent waiting and the number of hole fills required are
+ * recorded in the metrics of the runtime.
+ */
+public class AdaptiveHoleFillPolicy implements IHoleFillPolicy {
+
+    /** The number of writes to measure before the wait adapts to them. */
+    static final int MIN_WRITE_SAMPLES = 10;
+
+    /** The multiple of the write latency percentile to wait. */
+    static final int SAFETY_FACTOR = 2;
+
+    /** The least time to wait, since a writer may be delayed by a pause
+     * which the latency of recent writes does not show. */
+    static final long MIN_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /** The first interval between reads of an unwritten address. */
+    static final long MIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** How often the wait is computed again. */
+    private static final long WAIT_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final double PERCENT = 100.0;
+
+    private final CorfuRuntime runtime;
+
+    /** The amount of time a fixed policy waits between reads, in milliseconds. */
+    private final int waitMs;
+
+    /** The latency of recent writes. */
+    private final Histogram writeLatencies = new Histogram(new ExponentiallyDecayingReservoir());
+
+    private volatile long waitNanos = 0;
+
+    private volatile long waitComputed = 0;
+
+    /** Create an AdaptiveHoleFillPolicy.
+     *
+     * @param runtime   The runtime to take the parameters and the metrics from.
+     * @param waitMs    The amount of time a fixed policy waits between reads,
+     *                  which bounds the wait with the number of hole fill retries.
+     */
+    public AdaptiveHoleFillPolicy(CorfuRuntime runtime, int waitMs) {
+        this.runtime = runtime;
+        this.waitMs = waitMs;
+    }
+
+    /** Record the latency of a write.
+     *
+     * @param nanos The time from acquiring a token to the write completing.
+     */
+    public void recordWrite(long nanos) {
+        writeLatencies.update(nanos);
+    }
+
+    /** Get how long to wait for an unwritten address before requiring a hole fill.
+     *
+     * @return The wait in nanoseconds.
+     */
+    public long getWaitNanos() {
+        final long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos((long) waitMs
+                * runtime.getParameters().getHoleFillRetry());
+        final double percentile = runtime.getParameters().getHoleFillWaitPercentile();
+        if (percentile <= 0 || writeLatencies.getCount() < MIN_WRITE_SAMPLES) {
+            return maxWaitNanos;
+        }
+        final long now = System.nanoTime();
+        if (waitNanos == 0 || now - waitComputed > WAIT_REFRESH_NANOS) {
+            waitComputed = now;
+            waitNanos = Math.max((long) writeLatencies.getSnapshot()
+                    .getValue(Math.min(percentile, PERCENT) / PERCENT) * SAFETY_FACTOR,
+                    MIN_WAIT_NANOS);
+        }
+        return Math.min(waitNanos, maxWaitNanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ILogData peekUntilHoleFillRequired(long address, Function<Long, ILogData> peekFunction)
+            throws HoleFillRequiredException {
+        // Most reads find data on the first try, and are not timed.
+        ILogData data = peekFunction.apply(address);
+        if (data != null) {
+            return data;
+        }
+
+        final Timer waits = runtime.getMetrics()
+                .timer(CorfuRuntime.getMpASV() + "hole-fill-wait");
+        final long start = System.nanoTime();
+        final long deadline = start + getWaitNanos();
+        long poll = MIN_POLL_NANOS;
+        try (Timer.Context context = MetricsUtils.getConditionalContext(waits)) {
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(Math.min(poll, remaining));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                data = peekFunction.apply(address);
+                if (data != null) {
+                    return data;
+                }
+                poll *= 2;
+            }
+        }
+
+        throw holeFillRequired(start);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<ILogData> peekUntilHoleFillRequiredAsync(long address,
+            Function<Long, CompletableFuture<ILogData>> peekFunction) {
+        // Most reads find data on the first try, and are not timed.
+        return peekFunction.apply(address).thenCompose(data -> {
+            if (data != null) {
+                return CompletableFuture.completedFuture(data);
+            }
+            final Timer waits = runtime.getMetrics()
+                    .timer(CorfuRuntime.getMpASV() + "hole-fill-wait");
+            final Timer.Context context = MetricsUtils.getConditionalContext(waits);
+            final long start = System.nanoTime();
+            return pollAsync(address, peekFunction, start, start + getWaitNanos(),
+                    MIN_POLL_NANOS)
+                    .whenComplete((r, e) -> MetricsUtils.stopConditionalContext(context));
+        });
+    }
+
+    /** Peek at an address at intervals which double, until it is written
+     * or the deadline passes.
+     *
+     * @param address       The address to peek at.
+     * @param peekFunction  The function to peek with, without blocking.
+     * @param start         The time the wait started.
+     * @param deadline      The time to stop waiting at.
+     * @param poll          The interval before the next peek.
+     * @return              A future which completes with the committed data, or
+     *                      exceptionally if hole filling is required.
+     */
+    private CompletableFuture<ILogData> pollAsync(long address,
+            Function<Long, CompletableFuture<ILogData>> peekFunction,
+            long start, long deadline, long poll) {
+        final long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return CFUtils.failedFuture(holeFillRequired(start));
+        }
+        return CFUtils.composeAfter(Duration.ofNanos(Math.min(poll, remaining)),
+                () -> peekFunction.apply(address))
+                .thenCompose(data -> data != null
+                        ? CompletableFuture.completedFuture(data)
+                        : pollAsync(address, peekFunction, start, deadline, poll * 2));
+    }
+
+    /** Record that a hole fill is required.
+     *
+     * @param start The time the wait started.
+     * @return      The exception which requires the hole fill.
+     */
+    private HoleFillRequiredException holeFillRequired(long start) {
+        MetricsUtils.markConditionalMeter(MetricsUtils.isMetricsCollectionEnabled(),
+                runtime.getMetrics().meter(CorfuRuntime.getMpASV() + "hole-fills"), 1);
+        return new HoleFillRequiredException("No data after "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+    }
+}
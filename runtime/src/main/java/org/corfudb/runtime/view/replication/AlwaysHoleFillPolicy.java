@@ -1,9 +1,11 @@
 package org.corfudb.runtime.view.replication;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.runtime.exceptions.HoleFillRequiredException;
+import org.corfudb.util.CFUtils;
 
 /** A simple hole filling policy which aggressively
  * fills holes whenever there is a failed read.
@@ -25,4 +27,16 @@ public class AlwaysHoleFillPolicy implements IHoleFillPolicy {
         }
         return data;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<ILogData> peekUntilHoleFillRequiredAsync(long address,
+            Function<Long, CompletableFuture<ILogData>> peekFunction) {
+        return peekFunction.apply(address).thenCompose(data -> data == null
+                ? CFUtils.failedFuture(new HoleFillRequiredException("No data at address"))
+                : CompletableFuture.completedFuture(data));
+    }
 }
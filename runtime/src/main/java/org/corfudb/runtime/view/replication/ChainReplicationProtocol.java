@@ -2,14 +2,23 @@ package org.corfudb.runtime.view.replication;
 
 import com.google.common.collect.Range;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.protocols.wireprotocol.ReadResponse;
+import org.corfudb.runtime.clients.LogUnitClient;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.exceptions.RecoveryException;
 import org.corfudb.runtime.view.Layout;
@@ -23,8 +32,38 @@ import org.corfudb.util.CFUtils;
 @Slf4j
 public class ChainReplicationProtocol extends AbstractReplicationProtocol {
 
+    /** The selector of the replicas to read committed addresses from, or null to read
+     * every address from the tail of the chain.
+     */
+    private final ReplicaSelector replicaSelector;
+
+    /** Whether writes are propagated down the chain without waiting at every unit. */
+    private final boolean pipelineWrites;
+
     public ChainReplicationProtocol(IHoleFillPolicy holeFillPolicy) {
+        this(holeFillPolicy, null);
+    }
+
+    public ChainReplicationProtocol(IHoleFillPolicy holeFillPolicy,
+                                    @Nullable ReplicaSelector replicaSelector) {
+        this(holeFillPolicy, replicaSelector, false);
+    }
+
+    /** Build the chain replication protocol.
+     *
+     * @param holeFillPolicy    The hole filling policy to be applied when
+     *                          a read returns uncommitted data.
+     * @param replicaSelector   The selector of the replicas to read committed
+     *                          addresses from, or null to read from the tail.
+     * @param pipelineWrites    Whether to propagate writes down the chain
+     *                          without waiting at every unit.
+     */
+    public ChainReplicationProtocol(IHoleFillPolicy holeFillPolicy,
+                                    @Nullable ReplicaSelector replicaSelector,
+                                    boolean pipelineWrites) {
         super(holeFillPolicy);
+        this.replicaSelector = replicaSelector;
+        this.pipelineWrites = pipelineWrites;
     }
 
     /**
@@ -47,6 +86,7 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
                                 .write(sh.getSerialized()),
                         OverwriteException.class);
                 propagate(layout, globalAddress, sh.getSerialized());
+                setCommitted(layout, globalAddress);
             } catch (OverwriteException oe) {
                 // Some other wrote here (usually due to hole fill)
                 // We need to invoke the recovery protocol, in case
@@ -57,20 +97,115 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only the recovery of a write which was overwritten at the
+     * head of the chain blocks, and it runs on the common pool.
+     */
+    @Override
+    public CompletableFuture<Void> writeAsync(Layout layout, ILogData data) {
+        final long globalAddress = data.getGlobalAddress();
+        log.trace("WriteAsync[{}]: chain head {}/{}", globalAddress, 1,
+                layout.getSegmentLength(globalAddress));
+
+        final ILogData.SerializationHandle sh = data.getSerializedForm();
+        final CompletableFuture<Boolean> head;
+        try {
+            head = layout.getLogUnitClient(globalAddress, 0).write(sh.getSerialized());
+        } catch (RuntimeException re) {
+            sh.close();
+            throw re;
+        }
+
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        head.thenCompose(r -> propagateAsync(layout, globalAddress, sh.getSerialized()))
+                .whenComplete((r, e) -> {
+                    if (e == null) {
+                        sh.close();
+                        setCommitted(layout, globalAddress);
+                        result.complete(null);
+                        return;
+                    }
+                    final Throwable cause = CFUtils.unwrap(e);
+                    if (!(cause instanceof OverwriteException)) {
+                        sh.close();
+                        result.completeExceptionally(cause);
+                        return;
+                    }
+                    // Some other wrote at the head (usually due to hole fill), and
+                    // the write must be driven to completion before we fail.
+                    CompletableFuture.runAsync(() -> recover(layout, globalAddress))
+                            .whenComplete((v, re) -> {
+                                sh.close();
+                                result.completeExceptionally(re != null
+                                        ? CFUtils.unwrap(re) : cause);
+                            });
+                });
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Like peek, committed addresses are read from any unit of the chain.
+     */
+    @Override
+    public CompletableFuture<ILogData> peekAsync(Layout layout, long globalAddress) {
+        final int numUnits = layout.getSegmentLength(globalAddress);
+        if (!isCommitted(layout, globalAddress, numUnits)) {
+            return peekTailAsync(layout, globalAddress, numUnits);
+        }
+        final int index = replicaSelector.select(layout, globalAddress);
+        return send(layout, globalAddress, index, c -> c.read(globalAddress))
+                .thenCompose(response -> {
+                    ILogData ret = response.getAddresses().get(globalAddress);
+                    return ret != null && !ret.isEmpty()
+                            ? CompletableFuture.completedFuture(ret)
+                            : peekTailAsync(layout, globalAddress, numUnits);
+                });
+    }
+
+    private CompletableFuture<ILogData> peekTailAsync(Layout layout, long globalAddress,
+                                                      int numUnits) {
+        return send(layout, globalAddress, numUnits - 1, c -> c.read(globalAddress))
+                .thenApply(response -> {
+                    ILogData ret = response.getAddresses().get(globalAddress);
+                    if (ret == null || ret.isEmpty()) {
+                        return null;
+                    }
+                    setCommitted(layout, globalAddress);
+                    return ret;
+                });
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public ILogData peek(Layout layout, long globalAddress) {
         int numUnits = layout.getSegmentLength(globalAddress);
+        // In chain replication, we read from the last unit, though a committed
+        // address holds the same value on every unit of the chain.
+        if (isCommitted(layout, globalAddress, numUnits)) {
+            int index = replicaSelector.select(layout, globalAddress);
+            log.trace("Read[{}]: chain {}/{}", globalAddress, index + 1, numUnits);
+            ILogData ret = readCommitted(layout, globalAddress, index,
+                    c -> c.read(globalAddress)).getOrDefault(globalAddress, null);
+            if (ret != null && !ret.isEmpty()) {
+                return ret;
+            }
+            // The unit may not have caught up after a reconfiguration, so
+            // fall back to the tail.
+        }
         log.trace("Read[{}]: chain {}/{}", globalAddress, numUnits, numUnits);
-        // In chain replication, we read from the last unit, though we can optimize if we
-        // know where the committed tail is.
-        ILogData ret =  CFUtils.getUninterruptibly(layout
-                .getLogUnitClient(globalAddress, numUnits - 1)
-                                    .read(globalAddress)).getAddresses()
-                .getOrDefault(globalAddress, null);
-        return ret == null || ret.isEmpty() ? null : ret;
+        ILogData ret = readFrom(layout, globalAddress, numUnits - 1,
+                c -> c.read(globalAddress)).getOrDefault(globalAddress, null);
+        if (ret == null || ret.isEmpty()) {
+            return null;
+        }
+        setCommitted(layout, globalAddress);
+        return ret;
     }
 
     /**
@@ -80,23 +215,44 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
     public Map<Long, ILogData> readAll(Layout layout, List<Long> globalAddresses) {
         long startAddress = globalAddresses.iterator().next();
         int numUnits = layout.getSegmentLength(startAddress);
-        log.trace("readAll[{}]: chain {}/{}", globalAddresses, numUnits, numUnits);
+        boolean committed = globalAddresses.stream()
+                .allMatch(a -> isCommitted(layout, a, numUnits));
+        int index = committed ? replicaSelector.select(layout, startAddress) : numUnits - 1;
+        log.trace("readAll[{}]: chain {}/{}", globalAddresses, index + 1, numUnits);
 
-        Map<Long, LogData> logResult = CFUtils.getUninterruptibly(layout
-                .getLogUnitClient(startAddress, numUnits - 1)
-                .read(globalAddresses)).getAddresses();
+        Map<Long, LogData> logResult = committed
+                ? readCommitted(layout, startAddress, index, c -> c.read(globalAddresses))
+                : readFrom(layout, startAddress, index, c -> c.read(globalAddresses));
+        return completeReads(layout, logResult, !committed);
+    }
 
-        //in case of a hole, do a normal read and use its hole fill policy
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Long, ILogData> peekAll(Layout layout, Set<Long> globalAddresses) {
+        List<Long> addresses = new ArrayList<>(globalAddresses);
+        long startAddress = addresses.get(0);
+        int numUnits = layout.getSegmentLength(startAddress);
+        boolean committed = addresses.stream().allMatch(a -> isCommitted(layout, a, numUnits));
+        int index = committed ? replicaSelector.select(layout, startAddress) : numUnits - 1;
+        log.trace("peekAll[{}]: chain {}/{}", addresses, index + 1, numUnits);
+
+        Map<Long, LogData> logResult = committed
+                ? readCommitted(layout, startAddress, index, c -> c.read(addresses))
+                : readFrom(layout, startAddress, index, c -> c.read(addresses));
+        // Unlike a read, an address which holds nothing is left out rather than hole filled.
         Map<Long, ILogData> returnResult = new TreeMap<>();
         for (Map.Entry<Long, LogData> entry : logResult.entrySet()) {
             ILogData value = entry.getValue();
             if (value == null || value.isEmpty()) {
-                value = read(layout, entry.getKey());
+                continue;
+            }
+            if (!committed) {
+                setCommitted(layout, entry.getKey());
             }
-
             returnResult.put(entry.getKey(), value);
         }
-
         return returnResult;
     }
 
@@ -106,18 +262,35 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
         long startAddress = range.lowerEndpoint();
         long endAddress = range.upperEndpoint();
         int numUnits = layout.getSegmentLength(startAddress);
-        log.trace("readRange[{}-{}]: chain {}/{}", startAddress, endAddress, numUnits, numUnits);
+        // The range read returns every address of the range, so all of them must be committed.
+        boolean committed = replicaSelector != null && numUnits > 1
+                && replicaSelector.isCommitted(layout, startAddress, endAddress);
+        int index = committed ? replicaSelector.select(layout, startAddress) : numUnits - 1;
+        log.trace("readRange[{}-{}]: chain {}/{}", startAddress, endAddress, index + 1, numUnits);
 
-        Map<Long, LogData> logResult = CFUtils.getUninterruptibly(layout
-                .getLogUnitClient(startAddress, numUnits - 1)
-                .read(range)).getAddresses();
+        Map<Long, LogData> logResult = committed
+                ? readCommitted(layout, startAddress, index, c -> c.read(range))
+                : readFrom(layout, startAddress, index, c -> c.read(range));
+        return completeReads(layout, logResult, !committed);
+    }
 
+    /** Complete the result of a bulk read.
+     *
+     * @param layout        The layout to use for reading holes.
+     * @param logResult     The addresses read from a unit of the chain.
+     * @param fromTail      True, if the addresses were read from the tail of the chain.
+     * @return              The committed value of every address.
+     */
+    private Map<Long, ILogData> completeReads(Layout layout, Map<Long, LogData> logResult,
+                                              boolean fromTail) {
         //in case of a hole, do a normal read and use its hole fill policy
         Map<Long, ILogData> returnResult = new TreeMap<>();
-        for (Map.Entry<Long, LogData> entry: logResult.entrySet()){
+        for (Map.Entry<Long, LogData> entry : logResult.entrySet()) {
             ILogData value = entry.getValue();
-            if (value == null || value.isEmpty()){
+            if (value == null || value.isEmpty()) {
                 value = read(layout, entry.getKey());
+            } else if (fromTail) {
+                setCommitted(layout, entry.getKey());
             }
 
             returnResult.put(entry.getKey(), value);
@@ -126,11 +299,143 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
         return returnResult;
     }
 
+    /** Check whether reads of an address may go to any unit of its chain.
+     *
+     * @param layout        The layout to read with.
+     * @param globalAddress The global address.
+     * @param numUnits      The number of units in the chain.
+     * @return              True, if the address is known to be committed.
+     */
+    private boolean isCommitted(Layout layout, long globalAddress, int numUnits) {
+        return replicaSelector != null && numUnits > 1
+                && replicaSelector.isCommitted(layout, globalAddress);
+    }
+
+    /** Record that the tail of the chain holds an address.
+     *
+     * @param layout        The layout the address was written or read with.
+     * @param globalAddress The global address.
+     */
+    private void setCommitted(Layout layout, long globalAddress) {
+        if (replicaSelector != null) {
+            replicaSelector.setCommitted(layout, globalAddress);
+        }
+    }
+
+    /** Read from a unit of a chain.
+     *
+     * @param layout        The layout to read with.
+     * @param globalAddress An address of the stripe to read from.
+     * @param index         The index of the unit in the chain.
+     * @param read          The read to send to the unit.
+     * @return              The addresses read.
+     */
+    private Map<Long, LogData> readFrom(Layout layout, long globalAddress, int index,
+                                        Function<LogUnitClient,
+                                                CompletableFuture<ReadResponse>> read) {
+        return CFUtils.getUninterruptibly(send(layout, globalAddress, index, read))
+                .getAddresses();
+    }
+
+    /** Read committed addresses from a unit of a chain. If the unit takes longer than
+     * the hedge delay of the replica selector to respond, the read is also sent to
+     * another unit, which holds the same values, and the first response is used.
+     *
+     * @param layout        The layout to read with.
+     * @param globalAddress An address of the stripe to read from.
+     * @param index         The index of the unit in the chain.
+     * @param read          The read to send to the unit.
+     * @return              The addresses read.
+     */
+    private Map<Long, LogData> readCommitted(Layout layout, long globalAddress, int index,
+                                             Function<LogUnitClient,
+                                                     CompletableFuture<ReadResponse>> read) {
+        final CompletableFuture<ReadResponse> primary = send(layout, globalAddress, index, read);
+        final long hedgeDelay = replicaSelector.getHedgeDelayNanos();
+        if (hedgeDelay > 0) {
+            try {
+                return primary.get(hedgeDelay, TimeUnit.NANOSECONDS).getAddresses();
+            } catch (TimeoutException te) {
+                return readHedged(layout, globalAddress, index, read, primary);
+            } catch (InterruptedException | ExecutionException e) {
+                // Handled below as for any other read.
+            }
+        }
+        return CFUtils.getUninterruptibly(primary).getAddresses();
+    }
+
+    /** Send a read which is still outstanding to another unit of a chain as well.
+     *
+     * @param layout        The layout to read with.
+     * @param globalAddress An address of the stripe to read from.
+     * @param index         The index of the unit the read was sent to.
+     * @param read          The read to send to the other unit.
+     * @param primary       The outstanding read.
+     * @return              The addresses read by whichever unit responds first.
+     */
+    private Map<Long, LogData> readHedged(Layout layout, long globalAddress, int index,
+                                          Function<LogUnitClient,
+                                                  CompletableFuture<ReadResponse>> read,
+                                          CompletableFuture<ReadResponse> primary) {
+        final int hedgeIndex = replicaSelector.select(layout, globalAddress, index);
+        log.trace("Read[{}]: hedged to chain {}", globalAddress, hedgeIndex + 1);
+        replicaSelector.hedged();
+        final CompletableFuture<ReadResponse> hedge = send(layout, globalAddress,
+                hedgeIndex, read);
+
+        // The first response wins. Only if both reads fail does the read fail,
+        // with the error of the first one.
+        final CompletableFuture<ReadResponse> first = new CompletableFuture<>();
+        primary.whenComplete((r, e) -> {
+            if (e == null) {
+                first.complete(r);
+            } else {
+                hedge.whenComplete((hr, he) -> {
+                    if (he != null) {
+                        first.completeExceptionally(e);
+                    }
+                });
+            }
+        });
+        hedge.whenComplete((r, e) -> {
+            if (e == null && first.complete(r)) {
+                replicaSelector.hedgeWon();
+            }
+        });
+        return CFUtils.getUninterruptibly(first).getAddresses();
+    }
+
+    /** Send a read to a unit of a chain.
+     *
+     * @param layout        The layout to read with.
+     * @param globalAddress An address of the stripe to read from.
+     * @param index         The index of the unit in the chain.
+     * @param read          The read to send to the unit.
+     * @return              A future which completes with the response of the unit.
+     */
+    private CompletableFuture<ReadResponse> send(Layout layout, long globalAddress, int index,
+                                                 Function<LogUnitClient,
+                                                         CompletableFuture<ReadResponse>> read) {
+        CompletableFuture<ReadResponse> response =
+                read.apply(layout.getLogUnitClient(globalAddress, index));
+        if (replicaSelector != null) {
+            replicaSelector.track(layout.getStripe(globalAddress).getLogServers().get(index),
+                    response);
+        }
+        return response;
+    }
+
     /** Propagate a write down the chain, ignoring
      * any overwrite errors. It is expected that the
      * write has already successfully completed at
      * the head of the chain.
      *
+     * <p>If writes are pipelined, the writes to every unit
+     * are issued in chain order without waiting for the
+     * previous unit to complete, and this returns once all
+     * of them complete. The head, which arbitrates between
+     * a write and a hole fill, is always written first.
+     *
      * @param layout        The layout to use for propagation.
      * @param globalAddress The global address to start
      *                      writing at.
@@ -140,23 +445,92 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
     protected void propagate(Layout layout, long globalAddress, @Nullable ILogData data) {
         int numUnits = layout.getSegmentLength(globalAddress);
 
+        if (pipelineWrites) {
+            List<CompletableFuture<Boolean>> writes = new ArrayList<>(numUnits - 1);
+            for (int i = 1; i < numUnits; i++) {
+                log.trace("Propogate[{}]: pipelined chain {}/{}", globalAddress, i + 1, numUnits);
+                writes.add(propagateTo(layout, globalAddress, i, data));
+            }
+            writes.forEach(w -> awaitPropagation(globalAddress, w));
+            return;
+        }
+
         for (int i = 1; i < numUnits; i++) {
             log.trace("Propogate[{}]: chain {}/{}", globalAddress, i + 1, numUnits);
             // In chain replication, we write synchronously to every unit
             // in the chain.
-            try {
-                if (data != null) {
-                    CFUtils.getUninterruptibly(
-                            layout.getLogUnitClient(globalAddress, i)
-                                    .write(data),
-                            OverwriteException.class);
-                } else {
-                    CFUtils.getUninterruptibly(layout.getLogUnitClient(globalAddress, i)
-                            .fillHole(globalAddress), OverwriteException.class);
+            awaitPropagation(globalAddress, propagateTo(layout, globalAddress, i, data));
+        }
+    }
+
+    /** Propagate a write down the chain without blocking, like propagate.
+     *
+     * @param layout        The layout to use for propagation.
+     * @param globalAddress The global address to start writing at.
+     * @param data          The data to propagate, or NULL, if it is to be a hole.
+     * @return              A future which completes once every unit has written.
+     */
+    private CompletableFuture<Void> propagateAsync(Layout layout, long globalAddress,
+                                                   @Nullable ILogData data) {
+        final int numUnits = layout.getSegmentLength(globalAddress);
+
+        if (pipelineWrites) {
+            CompletableFuture<?>[] writes = new CompletableFuture<?>[numUnits - 1];
+            for (int i = 1; i < numUnits; i++) {
+                writes[i - 1] = ignoreOverwrite(globalAddress,
+                        propagateTo(layout, globalAddress, i, data));
+            }
+            return CompletableFuture.allOf(writes);
+        }
+
+        CompletableFuture<Void> done = CompletableFuture.completedFuture(null);
+        for (int i = 1; i < numUnits; i++) {
+            final int index = i;
+            done = done.thenCompose(v -> ignoreOverwrite(globalAddress,
+                    propagateTo(layout, globalAddress, index, data)));
+        }
+        return done;
+    }
+
+    private CompletableFuture<Void> ignoreOverwrite(long globalAddress,
+                                                    CompletableFuture<Boolean> write) {
+        return write.handle((r, e) -> {
+            if (e != null) {
+                final Throwable cause = CFUtils.unwrap(e);
+                if (!(cause instanceof OverwriteException)) {
+                    throw new CompletionException(cause);
                 }
-            } catch (OverwriteException oe) {
                 log.trace("Propogate[{}]: Completed by other writer", globalAddress);
             }
+            return null;
+        });
+    }
+
+    /** Write the data or a hole to a unit of the chain.
+     *
+     * @param layout        The layout to use for propagation.
+     * @param globalAddress The global address to write.
+     * @param index         The index of the unit in the chain.
+     * @param data          The data to write, or NULL, if it is to be a hole.
+     * @return              A future which completes when the unit has written.
+     */
+    private CompletableFuture<Boolean> propagateTo(Layout layout, long globalAddress, int index,
+                                                   @Nullable ILogData data) {
+        LogUnitClient client = layout.getLogUnitClient(globalAddress, index);
+        return data != null ? client.write(data) : client.fillHole(globalAddress);
+    }
+
+    /** Wait for a write propagated to a unit of the chain, ignoring an
+     * overwrite error, which means another writer completed the address.
+     *
+     * @param globalAddress The global address written.
+     * @param write         The write to wait for.
+     */
+    private void awaitPropagation(long globalAddress, CompletableFuture<Boolean> write) {
+        try {
+            CFUtils.getUninterruptibly(write, OverwriteException.class);
+        } catch (OverwriteException oe) {
+            log.trace("Propogate[{}]: Completed by other writer", globalAddress);
         }
     }
 
@@ -215,13 +589,14 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
                 log.debug("Recover[{}]: overwritten at chain {}/{}", layout, i + 1, numUnits);
             }
         }
+        setCommitted(layout, globalAddress);
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    protected void holeFill(Layout layout, long globalAddress) {
+    public void holeFill(Layout layout, long globalAddress) {
         int numUnits = layout.getSegmentLength(globalAddress);
         log.trace("fillHole[{}]: chain head {}/{}", globalAddress, 1, numUnits);
         // In chain replication, we write synchronously to every unit in
@@ -230,6 +605,7 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
             CFUtils.getUninterruptibly(layout.getLogUnitClient(globalAddress, 0)
                     .fillHole(globalAddress), OverwriteException.class);
             propagate(layout, globalAddress, null);
+            setCommitted(layout, globalAddress);
         } catch (OverwriteException oe) {
             // The hole-fill failed. We must ensure the other writer's
             // value is adopted before returning.
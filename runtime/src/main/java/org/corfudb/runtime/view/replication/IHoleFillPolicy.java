@@ -1,5 +1,6 @@
 package org.corfudb.runtime.view.replication;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
 
@@ -27,4 +28,22 @@ public interface IHoleFillPolicy {
     ILogData peekUntilHoleFillRequired(long address,
                                        Function<Long, ILogData> peekFunction)
             throws HoleFillRequiredException;
+
+    /** Apply the given peek function until hole filling is required or
+     * committed data is returned, without blocking. The peeks which follow
+     * the first are scheduled rather than waited for. If hole filling is
+     * required the future completes exceptionally with a
+     * HoleFillRequiredException.
+     *
+     * @param address                   The address to apply the function.
+     *
+     * @param peekFunction              The function to use to peek data
+     *                                  from the log, without blocking.
+     *
+     * @return                          A future which completes with the
+     *                                  committed data at the given address.
+     */
+    @Nonnull
+    CompletableFuture<ILogData> peekUntilHoleFillRequiredAsync(long address,
+            Function<Long, CompletableFuture<ILogData>> peekFunction);
 }
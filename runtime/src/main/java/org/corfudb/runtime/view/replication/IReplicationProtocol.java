@@ -4,6 +4,7 @@ import java.util.AbstractMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 
@@ -54,6 +55,38 @@ public interface IReplicationProtocol {
      */
     @Nonnull ILogData read(Layout layout, long globalAddress);
 
+    /** Write data to the log at the given address, without blocking.
+     *
+     * <p>This method functions exactly like a write, except that it
+     * returns a future instead of blocking. The default implementation
+     * performs the write on the common pool.
+     *
+     * @param  layout               The layout to use for the write.
+     * @param  data                 The ILogData to write to the log.
+     * @return                      A future which completes when -a- write
+     *                              at the global address is committed, or
+     *                              exceptionally with an OverwriteException
+     *                              if it was not the result of this call.
+     */
+    default @Nonnull CompletableFuture<Void> writeAsync(Layout layout, ILogData data) {
+        return CompletableFuture.runAsync(() -> write(layout, data));
+    }
+
+    /** Read data from a given address, without blocking.
+     *
+     * <p>This method functions exactly like a read, except that it
+     * returns a future instead of blocking. The default implementation
+     * performs the read on the common pool.
+     *
+     * @param  layout              The layout to use for the read.
+     * @param globalAddress        The global address to read the data from.
+     * @return                     A future which completes with the data that
+     *                             was committed at the given global address.
+     */
+    default @Nonnull CompletableFuture<ILogData> readAsync(Layout layout, long globalAddress) {
+        return CompletableFuture.supplyAsync(() -> read(layout, globalAddress));
+    }
+
     /** Read data from all the given addresses.
      *
      * <p>This method functions exactly like a read, except
@@ -61,7 +94,8 @@ public interface IReplicationProtocol {
      *
      * <p>An implementation may optimize for this type of
      * bulk request, but the default implementation
-     * just performs multiple reads (possible in parallel).
+     * just performs multiple reads, one after the other. The address
+     * space view reads its batches in parallel, on threads of its own.
      *
      * @param layout                The layout to use for the readAll.
      * @param globalAddresses       A list of addresses to read from.
@@ -70,7 +104,7 @@ public interface IReplicationProtocol {
      */
     default @Nonnull
             Map<Long, ILogData> readAll(Layout layout, List<Long> globalAddresses) {
-        return globalAddresses.parallelStream()
+        return globalAddresses.stream()
                 .map(a -> new AbstractMap.SimpleImmutableEntry<>(a, read(layout, a)))
                 .collect(Collectors.toMap(r -> r.getKey(), r -> r.getValue()));
     }
@@ -111,6 +145,22 @@ public interface IReplicationProtocol {
      */
     ILogData peek(Layout layout, long globalAddress);
 
+    /** Peek data from a given address, without blocking.
+     *
+     * <p>This method functions exactly like a peek, except that it
+     * returns a future instead of blocking. The default implementation
+     * performs the peek on the common pool.
+     *
+     * @param  layout              The layout to use for the peek.
+     * @param globalAddress        The global address to peek from.
+     * @return                     A future which completes with the data
+     *                             committed at the given global address,
+     *                             or NULL, if there was no entry committed.
+     */
+    default @Nonnull CompletableFuture<ILogData> peekAsync(Layout layout, long globalAddress) {
+        return CompletableFuture.supplyAsync(() -> peek(layout, globalAddress));
+    }
+
     /** Peek data from all the given addresses.
      *
      * <p>This method functions exactly like a peek, except
@@ -118,17 +168,29 @@ public interface IReplicationProtocol {
      *
      * <p>An implementation may optimize for this type of
      * bulk request, but the default implementation
-     * just performs multiple peeks (possibly in parallel).
+     * just performs multiple peeks, one after the other, like readAll.
      *
      * @param  layout              The layout to use for the peekAll.
      * @param globalAddresses       A set of addresses to read from.
-     * @return                      A map of addresses to uncommitted
-     *                              addresses, without hole filling.
+     * @return                      A map of addresses to committed
+     *                              addresses, without hole filling. Addresses
+     *                              with no entry committed are left out.
      */
     default @Nonnull Map<Long, ILogData> peekAll(Layout layout, Set<Long> globalAddresses) {
-        return globalAddresses.parallelStream()
+        return globalAddresses.stream()
                 .map(a -> new AbstractMap.SimpleImmutableEntry<>(a, peek(layout, a)))
+                .filter(r -> r.getValue() != null)
                 .collect(Collectors.toMap(r -> r.getKey(), r -> r.getValue()));
     }
 
+    /** Commit a hole filling entry at the given address.
+     *
+     * <p>When this call returns, either the hole filling entry or another
+     * client's write has been committed at the given address.
+     *
+     * @param layout                The layout to use for the hole fill.
+     * @param globalAddress         The global address to hole fill.
+     */
+    void holeFill(Layout layout, long globalAddress);
+
 }
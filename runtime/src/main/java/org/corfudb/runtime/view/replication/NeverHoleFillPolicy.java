@@ -1,11 +1,14 @@
 package org.corfudb.runtime.view.replication;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
 
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.runtime.exceptions.HoleFillRequiredException;
+import org.corfudb.util.CFUtils;
 
 
 /**
@@ -52,4 +55,26 @@ public class NeverHoleFillPolicy implements IHoleFillPolicy {
         } while (data == null);
         return data;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<ILogData> peekUntilHoleFillRequiredAsync(long address,
+            Function<Long, CompletableFuture<ILogData>> peekFunction) {
+        return peekAsync(address, peekFunction, 0);
+    }
+
+    private CompletableFuture<ILogData> peekAsync(long address,
+            Function<Long, CompletableFuture<ILogData>> peekFunction, int tryNum) {
+        return peekFunction.apply(address).thenCompose(data -> {
+            if (data != null) {
+                return CompletableFuture.completedFuture(data);
+            }
+            log.trace("Peek[{}] Retrying read {}", address, tryNum + 1);
+            return CFUtils.composeAfter(Duration.ofMillis(waitMs),
+                    () -> peekAsync(address, peekFunction, tryNum + 1));
+        });
+    }
 }
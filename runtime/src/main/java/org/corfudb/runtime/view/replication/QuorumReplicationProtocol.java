@@ -10,6 +10,7 @@ import java.time.Duration;
 import java.util.Comparator;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -101,7 +102,94 @@ public class QuorumReplicationProtocol extends AbstractReplicationProtocol {
      * {@inheritDoc}
      */
     @Override
-    protected void holeFill(Layout layout, long globalAddress) {
+    public CompletableFuture<ILogData> peekAsync(Layout layout, long address) {
+        int numUnits = layout.getSegmentLength(address);
+        log.trace("PeekAsync[{}]: quorum {}/{}", address, numUnits, numUnits);
+        CompletableFuture<ReadResponse>[] futures = new CompletableFuture[numUnits];
+        for (int i = 0; i < numUnits; i++) {
+            futures[i] = layout.getLogUnitClient(address, i).read(address);
+        }
+        return QuorumFuturesFactory.getQuorumFuture(new ReadResponseComparator(address), futures)
+                .toCompletableFuture()
+                .handle((readResponse, e) -> {
+                    if (e != null) {
+                        Throwable cause = CFUtils.unwrap(e);
+                        if (!(cause instanceof QuorumUnreachableException)) {
+                            throw new CompletionException(cause);
+                        }
+                        log.debug(cause.getMessage(), cause);
+                        return null;
+                    }
+                    if (readResponse != null) {
+                        LogData result = readResponse.getAddresses().get(address);
+                        if (result != null && !isEmptyType(result.getType())) {
+                            return result;
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only the recovery of a write which competes with another client
+     * blocks, and it runs on the common pool.
+     */
+    @Override
+    public CompletableFuture<Void> writeAsync(Layout layout, ILogData data) {
+        final long globalAddress = data.getGlobalAddress();
+        log.debug("WriteAsync at {} " + globalAddress);
+        data.setRank(new IMetadata.DataRank(0));
+        final ILogData.SerializationHandle sh = data.getSerializedForm();
+        final QuorumFuturesFactory.CompositeFuture<Boolean> future;
+        try {
+            future = getWriteFuture(layout, sh.getSerialized());
+        } catch (RuntimeException re) {
+            sh.close();
+            throw re;
+        }
+
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        future.toCompletableFuture().whenComplete((r, e) -> {
+            sh.close();
+            if (e == null) {
+                result.complete(null);
+                return;
+            }
+            final Throwable cause = CFUtils.unwrap(e);
+            if (cause instanceof OverwriteException) {
+                log.error("Client implementation error, race in phase 1. "
+                        + "Broken sequencer, data consistency in danger.");
+                result.completeExceptionally(cause);
+            } else if (!(cause instanceof LogUnitException
+                    || cause instanceof QuorumUnreachableException)) {
+                result.completeExceptionally(cause);
+            } else if (future.containsThrowableFrom(DataOutrankedException.class)
+                    || future.containsThrowableFrom(ValueAdoptedException.class)) {
+                // we are competing with other client that writes the same data or fills a hole
+                CompletableFuture.supplyAsync(() -> recoveryWrite(layout, data))
+                        .whenComplete((adopted, re) -> {
+                            if (re != null) {
+                                result.completeExceptionally(CFUtils.unwrap(re));
+                            } else if (adopted) {
+                                result.completeExceptionally(new OverwriteException());
+                            } else {
+                                result.complete(null);
+                            }
+                        });
+            } else {
+                result.completeExceptionally(new OverwriteException());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void holeFill(Layout layout, long globalAddress) {
         int numUnits = layout.getSegmentLength(globalAddress);
         log.trace("fillHole[{}]: quorum head {}/{}", globalAddress, 1, numUnits);
         try (ILogData.SerializationHandle holeData = createEmptyData(globalAddress,
@@ -1,10 +1,13 @@
 package org.corfudb.runtime.view.replication;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
 
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.runtime.exceptions.HoleFillRequiredException;
+import org.corfudb.util.CFUtils;
 
 
 /** A hole filling policy which reads several times,
@@ -61,4 +64,31 @@ public class ReadWaitHoleFillPolicy implements IHoleFillPolicy {
 
         throw new HoleFillRequiredException("No data after " + tryNum + " retries");
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<ILogData> peekUntilHoleFillRequiredAsync(long address,
+            Function<Long, CompletableFuture<ILogData>> peekFunction) {
+        return peekAsync(address, peekFunction, 1);
+    }
+
+    private CompletableFuture<ILogData> peekAsync(long address,
+            Function<Long, CompletableFuture<ILogData>> peekFunction, int tryNum) {
+        return peekFunction.apply(address).thenCompose(data -> {
+            // If it was not null, we can return it.
+            if (data != null) {
+                return CompletableFuture.completedFuture(data);
+            }
+            if (tryNum >= numRetries) {
+                return CFUtils.failedFuture(new HoleFillRequiredException("No data after "
+                        + tryNum + " retries"));
+            }
+            // Otherwise try again after waiting.
+            return CFUtils.composeAfter(Duration.ofMillis(waitMs),
+                    () -> peekAsync(address, peekFunction, tryNum + 1));
+        });
+    }
 }
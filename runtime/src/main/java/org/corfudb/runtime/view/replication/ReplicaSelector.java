@@ -0,0 +1,307 @@
+package org.corfudb.runtime.view.replication;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.view.Layout;
+import org.corfudb.util.MetricsUtils;
+
+/**
+ * Chooses the replica of a chain to read committed addresses from.
+ *
+ * <p>A chain acknowledges a write only once its tail holds it, so an address which was
+ * written through or read from the tail holds the same value on every replica. Reads of
+ * such addresses need not all load the tail. The selector sends them to the replica with
+ * the fewest outstanding reads, rotating among replicas which are equally loaded, and
+ * for a while skips replicas whose read latency is far above that of the fastest one.
+ *
+ * <p>The selector tracks the committed addresses without locking, as a bitmap of each run
+ * of {@link #CHUNK_SIZE} addresses, so that a reader which starts anywhere in the log can
+ * have its reads spread. A bounded number of runs is kept, and the lowest ones, which are
+ * the least likely to be read again, are forgotten first. What it knows holds for the
+ * chains of one layout only, so it is forgotten whenever the epoch of the layout changes.
+ *
+ * <p>If the runtime sets a hedged read percentile, a read of a committed address which
+ * takes longer than that percentile of recent read latency is also sent to another
+ * replica, and the first response is used. The rate of these hedged reads, and of those
+ * which were answered first, are recorded in the metrics of the runtime.
+ */
+public class ReplicaSelector {
+
+    /** The number of addresses whose state is kept in one bitmap. */
+    static final int CHUNK_SIZE = Long.SIZE;
+
+    /** The number of bitmaps of committed addresses which are tracked. */
+    static final int MAX_TRACKED_CHUNKS = 16_384;
+
+    /** How many times slower than the fastest replica a replica may be and still be read. */
+    static final int SLOW_REPLICA_FACTOR = 4;
+
+    /** The weight of a new sample in the average read latency of a replica, as a shift. */
+    private static final int LATENCY_WEIGHT_SHIFT = 3;
+
+    /** The number of reads to measure before any read is hedged. */
+    static final int MIN_HEDGE_SAMPLES = 10;
+
+    /** How often the delay before a read is hedged is computed again. */
+    private static final long HEDGE_DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final double PERCENT = 100.0;
+
+    /** The outstanding reads and the average read latency of a replica. */
+    private static class ReplicaStats {
+        final AtomicInteger outstanding = new AtomicInteger();
+        final AtomicLong latencyNanos = new AtomicLong();
+    }
+
+    /** The addresses known to be committed in the chains of the layout of an epoch. */
+    private static class CommittedAddresses {
+        final long epoch;
+        final ConcurrentSkipListMap<Long, AtomicLong> chunks = new ConcurrentSkipListMap<>();
+        final AtomicInteger numChunks = new AtomicInteger();
+
+        CommittedAddresses(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    private final AtomicReference<CommittedAddresses> committed =
+            new AtomicReference<>(new CommittedAddresses(-1L));
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Map<String, ReplicaStats> stats = new ConcurrentHashMap<>();
+
+    private final CorfuRuntime runtime;
+
+    /** The latency of recent reads of all replicas. */
+    private final Histogram latencies = new Histogram(new ExponentiallyDecayingReservoir());
+
+    private volatile long hedgeDelayNanos = 0;
+
+    private volatile long hedgeDelayComputed = 0;
+
+    /**
+     * Returns a new ReplicaSelector.
+     *
+     * @param runtime The runtime to take the hedged read percentile and the metrics from.
+     */
+    public ReplicaSelector(CorfuRuntime runtime) {
+        this.runtime = runtime;
+    }
+
+    /**
+     * Check whether an address is known to be committed.
+     *
+     * @param layout  The layout to read with.
+     * @param address The global address.
+     * @return True, if the address was written through or read from the tail of its chain
+     *         in the layout.
+     */
+    public boolean isCommitted(Layout layout, long address) {
+        return isCommitted(layout, address, address);
+    }
+
+    /**
+     * Check whether every address of a range is known to be committed.
+     *
+     * @param layout The layout to read with.
+     * @param start  The first global address of the range.
+     * @param end    The last global address of the range, inclusive.
+     * @return True, if every address of the range was written through or read from the
+     *         tail of its chain in the layout.
+     */
+    public boolean isCommitted(Layout layout, long start, long end) {
+        final CommittedAddresses current = committed.get();
+        if (current.epoch != layout.getEpoch() || start < 0 || end < start) {
+            return false;
+        }
+        for (long chunk = start / CHUNK_SIZE; chunk <= end / CHUNK_SIZE; chunk++) {
+            final AtomicLong bits = current.chunks.get(chunk);
+            if (bits == null) {
+                return false;
+            }
+            final long first = Math.max(start, chunk * CHUNK_SIZE) % CHUNK_SIZE;
+            final long last = Math.min(end, chunk * CHUNK_SIZE + CHUNK_SIZE - 1) % CHUNK_SIZE;
+            final long mask = (-1L >>> (CHUNK_SIZE - 1 - last)) & (-1L << first);
+            if ((bits.get() & mask) != mask) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Record that an address is committed.
+     *
+     * <p>A layout of a newer epoch may have changed the chains, so the addresses
+     * recorded with an older one are forgotten. Addresses recorded with an older
+     * layout than the current one are ignored.
+     *
+     * @param layout  The layout the address was written or read with.
+     * @param address The global address, which the tail of its chain holds.
+     */
+    public void setCommitted(Layout layout, long address) {
+        if (address < 0) {
+            return;
+        }
+        CommittedAddresses current = committed.get();
+        while (layout.getEpoch() != current.epoch) {
+            if (layout.getEpoch() < current.epoch) {
+                return;
+            }
+            final CommittedAddresses next = new CommittedAddresses(layout.getEpoch());
+            current = committed.compareAndSet(current, next) ? next : committed.get();
+        }
+
+        final long chunk = address / CHUNK_SIZE;
+        final long bit = 1L << (address % CHUNK_SIZE);
+        AtomicLong bits = current.chunks.get(chunk);
+        if (bits == null) {
+            final AtomicLong created = new AtomicLong(bit);
+            bits = current.chunks.putIfAbsent(chunk, created);
+            if (bits == null) {
+                // Forget the lowest addresses first, which are the least likely to be read.
+                if (current.numChunks.incrementAndGet() > MAX_TRACKED_CHUNKS
+                        && current.chunks.pollFirstEntry() != null) {
+                    current.numChunks.decrementAndGet();
+                }
+                return;
+            }
+        }
+        if ((bits.get() & bit) == 0) {
+            bits.getAndAccumulate(bit, (b, set) -> b | set);
+        }
+    }
+
+    /**
+     * Choose the replica to read a committed address from.
+     *
+     * @param layout  The layout to read with.
+     * @param address The global address.
+     * @return The index of the replica in the stripe of the address.
+     */
+    public int select(Layout layout, long address) {
+        return select(layout, address, -1);
+    }
+
+    /**
+     * Choose the replica to read a committed address from, other than the given one.
+     *
+     * @param layout  The layout to read with.
+     * @param address The global address.
+     * @param exclude The index of the replica not to choose, or -1.
+     * @return The index of the replica in the stripe of the address.
+     */
+    public int select(Layout layout, long address, int exclude) {
+        final List<String> servers = layout.getStripe(address).getLogServers();
+        final int numUnits = servers.size();
+
+        // Replicas which were never read have no latency yet, and are never skipped.
+        long fastest = Long.MAX_VALUE / SLOW_REPLICA_FACTOR;
+        for (String server : servers) {
+            long latency = getStats(server).latencyNanos.get();
+            if (latency > 0) {
+                fastest = Math.min(fastest, latency);
+            }
+        }
+
+        final int start = Math.floorMod(nextReplica.getAndIncrement(), numUnits);
+        int selected = exclude == numUnits - 1 ? 0 : numUnits - 1;
+        int leastOutstanding = Integer.MAX_VALUE;
+        for (int i = 0; i < numUnits; i++) {
+            final int index = (start + i) % numUnits;
+            if (index == exclude) {
+                continue;
+            }
+            final ReplicaStats replica = getStats(servers.get(index));
+            final long latency = replica.latencyNanos.get();
+            if (latency > fastest * SLOW_REPLICA_FACTOR) {
+                // Move the average towards the fastest one, so that a replica which
+                // was slow for a while is read again and its latency measured anew.
+                replica.latencyNanos.compareAndSet(latency, (latency + fastest) / 2);
+                continue;
+            }
+            final int outstanding = replica.outstanding.get();
+            if (outstanding < leastOutstanding) {
+                leastOutstanding = outstanding;
+                selected = index;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Account for a read sent to a replica until it completes.
+     *
+     * @param server The endpoint of the replica.
+     * @param read   The future of the read.
+     * @param <T>    The type of the read response.
+     * @return The same future.
+     */
+    public <T> CompletableFuture<T> track(String server, CompletableFuture<T> read) {
+        final ReplicaStats replica = getStats(server);
+        final long start = System.nanoTime();
+        replica.outstanding.incrementAndGet();
+        read.whenComplete((r, e) -> {
+            replica.outstanding.decrementAndGet();
+            if (e == null) {
+                final long sample = Math.max(System.nanoTime() - start, 1L);
+                latencies.update(sample);
+                replica.latencyNanos.accumulateAndGet(sample, (average, s) ->
+                        average == 0 ? s : average + ((s - average) >> LATENCY_WEIGHT_SHIFT));
+            }
+        });
+        return read;
+    }
+
+    /**
+     * Get how long to wait for a read of a committed address before it is hedged.
+     *
+     * @return The delay in nanoseconds, or 0 if reads are not hedged.
+     */
+    public long getHedgeDelayNanos() {
+        final double percentile = runtime.getHedgedReadPercentile();
+        if (percentile <= 0 || latencies.getCount() < MIN_HEDGE_SAMPLES) {
+            return 0;
+        }
+        final long now = System.nanoTime();
+        if (hedgeDelayNanos == 0 || now - hedgeDelayComputed > HEDGE_DELAY_REFRESH_NANOS) {
+            hedgeDelayComputed = now;
+            hedgeDelayNanos = Math.max((long) latencies.getSnapshot()
+                    .getValue(Math.min(percentile, PERCENT) / PERCENT), 1L);
+        }
+        return hedgeDelayNanos;
+    }
+
+    /**
+     * Record that a read was hedged.
+     */
+    public void hedged() {
+        MetricsUtils.markConditionalMeter(MetricsUtils.isMetricsCollectionEnabled(),
+                runtime.getMetrics().meter(CorfuRuntime.getMpASV() + "hedged-reads"), 1);
+    }
+
+    /**
+     * Record that the hedge of a read was answered first.
+     */
+    public void hedgeWon() {
+        MetricsUtils.markConditionalMeter(MetricsUtils.isMetricsCollectionEnabled(),
+                runtime.getMetrics().meter(CorfuRuntime.getMpASV() + "hedged-read-wins"), 1);
+    }
+
+    private ReplicaStats getStats(String server) {
+        return stats.computeIfAbsent(server, s -> new ReplicaStats());
+    }
+}
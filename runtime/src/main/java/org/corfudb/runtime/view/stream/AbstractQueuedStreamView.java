@@ -1,11 +1,18 @@
 package org.corfudb.runtime.view.stream;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -35,6 +42,12 @@ import org.corfudb.runtime.view.Address;
  * implementation of remainingUpTo(), which simply calls nextUpTo() under a lock
  * until it returns null.
  *
+ * <p>If the runtime sets a stream prefetch window, entries returned one at a time are
+ * read and deserialized a window ahead of the stream pointer, so that the reads of the
+ * next window overlap with the processing of the current one. The window doubles
+ * whenever the stream pointer reaches it before its reads complete, and halves whenever
+ * its reads complete first.
+ *
  * <p>Created by mwei on 1/6/17.
  */
 @Slf4j
@@ -42,6 +55,17 @@ public abstract class AbstractQueuedStreamView extends
         AbstractContextStreamView<AbstractQueuedStreamView
                 .QueuedStreamContext> {
 
+    /** The fewest addresses which are read ahead of the stream pointer at once. */
+    static final int MIN_PREFETCH_WINDOW = 4;
+
+    /** The threads which read and deserialize the prefetched entries of every stream. */
+    private static final ExecutorService prefetchers = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("prefetch-%d")
+                    .build());
+
     /** Create a new queued stream view.
      *
      * @param streamId  The ID of the stream
@@ -105,7 +129,8 @@ public abstract class AbstractQueuedStreamView extends
         // Otherwise we remove entries one at a time from the read queue.
         if (getFrom.size() > 0) {
             final long thisRead = getFrom.pollFirst();
-            ILogData ld = read(thisRead);
+            ILogData ld = readAhead(context, getFrom, thisRead,
+                    getFrom == context.readQueue ? maxGlobal : Address.MAX);
             if (getFrom == context.readQueue) {
                 addToResolvedQueue(context, thisRead, ld);
             }
@@ -128,6 +153,10 @@ public abstract class AbstractQueuedStreamView extends
                                             Function<ILogData, Boolean> contextCheckFn) {
         NavigableSet<Long> readSet = new TreeSet<>();
 
+        // Drop what was read ahead one entry at a time, since everything
+        // up to maxGlobal is read in bulk below.
+        context.clearPrefetch();
+
         // Scan backward in the stream to find interesting
         // log records less than or equal to maxGlobal.
         // Boolean includes both CHECKPOINT & DATA entries.
@@ -196,6 +225,79 @@ public abstract class AbstractQueuedStreamView extends
         return readFrom;
     }
 
+    /**
+     * Retrieve the data at the given address, which was just removed from a queue,
+     * from the window read ahead of it if possible, and read the next window if the
+     * stream pointer moved past the current one.
+     *
+     * @param context   The current stream context.
+     * @param queue     The queue the address was removed from.
+     * @param address   The address to read.
+     * @param maxGlobal The maximum global address to read ahead to.
+     * @return          The data at the address.
+     */
+    private @Nonnull ILogData readAhead(QueuedStreamContext context, NavigableSet<Long> queue,
+                                        long address, long maxGlobal) {
+        final int maxWindow = runtime.getStreamPrefetchWindow();
+        if (maxWindow <= 0) {
+            return read(address);
+        }
+
+        if (address > context.prefetchedTo) {
+            context.prefetched = Collections.emptyMap();
+            context.prefetchedTo = address;
+            if (context.prefetch != null && address <= context.prefetchTo) {
+                // Grow the window if the stream caught up with its reads, and shrink
+                // it if they were ready before they were needed.
+                context.prefetchWindow = context.prefetch.isDone()
+                        ? Math.max(context.prefetchWindow / 2, MIN_PREFETCH_WINDOW)
+                        : Math.min(context.prefetchWindow * 2, maxWindow);
+                try {
+                    context.prefetched = context.prefetch.join();
+                } catch (RuntimeException e) {
+                    // The entries are read again below, which reports the error.
+                    log.trace("readAhead[{}]: Prefetch failed", this, e);
+                }
+                context.prefetchedTo = context.prefetchTo;
+            }
+            context.prefetch = null;
+
+            final List<Long> window = queue.tailSet(context.prefetchedTo, false).stream()
+                    .filter(a -> a <= maxGlobal)
+                    .limit(Math.min(context.prefetchWindow, maxWindow))
+                    .collect(Collectors.toList());
+            if (!window.isEmpty()) {
+                context.prefetch = prefetch(window);
+                context.prefetchTo = window.get(window.size() - 1);
+            }
+        }
+
+        final ILogData ld = context.prefetched.remove(address);
+        return ld != null ? ld : read(address);
+    }
+
+    /**
+     * Read and deserialize the data at the given addresses in the background.
+     *
+     * <p>The reads block, so they run on the prefetch threads rather than the common pool.
+     * The future fails if any read fails; the addresses are then read again
+     * through read(), which handles the failure.
+     *
+     * @param addresses The addresses to read.
+     * @return          A future of the data, by address.
+     */
+    protected @Nonnull CompletableFuture<Map<Long, ILogData>> prefetch(
+            @Nonnull final List<Long> addresses) {
+        return CompletableFuture.supplyAsync(() -> {
+            final Map<Long, ILogData> data =
+                    new HashMap<>(runtime.getAddressSpaceView().read(addresses));
+            data.values().stream()
+                    .filter(d -> d.getType() == DataType.DATA)
+                    .forEach(d -> d.getPayload(runtime));
+            return data;
+        }, prefetchers);
+    }
+
     /**
      * Retrieve the data at the given address which was previously
      * inserted into the read queue.
@@ -388,6 +490,21 @@ public abstract class AbstractQueuedStreamView extends
          */
         long checkpointSnapshotAddress = Address.NEVER_READ;
 
+        /** The entries read ahead of the stream pointer which it has reached. */
+        Map<Long, ILogData> prefetched = Collections.emptyMap();
+
+        /** The last address of the window of entries in prefetched. */
+        long prefetchedTo = Address.NON_ADDRESS;
+
+        /** The entries being read ahead of prefetched, or null. */
+        CompletableFuture<Map<Long, ILogData>> prefetch = null;
+
+        /** The last address of the window of entries being read ahead. */
+        long prefetchTo = Address.NON_ADDRESS;
+
+        /** The number of addresses to read ahead at once. */
+        int prefetchWindow = MIN_PREFETCH_WINDOW;
+
         /** Create a new stream context with the given ID and maximum address
          * to read to.
          * @param id                  The ID of the stream to read from
@@ -417,6 +534,15 @@ public abstract class AbstractQueuedStreamView extends
             checkpointSuccessNumEntries = 0;
             checkpointSuccessBytes = 0;
             resolvedEstBytes = 0;
+            clearPrefetch();
+        }
+
+        /** Discard the entries read ahead of the stream pointer. */
+        void clearPrefetch() {
+            prefetched = Collections.emptyMap();
+            prefetchedTo = Address.NON_ADDRESS;
+            prefetch = null;
+            prefetchTo = Address.NON_ADDRESS;
         }
 
         /**
@@ -442,6 +568,7 @@ public abstract class AbstractQueuedStreamView extends
             // the read queue anything equal to or
             // greater than the global address
             readQueue.addAll(resolvedQueue.tailSet(globalAddress, true));
+            clearPrefetch();
             super.seek(globalAddress);
         }
     }
@@ -1,5 +1,6 @@
 package org.corfudb.runtime.view.stream;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -66,9 +67,10 @@ public class BackpointerStreamView extends AbstractQueuedStreamView {
     public long append(Object object,
                        Function<TokenResponse, Boolean> acquisitionCallback,
                        Function<TokenResponse, Boolean> deacquisitionCallback) {
-        // First, we get a token from the sequencer.
+        // First, we get a token from the sequencer, or from a block of tokens
+        // leased from the sequencer, if leasing is enabled.
         TokenResponse tokenResponse = runtime.getSequencerView()
-                .nextToken(Collections.singleton(id), 1);
+                .nextLeasedToken(Collections.singleton(id));
 
         // We loop forever until we are interrupted, since we may have to
         // acquire an address several times until we are successful.
@@ -105,10 +107,11 @@ public class BackpointerStreamView extends AbstractQueuedStreamView {
                     }
                 }
                 // Request a new token, informing the sequencer we were
-                // overwritten.
+                // overwritten. Any remaining leased token is likely to be
+                // overwritten as well, so we lease a new block.
+                runtime.getSequencerView().releaseLease(Collections.singleton(id));
                 tokenResponse = runtime.getSequencerView()
-                        .nextToken(Collections.singleton(id),
-                             1);
+                        .nextLeasedToken(Collections.singleton(id));
             } catch (StaleTokenException te) {
                 log.trace("Token grew stale occurred at {}", tokenResponse);
                 if (deacquisitionCallback != null && !deacquisitionCallback.apply(tokenResponse)) {
@@ -116,10 +119,10 @@ public class BackpointerStreamView extends AbstractQueuedStreamView {
                         return -1L;
                 }
                 // Request a new token, informing the sequencer we were
-                // overwritten.
+                // overwritten. The lease is stale too, so we lease a new block.
+                runtime.getSequencerView().releaseLease(Collections.singleton(id));
                 tokenResponse = runtime.getSequencerView()
-                        .nextToken(Collections.singleton(id),
-                                1);
+                        .nextLeasedToken(Collections.singleton(id));
 
             }
         }
@@ -223,6 +226,25 @@ public class BackpointerStreamView extends AbstractQueuedStreamView {
         return backpointerCount;
     }
 
+    /**
+     * Follow the backpointers of a stream from an address, adding the addresses accepted by
+     * a filter to a queue.
+     *
+     * <p>Each entry has to be read to learn the address of the previous one. To avoid one
+     * round trip per entry, the traversal speculates that the stream keeps the same stride
+     * between entries, as it does if it is written alone or interleaved regularly with
+     * other streams, or if backpointers are unavailable and the log is scanned. While the
+     * stride holds, the addresses it predicts are read ahead in a single bulk read, in
+     * windows which double up to the bulk read size of the runtime. The window falls back
+     * to a single address as soon as the stride changes.
+     *
+     * @param streamId     The ID of the stream to follow.
+     * @param queue        The queue to add the addresses to.
+     * @param startAddress The address to start from.
+     * @param stopAddress  The address to stop at, exclusive.
+     * @param filter       The filter which decides which addresses to add.
+     * @return True, if any address was added to the queue.
+     */
     protected boolean followBackpointers(final UUID streamId,
                                       final NavigableSet<Long> queue,
                                       final long startAddress,
@@ -232,6 +254,11 @@ public class BackpointerStreamView extends AbstractQueuedStreamView {
         boolean entryAdded = false;
         // The current address which we are reading from.
         long currentAddress = startAddress;
+        // The entries read ahead, the distance between the last two addresses visited,
+        // and the number of addresses to read ahead.
+        Map<Long, ILogData> readAhead = Collections.emptyMap();
+        long stride = 0L;
+        int window = 1;
 
         // Loop until we have reached the stop address.
         while (currentAddress > stopAddress  && Address.isAddress(currentAddress)) {
@@ -244,10 +271,16 @@ public class BackpointerStreamView extends AbstractQueuedStreamView {
             }
             backpointerCount++;
 
-            // Read the current address
-            ILogData d;
+            // Read the current address, and the addresses predicted to follow it.
+            ILogData d = readAhead.get(currentAddress);
+            if (d == null && window > 1) {
+                readAhead = readAhead(currentAddress, stride, window, stopAddress);
+                d = readAhead.get(currentAddress);
+            }
             try {
-                d = read(currentAddress);
+                if (d == null) {
+                    d = read(currentAddress);
+                }
             } catch (TrimmedException e) {
                 if (options.ignoreTrimmed) {
                     log.warn("followBackpointers: Ignoring trimmed exception for address {}," +
@@ -274,6 +307,7 @@ public class BackpointerStreamView extends AbstractQueuedStreamView {
             }
 
             boolean singleStep = true;
+            final long previousAddress = currentAddress;
             // Now calculate the next address
             // Try using backpointers first
 
@@ -292,12 +326,47 @@ public class BackpointerStreamView extends AbstractQueuedStreamView {
                 // downgrading to a linear scan
                 currentAddress = currentAddress - 1;
             }
+
+            // Read further ahead while the stride holds.
+            if (previousAddress - currentAddress == stride) {
+                window = Math.min(window * 2, runtime.getBulkReadSize());
+            } else {
+                stride = previousAddress - currentAddress;
+                window = 1;
+            }
         }
 
         return entryAdded;
 
     }
 
+    /**
+     * Read an address and the addresses which are predicted to follow it in a single bulk
+     * read. The prediction is only a hint, so the read fails quietly, and the addresses are
+     * only peeked at: one which holds nothing yet, such as a token another client has not
+     * written, is neither waited for nor hole filled, and is left out of the result.
+     *
+     * @param address     The address to read.
+     * @param stride      The distance between the addresses to read.
+     * @param window      The number of addresses to read.
+     * @param stopAddress The address to stop at, exclusive.
+     * @return The entries committed, or an empty map if any of them was trimmed.
+     */
+    private Map<Long, ILogData> readAhead(final long address, final long stride,
+                                          final int window, final long stopAddress) {
+        final List<Long> addresses = new ArrayList<>(window);
+        for (long a = address; addresses.size() < window && a > stopAddress
+                && Address.isAddress(a); a -= stride) {
+            addresses.add(a);
+        }
+        try {
+            return runtime.getAddressSpaceView().peek(addresses);
+        } catch (TrimmedException te) {
+            // The addresses will be read one at a time.
+            return Collections.emptyMap();
+        }
+    }
+
     protected BackpointerOp resolveCheckpoint(final QueuedStreamContext context, ILogData data,
                                               long maxGlobal) {
         if (data.hasCheckpointMetadata()) {
@@ -4,6 +4,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -11,6 +12,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Created by mwei on 9/15/15.
@@ -121,6 +123,35 @@ public class CFUtils {
         scheduler.schedule(toRun::run, duration.toMillis(), TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Supplies a completable future after a given time, without blocking.
+     *
+     * <p>The supplier runs on a single shared thread, so it must not block.
+     *
+     * @param duration The duration to wait before supplying the future.
+     * @param supplier The supplier of the future.
+     * @param <T>      The return type of the future.
+     * @return         A completable future which completes like the supplied one.
+     */
+    public static <T> CompletableFuture<T> composeAfter(Duration duration,
+                                                       Supplier<CompletableFuture<T>> supplier) {
+        final CompletableFuture<T> promise = new CompletableFuture<>();
+        scheduler.schedule(() -> {
+            try {
+                supplier.get().whenComplete((r, e) -> {
+                    if (e != null) {
+                        promise.completeExceptionally(unwrap(e));
+                    } else {
+                        promise.complete(r);
+                    }
+                });
+            } catch (RuntimeException e) {
+                promise.completeExceptionally(e);
+            }
+        }, duration.toNanos(), TimeUnit.NANOSECONDS);
+        return promise;
+    }
+
     /**
      * Takes a completable future, and ensures that it completes within a certain duration.
      * If it does not, it is cancelled and completes exceptionally with TimeoutException.
@@ -136,4 +167,33 @@ public class CFUtils {
         final CompletableFuture<T> timeout = failAfter(duration);
         return future.applyToEither(timeout, Function.identity());
     }
+
+    /**
+     * Generates a completable future which has already completed exceptionally.
+     *
+     * @param cause The exception to complete the future with.
+     * @param <T>   The return type of the future.
+     * @return      A completable future completed exceptionally with the given cause.
+     */
+    public static <T> CompletableFuture<T> failedFuture(Throwable cause) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+        return future;
+    }
+
+    /**
+     * Get the exception a completable future failed with, which dependent stages
+     * wrap in a CompletionException.
+     *
+     * @param throwable The exception a stage completed exceptionally with.
+     * @return          The exception the original stage failed with.
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException
+                || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
 }
@@ -0,0 +1,146 @@
+package org.corfudb.util;
+
+import io.netty.util.collection.LongObjectHashMap;
+import io.netty.util.collection.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A thread-safe map from primitive longs to objects.
+ *
+ * <p>The map is split into a fixed number of stripes, each an open addressing
+ * {@link LongObjectHashMap} guarded by its own lock. Unlike a ConcurrentHashMap keyed by
+ * Long, updates do not box the key or allocate a node. Keys are assigned to stripes by
+ * their low bits, so sequential keys, such as request ids, are spread evenly.
+ *
+ * @param <V> the type of the values
+ */
+public class ConcurrentLongObjectMap<V> {
+
+    private final LongObjectHashMap<V>[] stripes;
+
+    private final int mask;
+
+    /**
+     * Returns a new ConcurrentLongObjectMap.
+     *
+     * @param concurrencyLevel the expected number of concurrent writers, rounded up to a
+     *                         power of two to get the number of stripes
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongObjectMap(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Concurrency level must be positive, got "
+                    + concurrencyLevel);
+        }
+        final int numStripes = Integer.highestOneBit(concurrencyLevel - 1) << 1;
+        stripes = new LongObjectHashMap[Math.max(numStripes, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new LongObjectHashMap<>();
+        }
+        mask = stripes.length - 1;
+    }
+
+    private LongObjectHashMap<V> stripe(long key) {
+        return stripes[(int) key & mask];
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key the key
+     * @return the value of the key, or null if the key is not in the map
+     */
+    public V get(long key) {
+        final LongObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    /**
+     * Set the value of a key.
+     *
+     * @param key   the key
+     * @param value the value, which must not be null
+     * @return the previous value of the key, or null if the key was not in the map
+     */
+    public V put(long key, V value) {
+        final LongObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.put(key, value);
+        }
+    }
+
+    /**
+     * Remove a key.
+     *
+     * @param key the key
+     * @return the value of the key, or null if the key was not in the map
+     */
+    public V remove(long key) {
+        final LongObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.remove(key);
+        }
+    }
+
+    /**
+     * Get the number of keys in the map. The result is not a snapshot if the map is
+     * concurrently updated.
+     *
+     * @return the number of keys in the map
+     */
+    public int size() {
+        int size = 0;
+        for (LongObjectHashMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Remove every key from the map.
+     *
+     * @return the values which were removed
+     */
+    public List<V> removeAll() {
+        final List<V> removed = new ArrayList<>();
+        for (LongObjectHashMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                removed.addAll(stripe.values());
+                stripe.clear();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Remove every key whose value matches a predicate.
+     *
+     * @param predicate the predicate, which is called with the lock of a stripe held
+     * @return the values which were removed
+     */
+    public List<V> removeIf(Predicate<? super V> predicate) {
+        final List<V> removed = new ArrayList<>();
+        for (LongObjectHashMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                final Iterator<LongObjectMap.PrimitiveEntry<V>> entries =
+                        stripe.entries().iterator();
+                while (entries.hasNext()) {
+                    final V value = entries.next().value();
+                    if (predicate.test(value)) {
+                        removed.add(value);
+                        entries.remove();
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+}
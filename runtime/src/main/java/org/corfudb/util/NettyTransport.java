@@ -0,0 +1,71 @@
+package org.corfudb.util;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BiFunction;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Netty transports, and the event loop groups and channel types they use.
+ *
+ * <p>The native epoll transport avoids the overhead of the JDK selector and generates
+ * less garbage, but it is only available on Linux, with the netty native library on the
+ * class path. {@link NettyTransport#select(boolean)} falls back to NIO otherwise.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public enum NettyTransport {
+    NIO(NioSocketChannel.class, NioServerSocketChannel.class, NioEventLoopGroup::new),
+    EPOLL(EpollSocketChannel.class, EpollServerSocketChannel.class, EpollEventLoopGroup::new);
+
+    /** The client channel type of this transport. */
+    @Getter
+    private final Class<? extends SocketChannel> channelClass;
+
+    /** The server channel type of this transport. */
+    @Getter
+    private final Class<? extends ServerSocketChannel> serverChannelClass;
+
+    private final BiFunction<Integer, ThreadFactory, EventLoopGroup> groupGenerator;
+
+    /**
+     * Create a new event loop group for this transport.
+     *
+     * @param numThreads    The number of threads of the group, 0 for the Netty default.
+     * @param threadFactory The factory of the threads of the group.
+     * @return A new event loop group.
+     */
+    public EventLoopGroup createEventLoopGroup(int numThreads, ThreadFactory threadFactory) {
+        return groupGenerator.apply(numThreads, threadFactory);
+    }
+
+    /**
+     * Select the transport to use.
+     *
+     * @param preferNative Whether to use the native transport, if it is available.
+     * @return The epoll transport if it is preferred and available, NIO otherwise.
+     */
+    public static NettyTransport select(boolean preferNative) {
+        if (preferNative) {
+            if (Epoll.isAvailable()) {
+                return EPOLL;
+            }
+            log.debug("select: Native transport unavailable, using NIO",
+                    Epoll.unavailabilityCause());
+        }
+        return NIO;
+    }
+}
@@ -0,0 +1,134 @@
+package org.corfudb.util;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import lombok.Getter;
+
+/**
+ * A sketch of the most frequent items of a stream of weighted updates, based on the
+ * space-saving algorithm of Metwally et al.
+ *
+ * <p>The sketch tracks at most {@link SpaceSavingSketch#capacity} items. When an untracked
+ * item is added to a full sketch, the least frequent tracked item is replaced and the new
+ * item inherits its count. As a result, the count of a tracked item overestimates its true
+ * count by at most the count of the replaced item, and every item whose true count exceeds
+ * the total count divided by the capacity is guaranteed to be tracked.
+ *
+ * <p>Updates take O(log capacity) time. The sketch is thread-safe.
+ *
+ * @param <K> the type of the items
+ */
+public class SpaceSavingSketch<K> {
+
+    /**
+     * A tracked item and its estimated count.
+     */
+    private static class Counter<K> {
+        final K item;
+        final long seq;
+        long count;
+
+        Counter(K item, long seq, long count) {
+            this.item = item;
+            this.seq = seq;
+            this.count = count;
+        }
+    }
+
+    /**
+     * The maximum number of tracked items.
+     */
+    @Getter
+    private final int capacity;
+
+    private final Map<K, Counter<K>> counters = new HashMap<>();
+
+    /**
+     * The tracked items ordered by count. Ties are broken by insertion order.
+     */
+    private final TreeSet<Counter<K>> byCount = new TreeSet<>(
+            Comparator.<Counter<K>>comparingLong(c -> c.count).thenComparingLong(c -> c.seq));
+
+    private long nextSeq = 0;
+
+    private long total = 0;
+
+    /**
+     * Returns a new SpaceSavingSketch.
+     *
+     * @param capacity the maximum number of tracked items
+     */
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Add an update to the count of an item.
+     *
+     * @param item   the item
+     * @param amount the amount to add to the count of the item
+     */
+    public synchronized void add(K item, long amount) {
+        total += amount;
+
+        Counter<K> counter = counters.get(item);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count += amount;
+            byCount.add(counter);
+            return;
+        }
+
+        long count = amount;
+        if (counters.size() >= capacity) {
+            Counter<K> min = byCount.pollFirst();
+            counters.remove(min.item);
+            count += min.count;
+        }
+        counter = new Counter<>(item, nextSeq++, count);
+        counters.put(item, counter);
+        byCount.add(counter);
+    }
+
+    /**
+     * Get the total count of all the updates added to the sketch.
+     *
+     * @return the total count
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the estimated counts of the k most frequent items, most frequent first.
+     *
+     * @param k the number of items
+     * @return a map of the k most frequent items to their estimated count, in count order
+     */
+    public synchronized Map<K, Long> top(int k) {
+        Map<K, Long> top = new LinkedHashMap<>();
+        Iterator<Counter<K>> descending = byCount.descendingIterator();
+        while (descending.hasNext() && top.size() < k) {
+            Counter<K> counter = descending.next();
+            top.put(counter.item, counter.count);
+        }
+        return top;
+    }
+
+    /**
+     * Remove all the items from the sketch.
+     */
+    public synchronized void clear() {
+        counters.clear();
+        byCount.clear();
+        total = 0;
+    }
+}
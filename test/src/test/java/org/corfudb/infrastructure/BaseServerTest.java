@@ -27,6 +27,15 @@ public class BaseServerTest extends AbstractServerTest {
                 .isEqualTo(CorfuMsgType.PONG);
     }
 
+    @Test
+    public void handlersHaveExecutionPolicy() {
+        CorfuMsgHandler handler = getDefaultServer().getHandler();
+        Assertions.assertThat(handler.getExecutionPolicy(CorfuMsgType.PING))
+                .isEqualTo(ExecutionPolicy.INLINE);
+        Assertions.assertThat(handler.getExecutionPolicy(CorfuMsgType.VERSION_REQUEST))
+                .isEqualTo(ExecutionPolicy.WORKER);
+    }
+
     @Test
     public void shutdownServerDoesNotRespond() {
         getDefaultServer().shutdown();
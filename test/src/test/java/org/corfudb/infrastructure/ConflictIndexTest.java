@@ -0,0 +1,125 @@
+package org.corfudb.infrastructure;
+
+import org.corfudb.AbstractCorfuTest;
+import org.corfudb.runtime.view.Address;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConflictIndexTest extends AbstractCorfuTest {
+
+    private static final int MAX_SIZE = 1024;
+
+    private static final double WINDOW_FPP = 0.01;
+
+    @Test
+    public void latestUpdateIsReturned() {
+        ConflictIndex index = new ConflictIndex(MAX_SIZE);
+        assertThat(index.get("a")).isNull();
+
+        index.put("a", 0L);
+        index.put("b", 1L);
+        index.put("a", 2L);
+
+        assertThat(index.get("a")).isEqualTo(2L);
+        assertThat(index.get("b")).isEqualTo(1L);
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.getMaxConflictWildcard()).isEqualTo(Address.NOT_FOUND);
+    }
+
+    @Test
+    public void trimDropsUpdatesBelowTrimMark() {
+        ConflictIndex index = new ConflictIndex(MAX_SIZE);
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+            index.put(Integer.toString(i), i);
+        }
+        // Key 0 is updated again after the trim mark, so it must be kept.
+        index.put("0", PARAMETERS.NUM_ITERATIONS_LOW);
+
+        final long trimMark = PARAMETERS.NUM_ITERATIONS_LOW / 2;
+        index.trim(trimMark);
+
+        assertThat(index.get("1")).isNull();
+        assertThat(index.get(Long.toString(trimMark - 1))).isNull();
+        assertThat(index.get(Long.toString(trimMark))).isEqualTo(trimMark);
+        assertThat(index.get("0")).isEqualTo((long) PARAMETERS.NUM_ITERATIONS_LOW);
+        assertThat(index.size()).isEqualTo(PARAMETERS.NUM_ITERATIONS_LOW / 2 + 1);
+        // Trimming does not raise the wildcard.
+        assertThat(index.getMaxConflictWildcard()).isEqualTo(Address.NOT_FOUND);
+    }
+
+    @Test
+    public void evictionRaisesWildcardAndBoundsSize() {
+        ConflictIndex index = new ConflictIndex(MAX_SIZE);
+        final int numUpdates = MAX_SIZE * 2;
+        for (int i = 0; i < numUpdates; i++) {
+            index.put(Integer.toString(i), i);
+        }
+
+        // Evicted keys are purged incrementally, and the wildcard covers all of them.
+        assertThat(index.size()).isLessThanOrEqualTo(MAX_SIZE + MAX_SIZE / 2);
+        long wildcard = index.getMaxConflictWildcard();
+        assertThat(wildcard).isGreaterThanOrEqualTo(numUpdates - MAX_SIZE - 1);
+        for (int i = 0; i < numUpdates; i++) {
+            Long address = index.get(Integer.toString(i));
+            if (address == null) {
+                assertThat((long) i).isLessThanOrEqualTo(wildcard);
+            } else {
+                assertThat(address).isEqualTo((long) i);
+            }
+        }
+        assertThat(index.get(Integer.toString(numUpdates - 1))).isEqualTo((long) numUpdates - 1);
+    }
+
+    @Test
+    public void resetClearsIndex() {
+        ConflictIndex index = new ConflictIndex(MAX_SIZE);
+        index.put("a", 0L);
+        index.reset(PARAMETERS.NUM_ITERATIONS_LOW);
+
+        assertThat(index.get("a")).isNull();
+        assertThat(index.size()).isZero();
+        assertThat(index.getMaxConflictWildcard()).isEqualTo(PARAMETERS.NUM_ITERATIONS_LOW);
+    }
+
+    @Test
+    public void evictedKeysAreKeptInWindows() {
+        final int maxWindows = 1024;
+        ConflictIndex index = new ConflictIndex(MAX_SIZE, maxWindows, WINDOW_FPP);
+        final int numUpdates = MAX_SIZE * 2;
+        for (int i = 0; i < numUpdates; i++) {
+            index.put(Integer.toString(i), i);
+        }
+
+        // The wildcard is not raised while there is room for more windows.
+        assertThat(index.getMaxConflictWildcard()).isEqualTo(Address.NOT_FOUND);
+        assertThat(index.getNumWindows()).isGreaterThan(0);
+        assertThat(index.getEvictedWildcard()).isGreaterThanOrEqualTo(numUpdates - MAX_SIZE - 1);
+
+        // Every evicted key is reported as possibly updated after an earlier address.
+        for (int i = 0; i < numUpdates; i++) {
+            if (index.get(Integer.toString(i)) == null) {
+                assertThat(index.mightBeUpdatedAfter(Integer.toString(i), i - 1)).isTrue();
+            }
+        }
+
+        // No key is reported as updated after the newest window.
+        assertThat(index.mightBeUpdatedAfter("0", index.getEvictedWildcard())).isFalse();
+
+        index.trim(numUpdates);
+        assertThat(index.getNumWindows()).isZero();
+    }
+
+    @Test
+    public void droppedWindowRaisesWildcard() {
+        ConflictIndex index = new ConflictIndex(MAX_SIZE, 1, WINDOW_FPP);
+        final int numUpdates = MAX_SIZE * 2;
+        for (int i = 0; i < numUpdates; i++) {
+            index.put(Integer.toString(i), i);
+        }
+
+        assertThat(index.getNumWindows()).isEqualTo(1);
+        assertThat(index.getMaxConflictWildcard()).isGreaterThan(Address.NOT_FOUND);
+        assertThat(index.getEvictedWildcard()).isGreaterThan(index.getMaxConflictWildcard());
+    }
+}
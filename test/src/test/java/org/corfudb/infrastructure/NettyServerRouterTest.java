@@ -0,0 +1,181 @@
+package org.corfudb.infrastructure;
+
+import com.google.common.collect.ImmutableMap;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import lombok.Getter;
+
+import org.corfudb.AbstractCorfuTest;
+import org.corfudb.protocols.wireprotocol.CorfuMsg;
+import org.corfudb.protocols.wireprotocol.CorfuMsgFraming;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NettyServerRouterTest extends AbstractCorfuTest {
+
+    /**
+     * A server whose TAIL_REQUEST handler waits for a latch before it acknowledges.
+     */
+    static class LatchedServer extends AbstractServer {
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        @Getter
+        final CorfuMsgHandler handler = new CorfuMsgHandler()
+                .addHandler(CorfuMsgType.TAIL_REQUEST, (msg, ctx, r, isMetricsEnabled) -> {
+                    try {
+                        latch.await();
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                    r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
+                });
+    }
+
+    /**
+     * A server which records the thread each of its handlers runs on.
+     */
+    static class ThreadRecordingServer extends AbstractServer {
+        final Map<CorfuMsgType, Thread> handlerThreads = new ConcurrentHashMap<>();
+
+        @Getter
+        final CorfuMsgHandler handler = new CorfuMsgHandler()
+                .generateHandlers(MethodHandles.lookup(), this);
+
+        private void record(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r) {
+            handlerThreads.put(msg.getMsgType(), Thread.currentThread());
+            r.sendResponse(ctx, msg, CorfuMsgType.ACK.msg());
+        }
+
+        @ServerHandler(type = CorfuMsgType.NACK, policy = ExecutionPolicy.INLINE)
+        private void inline(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r,
+                            boolean isMetricsEnabled) {
+            record(msg, ctx, r);
+        }
+
+        @ServerHandler(type = CorfuMsgType.TAIL_REQUEST)
+        private void worker(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r,
+                            boolean isMetricsEnabled) {
+            record(msg, ctx, r);
+        }
+
+        @ServerHandler(type = CorfuMsgType.SEQUENCER_SNAPSHOT_REQ,
+                policy = ExecutionPolicy.BLOCKING)
+        private void blocking(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r,
+                              boolean isMetricsEnabled) {
+            record(msg, ctx, r);
+        }
+    }
+
+    private CorfuMsg tailRequest(long requestId) {
+        CorfuMsg msg = CorfuMsgType.TAIL_REQUEST.msg();
+        msg.setRequestID(requestId);
+        return msg;
+    }
+
+    private CorfuMsg readResponse(EmbeddedChannel channel) throws Exception {
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+            channel.runPendingTasks();
+            CorfuMsg msg = channel.readOutbound();
+            if (msg != null) {
+                return msg;
+            }
+            Thread.sleep(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis());
+        }
+        return null;
+    }
+
+    private EmbeddedChannel newChannel(LatchedServer server, int framingVersion) {
+        NettyServerRouter router = new NettyServerRouter(
+                ImmutableMap.of("--max-queued-requests", "1"));
+        router.addServer(server);
+        EmbeddedChannel channel = new EmbeddedChannel(router);
+        CorfuMsgFraming.setPeerVersion(channel, framingVersion);
+        return channel;
+    }
+
+    @Test
+    public void requestsBeyondTheQueueLimitAreRejected() throws Exception {
+        LatchedServer server = new LatchedServer();
+        EmbeddedChannel channel = newChannel(server, CorfuMsgFraming.V2);
+
+        channel.writeInbound(tailRequest(0L));
+        channel.writeInbound(tailRequest(1L));
+        CorfuMsg busy = readResponse(channel);
+        assertThat(busy.getMsgType()).isEqualTo(CorfuMsgType.SERVER_BUSY);
+        assertThat(busy.getRequestID()).isEqualTo(1L);
+
+        server.latch.countDown();
+        CorfuMsg ack = readResponse(channel);
+        assertThat(ack.getMsgType()).isEqualTo(CorfuMsgType.ACK);
+        assertThat(ack.getRequestID()).isEqualTo(0L);
+
+        // Once the queue drains, requests are accepted again.
+        channel.writeInbound(tailRequest(2L));
+        assertThat(readResponse(channel).getMsgType()).isEqualTo(CorfuMsgType.ACK);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void requestsFromOlderClientsAreNotRejected() throws Exception {
+        LatchedServer server = new LatchedServer();
+        EmbeddedChannel channel = newChannel(server, CorfuMsgFraming.V1);
+
+        channel.writeInbound(tailRequest(0L));
+        channel.writeInbound(tailRequest(1L));
+        server.latch.countDown();
+        assertThat(readResponse(channel).getMsgType()).isEqualTo(CorfuMsgType.ACK);
+        assertThat(readResponse(channel).getMsgType()).isEqualTo(CorfuMsgType.ACK);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void requestsRejectedByTheWorkersAreNotCounted() throws Exception {
+        LatchedServer server = new LatchedServer();
+        NettyServerRouter router = new NettyServerRouter(
+                ImmutableMap.of("--max-queued-requests", "1"));
+        router.addServer(server);
+        router.handlerWorkers.shutdown();
+        EmbeddedChannel channel = new EmbeddedChannel(router);
+        CorfuMsgFraming.setPeerVersion(channel, CorfuMsgFraming.V2);
+
+        // Requests which the workers reject are dropped, and do not fill the queue,
+        // so the second one is not answered with SERVER_BUSY either.
+        channel.writeInbound(tailRequest(0L));
+        channel.writeInbound(tailRequest(1L));
+        assertThat(readResponse(channel)).isNull();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void handlersRunWhereTheirPolicySays() throws Exception {
+        ThreadRecordingServer server = new ThreadRecordingServer();
+        NettyServerRouter router = new NettyServerRouter(ImmutableMap.of());
+        router.addServer(server);
+        EmbeddedChannel channel = new EmbeddedChannel(router);
+
+        // The embedded channel's event loop is the thread which writes to it.
+        final Thread eventLoop = Thread.currentThread();
+        for (CorfuMsgType type : new CorfuMsgType[] {CorfuMsgType.NACK,
+                CorfuMsgType.TAIL_REQUEST, CorfuMsgType.SEQUENCER_SNAPSHOT_REQ}) {
+            channel.writeInbound(type.msg());
+            assertThat(readResponse(channel).getMsgType()).isEqualTo(CorfuMsgType.ACK);
+        }
+
+        assertThat(server.handlerThreads.get(CorfuMsgType.NACK)).isSameAs(eventLoop);
+        assertThat(server.handlerThreads.get(CorfuMsgType.TAIL_REQUEST).getName())
+                .startsWith(NettyServerRouter.ServerThreadFactory.THREAD_PREFIX)
+                .doesNotContain("blocking");
+        assertThat(server.handlerThreads.get(CorfuMsgType.SEQUENCER_SNAPSHOT_REQ).getName())
+                .startsWith(NettyServerRouter.ServerThreadFactory.THREAD_PREFIX + "blocking");
+        channel.finishAndReleaseAll();
+    }
+}
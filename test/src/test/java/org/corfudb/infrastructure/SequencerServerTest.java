@@ -1,15 +1,18 @@
 package org.corfudb.infrastructure;
 
 import org.corfudb.protocols.wireprotocol.*;
+import org.corfudb.runtime.view.Address;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 /**
  * Created by mwei on 12/13/15.
@@ -219,4 +222,99 @@ public class SequencerServerTest extends AbstractServerTest {
                 new TokenRequest(0L, Collections.singleton(streamC))));
         assertThat(getLastPayloadMessageAs(TokenResponse.class).getToken().getTokenValue()).isEqualTo(newTailC);
     }
+
+    private TokenType txTokenType(UUID stream, byte[] key, long snapshotTimestamp) {
+        Map<UUID, Set<byte[]>> conflictMap = Collections.singletonMap(stream,
+                Collections.singleton(key));
+        sendMessage(new CorfuPayloadMsg<>(CorfuMsgType.TOKEN_REQ,
+                new TokenRequest(1L, Collections.singleton(stream),
+                        new TxResolutionInfo(UUID.randomUUID(), snapshotTimestamp,
+                                conflictMap, conflictMap))));
+        return getLastPayloadMessageAs(TokenResponse.class).getRespType();
+    }
+
+    @Test
+    public void contentionRequestReportsHotStreamsAndKeys() {
+        UUID streamA = UUID.nameUUIDFromBytes("streamA".getBytes());
+        UUID streamB = UUID.nameUUIDFromBytes("streamB".getBytes());
+        byte[] keyA = "keyA".getBytes();
+
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+            assertThat(txTokenType(streamA, keyA, i - 1)).isEqualTo(TokenType.NORMAL);
+        }
+        // Every transaction with a stale snapshot conflicts on keyA.
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+            assertThat(txTokenType(streamA, keyA, Address.NON_ADDRESS))
+                    .isEqualTo(TokenType.TX_ABORT_CONFLICT);
+        }
+        sendMessage(new CorfuPayloadMsg<>(CorfuMsgType.TOKEN_REQ,
+                new TokenRequest(1L, Collections.singleton(streamB))));
+
+        sendMessage(new CorfuPayloadMsg<>(CorfuMsgType.SEQUENCER_CONTENTION_REQ, 1));
+        ContentionStats stats = getLastPayloadMessageAs(ContentionStats.class);
+        assertThat(stats.getHotStreams())
+                .containsOnly(entry(streamA, (long) PARAMETERS.NUM_ITERATIONS_LOW));
+        assertThat(stats.getAbortedStreams())
+                .containsOnly(entry(streamA, (long) PARAMETERS.NUM_ITERATIONS_LOW));
+        assertThat(stats.getHotConflictKeys()).containsOnly(entry(
+                server.getConflictHashCode(streamA, keyA), (long) PARAMETERS.NUM_ITERATIONS_LOW));
+        assertThat(stats.getAbortsByCause().get(TokenType.TX_ABORT_CONFLICT.name()))
+                .isGreaterThanOrEqualTo(PARAMETERS.NUM_ITERATIONS_LOW);
+        // Aborted transactions are not issued tokens.
+        assertThat(stats.getClientTokens())
+                .containsOnly(entry(testClientId, PARAMETERS.NUM_ITERATIONS_LOW + 1L));
+    }
+
+    @Test
+    public void snapshotRequestReturnsPersistedSnapshot() {
+        UUID streamA = UUID.nameUUIDFromBytes("streamA".getBytes());
+
+        sendMessage(CorfuMsgType.SEQUENCER_SNAPSHOT_REQ.msg());
+        assertThat(getLastPayloadMessageAs(SequencerSnapshot.class).isEmpty()).isTrue();
+
+        sendMessage(new CorfuPayloadMsg<>(CorfuMsgType.TOKEN_REQ,
+                new TokenRequest(1L, Collections.singleton(streamA))));
+        server.persistSnapshot();
+
+        // The snapshot is served even when the sequencer is not ready.
+        server.setReadyStateEpoch(-1L);
+        sendMessage(CorfuMsgType.SEQUENCER_SNAPSHOT_REQ.msg());
+        SequencerSnapshot snapshot = getLastPayloadMessageAs(SequencerSnapshot.class);
+        assertThat(snapshot.getGlobalTail()).isEqualTo(1L);
+        assertThat(snapshot.getStreamTails()).containsEntry(streamA, 0L);
+    }
+
+    @Test
+    public void sequencerResetRestoresConflictInfoFromSnapshot() {
+        UUID streamA = UUID.nameUUIDFromBytes("streamA".getBytes());
+        UUID streamB = UUID.nameUUIDFromBytes("streamB".getBytes());
+        byte[] keyA = "keyA".getBytes();
+        byte[] keyB = "keyB".getBytes();
+
+        // Update keyA at 0 and keyB at 1, then snapshot at global tail 2.
+        assertThat(txTokenType(streamA, keyA, Address.NON_ADDRESS)).isEqualTo(TokenType.NORMAL);
+        assertThat(txTokenType(streamB, keyB, Address.NON_ADDRESS)).isEqualTo(TokenType.NORMAL);
+        server.persistSnapshot();
+
+        // streamB is updated after the snapshot was taken.
+        sendMessage(new CorfuPayloadMsg<>(CorfuMsgType.TOKEN_REQ,
+                new TokenRequest(1L, Collections.singleton(streamB))));
+        final long tailB = getLastPayloadMessageAs(TokenResponse.class).getTokenValue();
+
+        Map<UUID, Long> tailMap = new HashMap<>();
+        tailMap.put(streamA, 0L);
+        tailMap.put(streamB, tailB);
+        server.setReadyStateEpoch(-1L);
+        sendMessage(new CorfuPayloadMsg<>(CorfuMsgType.BOOTSTRAP_SEQUENCER,
+                new SequencerTailsRecoveryMsg(tailB + 2, tailMap, 0L)));
+
+        // keyA is known from the snapshot, so only a real conflict aborts.
+        assertThat(txTokenType(streamA, keyA, Address.NON_ADDRESS))
+                .isEqualTo(TokenType.TX_ABORT_CONFLICT);
+        assertThat(txTokenType(streamA, keyA, 1L)).isEqualTo(TokenType.NORMAL);
+
+        // keyB may have been updated after the snapshot, up to the tail of streamB.
+        assertThat(txTokenType(streamB, keyB, tailB - 1)).isEqualTo(TokenType.TX_ABORT_NEWSEQ);
+        assertThat(txTokenType(streamB, keyB, tailB)).isEqualTo(TokenType.NORMAL);
+    }
 }
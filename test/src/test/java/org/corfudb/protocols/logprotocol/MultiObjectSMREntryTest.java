@@ -0,0 +1,88 @@
+package org.corfudb.protocols.logprotocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import org.corfudb.AbstractCorfuTest;
+import org.corfudb.CustomSerializer;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.util.serializer.ISerializer;
+import org.corfudb.util.serializer.Serializers;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MultiObjectSMREntryTest extends AbstractCorfuTest {
+
+    private static final byte SERIALIZER_TYPE = 20;
+
+    private static final AtomicInteger deserialized = new AtomicInteger();
+
+    private static final ISerializer countingSerializer = new CustomSerializer(SERIALIZER_TYPE) {
+        @Override
+        public Object deserialize(ByteBuf b, CorfuRuntime rt) {
+            deserialized.incrementAndGet();
+            return super.deserialize(b, rt);
+        }
+    };
+
+    static {
+        Serializers.registerSerializer(countingSerializer);
+    }
+
+    private MultiObjectSMREntry roundTrip(MultiObjectSMREntry entry) {
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            Serializers.CORFU.serialize(entry, buf);
+            return (MultiObjectSMREntry) Serializers.CORFU.deserialize(buf, null);
+        } finally {
+            buf.release();
+        }
+    }
+
+    @Test
+    public void onlyTheRequestedStreamIsDeserialized() {
+        final UUID streamA = UUID.randomUUID();
+        final UUID streamB = UUID.randomUUID();
+        MultiObjectSMREntry entry = new MultiObjectSMREntry();
+        entry.addTo(streamA, new SMREntry("put", new Object[]{"a", "1"}, countingSerializer));
+        entry.addTo(streamB, new SMREntry("put", new Object[]{"b", "2"}, countingSerializer));
+        entry.addTo(streamB, new SMREntry("remove", new Object[]{"b"}, countingSerializer));
+
+        deserialized.set(0);
+        MultiObjectSMREntry read = roundTrip(entry);
+        List<SMREntry> updates = read.getSMRUpdates(streamA);
+        assertThat(updates).hasSize(1);
+        assertThat(updates.get(0).getSMRMethod()).isEqualTo("put");
+        assertThat(deserialized.get()).isZero();
+
+        // Arguments are only deserialized when they are used.
+        assertThat(updates.get(0).getSMRArguments()).containsExactly("a", "1");
+        assertThat(deserialized.get()).isEqualTo(2);
+        assertThat(read.getSMRUpdates(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    public void entriesWhichWereNotDeserializedRoundTrip() {
+        final UUID streamA = UUID.randomUUID();
+        final UUID streamB = UUID.randomUUID();
+        MultiObjectSMREntry entry = new MultiObjectSMREntry();
+        entry.addTo(streamA, new SMREntry("put", new Object[]{"a", "1"}, countingSerializer));
+        entry.addTo(streamB, new SMREntry("put", new Object[]{"b", "2"}, countingSerializer));
+
+        // Only stream A is deserialized before the entry is written again.
+        MultiObjectSMREntry read = roundTrip(entry);
+        read.getSMRUpdates(streamA);
+        MultiObjectSMREntry reread = roundTrip(read);
+
+        assertThat(reread.getEntryMap()).containsOnlyKeys(streamA, streamB);
+        assertThat(reread.getSMRUpdates(streamA).get(0).getSMRArguments())
+                .containsExactly("a", "1");
+        assertThat(reread.getSMRUpdates(streamB).get(0).getSMRArguments())
+                .containsExactly("b", "2");
+    }
+}
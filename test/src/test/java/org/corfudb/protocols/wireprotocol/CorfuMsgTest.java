@@ -0,0 +1,206 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import org.corfudb.AbstractCorfuTest;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CorfuMsgTest extends AbstractCorfuTest {
+
+    private static final int PAYLOAD_SIZE = 100;
+
+    private static final long REQUEST_ID = 1000L;
+
+    /** marker(1) | type(1) | request ID 1000 (2) | epoch 0 (1). */
+    private static final int COMPACT_HEADER_SIZE = 5;
+
+    private CorfuMsg roundTrip(CorfuMsg msg) {
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            msg.serialize(buf);
+            return CorfuMsg.deserialize(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    private int serializedSize(CorfuMsg msg) {
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            msg.serialize(buf);
+            return buf.readableBytes();
+        } finally {
+            buf.release();
+        }
+    }
+
+    @Test
+    public void stringPayloadRoundTrips() {
+        final String value = "localhost:9000";
+        CorfuPayloadMsg<FailureDetectorMsg> msg = new CorfuPayloadMsg<>(
+                CorfuMsgType.MANAGEMENT_FAILURE_DETECTED,
+                new FailureDetectorMsg(Collections.singleton(value)));
+
+        CorfuPayloadMsg<FailureDetectorMsg> read =
+                (CorfuPayloadMsg<FailureDetectorMsg>) roundTrip(msg);
+        assertThat(read.getPayload().getNodes()).containsExactly(value);
+    }
+
+    @Test
+    public void sizeHintMatchesSerializedSize() {
+        ByteBuf data = Unpooled.wrappedBuffer(new byte[PAYLOAD_SIZE]);
+        CorfuMsg write = CorfuMsgType.WRITE.payloadMsg(
+                new WriteRequest(WriteMode.NORMAL, null, data));
+        write.setClientID(UUID.randomUUID());
+        assertThat(write.getSizeHint()).isEqualTo(serializedSize(write));
+
+        CorfuMsg ping = new CorfuMsg(CorfuMsgType.PING);
+        assertThat(ping.getSizeHint()).isEqualTo(serializedSize(ping));
+
+        CorfuMsg token = CorfuMsgType.TOKEN_REQ.payloadMsg(
+                new TokenRequest(1L, Collections.singleton(UUID.randomUUID())));
+        assertThat(token.getSizeHint()).isGreaterThan(ping.getSizeHint());
+        data.release();
+    }
+
+    @Test
+    public void serializedFormIsReleased() {
+        LogData ld = new LogData(DataType.DATA, Unpooled.wrappedBuffer(new byte[PAYLOAD_SIZE]));
+        ByteBuf expected = Unpooled.buffer();
+        ld.doSerialize(expected);
+
+        ByteBuf cached = Unpooled.buffer();
+        final ByteBuf form;
+        try (ILogData.SerializationHandle sh = ld.getSerializedForm()) {
+            form = ld.serializedCache;
+            assertThat(form.refCnt()).isEqualTo(1);
+            assertThat(ld.getSizeHint()).isEqualTo(expected.readableBytes());
+            // The cached form can be written any number of times.
+            ld.doSerialize(cached);
+            ld.doSerialize(cached);
+        }
+        // Once the handle is closed, the cached form is released and dropped.
+        assertThat(form.refCnt()).isZero();
+        assertThat(ld.serializedCache).isNull();
+        assertThat(cached.readableBytes()).isEqualTo(expected.readableBytes() * 2);
+        assertThat(cached.slice(0, expected.readableBytes())).isEqualTo(expected);
+        assertThat(ld.getSizeEstimate()).isEqualTo(PAYLOAD_SIZE);
+
+        expected.release();
+        cached.release();
+    }
+
+    @Test
+    public void writeRequestRetainsSliceUntilReleased() {
+        final byte[] payload = new byte[PAYLOAD_SIZE];
+        Arrays.fill(payload, (byte) 1);
+        CorfuMsg write = CorfuMsgType.WRITE.payloadMsg(
+                new WriteRequest(WriteMode.NORMAL, null, Unpooled.wrappedBuffer(payload)));
+        write.setClientID(UUID.randomUUID());
+
+        ByteBuf buf = Unpooled.buffer();
+        write.serialize(buf);
+        CorfuPayloadMsg<WriteRequest> read =
+                (CorfuPayloadMsg<WriteRequest>) CorfuMsg.deserialize(buf);
+        // The data is a slice of the buffer, which it retains until it is released.
+        assertThat(buf.refCnt()).isEqualTo(2);
+        assertThat(read.getPayload().getData().getSizeEstimate()).isEqualTo(PAYLOAD_SIZE);
+
+        read.releaseSlices();
+        assertThat(buf.refCnt()).isEqualTo(1);
+        assertThat(((LogData) read.getPayload().getData()).getData()).isEqualTo(payload);
+        buf.release();
+        assertThat(((LogData) read.getPayload().getData()).getData()).isEqualTo(payload);
+    }
+
+    @Test
+    public void compactHeaderRoundTrips() {
+        final UUID clientId = UUID.randomUUID();
+        final TokenRequest payload =
+                new TokenRequest(1L, Collections.singleton(UUID.randomUUID()));
+        CorfuMsg msg = CorfuMsgType.TOKEN_REQ.payloadMsg(payload);
+        msg.setClientID(clientId);
+        msg.setRequestID(Long.MAX_VALUE);
+        msg.setEpoch(-1L);
+
+        ByteBuf buf = Unpooled.buffer();
+        msg.serializeCompact(buf);
+        CorfuPayloadMsg<TokenRequest> read =
+                (CorfuPayloadMsg<TokenRequest>) CorfuMsg.deserializeCompact(buf, clientId);
+        assertThat(buf.readableBytes()).isZero();
+        assertThat(read.getClientID()).isEqualTo(clientId);
+        assertThat(read.getRequestID()).isEqualTo(Long.MAX_VALUE);
+        assertThat(read.getEpoch()).isEqualTo(-1L);
+        assertThat(read.getMsgType()).isEqualTo(CorfuMsgType.TOKEN_REQ);
+        assertThat(read.getPayload().getStreams()).isEqualTo(payload.getStreams());
+        buf.release();
+    }
+
+    @Test
+    public void compactHeaderIsSmallerForEveryType() {
+        for (CorfuMsgType type : CorfuMsgType.values()) {
+            CorfuMsg msg = new CorfuMsg(type);
+            msg.setClientID(UUID.randomUUID());
+            msg.setRequestID(REQUEST_ID);
+
+            ByteBuf compact = Unpooled.buffer();
+            msg.serializeCompact(compact);
+            assertThat(compact.readableBytes()).isEqualTo(COMPACT_HEADER_SIZE);
+            assertThat(serializedSize(msg)).isEqualTo(CorfuMsg.HEADER_SIZE);
+            compact.release();
+        }
+    }
+
+    @Test
+    public void channelsSwitchToCompactHeaders() {
+        final UUID clientId = UUID.randomUUID();
+        EmbeddedChannel client = new EmbeddedChannel(
+                new NettyCorfuMessageDecoder(), new NettyCorfuMessageEncoder());
+        EmbeddedChannel server = new EmbeddedChannel(
+                new NettyCorfuMessageDecoder(), new NettyCorfuMessageEncoder());
+
+        // The client writes full headers until it knows the server decodes compact ones.
+        CorfuMsg ping = new CorfuMsg(clientId, 0L, 0L, null, CorfuMsgType.PING);
+        assertThat(transfer(client, server, ping)).isNotEqualTo(CorfuMsgFraming.COMPACT_MARKER);
+        assertThat(((CorfuMsg) server.readInbound()).getClientID()).isEqualTo(clientId);
+
+        CorfuMsgFraming.setPeerVersion(client, CorfuMsgFraming.V2);
+        ping.setRequestID(1L);
+        assertThat(transfer(client, server, ping)).isEqualTo(CorfuMsgFraming.COMPACT_MARKER);
+        CorfuMsg request = server.readInbound();
+        assertThat(request.getClientID()).isEqualTo(clientId);
+        assertThat(request.getRequestID()).isEqualTo(1L);
+
+        // Having received a compact header, the server answers with compact headers.
+        CorfuMsg pong = new CorfuMsg(CorfuMsgType.PONG);
+        pong.copyBaseFields(request);
+        assertThat(transfer(server, client, pong)).isEqualTo(CorfuMsgFraming.COMPACT_MARKER);
+        CorfuMsg response = client.readInbound();
+        assertThat(response.getClientID()).isEqualTo(clientId);
+        assertThat(response.getMsgType()).isEqualTo(CorfuMsgType.PONG);
+
+        client.finishAndReleaseAll();
+        server.finishAndReleaseAll();
+    }
+
+    /**
+     * Write a message on a channel, and pass the encoded frame to another channel.
+     *
+     * @return The first byte of the frame.
+     */
+    private byte transfer(EmbeddedChannel from, EmbeddedChannel to, CorfuMsg msg) {
+        from.writeOutbound(msg);
+        ByteBuf frame = from.readOutbound();
+        final byte marker = frame.getByte(frame.readerIndex());
+        to.writeInbound(frame);
+        return marker;
+    }
+}
@@ -0,0 +1,90 @@
+package org.corfudb.protocols.wireprotocol;
+
+import com.codahale.metrics.MetricRegistry;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.corfudb.AbstractCorfuTest;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NettyCompressionCodecTest extends AbstractCorfuTest {
+
+    private static final int THRESHOLD = 64;
+
+    private static final int FRAME_SIZE = 4096;
+
+    private EmbeddedChannel newChannel() {
+        return new EmbeddedChannel(new NettyCompressionCodec(new MetricRegistry(), ""));
+    }
+
+    private ByteBuf compressibleFrame(int size) {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < size) {
+            sb.append("{\"key\":\"value\",\"counter\":").append(sb.length()).append('}');
+        }
+        return Unpooled.copiedBuffer(sb.substring(0, size), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Write a frame on a channel, check its first byte, and read it back on another channel.
+     */
+    private void assertTransferred(EmbeddedChannel from, EmbeddedChannel to, ByteBuf frame,
+                                   boolean compressed) {
+        final ByteBuf expected = frame.copy();
+        from.writeOutbound(frame);
+        ByteBuf written = from.readOutbound();
+        assertThat(written.getByte(written.readerIndex()) == CorfuMsgFraming.COMPRESSED_MARKER)
+                .isEqualTo(compressed);
+        if (compressed) {
+            assertThat(written.readableBytes()).isLessThan(expected.readableBytes());
+        }
+
+        to.writeInbound(written);
+        ByteBuf read = to.readInbound();
+        assertThat(read).isEqualTo(expected);
+        read.release();
+        expected.release();
+    }
+
+    @Test
+    public void framesAreNotCompressedUntilEnabled() {
+        EmbeddedChannel from = newChannel();
+        EmbeddedChannel to = newChannel();
+        assertTransferred(from, to, compressibleFrame(FRAME_SIZE), false);
+        from.finishAndReleaseAll();
+        to.finishAndReleaseAll();
+    }
+
+    @Test
+    public void largeFramesAreCompressed() {
+        EmbeddedChannel from = newChannel();
+        EmbeddedChannel to = newChannel();
+        CorfuMsgFraming.setCompressionThreshold(from, THRESHOLD);
+
+        assertTransferred(from, to, compressibleFrame(FRAME_SIZE), true);
+        // Frames below the threshold are sent as is.
+        assertTransferred(from, to, compressibleFrame(THRESHOLD - 1), false);
+        from.finishAndReleaseAll();
+        to.finishAndReleaseAll();
+    }
+
+    @Test
+    public void incompressibleFramesAreSentAsIs() {
+        EmbeddedChannel from = newChannel();
+        EmbeddedChannel to = newChannel();
+        CorfuMsgFraming.setCompressionThreshold(from, THRESHOLD);
+
+        byte[] random = new byte[FRAME_SIZE];
+        new Random(PARAMETERS.SEED).nextBytes(random);
+        assertTransferred(from, to, Unpooled.wrappedBuffer(random), false);
+        from.finishAndReleaseAll();
+        to.finishAndReleaseAll();
+    }
+}
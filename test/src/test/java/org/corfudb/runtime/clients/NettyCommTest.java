@@ -1,5 +1,6 @@
 package org.corfudb.runtime.clients;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableMap;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
@@ -12,6 +13,7 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslContext;
@@ -23,20 +25,31 @@ import lombok.extern.slf4j.Slf4j;
 import org.corfudb.AbstractCorfuTest;
 import org.corfudb.infrastructure.BaseServer;
 import org.corfudb.infrastructure.NettyServerRouter;
+import org.corfudb.protocols.wireprotocol.CorfuMsgFraming;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.corfudb.protocols.wireprotocol.NettyCompressionCodec;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageDecoder;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageEncoder;
+import org.corfudb.protocols.wireprotocol.VersionInfo;
+import org.corfudb.runtime.exceptions.NetworkException;
 import org.corfudb.security.sasl.plaintext.PlainTextSaslNettyServer;
 import org.corfudb.security.tls.TlsUtils;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.ssl.SSLEngine;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Created by mwei on 3/28/16.
@@ -87,6 +100,348 @@ public class NettyCommTest extends AbstractCorfuTest {
             });
     }
 
+    @Test
+    public void nettyServerClientReconnectsWithoutBlocking() throws Exception {
+        NettyEventLoops eventLoops = new NettyEventLoops(1, true);
+        try {
+            runWithBaseServer(
+                (port) -> {
+                    return new NettyServerData(port);
+                },
+                (port) -> {
+                    return new NettyClientRouter("localhost", port,
+                            NettyClientRouter.Parameters.builder()
+                                    .eventLoops(eventLoops)
+                                    .build());
+                },
+                (r, d) -> {
+                    assertThat(r.getClient(BaseClient.class).pingSync()).isTrue();
+                    d.shutdownServer();
+                    for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW && r.getConnected(); i++) {
+                        Thread.sleep(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis());
+                    }
+                    assertThat(r.getConnected()).isFalse();
+
+                    // The event loop keeps running while the router retries.
+                    Thread.sleep(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis());
+                    assertThat(eventLoops.getWorkerGroup().submit(() -> true)
+                            .get(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis(), TimeUnit.MILLISECONDS))
+                            .isTrue();
+
+                    d.bootstrapServer();
+                    for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW && !r.getConnected(); i++) {
+                        Thread.sleep(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis());
+                    }
+                    assertThat(r.getClient(BaseClient.class).pingSync()).isTrue();
+                    r.stop(true);
+                });
+        } finally {
+            eventLoops.shutdown();
+        }
+    }
+
+    @Test
+    public void nettyServerClientStartAsyncFailsWithoutBlocking() throws Exception {
+        NettyEventLoops eventLoops = new NettyEventLoops(1, true);
+        try {
+            // Nothing listens on the port.
+            NettyClientRouter r = new NettyClientRouter("localhost", findRandomOpenPort(),
+                    NettyClientRouter.Parameters.builder()
+                            .eventLoops(eventLoops)
+                            .connect(false)
+                            .build());
+            CompletableFuture<Void> started = r.startAsync(-1);
+            assertThatThrownBy(started::get).hasCauseInstanceOf(NetworkException.class);
+            assertThat(r.getConnected()).isFalse();
+        } finally {
+            eventLoops.shutdown();
+        }
+    }
+
+    @Test
+    public void nettyServerClientReconnectsAfterFailedStart() throws Exception {
+        NettyEventLoops eventLoops = new NettyEventLoops(1, true);
+        int port = findRandomOpenPort();
+        NettyServerData d = new NettyServerData(port);
+        NettyClientRouter r = new NettyClientRouter("localhost", port,
+                NettyClientRouter.Parameters.builder()
+                        .eventLoops(eventLoops)
+                        .numChannels(2)
+                        .connect(false)
+                        .build());
+        r.addClient(new BaseClient());
+        try {
+            // Nothing listens on the port yet.
+            assertThatThrownBy(r::start).isInstanceOf(NetworkException.class);
+            d.bootstrapServer();
+            for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW && !r.getConnected(); i++) {
+                Thread.sleep(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis());
+            }
+            assertThat(r.getConnected()).isTrue();
+            assertThat(r.getClient(BaseClient.class).pingSync()).isTrue();
+        } finally {
+            r.stop(true);
+            d.shutdownServer();
+            eventLoops.shutdown();
+        }
+    }
+
+    @Test
+    public void nettyServerClientsShareEventLoops() throws Exception {
+        NettyEventLoops eventLoops = new NettyEventLoops(2, true);
+        try {
+            runWithBaseServer(
+                (port) -> {
+                    return new NettyServerData(port);
+                },
+                (port) -> {
+                    return new NettyClientRouter("localhost", port,
+                            NettyClientRouter.Parameters.builder()
+                                    .eventLoops(eventLoops)
+                                    .build());
+                },
+                (r, d) -> {
+                    NettyClientRouter other = new NettyClientRouter("localhost", r.getPort(),
+                            NettyClientRouter.Parameters.builder()
+                                    .eventLoops(eventLoops)
+                                    .build());
+                    assertThat(other.workerGroup).isSameAs(r.workerGroup);
+                    assertThat(other.ee).isSameAs(r.ee);
+                    assertThat(other.getClient(BaseClient.class).pingSync()).isTrue();
+
+                    // Shutting down a router does not shut down the shared event loops.
+                    other.stop(true);
+                    assertThat(eventLoops.getWorkerGroup().isShutdown()).isFalse();
+                    assertThat(r.getClient(BaseClient.class).pingSync()).isTrue();
+                    // Stop reconnecting before the shared event loops are shut down.
+                    r.stop(true);
+                });
+        } finally {
+            eventLoops.shutdown();
+        }
+    }
+
+    @Test
+    public void nettyServerClientRequestTimesOut() throws Exception {
+        runWithBaseServer(
+            (port) -> {
+                return new NettyServerData(port);
+            },
+            (port) -> {
+                return new NettyClientRouter("localhost", port);
+            },
+            (r, d) -> {
+                r.setTimeoutResponse(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis());
+                // The base server drops the messages it does not handle.
+                CompletableFuture<Long> tail = r.sendMessageAndGetCompletable(null,
+                        CorfuMsgType.TAIL_REQUEST.msg());
+                assertThatThrownBy(tail::get).hasCauseInstanceOf(TimeoutException.class);
+                assertThat(r.outstandingRequests.size()).isZero();
+                assertThat(r.getClient(BaseClient.class).pingSync()).isTrue();
+            });
+    }
+
+    @Test
+    public void nettyServerClientNegotiateCompactFraming() throws Exception {
+        runWithBaseServer(
+            (port) -> {
+                return new NettyServerData(port);
+            },
+            (port) -> {
+                return new NettyClientRouter("localhost", port);
+            },
+            (r, d) -> {
+                // The version of the server is requested when the router connects.
+                for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW
+                        && CorfuMsgFraming.getPeerVersion(r.channel) < CorfuMsgFraming.V2; i++) {
+                    Thread.sleep(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis());
+                }
+                assertThat(CorfuMsgFraming.getPeerVersion(r.channel))
+                        .isEqualTo(CorfuMsgFraming.LATEST);
+                assertThat(r.getClient(BaseClient.class).pingSync()).isTrue();
+                assertThat(r.getClient(BaseClient.class).getVersionInfo().get()
+                        .getFramingVersion()).isEqualTo(CorfuMsgFraming.LATEST);
+            });
+    }
+
+    @Test
+    public void nettyServerClientNegotiateCompression() throws Exception {
+        final int compressionThreshold = 16;
+        runWithBaseServer(
+            (port) -> {
+                return new NettyServerData(port);
+            },
+            (port) -> {
+                return new NettyClientRouter("localhost", port,
+                        NettyClientRouter.Parameters.builder()
+                                .compressionThreshold(compressionThreshold)
+                                .build());
+            },
+            (r, d) -> {
+                for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW
+                        && CorfuMsgFraming.getCompressionThreshold(r.channel) == 0; i++) {
+                    Thread.sleep(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis());
+                }
+                assertThat(CorfuMsgFraming.getCompressionThreshold(r.channel))
+                        .isEqualTo(compressionThreshold);
+                // The version info is larger than the threshold, so it is compressed.
+                assertThat(r.getClient(BaseClient.class).getVersionInfo().get()
+                        .getFramingVersion()).isEqualTo(CorfuMsgFraming.LATEST);
+                assertThat(r.getClient(BaseClient.class).pingSync()).isTrue();
+            });
+    }
+
+    @Test
+    public void nettyServerClientBackOffWhenServerBusy() throws Exception {
+        runWithBaseServer(
+            (port) -> {
+                NettyServerData d = new NettyServerData(port);
+                d.setMaxQueuedRequests(1);
+                return d;
+            },
+            (port) -> {
+                return new NettyClientRouter("localhost", port);
+            },
+            (r, d) -> {
+                // Only clients which negotiated compact headers are told to back off.
+                for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW
+                        && CorfuMsgFraming.getPeerVersion(r.channel) < CorfuMsgFraming.V2; i++) {
+                    Thread.sleep(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis());
+                }
+                List<CompletableFuture<VersionInfo>> versions = new ArrayList<>();
+                for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+                    versions.add(r.getClient(BaseClient.class).getVersionInfo());
+                }
+                // Requests rejected by the busy server are sent again after backing off.
+                for (CompletableFuture<VersionInfo> version : versions) {
+                    assertThat(version.get()).isNotNull();
+                }
+            });
+    }
+
+    @Test
+    public void nettyServerClientInFlightLimit() throws Exception {
+        runWithBaseServer(
+            (port) -> {
+                return new NettyServerData(port);
+            },
+            (port) -> {
+                return new NettyClientRouter("localhost", port);
+            },
+            (r, d) -> {
+                r.setMaxInFlightRequests(1);
+                List<CompletableFuture<Boolean>> pings = new ArrayList<>();
+                for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+                    pings.add(r.getClient(BaseClient.class).ping());
+                }
+                for (CompletableFuture<Boolean> ping : pings) {
+                    assertThat(ping.get()).isTrue();
+                }
+                assertThat(r.outstandingRequests.size()).isZero();
+            });
+    }
+
+    @Test
+    public void nettyServerClientChannelPool() throws Exception {
+        final int numChannels = 3;
+        runWithBaseServer(
+            (port) -> {
+                return new NettyServerData(port);
+            },
+            (port) -> {
+                return new NettyClientRouter("localhost", port,
+                        NettyClientRouter.Parameters.builder()
+                                .numChannels(numChannels)
+                                .build());
+            },
+            (r, d) -> {
+                assertThat(r.dataChannels).hasSize(numChannels - 1)
+                        .doesNotContain(r.channel);
+                // Control traffic always goes over the control channel.
+                assertThat(r.selectChannel(CorfuMsgType.TOKEN_REQ)).isSameAs(r.channel);
+                assertThat(r.selectChannel(CorfuMsgType.LAYOUT_REQUEST)).isSameAs(r.channel);
+                // Log data traffic is spread over the data channels.
+                assertThat(r.selectChannel(CorfuMsgType.READ_REQUEST))
+                        .isNotSameAs(r.selectChannel(CorfuMsgType.READ_REQUEST))
+                        .isIn((Object[]) r.dataChannels);
+
+                // Every channel negotiates its framing.
+                for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW
+                        && CorfuMsgFraming.getPeerVersion(r.dataChannels[1])
+                        < CorfuMsgFraming.V2; i++) {
+                    Thread.sleep(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis());
+                }
+                assertThat(CorfuMsgFraming.getPeerVersion(r.dataChannels[1]))
+                        .isEqualTo(CorfuMsgFraming.LATEST);
+
+                // A data channel which is closed reconnects, and the control channel stays up.
+                r.dataChannels[0].close().sync();
+                assertThat(r.getClient(BaseClient.class).pingSync()).isTrue();
+                for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW
+                        && !r.dataChannels[0].isActive(); i++) {
+                    Thread.sleep(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis());
+                }
+                assertThat(r.dataChannels[0].isActive()).isTrue();
+                assertThat(r.getConnected()).isTrue();
+            });
+    }
+
+    @Test
+    public void nettyServerClientClosedChannelFailsOnlyItsRequests() throws Exception {
+        final int numChannels = 2;
+        runWithBaseServer(
+            (port) -> {
+                return new NettyServerData(port);
+            },
+            (port) -> {
+                return new NettyClientRouter("localhost", port,
+                        NettyClientRouter.Parameters.builder()
+                                .numChannels(numChannels)
+                                .build());
+            },
+            (r, d) -> {
+                // The base server drops the messages it does not handle, so the request
+                // stays outstanding on the control channel.
+                CompletableFuture<Long> tail = r.sendMessageAndGetCompletable(null,
+                        CorfuMsgType.TAIL_REQUEST.msg());
+
+                r.dataChannels[0].close().sync();
+                assertThat(r.getClient(BaseClient.class).pingSync()).isTrue();
+                assertThat(tail.isDone()).isFalse();
+
+                r.channel.close().sync();
+                assertThatThrownBy(tail::get).hasCauseInstanceOf(NetworkException.class);
+            });
+    }
+
+    @Test
+    public void nettyServerClientFlushConsolidation() throws Exception {
+        final int flushLimit = 4;
+        runWithBaseServer(
+            (port) -> {
+                NettyServerData d = new NettyServerData(port);
+                d.enableFlushConsolidation(flushLimit);
+                return d;
+            },
+            (port) -> {
+                return new NettyClientRouter("localhost", port,
+                        NettyClientRouter.Parameters.builder()
+                                .flushConsolidationLimit(flushLimit)
+                                .build());
+            },
+            (r, d) -> {
+                // Every message is flushed, whether or not it is part of a burst.
+                assertThat(r.getClient(BaseClient.class).pingSync()).isTrue();
+                List<CompletableFuture<Boolean>> pings = new ArrayList<>();
+                for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+                    pings.add(r.getClient(BaseClient.class).ping());
+                }
+                for (CompletableFuture<Boolean> ping : pings) {
+                    assertThat(ping.get()).isTrue();
+                }
+            });
+    }
+
     @Test
     public void nettyTlsNoMutualAuth() throws Exception {
         runWithBaseServer(
@@ -106,12 +461,13 @@ public class NettyCommTest extends AbstractCorfuTest {
             },
             (port) -> {
                 return new NettyClientRouter("localhost", port,
-                    true,
-                    "src/test/resources/security/r1.jks",
-                    "src/test/resources/security/storepass",
-                    "src/test/resources/security/trust1.jks",
-                    "src/test/resources/security/storepass",
-                    false, null, null);
+                    NettyClientRouter.Parameters.builder()
+                        .tlsEnabled(true)
+                        .keyStore("src/test/resources/security/r1.jks")
+                        .ksPasswordFile("src/test/resources/security/storepass")
+                        .trustStore("src/test/resources/security/trust1.jks")
+                        .tsPasswordFile("src/test/resources/security/storepass")
+                        .build());
             },
             (r, d) -> {
                 assertThat(r.getClient(BaseClient.class).pingSync())
@@ -138,12 +494,13 @@ public class NettyCommTest extends AbstractCorfuTest {
             },
             (port) -> {
                 return new NettyClientRouter("localhost", port,
-                    true,
-                    "src/test/resources/security/r1.jks",
-                    "src/test/resources/security/storepass",
-                    "src/test/resources/security/trust1.jks",
-                    "src/test/resources/security/storepass",
-                    false, null, null);
+                    NettyClientRouter.Parameters.builder()
+                        .tlsEnabled(true)
+                        .keyStore("src/test/resources/security/r1.jks")
+                        .ksPasswordFile("src/test/resources/security/storepass")
+                        .trustStore("src/test/resources/security/trust1.jks")
+                        .tsPasswordFile("src/test/resources/security/storepass")
+                        .build());
             },
             (r, d) -> {
                 assertThat(r.getClient(BaseClient.class).pingSync())
@@ -170,12 +527,13 @@ public class NettyCommTest extends AbstractCorfuTest {
             },
             (port) -> {
                 return new NettyClientRouter("localhost", port,
-                    true,
-                    "src/test/resources/security/r1.jks",
-                    "src/test/resources/security/storepass",
-                    "src/test/resources/security/trust2.jks",
-                    "src/test/resources/security/storepass",
-                    false, null, null);
+                    NettyClientRouter.Parameters.builder()
+                        .tlsEnabled(true)
+                        .keyStore("src/test/resources/security/r1.jks")
+                        .ksPasswordFile("src/test/resources/security/storepass")
+                        .trustStore("src/test/resources/security/trust2.jks")
+                        .tsPasswordFile("src/test/resources/security/storepass")
+                        .build());
             },
             (r, d) -> {
                 assertThat(r.getClient(BaseClient.class).pingSync())
@@ -202,12 +560,13 @@ public class NettyCommTest extends AbstractCorfuTest {
             },
             (port) -> {
                 return new NettyClientRouter("localhost", port,
-                    true,
-                    "src/test/resources/security/r2.jks",
-                    "src/test/resources/security/storepass",
-                    "src/test/resources/security/trust1.jks",
-                    "src/test/resources/security/storepass",
-                    false, null, null);
+                    NettyClientRouter.Parameters.builder()
+                        .tlsEnabled(true)
+                        .keyStore("src/test/resources/security/r2.jks")
+                        .ksPasswordFile("src/test/resources/security/storepass")
+                        .trustStore("src/test/resources/security/trust1.jks")
+                        .tsPasswordFile("src/test/resources/security/storepass")
+                        .build());
             },
             (r, d) -> {
                 assertThat(r.getClient(BaseClient.class).pingSync())
@@ -234,12 +593,13 @@ public class NettyCommTest extends AbstractCorfuTest {
             },
             (port) -> {
                 return new NettyClientRouter("localhost", port,
-                    true,
-                    "src/test/resources/security/r2.jks",
-                    "src/test/resources/security/storepass",
-                    "src/test/resources/security/trust1.jks",
-                    "src/test/resources/security/storepass",
-                    false, null, null);
+                    NettyClientRouter.Parameters.builder()
+                        .tlsEnabled(true)
+                        .keyStore("src/test/resources/security/r2.jks")
+                        .ksPasswordFile("src/test/resources/security/storepass")
+                        .trustStore("src/test/resources/security/trust1.jks")
+                        .tsPasswordFile("src/test/resources/security/storepass")
+                        .build());
             },
             (r, d) -> {
                 assertThat(r.getClient(BaseClient.class).pingSync())
@@ -269,14 +629,16 @@ public class NettyCommTest extends AbstractCorfuTest {
             },
             (port) -> {
                 return new NettyClientRouter("localhost", port,
-                    true,
-                    "src/test/resources/security/r1.jks",
-                    "src/test/resources/security/storepass",
-                    "src/test/resources/security/trust1.jks",
-                    "src/test/resources/security/storepass",
-                    true,
-                    "src/test/resources/security/username1",
-                    "src/test/resources/security/userpass1");
+                    NettyClientRouter.Parameters.builder()
+                        .tlsEnabled(true)
+                        .keyStore("src/test/resources/security/r1.jks")
+                        .ksPasswordFile("src/test/resources/security/storepass")
+                        .trustStore("src/test/resources/security/trust1.jks")
+                        .tsPasswordFile("src/test/resources/security/storepass")
+                        .saslPlainTextEnabled(true)
+                        .usernameFile("src/test/resources/security/username1")
+                        .passwordFile("src/test/resources/security/userpass1")
+                        .build());
             },
             (r, d) -> {
                 assertThat(r.getClient(BaseClient.class).pingSync())
@@ -306,14 +668,16 @@ public class NettyCommTest extends AbstractCorfuTest {
             },
             (port) -> {
                 return new NettyClientRouter("localhost", port,
-                    true,
-                    "src/test/resources/security/r1.jks",
-                    "src/test/resources/security/storepass",
-                    "src/test/resources/security/trust1.jks",
-                    "src/test/resources/security/storepass",
-                    true,
-                    "src/test/resources/security/username1",
-                    "src/test/resources/security/userpass2");
+                    NettyClientRouter.Parameters.builder()
+                        .tlsEnabled(true)
+                        .keyStore("src/test/resources/security/r1.jks")
+                        .ksPasswordFile("src/test/resources/security/storepass")
+                        .trustStore("src/test/resources/security/trust1.jks")
+                        .tsPasswordFile("src/test/resources/security/storepass")
+                        .saslPlainTextEnabled(true)
+                        .usernameFile("src/test/resources/security/username1")
+                        .passwordFile("src/test/resources/security/userpass2")
+                        .build());
             },
             (r, d) -> {
                 assertThat(r.getClient(BaseClient.class).pingSync())
@@ -383,6 +747,9 @@ public class NettyCommTest extends AbstractCorfuTest {
 
         boolean saslPlainTextAuthEnabled = false;
 
+        int flushConsolidationLimit = 0;
+        Integer maxQueuedRequests = null;
+
         public NettyServerData(int port) {
             this.port = port;
         }
@@ -417,8 +784,18 @@ public class NettyCommTest extends AbstractCorfuTest {
             this.saslPlainTextAuthEnabled = true;
         }
 
+        public void enableFlushConsolidation(int limit) {
+            this.flushConsolidationLimit = limit;
+        }
+
+        public void setMaxQueuedRequests(int limit) {
+            this.maxQueuedRequests = limit;
+        }
+
         void bootstrapServer() throws Exception {
-            NettyServerRouter nsr = new NettyServerRouter(new ImmutableMap.Builder<String, Object>().build());
+            NettyServerRouter nsr = new NettyServerRouter(maxQueuedRequests == null
+                    ? new ImmutableMap.Builder<String, Object>().build()
+                    : ImmutableMap.of("--max-queued-requests", maxQueuedRequests.toString()));
             bossGroup = new NioEventLoopGroup(1, new ThreadFactory() {
                 final AtomicInteger threadNum = new AtomicInteger(0);
 
@@ -467,6 +844,10 @@ public class NettyCommTest extends AbstractCorfuTest {
                     .childHandler(new ChannelInitializer<SocketChannel>() {
                         @Override
                         public void initChannel(io.netty.channel.socket.SocketChannel ch) throws Exception {
+                            if (flushConsolidationLimit > 0) {
+                                ch.pipeline().addLast("flush",
+                                        new FlushConsolidationHandler(flushConsolidationLimit, true));
+                            }
                             if (tlsEnabled) {
                                 SSLEngine engine = sslContext.newEngine(ch.alloc());
                                 engine.setEnabledCipherSuites(enabledTlsCipherSuites);
@@ -481,6 +862,8 @@ public class NettyCommTest extends AbstractCorfuTest {
                             if (saslPlainTextAuthEnabled) {
                                 ch.pipeline().addLast("sasl/plain-text", new PlainTextSaslNettyServer());
                             }
+                            ch.pipeline().addLast(ee, new NettyCompressionCodec(
+                                    new MetricRegistry(), "compression."));
                             ch.pipeline().addLast(ee, new NettyCorfuMessageDecoder());
                             ch.pipeline().addLast(ee, new NettyCorfuMessageEncoder());
                             ch.pipeline().addLast(ee, nsr);
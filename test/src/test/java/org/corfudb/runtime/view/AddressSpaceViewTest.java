@@ -7,10 +7,12 @@ import org.corfudb.infrastructure.LogUnitServerAssertions;
 import org.corfudb.infrastructure.TestLayoutBuilder;
 import org.corfudb.protocols.wireprotocol.*;
 import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.clients.TestRule;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -162,4 +164,128 @@ public class AddressSpaceViewTest extends AbstractViewTest {
         assertThat(m.get(ADDRESS_1).isHole());
         assertThat(m.get(ADDRESS_2).isHole());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void readAllIsSentToEachStripe() {
+        CorfuRuntime r = getRuntime().connect();
+        final long epoch = r.getLayoutView().getLayout().getEpoch();
+        final int numStripes = 3;
+        final int numAddresses = 10;
+
+        List<Long> addresses = new ArrayList<>();
+        for (long address = 0; address < numAddresses; address++) {
+            r.getAddressSpaceView().write(new Token(address, epoch),
+                    String.valueOf(address).getBytes());
+            addresses.add(address);
+        }
+
+        r.getAddressSpaceView().resetCaches();
+        AtomicInteger multipleReads = new AtomicInteger();
+        AtomicInteger singleReads = new AtomicInteger();
+        addClientRule(r, new TestRule()
+                .matches(m -> m.getMsgType() == CorfuMsgType.MULTIPLE_READ_REQUEST)
+                .transform(m -> multipleReads.incrementAndGet()));
+        addClientRule(r, new TestRule()
+                .matches(m -> m.getMsgType() == CorfuMsgType.READ_REQUEST)
+                .transform(m -> singleReads.incrementAndGet()));
+
+        Map<Long, ILogData> m = r.getAddressSpaceView().read(addresses);
+        for (long address : addresses) {
+            assertThat(m.get(address).getPayload(r))
+                    .isEqualTo(String.valueOf(address).getBytes());
+        }
+        // Each stripe is read once, and no address is read again from its own stripe.
+        assertThat(multipleReads.get()).isEqualTo(numStripes);
+        assertThat(singleReads.get()).isZero();
+    }
+
+    @Test
+    public void readAllIsNotRunOnTheCommonPool() {
+        CorfuRuntime r = getRuntime().connect();
+        final long epoch = r.getLayoutView().getLayout().getEpoch();
+        final int numAddresses = 10;
+
+        List<Long> addresses = new ArrayList<>();
+        for (long address = 0; address < numAddresses; address++) {
+            r.getAddressSpaceView().write(new Token(address, epoch),
+                    String.valueOf(address).getBytes());
+            addresses.add(address);
+        }
+
+        r.getAddressSpaceView().resetCaches();
+        Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        addClientRule(r, new TestRule()
+                .matches(m -> m.getMsgType() == CorfuMsgType.MULTIPLE_READ_REQUEST)
+                .transform(m -> threads.add(Thread.currentThread().getName())));
+        assertThat(r.getAddressSpaceView().read(addresses)).hasSize(numAddresses);
+        assertThat(threads).isNotEmpty();
+        for (String thread : threads) {
+            assertThat(thread).doesNotContain("ForkJoinPool");
+        }
+    }
+
+    @Test
+    public void peekServesCachedEntries() {
+        CorfuRuntime r = getRuntime().connect();
+        final long epoch = r.getLayoutView().getLayout().getEpoch();
+        final int numAddresses = 10;
+
+        List<Long> addresses = new ArrayList<>();
+        for (long address = 0; address < numAddresses; address++) {
+            r.getAddressSpaceView().write(new Token(address, epoch),
+                    String.valueOf(address).getBytes());
+            addresses.add(address);
+        }
+        r.getAddressSpaceView().read(addresses);
+
+        AtomicInteger reads = new AtomicInteger();
+        addClientRule(r, new TestRule()
+                .matches(m -> m.getMsgType() == CorfuMsgType.READ_REQUEST
+                        || m.getMsgType() == CorfuMsgType.MULTIPLE_READ_REQUEST)
+                .transform(m -> reads.incrementAndGet()));
+        Map<Long, ILogData> m = r.getAddressSpaceView().peek(addresses);
+        for (long address : addresses) {
+            assertThat(m.get(address).getPayload(r))
+                    .isEqualTo(String.valueOf(address).getBytes());
+        }
+        assertThat(reads.get()).isZero();
+    }
+
+    @Test
+    public void cacheIsBoundedInBytesAndSpillsOffHeap() {
+        CorfuRuntime r = getRuntime();
+        final int payloadSize = 1000;
+        final int numAddresses = 10;
+        final long maxCacheBytes = payloadSize * 2;
+        r.setMaxCacheBytes(maxCacheBytes);
+        r.setOffHeapCacheBytes(maxCacheBytes * numAddresses);
+        r.getAddressSpaceView().resetCaches();
+        r.connect();
+        final long epoch = r.getLayoutView().getLayout().getEpoch();
+
+        List<Long> addresses = new ArrayList<>();
+        for (long address = 0; address < numAddresses; address++) {
+            byte[] payload = new byte[payloadSize];
+            Arrays.fill(payload, (byte) address);
+            r.getAddressSpaceView().write(new Token(address, epoch), payload);
+            addresses.add(address);
+        }
+        r.getAddressSpaceView().readCache.cleanUp();
+        assertThat(r.getAddressSpaceView().readCache.estimatedSize())
+                .isLessThan(numAddresses);
+
+        // Every address is either still on the heap, or was moved off it when evicted.
+        AtomicInteger reads = new AtomicInteger();
+        addClientRule(r, new TestRule()
+                .matches(m -> m.getMsgType() == CorfuMsgType.READ_REQUEST
+                        || m.getMsgType() == CorfuMsgType.MULTIPLE_READ_REQUEST)
+                .transform(m -> reads.incrementAndGet()));
+        for (long address : addresses) {
+            byte[] payload = new byte[payloadSize];
+            Arrays.fill(payload, (byte) address);
+            assertThat(r.getAddressSpaceView().read(address).getPayload(r))
+                    .isEqualTo(payload);
+        }
+        assertThat(reads.get()).isZero();
+    }
+}
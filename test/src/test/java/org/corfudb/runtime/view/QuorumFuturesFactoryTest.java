@@ -260,4 +260,36 @@ public class QuorumFuturesFactoryTest extends AbstractCorfuTest {
         assertTrue(result.isConflict());
     }
 
+    @Test
+    public void testCompletableFutureCompletesOnQuorum() throws Exception {
+        CompletableFuture<String> f1 = new CompletableFuture<>();
+        CompletableFuture<String> f2 = new CompletableFuture<>();
+        CompletableFuture<String> f3 = new CompletableFuture<>();
+        CompletableFuture<String> result = QuorumFuturesFactory
+                .getQuorumFuture(String::compareTo, f1, f2, f3).toCompletableFuture();
+        f2.complete("ok");
+        assertFalse(result.isDone());
+        f3.complete("ok");
+        assertEquals("ok", result.getNow(null));
+    }
+
+    @Test
+    public void testCompletableFutureFailsWithoutQuorum() throws Exception {
+        CompletableFuture<String> f1 = new CompletableFuture<>();
+        CompletableFuture<String> f2 = new CompletableFuture<>();
+        CompletableFuture<String> f3 = new CompletableFuture<>();
+        CompletableFuture<String> result = QuorumFuturesFactory
+                .getQuorumFuture(String::compareTo, f1, f2, f3).toCompletableFuture();
+        f1.complete("ok");
+        f2.completeExceptionally(new ConnectionException("unreachable"));
+        assertFalse(result.isDone());
+        f3.complete("not-ok");
+        try {
+            result.get(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis(), TimeUnit.MILLISECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof QuorumUnreachableException);
+        }
+    }
+
 }
@@ -1,12 +1,19 @@
 package org.corfudb.runtime.view;
 
 import lombok.Getter;
+import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.Token;
+import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.view.stream.IStreamView;
 import org.junit.Test;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -80,4 +87,96 @@ public class SequencerViewTest extends AbstractViewTest {
         assertThat(r.getSequencerView().nextToken(Collections.singleton(streamB), 1).getBackpointerMap())
                 .containsEntry(streamB, 1L);
     }
+
+    @Test
+    public void leasedTokensAreChainedByBackpointers() {
+        CorfuRuntime r = getDefaultRuntime();
+        final int leaseSize = PARAMETERS.NUM_ITERATIONS_LOW;
+        r.setTokenLeaseSize(leaseSize);
+        UUID streamA = UUID.nameUUIDFromBytes("stream A".getBytes());
+
+        for (int i = 0; i < leaseSize; i++) {
+            TokenResponse token = r.getSequencerView()
+                    .nextLeasedToken(Collections.singleton(streamA));
+            assertThat(token.getToken()).isEqualTo(new Token(i, 0L));
+            assertThat(token.getBackpointerMap())
+                    .containsEntry(streamA, i == 0 ? Address.NON_EXIST : i - 1);
+        }
+
+        // The whole block was leased by a single request, and the next request leases a new block.
+        assertThat(r.getSequencerView().nextToken(Collections.singleton(streamA), 0).getToken())
+                .isEqualTo(new Token(leaseSize - 1, 0L));
+        TokenResponse token = r.getSequencerView().nextLeasedToken(Collections.singleton(streamA));
+        assertThat(token.getTokenValue()).isEqualTo(leaseSize);
+        assertThat(token.getBackpointerMap()).containsEntry(streamA, (long) leaseSize - 1);
+    }
+
+    @Test
+    public void concurrentLeasedTokensShareOneBlock() throws Exception {
+        CorfuRuntime r = getDefaultRuntime();
+        final int leaseSize = PARAMETERS.NUM_ITERATIONS_LOW;
+        final int numThreads = PARAMETERS.CONCURRENCY_SOME;
+        r.setTokenLeaseSize(leaseSize);
+        // The block is not released while the threads start, however slowly they do.
+        r.setTokenLeaseIdleTimeout(Duration.ZERO);
+        UUID streamA = UUID.nameUUIDFromBytes("stream A".getBytes());
+
+        Set<Long> addresses = ConcurrentHashMap.newKeySet();
+        scheduleConcurrently(numThreads, t -> addresses.add(r.getSequencerView()
+                .nextLeasedToken(Collections.singleton(streamA)).getTokenValue()));
+        executeScheduled(numThreads, PARAMETERS.TIMEOUT_LONG);
+
+        // Every thread took a distinct token from the single block which was leased. The
+        // request for the block may be retried under load, so the block need not be the first.
+        assertThat(addresses).hasSize(numThreads);
+        long first = Collections.min(addresses);
+        assertThat(first % leaseSize).isEqualTo(0L);
+        assertThat(Collections.max(addresses)).isLessThan(first + leaseSize);
+    }
+
+    @Test
+    public void releasedLeaseHoleFillsUnusedTokens() {
+        CorfuRuntime r = getDefaultRuntime();
+        final int leaseSize = PARAMETERS.NUM_ITERATIONS_LOW;
+        r.setTokenLeaseSize(leaseSize);
+        UUID streamA = UUID.nameUUIDFromBytes("stream A".getBytes());
+
+        final byte[] payloadA = "a".getBytes();
+        final byte[] payloadB = "b".getBytes();
+        r.getStreamsView().get(streamA).append(payloadA);
+        r.getSequencerView().releaseLease(Collections.singleton(streamA)).join();
+
+        for (long address = 1; address < leaseSize; address++) {
+            assertThat(r.getAddressSpaceView().peek(address).isHole()).isTrue();
+        }
+
+        // The stream is still readable through the backpointers, and hole filled entries.
+        r.getStreamsView().get(streamA).append(payloadB);
+        IStreamView sv = r.getStreamsView().get(streamA);
+        assertThat(sv.remaining().stream().map(d -> (byte[]) d.getPayload(r))
+                .collect(Collectors.toList()))
+                .containsExactly(payloadA, payloadB);
+    }
+
+    @Test
+    public void idleLeaseIsReleased() throws Exception {
+        CorfuRuntime r = getDefaultRuntime();
+        final int leaseSize = PARAMETERS.NUM_ITERATIONS_LOW;
+        final Duration idleTimeout = Duration.ofMillis(1);
+        r.setTokenLeaseSize(leaseSize);
+        r.setTokenLeaseIdleTimeout(idleTimeout);
+        UUID streamA = UUID.nameUUIDFromBytes("stream A".getBytes());
+
+        r.getStreamsView().get(streamA).append("a".getBytes());
+
+        // The unused tokens of the lease are hole filled without any further append.
+        for (long address = 1; address < leaseSize; address++) {
+            ILogData data = r.getAddressSpaceView().peek(address);
+            while (data == null) {
+                Thread.sleep(idleTimeout.toMillis());
+                data = r.getAddressSpaceView().peek(address);
+            }
+            assertThat(data.isHole()).isTrue();
+        }
+    }
 }
@@ -1,9 +1,11 @@
 package org.corfudb.runtime.view;
 
 import lombok.Getter;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.clients.TestRule;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.view.stream.IStreamView;
 import org.junit.Before;
@@ -12,6 +14,7 @@ import org.junit.Test;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -149,6 +152,59 @@ public class StreamViewTest extends AbstractViewTest {
                 .isEqualTo(null);
     }
 
+    /** Read a stream one entry at a time, checking that each of its entries is returned in
+     * order, and count the reads of single entries the reading thread sends itself.
+     *
+     * @param streamId      The ID of the stream, whose entries are their own indices.
+     * @param numEntries    The number of entries in the stream.
+     * @param window        The stream prefetch window to read with.
+     * @return              The number of reads of single entries sent by the reading thread.
+     */
+    int readOneEntryAtATime(UUID streamId, int numEntries, int window) {
+        final Thread readerThread = Thread.currentThread();
+        AtomicInteger singleReads = new AtomicInteger();
+        clearClientRules(r);
+        addClientRule(r, new TestRule()
+                .matches(m -> m.getMsgType() == CorfuMsgType.READ_REQUEST
+                        && Thread.currentThread() == readerThread)
+                .transform(m -> singleReads.incrementAndGet()));
+        AtomicInteger commonPoolReads = new AtomicInteger();
+        addClientRule(r, new TestRule()
+                .matches(m -> Thread.currentThread().getName().contains("ForkJoinPool"))
+                .transform(m -> commonPoolReads.incrementAndGet()));
+
+        r.setStreamPrefetchWindow(window);
+        IStreamView reader = r.getStreamsView().get(streamId);
+        for (int i = 0; i < numEntries; i++) {
+            assertThat(reader.next().getPayload(r))
+                    .isEqualTo(String.valueOf(i).getBytes());
+        }
+        assertThat(reader.next()).isNull();
+        // The entries read ahead block on the prefetch threads, not the common pool.
+        assertThat(commonPoolReads.get()).isZero();
+        return singleReads.get();
+    }
+
+    @Test
+    public void streamReadsAheadOfItsPointer()
+            throws Exception {
+        UUID streamA = UUID.nameUUIDFromBytes("stream A".getBytes());
+        final int numEntries = PARAMETERS.NUM_ITERATIONS_LOW;
+        final int window = 8;
+        r.setCacheDisabled(true);
+
+        IStreamView sv = r.getStreamsView().get(streamA);
+        for (int i = 0; i < numEntries; i++) {
+            sv.append(String.valueOf(i).getBytes());
+        }
+
+        // Entries read ahead are served from the prefetched window, so the reading
+        // thread no longer reads most entries itself.
+        final int withoutReadAhead = readOneEntryAtATime(streamA, numEntries, 0);
+        final int withReadAhead = readOneEntryAtATime(streamA, numEntries, window);
+        assertThat(withReadAhead).isLessThan(withoutReadAhead - numEntries / 2);
+    }
+
     @Test
     public void canSeekOnStream()
         throws Exception
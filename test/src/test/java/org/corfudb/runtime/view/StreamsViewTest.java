@@ -1,12 +1,16 @@
 package org.corfudb.runtime.view;
 
 import lombok.Getter;
+import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.view.stream.IStreamView;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -58,4 +62,50 @@ public class StreamsViewTest extends AbstractViewTest {
                 .isEqualTo(null);
     }
 
+    @Test
+    public void asyncAppendsAndReadsFromOneThread()
+            throws Exception {
+        CorfuRuntime r = getDefaultRuntime().connect();
+        UUID streamA = CorfuRuntime.getStreamID("stream A");
+
+        // Every append is in flight before the first one is waited for.
+        List<CompletableFuture<Long>> appends = new ArrayList<>();
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_MODERATE; i++) {
+            appends.add(r.getStreamsView().appendAsync(Collections.singleton(streamA),
+                    ("payload" + i).getBytes(), null));
+        }
+
+        List<CompletableFuture<ILogData>> reads = new ArrayList<>();
+        for (CompletableFuture<Long> append : appends) {
+            reads.add(r.getAddressSpaceView().readAsync(append.join()));
+        }
+        for (int i = 0; i < reads.size(); i++) {
+            assertThat(reads.get(i).join().getPayload(r))
+                    .isEqualTo(("payload" + i).getBytes());
+        }
+
+        IStreamView sv = r.getStreamsView().get(streamA);
+        assertThat(sv.remaining())
+                .hasSize(PARAMETERS.NUM_ITERATIONS_MODERATE);
+    }
+
+    @Test
+    public void asyncAppendRetriesWhenOverwritten()
+            throws Exception {
+        CorfuRuntime r = getDefaultRuntime().connect();
+        UUID streamA = CorfuRuntime.getStreamID("stream A");
+        byte[] testPayload = "hello world".getBytes();
+
+        // Hole fill the address the sequencer issues next.
+        long next = r.getSequencerView().nextToken(Collections.emptySet(), 0)
+                .getTokenValue() + 1;
+        r.getAddressSpaceView().fillHole(next);
+
+        long address = r.getStreamsView().appendAsync(Collections.singleton(streamA),
+                testPayload, null).get();
+        assertThat(address)
+                .isGreaterThan(next);
+        assertThat(r.getAddressSpaceView().readAsync(address).get().getPayload(r))
+                .isEqualTo(testPayload);
+    }
 }
@@ -109,4 +109,35 @@ public abstract class AbstractReplicationProtocolTest extends AbstractViewTest {
         assertThatThrownBy(() -> rp.write(layout, d2))
                 .isInstanceOf(OverwriteException.class);
     }
+
+    /** Check that the asynchronous writes and reads behave
+     * like the blocking ones, hole filling unwritten addresses.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canWriteReadAsync()
+            throws Exception {
+        setupNodes();
+
+        //begin tests
+        final CorfuRuntime r = getDefaultRuntime();
+        final IReplicationProtocol rp = getProtocol();
+        final Layout layout = r.getLayoutView().getLayout();
+
+        rp.writeAsync(layout, getLogData(0, "hello world".getBytes())).join();
+        ILogData read = rp.readAsync(layout, 0).join();
+
+        assertThat(read.getType())
+                .isEqualTo(DataType.DATA);
+        assertThat(read.getPayload(r))
+                .isEqualTo("hello world".getBytes());
+
+        assertThatThrownBy(() -> rp.writeAsync(layout, getLogData(0, "2".getBytes())).join())
+                .hasCauseInstanceOf(OverwriteException.class);
+
+        read = rp.readAsync(layout, 1).join();
+
+        assertThat(read.getType())
+                .isEqualTo(DataType.HOLE);
+    }
 }
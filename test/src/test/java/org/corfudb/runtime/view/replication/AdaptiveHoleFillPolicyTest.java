@@ -0,0 +1,92 @@
+package org.corfudb.runtime.view.replication;
+
+import org.corfudb.AbstractCorfuTest;
+import org.corfudb.protocols.wireprotocol.DataType;
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.exceptions.HoleFillRequiredException;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdaptiveHoleFillPolicyTest extends AbstractCorfuTest {
+
+    private static final double PERCENTILE = 99.0;
+
+    private final CorfuRuntime runtime = new CorfuRuntime();
+
+    private final AdaptiveHoleFillPolicy policy = runtime.getAdaptiveHoleFillPolicy();
+
+    private final long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(
+            CorfuRuntime.HOLE_FILL_WAIT_MS * runtime.getParameters().getHoleFillRetry());
+
+    @Test
+    public void waitsTheFixedTimeUntilWritesAreMeasured() {
+        runtime.getParameters().setHoleFillWaitPercentile(PERCENTILE);
+        assertThat(policy.getWaitNanos()).isEqualTo(maxWaitNanos);
+    }
+
+    @Test
+    public void waitAdaptsToWriteLatency() throws Exception {
+        runtime.getParameters().setHoleFillWaitPercentile(PERCENTILE);
+        final long writeNanos = AdaptiveHoleFillPolicy.MIN_WAIT_NANOS;
+        for (int i = 0; i < AdaptiveHoleFillPolicy.MIN_WRITE_SAMPLES; i++) {
+            policy.recordWrite(writeNanos);
+        }
+        assertThat(policy.getWaitNanos())
+                .isEqualTo(writeNanos * AdaptiveHoleFillPolicy.SAFETY_FACTOR);
+
+        // An address which is never written is hole filled long before the fixed time.
+        final long start = System.nanoTime();
+        assertThatThrownBy(() -> policy.peekUntilHoleFillRequired(0L, a -> null))
+                .isInstanceOf(HoleFillRequiredException.class);
+        assertThat(System.nanoTime() - start).isLessThan(maxWaitNanos);
+
+        // An address which is written while waiting is returned.
+        final ILogData written = new LogData(DataType.DATA, new byte[0]);
+        final AtomicInteger peeks = new AtomicInteger();
+        assertThat(policy.peekUntilHoleFillRequired(0L,
+                a -> peeks.incrementAndGet() > 1 ? written : null))
+                .isSameAs(written);
+    }
+
+    @Test
+    public void waitIsNeverShorterThanTheFloor() {
+        runtime.getParameters().setHoleFillWaitPercentile(PERCENTILE);
+        for (int i = 0; i < AdaptiveHoleFillPolicy.MIN_WRITE_SAMPLES; i++) {
+            policy.recordWrite(1L);
+        }
+        assertThat(policy.getWaitNanos())
+                .isEqualTo(AdaptiveHoleFillPolicy.MIN_WAIT_NANOS);
+    }
+
+    @Test
+    public void asyncWaitAdaptsToWriteLatency() throws Exception {
+        runtime.getParameters().setHoleFillWaitPercentile(PERCENTILE);
+        final long writeNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        for (int i = 0; i < AdaptiveHoleFillPolicy.MIN_WRITE_SAMPLES; i++) {
+            policy.recordWrite(writeNanos);
+        }
+
+        // An address which is never written is hole filled long before the fixed time.
+        final long start = System.nanoTime();
+        assertThatThrownBy(() -> policy.peekUntilHoleFillRequiredAsync(0L,
+                a -> CompletableFuture.completedFuture(null)).join())
+                .hasCauseInstanceOf(HoleFillRequiredException.class);
+        assertThat(System.nanoTime() - start).isLessThan(maxWaitNanos);
+
+        // An address which is written while waiting is returned.
+        final ILogData written = new LogData(DataType.DATA, new byte[0]);
+        final AtomicInteger peeks = new AtomicInteger();
+        assertThat(policy.peekUntilHoleFillRequiredAsync(0L,
+                a -> CompletableFuture.completedFuture(peeks.incrementAndGet() > 1
+                        ? written : null)).join())
+                .isSameAs(written);
+    }
+}
@@ -1,10 +1,19 @@
 package org.corfudb.runtime.view.replication;
 
+import com.codahale.metrics.Meter;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.corfudb.infrastructure.TestLayoutBuilder;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.clients.LogUnitClient;
+import org.corfudb.runtime.clients.TestRule;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.view.Layout;
 import org.junit.Test;
@@ -106,4 +115,248 @@ public class ChainReplicationProtocolTest extends AbstractReplicationProtocolTes
         assertThat(readResult.getPayload(r))
                 .isEqualTo("incomplete".getBytes());
     }
+
+    /** Check that reads of committed addresses are spread across
+     * the chain, while uncommitted addresses are read from the tail.
+     */
+    @Test
+    public void committedReadsAreSpreadAcrossReplicas()
+            throws Exception {
+        setupNodes();
+        //begin tests
+        final CorfuRuntime r = getDefaultRuntime();
+        final ReplicaSelector selector = new ReplicaSelector(r);
+        final IReplicationProtocol rp = new ChainReplicationProtocol(
+                new AlwaysHoleFillPolicy(), selector);
+        final Layout layout = r.getLayoutView().getLayout();
+        final int numAddresses = 10;
+        final int[] ports = {SERVERS.PORT_0, SERVERS.PORT_1, SERVERS.PORT_2};
+
+        for (int i = 0; i < numAddresses; i++) {
+            rp.write(layout, getLogData(i, ("data" + i).getBytes()));
+        }
+        assertThat(selector.isCommitted(layout, 0, numAddresses - 1))
+                .isTrue();
+        assertThat(selector.isCommitted(layout, 0, numAddresses))
+                .isFalse();
+
+        // A write which only reached the head is not committed.
+        r.getRouter(SERVERS.ENDPOINT_0).getClient(LogUnitClient.class)
+                .write(getLogData(numAddresses, "incomplete".getBytes())).get();
+
+        final AtomicInteger[] reads = new AtomicInteger[ports.length];
+        for (int i = 0; i < ports.length; i++) {
+            final AtomicInteger counter = new AtomicInteger();
+            reads[i] = counter;
+            addServerRule(ports[i], new TestRule()
+                    .matches(m -> m.getMsgType() == CorfuMsgType.READ_RESPONSE)
+                    .transform(m -> counter.incrementAndGet()));
+        }
+
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+            assertThat(rp.read(layout, i % numAddresses).getPayload(r))
+                    .isEqualTo(("data" + i % numAddresses).getBytes());
+        }
+        for (AtomicInteger counter : reads) {
+            assertThat(counter.get())
+                    .isGreaterThan(0);
+        }
+
+        reads[ports.length - 1].set(0);
+        assertThat(rp.peek(layout, numAddresses))
+                .isNull();
+        assertThat(reads[ports.length - 1].get())
+                .isEqualTo(1);
+    }
+
+    /** Check that range reads of committed addresses are spread across
+     * the chain when the reader starts far from the beginning of the log.
+     */
+    @Test
+    public void committedRangeReadsAreSpreadFromAnyAddress()
+            throws Exception {
+        setupNodes();
+        //begin tests
+        final CorfuRuntime r = getDefaultRuntime();
+        final ReplicaSelector selector = new ReplicaSelector(r);
+        final IReplicationProtocol rp = new ChainReplicationProtocol(
+                new AlwaysHoleFillPolicy(), selector);
+        final Layout layout = r.getLayoutView().getLayout();
+        final long startAddress = 1000;
+        final int numAddresses = 100;
+        final int[] ports = {SERVERS.PORT_0, SERVERS.PORT_1, SERVERS.PORT_2};
+
+        final Set<Long> addresses = new HashSet<>();
+        for (long a = startAddress; a < startAddress + numAddresses; a++) {
+            rp.write(layout, getLogData(a, ("data" + a).getBytes()));
+            addresses.add(a);
+        }
+        assertThat(selector.isCommitted(layout, startAddress,
+                startAddress + numAddresses - 1))
+                .isTrue();
+        assertThat(selector.isCommitted(layout, startAddress - 1, startAddress))
+                .isFalse();
+
+        final AtomicInteger[] reads = new AtomicInteger[ports.length];
+        for (int i = 0; i < ports.length; i++) {
+            final AtomicInteger counter = new AtomicInteger();
+            reads[i] = counter;
+            addServerRule(ports[i], new TestRule()
+                    .matches(m -> m.getMsgType() == CorfuMsgType.READ_RESPONSE)
+                    .transform(m -> counter.incrementAndGet()));
+        }
+
+        for (int i = 0; i < ports.length; i++) {
+            Map<Long, ILogData> result = rp.readRange(layout, addresses);
+            assertThat(result)
+                    .hasSize(numAddresses);
+            assertThat(result.get(startAddress).getPayload(r))
+                    .isEqualTo(("data" + startAddress).getBytes());
+        }
+        for (AtomicInteger counter : reads) {
+            assertThat(counter.get())
+                    .isGreaterThan(0);
+        }
+    }
+
+    /** Check that the addresses known to be committed are forgotten
+     * when the chain changes, so a read right after the change goes
+     * to the tail of the new chain.
+     */
+    @Test
+    public void committedAddressesAreForgottenOnChainChange()
+            throws Exception {
+        setupNodes();
+        //begin tests
+        final CorfuRuntime r = getDefaultRuntime();
+        final ReplicaSelector selector = new ReplicaSelector(r);
+        final IReplicationProtocol rp = new ChainReplicationProtocol(
+                new AlwaysHoleFillPolicy(), selector);
+        final Layout layout = r.getLayoutView().getLayout();
+        final int numAddresses = 10;
+
+        for (int i = 0; i < numAddresses; i++) {
+            rp.write(layout, getLogData(i, ("data" + i).getBytes()));
+        }
+        assertThat(selector.isCommitted(layout, 0))
+                .isTrue();
+
+        // Reverse the chain in a new epoch.
+        final Layout newLayout = new TestLayoutBuilder()
+                .setEpoch(layout.getEpoch() + 1)
+                .addLayoutServer(SERVERS.PORT_0)
+                .addSequencer(SERVERS.PORT_0)
+                .buildSegment()
+                .setReplicationMode(Layout.ReplicationMode.CHAIN_REPLICATION)
+                .buildStripe()
+                .addLogUnit(SERVERS.PORT_2)
+                .addLogUnit(SERVERS.PORT_1)
+                .addLogUnit(SERVERS.PORT_0)
+                .addToSegment()
+                .addToLayout()
+                .build();
+        newLayout.setRuntime(r);
+        newLayout.moveServersToEpoch();
+        for (String server : newLayout.getAllServers()) {
+            r.getRouter(server).setEpoch(newLayout.getEpoch());
+        }
+        assertThat(selector.isCommitted(newLayout, 0))
+                .isFalse();
+        assertThat(selector.isCommitted(newLayout, 0, numAddresses - 1))
+                .isFalse();
+
+        final int[] ports = {SERVERS.PORT_0, SERVERS.PORT_1, SERVERS.PORT_2};
+        final AtomicInteger[] reads = new AtomicInteger[ports.length];
+        for (int i = 0; i < ports.length; i++) {
+            final AtomicInteger counter = new AtomicInteger();
+            reads[i] = counter;
+            addServerRule(ports[i], new TestRule()
+                    .matches(m -> m.getMsgType() == CorfuMsgType.READ_RESPONSE)
+                    .transform(m -> counter.incrementAndGet()));
+        }
+
+        assertThat(rp.read(newLayout, 0).getPayload(r))
+                .isEqualTo("data0".getBytes());
+        assertThat(reads[0].get())
+                .isEqualTo(1);
+        assertThat(reads[1].get() + reads[2].get())
+                .isEqualTo(0);
+
+        // A write with the old layout does not bring back what was forgotten.
+        assertThat(selector.isCommitted(newLayout, 0))
+                .isTrue();
+        selector.setCommitted(layout, numAddresses - 1);
+        assertThat(selector.isCommitted(newLayout, numAddresses - 1))
+                .isFalse();
+    }
+
+    /** Check that a read of a committed address which a replica
+     * does not answer is hedged to another replica.
+     */
+    @Test
+    public void hedgedReadsAvoidAStalledReplica()
+            throws Exception {
+        setupNodes();
+        //begin tests
+        final CorfuRuntime r = getDefaultRuntime();
+        final double hedgePercentile = 50;
+        r.setHedgedReadPercentile(hedgePercentile);
+        final IReplicationProtocol rp = new ChainReplicationProtocol(
+                new AlwaysHoleFillPolicy(), new ReplicaSelector(r));
+        final Layout layout = r.getLayoutView().getLayout();
+        final int numAddresses = 10;
+
+        for (int i = 0; i < numAddresses; i++) {
+            rp.write(layout, getLogData(i, ("data" + i).getBytes()));
+        }
+        // Measure enough reads to hedge.
+        for (int i = 0; i < ReplicaSelector.MIN_HEDGE_SAMPLES; i++) {
+            rp.read(layout, i % numAddresses);
+        }
+
+        // The head of the chain stops answering reads.
+        addServerRule(SERVERS.PORT_0, new TestRule()
+                .matches(m -> m.getMsgType() == CorfuMsgType.READ_RESPONSE)
+                .drop());
+
+        // A replica which was slow to warm up is skipped for a few reads.
+        final Meter wins = r.getMetrics().meter(CorfuRuntime.getMpASV() + "hedged-read-wins");
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_MODERATE && wins.getCount() == 0; i++) {
+            assertThat(rp.read(layout, i % numAddresses).getPayload(r))
+                    .isEqualTo(("data" + i % numAddresses).getBytes());
+        }
+        assertThat(wins.getCount())
+                .isGreaterThan(0);
+    }
+
+    /** Check that pipelined writes and hole fills reach every unit of the chain.
+     */
+    @Test
+    public void pipelinedWritesReachEveryUnit()
+            throws Exception {
+        setupNodes();
+        //begin tests
+        final CorfuRuntime r = getDefaultRuntime();
+        final ChainReplicationProtocol rp = new ChainReplicationProtocol(
+                new AlwaysHoleFillPolicy(), null, true);
+        final Layout layout = r.getLayoutView().getLayout();
+        final int numAddresses = 10;
+        final String[] endpoints = {SERVERS.ENDPOINT_0, SERVERS.ENDPOINT_1, SERVERS.ENDPOINT_2};
+
+        for (int i = 0; i < numAddresses; i++) {
+            rp.write(layout, getLogData(i, ("data" + i).getBytes()));
+        }
+        rp.holeFill(layout, numAddresses);
+
+        for (String endpoint : endpoints) {
+            LogUnitClient client = r.getRouter(endpoint).getClient(LogUnitClient.class);
+            for (int i = 0; i < numAddresses; i++) {
+                assertThat(client.read(i).get().getAddresses().get((long) i).getPayload(r))
+                        .isEqualTo(("data" + i).getBytes());
+            }
+            assertThat(client.read(numAddresses).get().getAddresses()
+                    .get((long) numAddresses).isHole())
+                    .isTrue();
+        }
+    }
 }
@@ -1,9 +1,17 @@
 package org.corfudb.runtime.view.stream;
 
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.clients.TestRule;
 import org.corfudb.runtime.view.AbstractViewTest;
+import org.corfudb.runtime.view.Address;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -137,4 +145,65 @@ public class BackpointerStreamViewTest extends AbstractViewTest {
         assertThat(((BackpointerStreamView) svB).getBackpointerCount()).isEqualTo(1L);
     }
 
+    /**
+     * Test that the entries of a stream interleaved regularly with another stream are read
+     * ahead in bulk, rather than one round trip per entry.
+     */
+    @Test
+    public void backpointersAreReadAhead() {
+        CorfuRuntime runtime = getDefaultRuntime();
+        IStreamView svA = runtime.getStreamsView().get(CorfuRuntime.getStreamID("streamA"));
+        IStreamView svB = runtime.getStreamsView().get(CorfuRuntime.getStreamID("streamB"));
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+            svA.append(String.valueOf(i).getBytes());
+            svB.append(String.valueOf(i).getBytes());
+        }
+
+        runtime.getAddressSpaceView().resetCaches();
+        AtomicInteger reads = new AtomicInteger();
+        addClientRule(runtime, new TestRule()
+                .matches(m -> m.getMsgType() == CorfuMsgType.READ_REQUEST
+                        || m.getMsgType() == CorfuMsgType.MULTIPLE_READ_REQUEST)
+                .transform(m -> reads.incrementAndGet()));
+
+        IStreamView sv = runtime.getStreamsView().get(CorfuRuntime.getStreamID("streamA"));
+        List<ILogData> entries = sv.remainingUpTo(Address.MAX);
+        assertThat(entries).hasSize(PARAMETERS.NUM_ITERATIONS_LOW);
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+            assertThat(new String((byte[]) entries.get(i).getPayload(runtime)))
+                    .isEqualTo(String.valueOf(i));
+        }
+        assertThat(((BackpointerStreamView) sv).getBackpointerCount())
+                .isEqualTo(PARAMETERS.NUM_ITERATIONS_LOW);
+        assertThat(reads.get()).isLessThan(PARAMETERS.NUM_ITERATIONS_LOW / 2);
+    }
+
+    /**
+     * Test that an address predicted to hold an entry of the stream, but which was never
+     * written, is neither waited for nor hole filled by the read ahead.
+     */
+    @Test
+    public void readAheadDoesNotHoleFill() {
+        CorfuRuntime runtime = getDefaultRuntime();
+        IStreamView svA = runtime.getStreamsView().get(CorfuRuntime.getStreamID("streamA"));
+        IStreamView svB = runtime.getStreamsView().get(CorfuRuntime.getStreamID("streamB"));
+        svA.append("head".getBytes());
+        // A token which is acquired, but not written yet, lies where the stride of
+        // streamA predicts an entry.
+        final long unwritten = runtime.getSequencerView()
+                .nextToken(Collections.emptySet(), 1).getTokenValue();
+        svB.append("0".getBytes());
+        for (int i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+            svA.append(String.valueOf(i).getBytes());
+            svB.append(String.valueOf(i).getBytes());
+        }
+
+        runtime.getAddressSpaceView().resetCaches();
+        IStreamView sv = runtime.getStreamsView().get(CorfuRuntime.getStreamID("streamA"));
+        List<ILogData> entries = sv.remainingUpTo(Address.MAX);
+        assertThat(entries).hasSize(PARAMETERS.NUM_ITERATIONS_LOW + 1);
+        assertThat(new String((byte[]) entries.get(0).getPayload(runtime)))
+                .isEqualTo("head");
+        assertThat(runtime.getAddressSpaceView().peek(unwritten)).isNull();
+    }
 }
@@ -0,0 +1,70 @@
+package org.corfudb.util;
+
+import org.corfudb.AbstractCorfuTest;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrentLongObjectMapTest extends AbstractCorfuTest {
+
+    private static final int CONCURRENCY_LEVEL = 4;
+
+    @Test
+    public void valuesAreMappedByKey() {
+        ConcurrentLongObjectMap<String> map = new ConcurrentLongObjectMap<>(CONCURRENCY_LEVEL);
+        assertThat(map.put(0L, "a")).isNull();
+        assertThat(map.put(1L, "b")).isNull();
+        assertThat(map.put(0L, "c")).isEqualTo("a");
+
+        assertThat(map.get(0L)).isEqualTo("c");
+        assertThat(map.get(1L)).isEqualTo("b");
+        assertThat(map.get(2L)).isNull();
+        assertThat(map.size()).isEqualTo(2);
+
+        assertThat(map.remove(1L)).isEqualTo("b");
+        assertThat(map.remove(1L)).isNull();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void removeAllReturnsEveryValue() {
+        ConcurrentLongObjectMap<Long> map = new ConcurrentLongObjectMap<>(CONCURRENCY_LEVEL);
+        for (long i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+            map.put(i, i);
+        }
+        assertThat(map.removeAll()).hasSize(PARAMETERS.NUM_ITERATIONS_LOW);
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    public void removeIfReturnsMatchingValues() {
+        ConcurrentLongObjectMap<Long> map = new ConcurrentLongObjectMap<>(CONCURRENCY_LEVEL);
+        for (long i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+            map.put(i, i);
+        }
+        List<Long> removed = map.removeIf(v -> v % 2 == 0);
+        assertThat(removed).hasSize(PARAMETERS.NUM_ITERATIONS_LOW / 2);
+        assertThat(removed.stream().allMatch(v -> v % 2 == 0)).isTrue();
+        assertThat(map.size()).isEqualTo(PARAMETERS.NUM_ITERATIONS_LOW / 2);
+        assertThat(map.get(1L)).isEqualTo(1L);
+    }
+
+    @Test
+    public void concurrentUpdatesAreNotLost() throws Exception {
+        ConcurrentLongObjectMap<Long> map = new ConcurrentLongObjectMap<>(CONCURRENCY_LEVEL);
+        scheduleConcurrently(PARAMETERS.CONCURRENCY_SOME, t -> {
+            for (long i = 0; i < PARAMETERS.NUM_ITERATIONS_LOW; i++) {
+                long key = t * PARAMETERS.NUM_ITERATIONS_LOW + i;
+                map.put(key, key);
+            }
+        });
+        executeScheduled(PARAMETERS.CONCURRENCY_SOME, PARAMETERS.TIMEOUT_NORMAL);
+
+        assertThat(map.size())
+                .isEqualTo(PARAMETERS.CONCURRENCY_SOME * PARAMETERS.NUM_ITERATIONS_LOW);
+        assertThat(map.get(PARAMETERS.NUM_ITERATIONS_LOW + 1)).isEqualTo(
+                (long) PARAMETERS.NUM_ITERATIONS_LOW + 1);
+    }
+}
@@ -0,0 +1,55 @@
+package org.corfudb.util;
+
+import org.corfudb.AbstractCorfuTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpaceSavingSketchTest extends AbstractCorfuTest {
+
+    private static final int CAPACITY = 8;
+
+    @Test
+    public void countsAreExactBelowCapacity() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(CAPACITY);
+        sketch.add("a", 1);
+        sketch.add("b", 1);
+        sketch.add("a", 1);
+
+        Map<String, Long> top = sketch.top(CAPACITY);
+        assertThat(new ArrayList<>(top.keySet())).containsExactly("a", "b");
+        assertThat(top.get("a")).isEqualTo(2L);
+        assertThat(top.get("b")).isEqualTo(1L);
+        assertThat(sketch.top(1)).containsOnlyKeys("a");
+        assertThat(sketch.getTotal()).isEqualTo(top.get("a") + top.get("b"));
+    }
+
+    @Test
+    public void heavyHittersAreTrackedBeyondCapacity() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(CAPACITY);
+        final int numUpdates = PARAMETERS.NUM_ITERATIONS_MODERATE;
+        for (int i = 0; i < numUpdates; i++) {
+            // Every other update is to the same hot item, the rest are all distinct.
+            sketch.add(i % 2 == 0 ? "hot" : Integer.toString(i), 1);
+        }
+
+        Map<String, Long> top = sketch.top(1);
+        assertThat(top).containsOnlyKeys("hot");
+        // The count of a tracked item is never underestimated.
+        assertThat(top.get("hot")).isGreaterThanOrEqualTo(numUpdates / 2);
+        assertThat(sketch.top(numUpdates)).hasSize(CAPACITY);
+    }
+
+    @Test
+    public void clearRemovesAllItems() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(CAPACITY);
+        sketch.add("a", 1);
+        sketch.clear();
+
+        assertThat(sketch.top(CAPACITY)).isEmpty();
+        assertThat(sketch.getTotal()).isZero();
+    }
+}